@@ -0,0 +1,23 @@
+package aplicacion;
+
+/**
+ * Enum que indica cuánto espera una operación de venta o uso de tiquetes por su persistencia.
+ * <p>
+ * Solo aplica cuando el repositorio de tiquetes está en modo journal; en otro caso toda
+ * operación se persiste de forma síncrona.
+ * </p>
+ *
+ * <b>Contexto:</b> Usado por {@link ServicioVentaTiquetes} al encolar eventos en la cola de persistencia.
+ *
+ * @author Sistema Parque
+ * @example
+ * <pre>
+ *     servicio.venderTiqueteGeneral(cliente, CategoriaTiquete.ORO, 100.0, Durabilidad.SIN_ESPERA);
+ * </pre>
+ */
+public enum Durabilidad {
+    /** Retorna cuando el evento está escrito y sincronizado en disco. */
+    ESPERAR_DISCO,
+    /** Retorna apenas el evento queda encolado; la escritura ocurre en el siguiente lote. */
+    SIN_ESPERA
+}
@@ -0,0 +1,158 @@
+package aplicacion;
+
+import dominio.empleado.Capacitacion;
+import dominio.empleado.Empleado;
+import dominio.trabajo.LugarTrabajo;
+import dominio.trabajo.Turno;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Estado de los requisitos de personal de un lugar de trabajo en una fecha y turno.
+ * <p>
+ * Además de indicar si el lugar cumple, detalla qué le falta: empleados hasta el mínimo exigido,
+ * un empleado que el lugar acepte, las capacitaciones que no tienen los empleados asignados y,
+ * en tiendas y taquillas, el cajero con MANEJO_CAJA.
+ * </p>
+ *
+ * <b>Contexto:</b> Lo calcula {@link MotorCumplimientoPersonal} con las mismas reglas que
+ * {@link ServicioGestionEmpleados#verificarRequisitosPersonalLugar}. Es inmutable.
+ *
+ * @author Sistema Parque
+ */
+public class EstadoCumplimientoPersonal {
+    private final LugarTrabajo lugarTrabajo;
+    private final LocalDate fecha;
+    private final Turno turno;
+    private final int empleadosAsignados;
+    private final int empleadosNecesarios;
+    private final int empleadosAptos;
+    private final List<Empleado> empleadosNoAptos;
+    private final long capacitacionesFaltantes;
+    private final boolean faltaCajero;
+    // Requisitos del lugar al calcular el estado: si el lugar se edita en el lugar, el estado deja de valer
+    private final long mascaraRequerida;
+
+    EstadoCumplimientoPersonal(LugarTrabajo lugarTrabajo, LocalDate fecha, Turno turno, int empleadosAsignados,
+                               int empleadosNecesarios, int empleadosAptos, List<Empleado> empleadosNoAptos,
+                               long capacitacionesFaltantes, boolean faltaCajero) {
+        this.lugarTrabajo = lugarTrabajo;
+        this.fecha = fecha;
+        this.turno = turno;
+        this.empleadosAsignados = empleadosAsignados;
+        this.empleadosNecesarios = empleadosNecesarios;
+        this.empleadosAptos = empleadosAptos;
+        this.empleadosNoAptos = Collections.unmodifiableList(empleadosNoAptos);
+        this.capacitacionesFaltantes = capacitacionesFaltantes;
+        this.faltaCajero = faltaCajero;
+        this.mascaraRequerida = lugarTrabajo.getMascaraCapacitacionesRequeridas();
+    }
+
+    // Si el estado sigue valiendo para ese lugar: misma instancia y mismos requisitos que al calcularlo
+    boolean vigentePara(LugarTrabajo lugar) {
+        return lugarTrabajo == lugar && mascaraRequerida == lugar.getMascaraCapacitacionesRequeridas()
+                && empleadosNecesarios == ServicioGestionEmpleados.empleadosNecesarios(lugar);
+    }
+
+    public LugarTrabajo getLugarTrabajo() {
+        return lugarTrabajo;
+    }
+
+    public LocalDate getFecha() {
+        return fecha;
+    }
+
+    public Turno getTurno() {
+        return turno;
+    }
+
+    public int getEmpleadosAsignados() {
+        return empleadosAsignados;
+    }
+
+    /**
+     * @return Mínimo de empleados que exige el lugar por turno (0 si no tiene mínimo explícito).
+     */
+    public int getEmpleadosNecesarios() {
+        return empleadosNecesarios;
+    }
+
+    /**
+     * @return Empleados que faltan hasta el mínimo exigido; 0 si se alcanza.
+     */
+    public int getEmpleadosFaltantes() {
+        return Math.max(0, empleadosNecesarios - empleadosAsignados);
+    }
+
+    /**
+     * @return Empleados asignados que el lugar acepta por tipo y capacitaciones.
+     */
+    public int getEmpleadosAptos() {
+        return empleadosAptos;
+    }
+
+    /**
+     * @return true si ningún empleado asignado es aceptado por el lugar (incluye no tener ninguno asignado).
+     */
+    public boolean isSinEmpleadoApto() {
+        return empleadosAptos == 0;
+    }
+
+    /**
+     * @return Empleados asignados que el lugar no acepta por tipo o capacitaciones.
+     */
+    public List<Empleado> getEmpleadosNoAptos() {
+        return empleadosNoAptos;
+    }
+
+    /**
+     * Capacitaciones requeridas por el lugar que le faltan a algún empleado asignado no apto.
+     * Si no hay nadie asignado, son todas las requeridas.
+     *
+     * @return Conjunto de capacitaciones faltantes; vacío si no falta ninguna.
+     */
+    public Set<Capacitacion> getCapacitacionesFaltantes() {
+        return Capacitacion.desdeMascara(capacitacionesFaltantes);
+    }
+
+    /**
+     * @return true si el lugar exige cajero y ningún asignado es un Cajero con MANEJO_CAJA.
+     */
+    public boolean isFaltaCajero() {
+        return faltaCajero;
+    }
+
+    /**
+     * @return true si el lugar cumple todos sus requisitos de personal en esta fecha y turno.
+     */
+    public boolean cumple() {
+        return getEmpleadosFaltantes() == 0 && !isSinEmpleadoApto() && !faltaCajero;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(lugarTrabajo.getNombreLugar()).append(' ').append(fecha).append(' ').append(turno).append(": ");
+        if (cumple()) {
+            return sb.append("cumple requisitos").toString();
+        }
+        sb.append("incumple");
+        if (getEmpleadosFaltantes() > 0) {
+            sb.append(", faltan ").append(getEmpleadosFaltantes()).append(" empleado(s) (necesarios ")
+              .append(empleadosNecesarios).append(", asignados ").append(empleadosAsignados).append(')');
+        }
+        if (isSinEmpleadoApto()) {
+            sb.append(", ningún empleado apto");
+        }
+        if (capacitacionesFaltantes != 0) {
+            sb.append(", capacitaciones faltantes ").append(getCapacitacionesFaltantes());
+        }
+        if (faltaCajero) {
+            sb.append(", falta cajero con MANEJO_CAJA");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,201 @@
+package aplicacion;
+
+import dominio.empleado.Empleado;
+import dominio.excepciones.DatosInvalidosException;
+import dominio.trabajo.AsignacionTurno;
+import dominio.trabajo.IndiceAsignaciones;
+import dominio.trabajo.LugarTrabajo;
+import dominio.trabajo.Turno;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Motor que evalúa los requisitos de personal de todos los lugares de trabajo de un día.
+ * <p>
+ * Un reporte evalúa cada lugar × turno de la fecha en una sola pasada paralela, leyendo del
+ * {@link IndiceAsignaciones} solo las asignaciones de esa celda. Los estados calculados se conservan por
+ * fecha: al agregar o quitar una asignación se recalcula únicamente su celda, y una celda cuyo lugar cambió
+ * sus requisitos se recalcula al pedirla, así que los reportes siguientes del mismo día solo evalúan lo que
+ * cambió o lo que aún no se había evaluado.
+ * </p>
+ *
+ * <b>Contexto:</b> Lo mantiene {@link ServicioGestionEmpleados}, que le avisa de cada asignación agregada o
+ * cancelada y lo invalida cuando cambian las capacitaciones de un empleado.
+ *
+ * <b>Poscondiciones generales:</b>
+ * <ul>
+ *   <li>Cada celda se recalcula con exclusión mutua, siempre después del cambio que la provocó, así que
+ *       dos cambios concurrentes de la misma celda no dejan un estado viejo.</li>
+ * </ul>
+ *
+ * @author Sistema Parque
+ * @example
+ * <pre>
+ *     MotorCumplimientoPersonal motor = new MotorCumplimientoPersonal(indice);
+ *     ReporteCumplimientoPersonal reporte = motor.evaluar(fecha, lugares);
+ *     indice.agregar(asignacion);
+ *     motor.asignacionCambiada(asignacion);
+ * </pre>
+ */
+public class MotorCumplimientoPersonal {
+    private final IndiceAsignaciones asignaciones;
+    // Fecha -> clave del lugar -> turno -> estado calculado
+    private final Map<LocalDate, Map<String, Map<Turno, EstadoCumplimientoPersonal>>> estados =
+            new ConcurrentHashMap<>();
+
+    /**
+     * @param asignaciones Índice de asignaciones que se evalúa.
+     * @throws DatosInvalidosException si el índice es nulo.
+     */
+    public MotorCumplimientoPersonal(IndiceAsignaciones asignaciones) {
+        if (asignaciones == null) {
+            throw new DatosInvalidosException("El índice de asignaciones no puede ser nulo.");
+        }
+        this.asignaciones = asignaciones;
+    }
+
+    /**
+     * Evalúa todos los lugares dados en todos los turnos de la fecha.
+     *
+     * <b>Precondiciones:</b> La fecha y la colección de lugares no deben ser nulas.
+     * <b>Poscondiciones:</b> Las celdas no evaluadas antes quedan calculadas y conservadas.
+     *
+     * @param fecha Fecha a evaluar.
+     * @param lugares Lugares de trabajo; se ignoran los nulos y los repetidos.
+     * @return Reporte con un estado por lugar y turno, en el orden de los lugares dados.
+     * @throws DatosInvalidosException si la fecha o los lugares son nulos.
+     */
+    public ReporteCumplimientoPersonal evaluar(LocalDate fecha, Collection<? extends LugarTrabajo> lugares) {
+        if (fecha == null || lugares == null) {
+            throw new DatosInvalidosException("La fecha y los lugares no pueden ser nulos para evaluar el cumplimiento.");
+        }
+        long inicio = System.nanoTime();
+        Map<String, Map<Turno, EstadoCumplimientoPersonal>> delDia = delDia(fecha);
+        List<LugarTrabajo> distintos = new ArrayList<>(new LinkedHashSet<LugarTrabajo>(lugares));
+        distintos.removeIf(Objects::isNull);
+        List<EstadoCumplimientoPersonal> resultado = distintos.parallelStream()
+                .flatMap(l -> Arrays.stream(Turno.values()).map(t -> estado(delDia, l, fecha, t)))
+                .toList();
+        return new ReporteCumplimientoPersonal(fecha, resultado, Duration.ofNanos(System.nanoTime() - inicio));
+    }
+
+    /**
+     * Obtiene el estado de un lugar en una fecha y turno, calculándolo si aún no se había evaluado.
+     *
+     * @param lugarTrabajo Lugar de trabajo.
+     * @param fecha Fecha.
+     * @param turno Turno.
+     * @return Estado actual de la celda.
+     * @throws DatosInvalidosException si algún parámetro es nulo.
+     */
+    public EstadoCumplimientoPersonal evaluar(LugarTrabajo lugarTrabajo, LocalDate fecha, Turno turno) {
+        if (lugarTrabajo == null || fecha == null || turno == null) {
+            throw new DatosInvalidosException("Lugar de trabajo, fecha y turno no pueden ser nulos para evaluar el cumplimiento.");
+        }
+        return estado(delDia(fecha), lugarTrabajo, fecha, turno);
+    }
+
+    /**
+     * Recalcula la celda de una asignación ya agregada o quitada del índice. Las celdas que nunca se
+     * evaluaron no se tocan: se calcularán cuando se pidan.
+     *
+     * @param asignacion Asignación que cambió; se ignoran las de Servicio General.
+     */
+    public void asignacionCambiada(AsignacionTurno asignacion) {
+        if (asignacion == null || asignacion.getLugarTrabajo() == null || asignacion.getFecha() == null) {
+            return;
+        }
+        Map<String, Map<Turno, EstadoCumplimientoPersonal>> delDia = estados.get(asignacion.getFecha());
+        Map<Turno, EstadoCumplimientoPersonal> delLugar =
+                delDia != null ? delDia.get(asignacion.getLugarTrabajo().getClaveLugar()) : null;
+        if (delLugar == null) {
+            return;
+        }
+        delLugar.compute(asignacion.getTurno(),
+                (t, _) -> calcular(asignacion.getLugarTrabajo(), asignacion.getFecha(), t));
+    }
+
+    /**
+     * Descarta los estados de una fecha; se recalculan al volver a pedirlos.
+     *
+     * @param fecha Fecha a descartar.
+     */
+    public void invalidar(LocalDate fecha) {
+        if (fecha != null) {
+            estados.remove(fecha);
+        }
+    }
+
+    /**
+     * Descarta los estados de un lugar en todas las fechas, p. ej. porque se actualizó el elemento.
+     *
+     * @param lugarTrabajo Lugar a descartar.
+     */
+    public void invalidar(LugarTrabajo lugarTrabajo) {
+        if (lugarTrabajo != null) {
+            estados.values().forEach(delDia -> delDia.remove(lugarTrabajo.getClaveLugar()));
+        }
+    }
+
+    /**
+     * Descarta todos los estados, p. ej. porque cambiaron las capacitaciones de algún empleado.
+     */
+    public void invalidar() {
+        estados.clear();
+    }
+
+    /**
+     * Evalúa los requisitos de personal de un lugar con los empleados asignados dados.
+     * Un lugar cumple si alcanza su mínimo de empleados, acepta al menos a uno de ellos y,
+     * si es tienda o taquilla, cuenta con un Cajero con MANEJO_CAJA.
+     */
+    static EstadoCumplimientoPersonal evaluar(LugarTrabajo lugarTrabajo, LocalDate fecha, Turno turno,
+                                              List<Empleado> asignados) {
+        long requerida = lugarTrabajo.getMascaraCapacitacionesRequeridas();
+        int aptos = 0;
+        List<Empleado> noAptos = new ArrayList<>();
+        long faltantes = asignados.isEmpty() ? requerida : 0L;
+        boolean hayCajero = false;
+        for (Empleado e : asignados) {
+            if (lugarTrabajo.puedeAsignarEmpleado(e)) {
+                aptos++;
+            } else {
+                noAptos.add(e);
+                faltantes |= requerida & ~e.getMascaraCapacitaciones();
+            }
+            hayCajero |= ServicioGestionEmpleados.esCajeroCapacitado(e);
+        }
+        boolean faltaCajero = ServicioGestionEmpleados.requiereCajero(lugarTrabajo) && !hayCajero;
+        return new EstadoCumplimientoPersonal(lugarTrabajo, fecha, turno, asignados.size(),
+                ServicioGestionEmpleados.empleadosNecesarios(lugarTrabajo), aptos, noAptos, faltantes, faltaCajero);
+    }
+
+    private Map<String, Map<Turno, EstadoCumplimientoPersonal>> delDia(LocalDate fecha) {
+        return estados.computeIfAbsent(fecha, _ -> new ConcurrentHashMap<>());
+    }
+
+    // Un estado calculado con otra instancia del lugar (p. ej. antes de recargar la atracción) o con otros
+    // requisitos (la atracción se editó en el lugar, p. ej. con actualizarAtraccion) se recalcula
+    private EstadoCumplimientoPersonal estado(Map<String, Map<Turno, EstadoCumplimientoPersonal>> delDia,
+                                              LugarTrabajo lugar, LocalDate fecha, Turno turno) {
+        return delDia.computeIfAbsent(lugar.getClaveLugar(), _ -> new ConcurrentHashMap<>())
+                .compute(turno, (t, previo) ->
+                        previo != null && previo.vigentePara(lugar) ? previo : calcular(lugar, fecha, t));
+    }
+
+    private EstadoCumplimientoPersonal calcular(LugarTrabajo lugar, LocalDate fecha, Turno turno) {
+        List<Empleado> asignados = asignaciones.porLugarFechaYTurno(lugar, fecha, turno).stream()
+                .map(AsignacionTurno::getEmpleado)
+                .toList();
+        return evaluar(lugar, fecha, turno, asignados);
+    }
+}
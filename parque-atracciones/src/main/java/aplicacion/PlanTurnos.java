@@ -0,0 +1,134 @@
+package aplicacion;
+
+import dominio.trabajo.AsignacionTurno;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resultado de una planificación automática de turnos ({@link PlanificadorTurnos}).
+ * <p>
+ * Contiene las asignaciones propuestas (sin aplicar) y la calidad del plan: cuántos puestos y cuántos
+ * turnos de lugar (lugar × fecha × turno) quedaron cubiertos. Si el presupuesto de tiempo se agotó antes
+ * de terminar la búsqueda, el plan es parcial y {@link #isBusquedaCompleta()} devuelve false.
+ * </p>
+ *
+ * <b>Contexto:</b> Lo produce {@link ServicioGestionEmpleados#planificarTurnos} y se aplica con
+ * {@link ServicioGestionEmpleados#aplicarPlan}.
+ *
+ * @author Sistema Parque
+ * @example
+ * <pre>
+ *     PlanTurnos plan = servicio.planificarTurnos(desde, hasta, lugares, Duration.ofSeconds(5));
+ *     if (plan.getPuntaje() == 1.0) {
+ *         servicio.aplicarPlan(plan);
+ *     }
+ * </pre>
+ */
+public class PlanTurnos {
+    private final LocalDate desde;
+    private final LocalDate hasta;
+    private final List<AsignacionTurno> asignaciones;
+    private final int puestosRequeridos;
+    private final int puestosCubiertos;
+    private final int turnosLugar;
+    private final int turnosLugarCompletos;
+    private final boolean busquedaCompleta;
+    private final Duration duracion;
+
+    PlanTurnos(LocalDate desde, LocalDate hasta, List<AsignacionTurno> asignaciones, int puestosRequeridos,
+               int puestosCubiertos, int turnosLugar, int turnosLugarCompletos, boolean busquedaCompleta,
+               Duration duracion) {
+        this.desde = desde;
+        this.hasta = hasta;
+        this.asignaciones = Collections.unmodifiableList(asignaciones);
+        this.puestosRequeridos = puestosRequeridos;
+        this.puestosCubiertos = puestosCubiertos;
+        this.turnosLugar = turnosLugar;
+        this.turnosLugarCompletos = turnosLugarCompletos;
+        this.busquedaCompleta = busquedaCompleta;
+        this.duracion = duracion;
+    }
+
+    public LocalDate getDesde() {
+        return desde;
+    }
+
+    public LocalDate getHasta() {
+        return hasta;
+    }
+
+    /**
+     * @return Asignaciones nuevas propuestas, ordenadas por fecha y turno. No incluye las ya existentes.
+     */
+    public List<AsignacionTurno> getAsignaciones() {
+        return asignaciones;
+    }
+
+    /**
+     * @return Puestos que exigen los lugares en todo el rango (cada lugar pide al menos uno por turno).
+     */
+    public int getPuestosRequeridos() {
+        return puestosRequeridos;
+    }
+
+    /**
+     * @return Puestos cubiertos, contando las asignaciones que ya existían.
+     */
+    public int getPuestosCubiertos() {
+        return puestosCubiertos;
+    }
+
+    /**
+     * @return Número de combinaciones lugar × fecha × turno planificadas.
+     */
+    public int getTurnosLugar() {
+        return turnosLugar;
+    }
+
+    /**
+     * @return Combinaciones lugar × fecha × turno que cumplen todos sus requisitos de personal.
+     */
+    public int getTurnosLugarCompletos() {
+        return turnosLugarCompletos;
+    }
+
+    /**
+     * Calidad del plan: fracción de turnos de lugar que cumplen todos sus requisitos.
+     *
+     * @return Valor entre 0 y 1; 1 si todos los lugares quedan cubiertos en todos los turnos.
+     */
+    public double getPuntaje() {
+        return turnosLugar == 0 ? 1.0 : (double) turnosLugarCompletos / turnosLugar;
+    }
+
+    /**
+     * @return Fracción de puestos requeridos que quedaron cubiertos, entre 0 y 1.
+     */
+    public double getCobertura() {
+        return puestosRequeridos == 0 ? 1.0 : (double) puestosCubiertos / puestosRequeridos;
+    }
+
+    /**
+     * @return false si el presupuesto de tiempo se agotó y algún turno quedó sin planificar del todo.
+     */
+    public boolean isBusquedaCompleta() {
+        return busquedaCompleta;
+    }
+
+    public Duration getDuracion() {
+        return duracion;
+    }
+
+    @Override
+    public String toString() {
+        return "PlanTurnos{" + desde + " - " + hasta +
+               ", asignaciones=" + asignaciones.size() +
+               ", turnosLugarCompletos=" + turnosLugarCompletos + "/" + turnosLugar +
+               ", puestosCubiertos=" + puestosCubiertos + "/" + puestosRequeridos +
+               ", busquedaCompleta=" + busquedaCompleta +
+               ", duracion=" + duracion.toMillis() + "ms}";
+    }
+}
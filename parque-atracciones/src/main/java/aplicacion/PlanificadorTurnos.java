@@ -0,0 +1,458 @@
+package aplicacion;
+
+import dominio.empleado.Empleado;
+import dominio.empleado.IndiceCapacitaciones;
+import dominio.excepciones.DatosInvalidosException;
+import dominio.trabajo.AsignacionTurno;
+import dominio.trabajo.LugarTrabajo;
+import dominio.trabajo.Turno;
+
+import java.io.Serial;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BiFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Planificador automático de turnos para un rango de fechas.
+ * <p>
+ * Cada lugar de trabajo ofrece por turno tantos puestos como exige ({@code getEmpleadosMinimos} o
+ * {@code getEmpleadosRequeridos}, al menos uno), y en tiendas y taquillas el primer puesto es de cajero:
+ * solo lo cubre un Cajero con MANEJO_CAJA. Un empleado ocupa como máximo un puesto por fecha y turno y
+ * solo puestos de lugares que lo aceptan ({@link LugarTrabajo#puedeAsignarEmpleado}). Son las mismas
+ * reglas de {@link ServicioGestionEmpleados#verificarRequisitosPersonalLugar}.
+ * </p>
+ * <p>
+ * Como esas reglas no relacionan turnos distintos, cada par (fecha, turno) es un bloque independiente y
+ * los bloques se resuelven en paralelo sobre un {@link ForkJoinPool}. Dentro de un bloque los puestos se
+ * cubren con caminos aumentantes (emparejamiento bipartito), lugar por lugar y empezando por los más
+ * difíciles de cubrir; un lugar que no se puede completar se deja para el final, de modo que no consuma
+ * empleados que completarían otros. Mientras quede presupuesto de tiempo se reintenta con otros órdenes
+ * y se conserva el mejor resultado. Al agotarse el presupuesto se devuelve lo hallado hasta ese momento.
+ * </p>
+ *
+ * <b>Contexto:</b> Lo usa {@link ServicioGestionEmpleados#planificarTurnos} para proponer los turnos de
+ * una semana o un mes en lugar de asignarlos uno a uno.
+ *
+ * <b>Precondiciones generales:</b> Los empleados tienen identificaciones únicas y los lugares no cambian
+ * sus requisitos durante la planificación.
+ * <b>Poscondiciones generales:</b> Toda asignación propuesta cumple las reglas anteriores, teniendo en
+ * cuenta las asignaciones que ya existían.
+ *
+ * @author Sistema Parque
+ * @example
+ * <pre>
+ *     PlanificadorTurnos planificador = new PlanificadorTurnos(empleados, lugares);
+ *     PlanTurnos plan = planificador.planificar(desde, hasta, Duration.ofSeconds(5), (f, t) -&gt; List.of());
+ * </pre>
+ */
+public class PlanificadorTurnos {
+
+    // Reintentos por bloque cuando el primer orden no cubre todos los lugares
+    private static final int MAX_INTENTOS_POR_BLOQUE = 64;
+    // Se deja de reintentar tras tantos intentos seguidos sin mejorar
+    private static final int MAX_INTENTOS_SIN_MEJORA = 8;
+
+    private final Empleado[] empleados;
+    private final Map<String, Integer> indiceEmpleado = new HashMap<>();
+    private final LugarTrabajo[] lugares;
+    private final Map<LugarTrabajo, Integer> indiceLugar = new HashMap<>();
+    private final boolean[] conCajero;      // el primer puesto del lugar exige cajero
+    private final int[] primerPuesto;       // los puestos del lugar l son [primerPuesto[l], primerPuesto[l + 1])
+    private final int[] lugarDePuesto;
+    private final int[][] elegibles;        // empleados que el lugar acepta
+    private final int[][] cajeros;          // elegibles que además cubren el puesto de cajero
+    private final BitSet[] esElegible;
+    private final BitSet[] esCajero;
+    private final int[] ordenInicial;       // lugares de menos a más candidatos por puesto
+    private final ForkJoinPool pool;
+
+    /**
+     * Crea un planificador que usa el pool común de fork-join.
+     *
+     * @param empleados Empleados disponibles.
+     * @param lugares Lugares a cubrir.
+     */
+    public PlanificadorTurnos(Collection<? extends Empleado> empleados, Collection<? extends LugarTrabajo> lugares) {
+        this(empleados, lugares, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Crea un planificador. La elegibilidad de cada empleado para cada lugar se calcula aquí una sola vez;
+     * solo se consulta a {@code puedeAsignarEmpleado} por los empleados cuyo perfil de capacitaciones
+     * contiene la máscara que exige el lugar.
+     *
+     * @param empleados Empleados disponibles.
+     * @param lugares Lugares a cubrir (se ignoran los repetidos).
+     * @param pool Pool donde se resuelven los bloques (fecha, turno).
+     * @throws DatosInvalidosException si alguna colección o el pool es nulo.
+     */
+    public PlanificadorTurnos(Collection<? extends Empleado> empleados, Collection<? extends LugarTrabajo> lugares,
+                              ForkJoinPool pool) {
+        if (empleados == null || lugares == null || pool == null) {
+            throw new DatosInvalidosException("Empleados, lugares y pool no pueden ser nulos para planificar turnos.");
+        }
+        this.pool = pool;
+        this.empleados = empleados.toArray(new Empleado[0]);
+        for (int e = 0; e < this.empleados.length; e++) {
+            indiceEmpleado.put(this.empleados[e].getIdentificacion(), e);
+        }
+        List<LugarTrabajo> distintos = new ArrayList<>();
+        for (LugarTrabajo l : lugares) {
+            if (l != null && indiceLugar.putIfAbsent(l, distintos.size()) == null) {
+                distintos.add(l);
+            }
+        }
+        this.lugares = distintos.toArray(new LugarTrabajo[0]);
+
+        int n = this.lugares.length;
+        conCajero = new boolean[n];
+        primerPuesto = new int[n + 1];
+        for (int l = 0; l < n; l++) {
+            conCajero[l] = ServicioGestionEmpleados.requiereCajero(this.lugares[l]);
+            // Todo lugar necesita al menos un empleado asignable para cumplir sus requisitos
+            int puestos = Math.max(1, ServicioGestionEmpleados.empleadosNecesarios(this.lugares[l]));
+            primerPuesto[l + 1] = primerPuesto[l] + puestos;
+        }
+        lugarDePuesto = new int[primerPuesto[n]];
+        for (int l = 0; l < n; l++) {
+            Arrays.fill(lugarDePuesto, primerPuesto[l], primerPuesto[l + 1], l);
+        }
+
+        elegibles = new int[n][];
+        cajeros = new int[n][];
+        esElegible = new BitSet[n];
+        esCajero = new BitSet[n];
+        boolean[] cajeroCapacitado = new boolean[this.empleados.length];
+        for (int e = 0; e < this.empleados.length; e++) {
+            cajeroCapacitado[e] = ServicioGestionEmpleados.esCajeroCapacitado(this.empleados[e]);
+        }
+        IndiceCapacitaciones porPerfil = new IndiceCapacitaciones(Arrays.asList(this.empleados));
+        for (int l = 0; l < n; l++) {
+            LugarTrabajo lugar = this.lugares[l];
+            int[] acepta = porPerfil.empleadosCon(lugar.getMascaraCapacitacionesRequeridas()).stream()
+                    .filter(lugar::puedeAsignarEmpleado)
+                    .mapToInt(e -> indiceEmpleado.get(e.getIdentificacion()))
+                    .sorted()
+                    .toArray();
+            elegibles[l] = acepta;
+            cajeros[l] = Arrays.stream(acepta).filter(e -> cajeroCapacitado[e]).toArray();
+            esElegible[l] = aBitSet(elegibles[l]);
+            esCajero[l] = aBitSet(cajeros[l]);
+        }
+
+        ordenInicial = IntStream.range(0, n).boxed()
+                .sorted(Comparator.comparingDouble(this::holgura))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    /**
+     * Planifica todos los lugares en todos los turnos del rango.
+     *
+     * <b>Precondiciones:</b> El rango es válido y el presupuesto es positivo.
+     * <b>Poscondiciones:</b> El plan respeta las asignaciones existentes y no se aplica (no modifica nada).
+     *
+     * @param desde Primera fecha (incluida).
+     * @param hasta Última fecha (incluida).
+     * @param presupuesto Tiempo máximo de búsqueda; al agotarse se devuelve el mejor plan parcial.
+     * @param existentes Asignaciones ya hechas para cada (fecha, turno): sus empleados quedan ocupados y,
+     *                   si son de un lugar planificado, cuentan como puestos cubiertos.
+     * @return Plan con las asignaciones nuevas y su puntaje.
+     * @throws DatosInvalidosException si el rango o el presupuesto son inválidos.
+     */
+    public PlanTurnos planificar(LocalDate desde, LocalDate hasta, Duration presupuesto,
+                                 BiFunction<LocalDate, Turno, ? extends Collection<AsignacionTurno>> existentes) {
+        if (desde == null || hasta == null || hasta.isBefore(desde)) {
+            throw new DatosInvalidosException("El rango de fechas a planificar es inválido: " + desde + " - " + hasta);
+        }
+        if (presupuesto == null || presupuesto.isNegative() || presupuesto.isZero()) {
+            throw new DatosInvalidosException("El presupuesto de tiempo debe ser positivo.");
+        }
+        long inicio = System.nanoTime();
+        long limite = inicio + presupuesto.toNanos();
+
+        List<Bloque> bloques = new ArrayList<>();
+        for (LocalDate fecha = desde; !fecha.isAfter(hasta); fecha = fecha.plusDays(1)) {
+            for (Turno turno : Turno.values()) {
+                Collection<AsignacionTurno> ya = existentes != null ? existentes.apply(fecha, turno) : null;
+                bloques.add(new Bloque(fecha, turno, ya != null ? ya : List.of(), limite));
+            }
+        }
+        pool.invoke(new TareaBloques(bloques, 0, bloques.size()));
+
+        List<AsignacionTurno> asignaciones = new ArrayList<>();
+        int requeridos = 0, cubiertos = 0, completos = 0;
+        boolean busquedaCompleta = true;
+        for (Bloque b : bloques) {
+            asignaciones.addAll(b.nuevas);
+            requeridos += lugarDePuesto.length;
+            cubiertos += b.cubiertos;
+            completos += b.completos;
+            busquedaCompleta &= !b.cortado;
+        }
+        return new PlanTurnos(desde, hasta, asignaciones, requeridos, cubiertos,
+                lugares.length * bloques.size(), completos, busquedaCompleta,
+                Duration.ofNanos(System.nanoTime() - inicio));
+    }
+
+    // Candidatos por puesto; los lugares con menos holgura se cubren primero
+    private double holgura(int l) {
+        int puestos = primerPuesto[l + 1] - primerPuesto[l];
+        double holgura = (double) elegibles[l].length / puestos;
+        return conCajero[l] ? Math.min(holgura, cajeros[l].length) : holgura;
+    }
+
+    private static BitSet aBitSet(int[] indices) {
+        BitSet bits = new BitSet();
+        for (int i : indices) {
+            bits.set(i);
+        }
+        return bits;
+    }
+
+    private final class TareaBloques extends RecursiveAction {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        // Las tareas no se serializan nunca: los bloques solo existen durante la planificación
+        private final transient List<Bloque> bloques;
+        private final int desde;
+        private final int hasta;
+
+        private TareaBloques(List<Bloque> bloques, int desde, int hasta) {
+            this.bloques = bloques;
+            this.desde = desde;
+            this.hasta = hasta;
+        }
+
+        @Override
+        protected void compute() {
+            if (hasta - desde == 1) {
+                bloques.get(desde).resolver();
+                return;
+            }
+            int medio = (desde + hasta) >>> 1;
+            invokeAll(new TareaBloques(bloques, desde, medio), new TareaBloques(bloques, medio, hasta));
+        }
+    }
+
+    /**
+     * Un par (fecha, turno): emparejamiento de puestos con empleados.
+     */
+    private final class Bloque {
+        private final LocalDate fecha;
+        private final Turno turno;
+        private final Collection<AsignacionTurno> existentes;
+        private final long limite;
+
+        private final int[] ocupante = new int[lugarDePuesto.length];    // puesto -> empleado o -1
+        private final int[] puestoDe = new int[empleados.length];        // empleado -> puesto o -1
+        private final boolean[] ocupado = new boolean[empleados.length]; // ya asignado antes de planificar
+        private final boolean[] fijo = new boolean[lugarDePuesto.length];
+        private final int[] visita = new int[empleados.length];
+        private int sello;
+        private boolean cortadoIntento;
+
+        // Resultado
+        private List<AsignacionTurno> nuevas = List.of();
+        private int cubiertos;
+        private int completos;
+        private boolean cortado;
+
+        private Bloque(LocalDate fecha, Turno turno, Collection<AsignacionTurno> existentes, long limite) {
+            this.fecha = fecha;
+            this.turno = turno;
+            this.existentes = existentes;
+            this.limite = limite;
+        }
+
+        private void resolver() {
+            Arrays.fill(ocupante, -1);
+            Arrays.fill(puestoDe, -1);
+            fijarExistentes();
+            int[] baseOcupante = ocupante.clone();
+            int[] basePuestoDe = puestoDe.clone();
+            int[] respaldoOcupante = new int[ocupante.length];
+            int[] respaldoPuestoDe = new int[puestoDe.length];
+
+            int[] mejor = null;
+            int mejorCompletos = -1, mejorCubiertos = -1;
+            boolean mejorCortado = true;
+            Random aleatorio = new Random(fecha.toEpochDay() * Turno.values().length + turno.ordinal());
+            int[] orden = ordenInicial.clone();
+            int[][] candidatos = elegibles;
+            int[][] candidatosCajero = cajeros;
+            int sinMejora = 0;
+
+            for (int intento = 0; intento < MAX_INTENTOS_POR_BLOQUE && sinMejora < MAX_INTENTOS_SIN_MEJORA; intento++) {
+                if (intento > 0) {
+                    if (System.nanoTime() > limite) {
+                        break;
+                    }
+                    barajar(orden, aleatorio);
+                    candidatos = barajados(elegibles, aleatorio);
+                    candidatosCajero = barajados(cajeros, aleatorio);
+                    System.arraycopy(baseOcupante, 0, ocupante, 0, ocupante.length);
+                    System.arraycopy(basePuestoDe, 0, puestoDe, 0, puestoDe.length);
+                }
+                cortadoIntento = false;
+                intentar(orden, candidatos, candidatosCajero, respaldoOcupante, respaldoPuestoDe);
+
+                int completosIntento = 0, cubiertosIntento = 0;
+                for (int l = 0; l < lugares.length; l++) {
+                    int libres = 0;
+                    for (int p = primerPuesto[l]; p < primerPuesto[l + 1]; p++) {
+                        if (ocupante[p] == -1) libres++; else cubiertosIntento++;
+                    }
+                    if (libres == 0) completosIntento++;
+                }
+                if (completosIntento > mejorCompletos
+                        || (completosIntento == mejorCompletos && cubiertosIntento > mejorCubiertos)) {
+                    mejor = ocupante.clone();
+                    mejorCompletos = completosIntento;
+                    mejorCubiertos = cubiertosIntento;
+                    mejorCortado = cortadoIntento;
+                    sinMejora = 0;
+                } else {
+                    sinMejora++;
+                }
+                if (mejorCompletos == lugares.length || cortadoIntento) {
+                    break;
+                }
+            }
+
+            List<AsignacionTurno> propuestas = new ArrayList<>();
+            for (int p = 0; p < mejor.length; p++) {
+                if (mejor[p] != -1 && !fijo[p]) {
+                    propuestas.add(new AsignacionTurno(AsignacionTurno.generarIdUnico(), empleados[mejor[p]],
+                            lugares[lugarDePuesto[p]], fecha, turno));
+                }
+            }
+            nuevas = propuestas;
+            cubiertos = mejorCubiertos;
+            completos = mejorCompletos;
+            cortado = mejorCortado;
+        }
+
+        // Las asignaciones existentes ocupan a sus empleados y, si son de un lugar planificado, un puesto
+        private void fijarExistentes() {
+            for (AsignacionTurno a : existentes) {
+                Integer e = indiceEmpleado.get(a.getEmpleado().getIdentificacion());
+                if (e == null) {
+                    continue;
+                }
+                ocupado[e] = true;
+                Integer l = a.getLugarTrabajo() != null ? indiceLugar.get(a.getLugarTrabajo()) : null;
+                if (l == null || !esElegible[l].get(e) || puestoDe[e] != -1) {
+                    continue;
+                }
+                int p = primerPuesto[l];
+                if (!(conCajero[l] && ocupante[p] == -1 && esCajero[l].get(e))) {
+                    p = primerPuesto[l] + (conCajero[l] ? 1 : 0);
+                    while (p < primerPuesto[l + 1] && ocupante[p] != -1) p++;
+                }
+                if (p < primerPuesto[l + 1]) {
+                    ocupante[p] = e;
+                    puestoDe[e] = p;
+                    fijo[p] = true;
+                }
+            }
+        }
+
+        private void intentar(int[] orden, int[][] candidatos, int[][] candidatosCajero,
+                              int[] respaldoOcupante, int[] respaldoPuestoDe) {
+            // Primero se completan lugares enteros; los que no se pueden completar se deshacen y esperan
+            List<Integer> diferidos = new ArrayList<>();
+            for (int l : orden) {
+                if (System.nanoTime() > limite) {
+                    cortadoIntento = true;
+                    return;
+                }
+                System.arraycopy(ocupante, 0, respaldoOcupante, 0, ocupante.length);
+                System.arraycopy(puestoDe, 0, respaldoPuestoDe, 0, puestoDe.length);
+                if (!cubrir(l, true, candidatos, candidatosCajero)) {
+                    System.arraycopy(respaldoOcupante, 0, ocupante, 0, ocupante.length);
+                    System.arraycopy(respaldoPuestoDe, 0, puestoDe, 0, puestoDe.length);
+                    diferidos.add(l);
+                }
+            }
+            // Con lo que sobra se cubren parcialmente los diferidos
+            for (int l : diferidos) {
+                if (System.nanoTime() > limite) {
+                    cortadoIntento = true;
+                    return;
+                }
+                cubrir(l, false, candidatos, candidatosCajero);
+            }
+        }
+
+        private boolean cubrir(int l, boolean todoONada, int[][] candidatos, int[][] candidatosCajero) {
+            boolean completo = true;
+            // El puesto de cajero es el primero, así se cubre antes que los demás
+            for (int p = primerPuesto[l]; p < primerPuesto[l + 1]; p++) {
+                if (ocupante[p] != -1) {
+                    continue;
+                }
+                sello++;
+                if (!aumentar(p, candidatos, candidatosCajero)) {
+                    completo = false;
+                    boolean puestoDeCajero = conCajero[l] && p == primerPuesto[l];
+                    // Sin cambios en el emparejamiento, los demás puestos normales del lugar también fallarían
+                    if (todoONada || !puestoDeCajero) {
+                        return false;
+                    }
+                }
+            }
+            return completo;
+        }
+
+        // Camino aumentante: los puestos ya cubiertos siguen cubiertos, aunque cambie quién los ocupa
+        private boolean aumentar(int puesto, int[][] candidatos, int[][] candidatosCajero) {
+            int l = lugarDePuesto[puesto];
+            int[] lista = conCajero[l] && puesto == primerPuesto[l] ? candidatosCajero[l] : candidatos[l];
+            for (int e : lista) {
+                if (ocupado[e] || visita[e] == sello) {
+                    continue;
+                }
+                visita[e] = sello;
+                int anterior = puestoDe[e];
+                if (anterior == -1 || aumentar(anterior, candidatos, candidatosCajero)) {
+                    ocupante[puesto] = e;
+                    puestoDe[e] = puesto;
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static void barajar(int[] valores, Random aleatorio) {
+        for (int i = valores.length - 1; i > 0; i--) {
+            int j = aleatorio.nextInt(i + 1);
+            int t = valores[i];
+            valores[i] = valores[j];
+            valores[j] = t;
+        }
+    }
+
+    private static int[][] barajados(int[][] listas, Random aleatorio) {
+        int[][] copia = new int[listas.length][];
+        for (int i = 0; i < listas.length; i++) {
+            copia[i] = listas[i].clone();
+            barajar(copia[i], aleatorio);
+        }
+        return copia;
+    }
+}
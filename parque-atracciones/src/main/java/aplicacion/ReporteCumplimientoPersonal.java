@@ -0,0 +1,70 @@
+package aplicacion;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reporte de cumplimiento de los requisitos de personal de un día: un {@link EstadoCumplimientoPersonal}
+ * por cada lugar de trabajo y turno evaluados.
+ *
+ * <b>Contexto:</b> Lo produce {@link ServicioGestionEmpleados#generarReporteCumplimiento}; es una foto
+ * del momento en que se genera y no cambia con asignaciones posteriores.
+ *
+ * @author Sistema Parque
+ * @example
+ * <pre>
+ *     ReporteCumplimientoPersonal reporte = servicio.generarReporteCumplimiento(LocalDate.now());
+ *     reporte.getIncumplimientos().forEach(System.out::println);
+ * </pre>
+ */
+public class ReporteCumplimientoPersonal {
+    private final LocalDate fecha;
+    private final List<EstadoCumplimientoPersonal> estados;
+    private final List<EstadoCumplimientoPersonal> incumplimientos;
+    private final Duration duracion;
+
+    ReporteCumplimientoPersonal(LocalDate fecha, List<EstadoCumplimientoPersonal> estados, Duration duracion) {
+        this.fecha = fecha;
+        this.estados = Collections.unmodifiableList(estados);
+        this.incumplimientos = estados.stream().filter(e -> !e.cumple()).toList();
+        this.duracion = duracion;
+    }
+
+    public LocalDate getFecha() {
+        return fecha;
+    }
+
+    /**
+     * @return Estados de todos los lugares evaluados, agrupados por lugar y en orden de turno.
+     */
+    public List<EstadoCumplimientoPersonal> getEstados() {
+        return estados;
+    }
+
+    /**
+     * @return Estados de los lugares y turnos que no cumplen sus requisitos.
+     */
+    public List<EstadoCumplimientoPersonal> getIncumplimientos() {
+        return incumplimientos;
+    }
+
+    /**
+     * @return true si todos los lugares cumplen en todos los turnos.
+     */
+    public boolean isCumpleTodo() {
+        return incumplimientos.isEmpty();
+    }
+
+    public Duration getDuracion() {
+        return duracion;
+    }
+
+    @Override
+    public String toString() {
+        return "ReporteCumplimientoPersonal{" + fecha +
+               ", cumplen=" + (estados.size() - incumplimientos.size()) + "/" + estados.size() +
+               ", duracion=" + duracion.toMillis() + "ms}";
+    }
+}
@@ -0,0 +1,62 @@
+package aplicacion;
+
+import dominio.usuario.Usuario;
+
+import java.util.function.Function;
+
+/**
+ * Resuelve el comprador de un tiquete a partir de la identificación guardada en el tiquete.
+ * <p>
+ * Busca primero entre los empleados y luego entre los clientes registrados. Devuelve siempre la
+ * instancia que mantiene el servicio correspondiente, de modo que todos los tiquetes de un mismo
+ * comprador comparten un único {@link Usuario}, con sus datos reales (estatura, peso y condiciones
+ * médicas) para las validaciones de acceso.
+ * </p>
+ *
+ * <b>Contexto:</b> Se entrega a {@link ServicioVentaTiquetes} para que los tiquetes cargados del
+ * repositorio resuelvan su comprador en el primer acceso, en lugar de crear uno por tiquete.
+ *
+ * @author Sistema Parque
+ * @example
+ * <pre>
+ *     ResolutorCompradores resolutor = new ResolutorCompradores(servicioClientes, servicioEmpleados);
+ *     ServicioVentaTiquetes servicio = new ServicioVentaTiquetes(repo, atraccionResolver, resolutor);
+ * </pre>
+ */
+public class ResolutorCompradores implements Function<String, Usuario> {
+    private final ServicioGestionClientes servicioClientes;
+    private final ServicioGestionEmpleados servicioEmpleados;
+
+    /**
+     * <b>Precondiciones:</b> Ninguna; cualquiera de los servicios puede ser null si no está disponible.
+     *
+     * @param servicioClientes Servicio de clientes registrados.
+     * @param servicioEmpleados Servicio de empleados.
+     */
+    public ResolutorCompradores(ServicioGestionClientes servicioClientes, ServicioGestionEmpleados servicioEmpleados) {
+        this.servicioClientes = servicioClientes;
+        this.servicioEmpleados = servicioEmpleados;
+    }
+
+    /**
+     * Busca el usuario con la identificación indicada.
+     *
+     * <b>Poscondiciones:</b> No modifica los servicios.
+     *
+     * @param identificacion Identificación del comprador.
+     * @return El empleado o cliente registrado, o null si no se encuentra.
+     */
+    @Override
+    public Usuario apply(String identificacion) {
+        if (identificacion == null || identificacion.isBlank()) {
+            return null;
+        }
+        if (servicioEmpleados != null) {
+            Usuario empleado = servicioEmpleados.consultarEmpleadoPorIdentificacion(identificacion).orElse(null);
+            if (empleado != null) {
+                return empleado;
+            }
+        }
+        return servicioClientes != null ? servicioClientes.getUserPorIdentificacion(identificacion) : null;
+    }
+}
@@ -25,6 +25,8 @@ public class ServicioGestionClientes {
 
     private static final String FILE_PATH = "parque-atracciones/data/users.json";
     private Map<String, Cliente> users = new HashMap<>();
+    // Índice secundario identificación -> cliente, mantenido junto con users
+    private Map<String, Cliente> usersPorIdentificacion = new HashMap<>();
     private Gson gson = new GsonBuilder()
     .registerTypeAdapter(LocalDate.class, new TypeAdapter<LocalDate>() {
             private final DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE;
@@ -65,6 +67,11 @@ public class ServicioGestionClientes {
                 new TypeToken<Map<String, Cliente>>(){}.getType());
             if (loadedUsers != null) {
                 users.putAll(loadedUsers);
+                for (Cliente c : loadedUsers.values()) {
+                    if (c != null && c.getIdentificacion() != null) {
+                        usersPorIdentificacion.put(c.getIdentificacion(), c);
+                    }
+                }
             }
         } catch (IOException e) {
             e.printStackTrace();
@@ -99,6 +106,7 @@ public class ServicioGestionClientes {
         String username = user.getUsername();
         if (userExists(username)) return false;
         users.put(username, user);
+        usersPorIdentificacion.put(user.getIdentificacion(), user);
         saveUsers();
         return true;
     }
@@ -109,7 +117,10 @@ public class ServicioGestionClientes {
 
     public boolean removeUser(String username) {
         if (!userExists(username)) return false;
-        users.remove(username);
+        Cliente eliminado = users.remove(username);
+        if (eliminado != null) {
+            usersPorIdentificacion.remove(eliminado.getIdentificacion(), eliminado);
+        }
         saveUsers();
         return true;
     }
@@ -117,6 +128,16 @@ public class ServicioGestionClientes {
         return users.get(username);
     }
 
+    /**
+     * Busca un cliente por su identificación (la que queda registrada en sus tiquetes).
+     *
+     * @param identificacion Identificación del cliente.
+     * @return El cliente registrado, o null si no existe.
+     */
+    public Cliente getUserPorIdentificacion(String identificacion) {
+        return identificacion == null ? null : usersPorIdentificacion.get(identificacion);
+    }
+
     public boolean changePassword(Usuario user, String oldPassword, String newPassword) {
         if (!userExists(user.getUsername())) return false;
         try {
@@ -10,6 +10,7 @@ import dominio.util.RangoFechaHora;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -35,6 +36,13 @@ import java.util.Optional;
 public class ServicioGestionElementosParque {
 
     private final ElementoParqueRepository elementoParqueRepository;
+    // Índice de temporadas y horarios; se construye en la primera consulta por fecha
+    private IndiceCalendario indiceCalendario;
+    // Versión del repositorio que refleja el índice: si cambió por otra vía (p. ej. una recarga), se reconstruye
+    private long versionCalendario;
+    // Tablero operativo por clima; se crea en la primera consulta y se mantiene con cada cambio de elementos
+    private TableroOperativo tableroOperativo;
+    private long versionTablero;
 
     public ServicioGestionElementosParque(ElementoParqueRepository elementoParqueRepository) {
         this.elementoParqueRepository = elementoParqueRepository;
@@ -89,6 +97,8 @@ public class ServicioGestionElementosParque {
                 nivelExclusividad, nivelRiesgo, alturaMinima, alturaMaxima, pesoMinimo, pesoMaximo,
                 contraindicaciones, restricciones, climaNoPermitido, capacitacionEspecifica);
         elementoParqueRepository.save(nueva);
+        registrarEnCalendario(nueva);
+        registrarEnTablero(nueva);
         return nueva;
     }
 
@@ -133,6 +143,8 @@ public class ServicioGestionElementosParque {
                 edadMinima, climaNoPermitido);
         nueva.setNivelExclusividad(nivelExclusividad); // Establecer nivel de exclusividad
         elementoParqueRepository.save(nueva);
+        registrarEnCalendario(nueva);
+        registrarEnTablero(nueva);
         return nueva;
     }
 
@@ -171,9 +183,43 @@ public class ServicioGestionElementosParque {
                 descripcion, horarios, climaNoPermitido);
         // Los espectáculos no tienen nivel de exclusividad según los requisitos.
         elementoParqueRepository.save(nuevo);
+        registrarEnCalendario(nuevo);
+        registrarEnTablero(nuevo);
         return nuevo;
     }
 
+    /**
+     * Obtiene la versión actual de los elementos del parque, para saber después si algo cambió.
+     *
+     * <b>Poscondiciones:</b> Devuelve la versión del repositorio (0 si el repositorio no lleva versiones).
+     *
+     * @return Versión actual de los elementos.
+     * @example
+     * <pre>
+     *     long version = servicio.consultarVersionElementos();
+     * </pre>
+     */
+    public long consultarVersionElementos() {
+        return elementoParqueRepository.getVersion();
+    }
+
+    /**
+     * Indica si algún elemento cambió desde una versión obtenida con {@link #consultarVersionElementos()}.
+     * Permite a las vistas no volver a dibujar listados que no cambiaron.
+     *
+     * <b>Poscondiciones:</b> Devuelve true si hubo cambios desde esa versión.
+     *
+     * @param version Versión obtenida antes.
+     * @return true si los elementos cambiaron.
+     * @example
+     * <pre>
+     *     if (servicio.hanCambiadoElementosDesde(versionDibujada)) { redibujar(); }
+     * </pre>
+     */
+    public boolean hanCambiadoElementosDesde(long version) {
+        return elementoParqueRepository.haCambiadoDesde(version);
+    }
+
     /**
      * Busca una atracción por su ID.
      *
@@ -290,6 +336,23 @@ public class ServicioGestionElementosParque {
         return elementoParqueRepository.findAllAtracciones();
     }
     
+    /**
+     * Obtiene una tabla inmutable id → atracción, tomada del repositorio en una sola pasada.
+     *
+     * <b>Precondiciones:</b> Ninguna.
+     * <b>Poscondiciones:</b> La tabla no refleja cambios posteriores; debe pedirse de nuevo si se necesitan.
+     *
+     * @return Mapa inmutable de atracciones indexado por ID.
+     * @example
+     * <pre>
+     *     Map<String, Atraccion> tabla = servicio.consultarTablaAtracciones();
+     *     ServicioVentaTiquetes ventas = new ServicioVentaTiquetes(repo, tabla::get);
+     * </pre>
+     */
+    public Map<String, Atraccion> consultarTablaAtracciones() {
+        return elementoParqueRepository.findAllAtraccionesById();
+    }
+
     /**
      * Obtiene todos los elementos del parque (atracciones y espectáculos).
      *
@@ -377,6 +440,8 @@ public class ServicioGestionElementosParque {
                 .orElseThrow(() -> new AtraccionNoEncontradaException("No se puede actualizar una atracción que no existe: " + atraccion.getId()));
 
         elementoParqueRepository.save(atraccion);
+        registrarEnCalendario(atraccion);
+        registrarEnTablero(atraccion);
     }
     
     /**
@@ -402,6 +467,8 @@ public class ServicioGestionElementosParque {
                 .orElseThrow(() -> new AtraccionNoEncontradaException("No se puede actualizar un espectáculo que no existe: " + espectaculo.getId()));
 
         elementoParqueRepository.save(espectaculo);
+        registrarEnCalendario(espectaculo);
+        registrarEnTablero(espectaculo);
     }
 
     /**
@@ -439,6 +506,54 @@ public class ServicioGestionElementosParque {
         } else {
             throw new IllegalArgumentException("Tipo de elemento desconocido: " + elemento.getClass().getName());
         }
+        registrarEnCalendario(elemento);
+        registrarEnTablero(elemento);
+    }
+
+    /**
+     * Ejecuta varias operaciones sobre los elementos del parque como una sola unidad de trabajo:
+     * los cambios se persisten juntos al terminar, escribiendo cada archivo afectado una sola vez.
+     * Si alguna operación falla, se descartan todos los cambios hechos en el lote.
+     *
+     * <b>Precondiciones:</b> Las operaciones no deben ser nulas ni abrir otra unidad de trabajo.
+     * <b>Poscondiciones:</b> Todos los cambios del lote quedan persistidos, o ninguno.
+     *
+     * @param operaciones Operaciones a ejecutar (normalmente llamadas a este mismo servicio).
+     * @throws DatosInvalidosException si las operaciones son null.
+     * @example
+     * <pre>
+     *     servicio.ejecutarEnLote(() -> {
+     *         servicio.definirTemporadaElemento("A1", inicio, fin);
+     *         servicio.definirTemporadaElemento("A2", inicio, fin);
+     *     });
+     * </pre>
+     */
+    public void ejecutarEnLote(Runnable operaciones) {
+        if (operaciones == null) {
+            throw new DatosInvalidosException("Las operaciones del lote no pueden ser null.");
+        }
+        elementoParqueRepository.beginUnitOfWork();
+        try {
+            operaciones.run();
+        } catch (RuntimeException | Error e) {
+            try {
+                elementoParqueRepository.rollbackUnitOfWork();
+            } catch (UnsupportedOperationException noSoportado) {
+                e.addSuppressed(noSoportado);
+            }
+            // El rollback puede devolver otras instancias: el índice se reconstruye en la próxima consulta
+            invalidarCalendario();
+            sincronizarTablero();
+            throw e;
+        }
+        try {
+            elementoParqueRepository.commitUnitOfWork();
+        } catch (RuntimeException e) {
+            // Si la confirmación falla el repositorio puede haber descartado el lote
+            invalidarCalendario();
+            sincronizarTablero();
+            throw e;
+        }
     }
 
     /**
@@ -460,6 +575,8 @@ public class ServicioGestionElementosParque {
          //     throw new AtraccionNoEncontradaException(idAtraccion);
          // }
         elementoParqueRepository.deleteById(idAtraccion);
+        quitarDeCalendario(idAtraccion);
+        quitarDeTablero(idAtraccion);
     }
     
     /**
@@ -481,6 +598,8 @@ public class ServicioGestionElementosParque {
             throw new AtraccionNoEncontradaException(idElemento);
         }
         elementoParqueRepository.deleteById(idElemento);
+        quitarDeCalendario(idElemento);
+        quitarDeTablero(idElemento);
     }
 
     /**
@@ -501,8 +620,8 @@ public class ServicioGestionElementosParque {
         if (nivelExclusividad == null) {
             throw new DatosInvalidosException("El nivel de exclusividad no puede ser nulo.");
         }
-        return consultarTodasLasAtracciones().stream()
-                .filter(a -> nivelExclusividad.equals(a.getNivelExclusividad()))
+        return elementoParqueRepository.findByFiltro(FiltroElementos.exclusividad(nivelExclusividad)).stream()
+                .map(e -> (Atraccion) e)
                 .toList();
     }
 
@@ -524,8 +643,8 @@ public class ServicioGestionElementosParque {
         if (nivelRiesgo == null) {
             throw new DatosInvalidosException("El nivel de riesgo no puede ser nulo.");
         }
-        return consultarAtraccionesMecanicas().stream()
-                .filter(a -> nivelRiesgo.equals(a.getNivelRiesgo()))
+        return elementoParqueRepository.findByFiltro(FiltroElementos.riesgo(nivelRiesgo)).stream()
+                .map(e -> (AtraccionMecanica) e)
                 .toList();
     }
 
@@ -547,9 +666,29 @@ public class ServicioGestionElementosParque {
         if (clima == null) {
             throw new DatosInvalidosException("El clima no puede ser nulo.");
         }
-        return consultarTodosLosElementos().stream()
-                .filter(e -> e.getClimaNoPermitido().contains(clima))
-                .toList();
+        return elementoParqueRepository.findByFiltro(FiltroElementos.climaNoPermitido(clima));
+    }
+
+    /**
+     * Consulta los elementos que cumplen una combinación de criterios por atributos.
+     *
+     * <b>Precondiciones:</b> El filtro no debe ser nulo.
+     * <b>Poscondiciones:</b> Devuelve los elementos que cumplen el filtro.
+     *
+     * @param filtro Criterio de búsqueda (exclusividad, riesgo, clima y sus combinaciones).
+     * @return Lista de elementos que cumplen el filtro.
+     * @throws DatosInvalidosException si el filtro es nulo.
+     * @example
+     * <pre>
+     *     List<ElementoParque> lista = servicio.consultarElementosPorFiltro(
+     *             FiltroElementos.exclusividad(NivelExclusividad.ORO).o(FiltroElementos.riesgo(NivelRiesgo.ALTO)));
+     * </pre>
+     */
+    public List<ElementoParque> consultarElementosPorFiltro(FiltroElementos filtro) {
+        if (filtro == null) {
+            throw new DatosInvalidosException("El filtro no puede ser nulo.");
+        }
+        return elementoParqueRepository.findByFiltro(filtro);
     }
 
     /**
@@ -569,9 +708,10 @@ public class ServicioGestionElementosParque {
         if (nivelExclusividad == null) {
             throw new DatosInvalidosException("El nivel de exclusividad no puede ser nulo.");
         }
-        consultarTodasLasAtracciones().stream()
-                .filter(a -> nivelExclusividad.equals(a.getNivelExclusividad()))
-                .forEach(a -> elementoParqueRepository.deleteById(a.getId()));
+        if (elementoParqueRepository.deleteAll(e -> e instanceof Atraccion a && nivelExclusividad.equals(a.getNivelExclusividad())) > 0) {
+            invalidarCalendario();
+            sincronizarTablero();
+        }
     }
 
     /**
@@ -591,8 +731,185 @@ public class ServicioGestionElementosParque {
         if (clima == null) {
             throw new DatosInvalidosException("El clima no puede ser nulo.");
         }
-        consultarEspectaculos().stream()
-                .filter(e -> e.getClimaNoPermitido().contains(clima))
-                .forEach(e -> elementoParqueRepository.deleteById(e.getId()));
+        if (elementoParqueRepository.deleteAll(e -> e instanceof Espectaculo && e.restringidoPorClima(clima)) > 0) {
+            invalidarCalendario();
+            sincronizarTablero();
+        }
+    }
+
+    /**
+     * Obtiene el tablero operativo de los elementos del parque según el clima. El tablero se mantiene
+     * al día con cada elemento creado, actualizado o eliminado desde este servicio; si los elementos
+     * cambiaron por otra vía (p. ej. una recarga del archivo), se sincroniza al consultarlo.
+     *
+     * <b>Poscondiciones:</b> La primera consulta crea el tablero con clima NORMAL.
+     *
+     * @return Tablero operativo compartido por las vistas.
+     * @example
+     * <pre>
+     *     servicio.consultarTableroOperativo().suscribir((anterior, actual, habilitados, deshabilitados) -> refrescar());
+     * </pre>
+     */
+    public TableroOperativo consultarTableroOperativo() {
+        synchronized (this) {
+            if (tableroOperativo == null) {
+                versionTablero = elementoParqueRepository.getVersion();
+                tableroOperativo = new TableroOperativo(elementoParqueRepository.findAll(), CondicionClimatica.NORMAL);
+                return tableroOperativo;
+            }
+            if (!elementoParqueRepository.haCambiadoDesde(versionTablero)) {
+                return tableroOperativo;
+            }
+        }
+        return sincronizarTablero();
+    }
+
+    /**
+     * Cambia el clima vigente del parque; los suscriptores del tablero reciben los elementos que
+     * se habilitan o deshabilitan.
+     *
+     * <b>Precondiciones:</b> El clima no debe ser nulo.
+     * <b>Poscondiciones:</b> El tablero operativo refleja el nuevo clima.
+     *
+     * @param clima Nuevo clima vigente.
+     * @throws DatosInvalidosException si el clima es nulo.
+     * @example
+     * <pre>
+     *     servicio.cambiarClima(CondicionClimatica.TORMENTA);
+     * </pre>
+     */
+    public void cambiarClima(CondicionClimatica clima) {
+        if (clima == null) {
+            throw new DatosInvalidosException("El clima no puede ser nulo.");
+        }
+        consultarTableroOperativo().cambiarClima(clima);
+    }
+
+    /**
+     * Consulta los elementos disponibles en una fecha: los que no son de temporada y aquellos cuya
+     * temporada incluye la fecha. Se responde con el índice de calendario, sin recorrer todos los elementos.
+     *
+     * <b>Precondiciones:</b> La fecha no debe ser nula.
+     * <b>Poscondiciones:</b> Devuelve los elementos para los que {@link ElementoParque#estaDisponibleEnFecha} es verdadero.
+     *
+     * @param fecha Fecha y hora a consultar.
+     * @return Lista de elementos disponibles en esa fecha.
+     * @throws DatosInvalidosException si la fecha es nula.
+     * @example
+     * <pre>
+     *     List<ElementoParque> abiertos = servicio.consultarElementosDisponiblesEn(LocalDateTime.now());
+     * </pre>
+     */
+    public List<ElementoParque> consultarElementosDisponiblesEn(LocalDateTime fecha) {
+        if (fecha == null) {
+            throw new DatosInvalidosException("La fecha no puede ser nula.");
+        }
+        return calendario().disponiblesEn(fecha);
+    }
+
+    /**
+     * Consulta los espectáculos con alguna función que empieza dentro de un rango de fechas.
+     *
+     * <b>Precondiciones:</b> Las fechas no deben ser nulas y el fin no puede ser anterior al inicio.
+     * <b>Poscondiciones:</b> Devuelve cada espectáculo una sola vez, en orden de su primera función en el rango.
+     *
+     * @param desde Inicio del rango (incluido).
+     * @param hasta Fin del rango (incluido).
+     * @return Lista de espectáculos que inician en el rango.
+     * @throws DatosInvalidosException si las fechas son inválidas.
+     * @example
+     * <pre>
+     *     LocalDateTime ahora = LocalDateTime.now();
+     *     List<Espectaculo> proximos = servicio.consultarEspectaculosQueInicianEntre(ahora, ahora.plusHours(2));
+     * </pre>
+     */
+    public List<Espectaculo> consultarEspectaculosQueInicianEntre(LocalDateTime desde, LocalDateTime hasta) {
+        if (desde == null || hasta == null || hasta.isBefore(desde)) {
+            throw new DatosInvalidosException("El rango de fechas es inválido.");
+        }
+        return calendario().espectaculosQueInicianEntre(desde, hasta);
+    }
+
+    private synchronized IndiceCalendario calendario() {
+        if (indiceCalendario != null && elementoParqueRepository.haCambiadoDesde(versionCalendario)) {
+            invalidarCalendario();
+        }
+        if (indiceCalendario == null) {
+            // La versión se lee antes que los elementos: un cambio intermedio fuerza otra reconstrucción
+            versionCalendario = elementoParqueRepository.getVersion();
+            indiceCalendario = IndiceCalendario.desdeElementos(elementoParqueRepository.findAll());
+        }
+        return indiceCalendario;
+    }
+
+    private synchronized void registrarEnCalendario(ElementoParque elemento) {
+        if (indiceCalendario != null) {
+            indiceCalendario.registrar(elemento);
+            sincronizarVersionCalendario();
+        }
+    }
+
+    private synchronized void quitarDeCalendario(String idElemento) {
+        if (indiceCalendario != null) {
+            indiceCalendario.quitar(idElemento);
+            sincronizarVersionCalendario();
+        }
+    }
+
+    // Tras aplicar al índice la operación recién hecha: si fue el único cambio, el índice sigue al día
+    private void sincronizarVersionCalendario() {
+        long version = elementoParqueRepository.getVersion();
+        if (version - versionCalendario <= 1) {
+            versionCalendario = version;
+        }
+    }
+
+    // El tablero se llama sin el monitor del servicio: notifica a sus suscriptores, que pueden volver a este servicio
+    private void registrarEnTablero(ElementoParque elemento) {
+        TableroOperativo tablero = tableroCreado();
+        if (tablero != null) {
+            tablero.actualizarElemento(elemento);
+            sincronizarVersionTablero();
+        }
+    }
+
+    private void quitarDeTablero(String idElemento) {
+        TableroOperativo tablero = tableroCreado();
+        if (tablero != null) {
+            tablero.quitarElemento(idElemento);
+            sincronizarVersionTablero();
+        }
+    }
+
+    private synchronized TableroOperativo tableroCreado() {
+        return tableroOperativo;
+    }
+
+    private synchronized void sincronizarVersionTablero() {
+        long version = elementoParqueRepository.getVersion();
+        if (version - versionTablero <= 1) {
+            versionTablero = version;
+        }
+    }
+
+    // Tras cambios en bloque: el tablero conserva clima y suscriptores y solo notifica lo que cambió
+    private TableroOperativo sincronizarTablero() {
+        TableroOperativo tablero;
+        synchronized (this) {
+            tablero = tableroOperativo;
+            if (tablero == null) {
+                return null;
+            }
+            versionTablero = elementoParqueRepository.getVersion();
+        }
+        tablero.sincronizar(elementoParqueRepository.findAll());
+        return tablero;
+    }
+
+    private synchronized void invalidarCalendario() {
+        if (indiceCalendario != null) {
+            indiceCalendario.cerrar();
+            indiceCalendario = null;
+        }
     }
 }
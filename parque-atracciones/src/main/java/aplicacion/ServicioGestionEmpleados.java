@@ -10,13 +10,18 @@ import dominio.excepciones.AsignacionInvalidaException;
 import dominio.excepciones.CapacitacionInsuficienteException;
 import infraestructura.persistencia.EmpleadoRepositoryJson;
 
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.function.Function;
 
 /**
  * Servicio para la gestión de empleados, asignación de turnos y administración de capacitaciones
@@ -55,18 +60,66 @@ public class ServicioGestionEmpleados {
 
     // --- Placeholders for Repositories ---
     private final Map<String, Empleado> empleados = new ConcurrentHashMap<>(); // Key: identificacion
-    private final List<AsignacionTurno> asignaciones = new ArrayList<>();
+    // Indexado por (fecha, turno), (empleado, fecha) y (lugar, fecha, turno); sin cerrojo global
+    private final IndiceAsignaciones asignaciones = new IndiceAsignaciones();
+    // Empleados por perfil de capacitaciones, para no recorrer la plantilla al buscar quién puede trabajar en un lugar
+    private final IndiceCapacitaciones capacitaciones = new IndiceCapacitaciones();
+    // Estados de cumplimiento por fecha, lugar y turno; se recalculan solo las celdas que cambian
+    private final MotorCumplimientoPersonal cumplimiento = new MotorCumplimientoPersonal(asignaciones);
     private final EmpleadoRepositoryJson empleadoRepository;
-    // private AsignacionTurnoRepository asignacionTurnoRepository; // Placeholder
+    private final AsignacionTurnoRepository asignacionTurnoRepository; // null: asignaciones solo en memoria
     // -------------------------------------
 
+    // Lugares vistos por el servicio, por clave, para resolver las asignaciones persistidas.
+    // Las taquillas, tiendas y cafeterías se persisten con las asignaciones; las atracciones, con los elementos.
+    private final Map<String, LugarTrabajo> lugares = new ConcurrentHashMap<>();
+    private final Function<String, ? extends LugarTrabajo> lugarResolver;
+    // Particiones de asignaciones ya leídas; computeIfAbsent hace que cada fecha se lea una sola vez
+    private final Map<LocalDate, Boolean> fechasCargadas = new ConcurrentHashMap<>();
+
+    /**
+     * Crea el servicio con las asignaciones de turno solo en memoria.
+     *
+     * @param empleadoRepository Repositorio de empleados.
+     */
     public ServicioGestionEmpleados(EmpleadoRepositoryJson empleadoRepository) {
+        this(empleadoRepository, null, _ -> null);
+    }
+
+    /**
+     * Crea el servicio persistiendo las asignaciones de turno en el repositorio dado.
+     * Las asignaciones de cada fecha se leen la primera vez que se consulta o asigna esa fecha
+     * (o con {@link #cargarAsignaciones}), nunca todas al iniciar.
+     *
+     * @param empleadoRepository Repositorio de empleados.
+     * @param asignacionTurnoRepository Repositorio de asignaciones; null para no persistirlas.
+     * @param lugarResolver Función para buscar por su {@link LugarTrabajo#getClaveLugar() clave} los lugares
+     *                      que tienen su propio repositorio (las atracciones). Se consulta en cada resolución,
+     *                      así que debe devolver la versión vigente del lugar.
+     * @example
+     * <pre>
+     *     new ServicioGestionEmpleados(repoEmpleados, new AsignacionTurnoRepositoryJson("asignaciones"),
+     *             clave -&gt; clave.startsWith("Atraccion:")
+     *                     ? servicioElementos.consultarAtraccionPorId(clave.substring(10)).orElse(null) : null);
+     * </pre>
+     */
+    public ServicioGestionEmpleados(EmpleadoRepositoryJson empleadoRepository,
+                                    AsignacionTurnoRepository asignacionTurnoRepository,
+                                    Function<String, ? extends LugarTrabajo> lugarResolver) {
         this.empleadoRepository = empleadoRepository;
+        this.asignacionTurnoRepository = asignacionTurnoRepository;
+        this.lugarResolver = lugarResolver != null ? lugarResolver : _ -> null;
         List<Empleado> cargados = empleadoRepository.cargarEmpleados();
         for (Empleado e : cargados) {
             empleados.put(e.getIdentificacion(), e);
+            capacitaciones.actualizar(e);
             // System.out.println("[DEBUG] Empleado cargado: ID=" + e.getIdentificacion() + ", Username=" + e.getUsername() + ", Password=" + e.getPassword());
         }
+        if (asignacionTurnoRepository != null) {
+            for (LugarTrabajo l : asignacionTurnoRepository.cargarLugares()) {
+                lugares.put(l.getClaveLugar(), l);
+            }
+        }
     }
 
     /**
@@ -102,6 +155,7 @@ public class ServicioGestionEmpleados {
             throw new DatosInvalidosException("Ya existe un empleado con la identificación: " + empleado.getIdentificacion());
         }
         empleados.put(empleado.getIdentificacion(), empleado);
+        capacitaciones.actualizar(empleado);
         empleadoRepository.guardarEmpleados(new ArrayList<>(empleados.values()));
         System.out.println("Empleado registrado: " + empleado.getNombre() + " (" + empleado.getClass().getSimpleName() + ")");
         return empleado;
@@ -182,6 +236,7 @@ public class ServicioGestionEmpleados {
 
         Empleado empleado = consultarEmpleadoPorIdentificacion(identificacionEmpleado)
                 .orElseThrow(() -> new EmpleadoNoEncontradoException(identificacionEmpleado));
+        asegurarFechaCargada(fecha);
 
         AsignacionTurno nuevaAsignacion;
         String idAsignacion = AsignacionTurno.generarIdUnico();
@@ -210,26 +265,30 @@ public class ServicioGestionEmpleados {
              System.out.println("Asignación creada: " + empleado.getNombre() + " a Servicio General el " + fecha + " (" + turno + ")");
         }
 
-        // Verificar si ya existe una asignación idéntica (mismo empleado, fecha, turno)
-        // Esta lógica podría moverse a un repositorio o a una validación más robusta
-        synchronized (asignaciones) {
-            boolean yaAsignadoMismoTurno = asignaciones.stream()
-                .anyMatch(a -> a.getEmpleado().equals(empleado) &&
-                               a.getFecha().equals(fecha) &&
-                               a.getTurno() == turno);
-
-            if (yaAsignadoMismoTurno) {
-                 // Decidir si es un error o una advertencia. Por ahora, error si es exactamente la misma asignación.
-                 if (asignaciones.contains(nuevaAsignacion)) {
-                     throw new AsignacionInvalidaException("El empleado ya tiene esta asignación exacta.");
-                 } else {
-                      System.out.println("Advertencia: El empleado " + empleado.getNombre() + " ya tiene otra asignación para " + fecha + " en el turno " + turno);
-                      // Permitir asignaciones múltiples en el mismo turno a diferentes lugares si la regla de negocio lo permite.
-                 }
+        // Verificar si ya existe una asignación idéntica (mismo empleado, lugar, fecha, turno).
+        // El índice rechaza los duplicados de forma atómica; otra asignación en el mismo turno solo se advierte.
+        boolean yaAsignadoMismoTurno = asignaciones.tieneAsignacionEnTurno(empleado.getIdentificacion(), fecha, turno);
+        if (!asignaciones.agregar(nuevaAsignacion)) {
+            throw new AsignacionInvalidaException("El empleado ya tiene esta asignación exacta.");
+        }
+        cumplimiento.asignacionCambiada(nuevaAsignacion);
+        if (yaAsignadoMismoTurno) {
+            System.out.println("Advertencia: El empleado " + empleado.getNombre() + " ya tiene otra asignación para " + fecha + " en el turno " + turno);
+            // Permitir asignaciones múltiples en el mismo turno a diferentes lugares si la regla de negocio lo permite.
+        }
+        boolean lugarNuevo = lugarTrabajo != null && lugares.putIfAbsent(lugarTrabajo.getClaveLugar(), lugarTrabajo) == null;
+        if (asignacionTurnoRepository != null) {
+            try {
+                if (lugarNuevo) {
+                    asignacionTurnoRepository.registrarLugar(lugarTrabajo); // Para resolver la asignación al reiniciar
+                }
+                asignacionTurnoRepository.registrarAsignacion(nuevaAsignacion);
+            } catch (RuntimeException e) {
+                asignaciones.quitar(nuevaAsignacion); // No dejar en memoria lo que no quedó persistido
+                cumplimiento.asignacionCambiada(nuevaAsignacion);
+                throw e;
             }
-            asignaciones.add(nuevaAsignacion);
         }
-        // En una app real: asignacionTurnoRepository.save(nuevaAsignacion);
 
         return nuevaAsignacion;
     }
@@ -249,12 +308,8 @@ public class ServicioGestionEmpleados {
      * </pre>
      */
     public List<AsignacionTurno> consultarAsignacionesEmpleadoDia(String identificacionEmpleado, LocalDate fecha) {
-        // En una app real: return asignacionTurnoRepository.findByEmpleadoAndFecha(identificacionEmpleado, fecha);
-        synchronized (asignaciones) {
-            return asignaciones.stream()
-                    .filter(a -> a.getEmpleado().getIdentificacion().equals(identificacionEmpleado) && a.getFecha().equals(fecha))
-                    .collect(Collectors.toList());
-        }
+        asegurarFechaCargada(fecha);
+        return asignaciones.porEmpleadoYFecha(identificacionEmpleado, fecha);
     }
 
     /**
@@ -271,14 +326,237 @@ public class ServicioGestionEmpleados {
      * </pre>
      */
     public List<AsignacionTurno> consultarAsignacionesPorFecha(LocalDate fecha) {
-        // En una app real: return asignacionTurnoRepository.findByFecha(fecha);
-        synchronized (asignaciones) {
-            return asignaciones.stream()
-                    .filter(a -> a.getFecha().equals(fecha))
-                    .collect(Collectors.toList());
+        asegurarFechaCargada(fecha);
+        return asignaciones.porFecha(fecha);
+    }
+
+    /**
+     * Consulta las asignaciones de una fecha y un turno específicos.
+     *
+     * <b>Precondiciones:</b> La fecha y el turno no deben ser nulos.
+     * <b>Poscondiciones:</b> Devuelve las asignaciones de ese turno sin recorrer las del resto de la temporada.
+     *
+     * @param fecha Fecha a consultar.
+     * @param turno Turno a consultar.
+     * @return Lista de asignaciones para esa fecha y turno, en orden de asignación.
+     * @example
+     * <pre>
+     *     List&lt;AsignacionTurno&gt; apertura = servicio.consultarAsignacionesPorFechaYTurno(LocalDate.now(), Turno.APERTURA);
+     * </pre>
+     */
+    public List<AsignacionTurno> consultarAsignacionesPorFechaYTurno(LocalDate fecha, Turno turno) {
+        asegurarFechaCargada(fecha);
+        return asignaciones.porFechaYTurno(fecha, turno);
+    }
+
+    /**
+     * Carga de una vez las asignaciones persistidas de un rango de fechas (p. ej. "esta semana").
+     * Solo se leen las particiones del rango que aún no se habían leído.
+     *
+     * <b>Precondiciones:</b> Las fechas no son nulas y hasta no es anterior a desde.
+     * <b>Poscondiciones:</b> Las consultas sobre el rango ya no acceden al almacenamiento.
+     *
+     * @param desde Primera fecha (incluida).
+     * @param hasta Última fecha (incluida).
+     * @throws DatosInvalidosException si el rango es nulo o está invertido.
+     * @example
+     * <pre>
+     *     LocalDate lunes = LocalDate.now().with(DayOfWeek.MONDAY);
+     *     servicio.cargarAsignaciones(lunes, lunes.plusDays(6));
+     * </pre>
+     */
+    public void cargarAsignaciones(LocalDate desde, LocalDate hasta) {
+        if (desde == null || hasta == null || hasta.isBefore(desde)) {
+            throw new DatosInvalidosException("El rango de fechas a cargar es inválido: " + desde + " - " + hasta);
+        }
+        for (LocalDate fecha = desde; !fecha.isAfter(hasta); fecha = fecha.plusDays(1)) {
+            asegurarFechaCargada(fecha);
         }
     }
 
+    /**
+     * Calcula automáticamente un plan de turnos para los lugares dados en un rango de fechas, con todos
+     * los empleados registrados. Ver {@link PlanificadorTurnos} para las reglas y la búsqueda.
+     *
+     * <b>Precondiciones:</b>
+     * <ul>
+     *   <li>El rango de fechas es válido y la colección de lugares no es nula.</li>
+     *   <li>El presupuesto de tiempo es positivo.</li>
+     * </ul>
+     *
+     * <b>Poscondiciones:</b>
+     * <ul>
+     *   <li>Devuelve el plan propuesto con su puntaje; no se asigna nada hasta llamar a {@link #aplicarPlan}.</li>
+     *   <li>Las asignaciones existentes del rango se respetan y cuentan como puestos cubiertos.</li>
+     * </ul>
+     *
+     * @param desde Primera fecha (incluida).
+     * @param hasta Última fecha (incluida).
+     * @param lugares Lugares de trabajo a cubrir.
+     * @param presupuesto Tiempo máximo de búsqueda; al agotarse se devuelve el mejor plan parcial.
+     * @return Plan de turnos propuesto.
+     * @throws DatosInvalidosException si algún parámetro es inválido.
+     * @example
+     * <pre>
+     *     PlanTurnos plan = servicio.planificarTurnos(inicioMes, finMes, lugares, Duration.ofSeconds(5));
+     *     System.out.println("Turnos cubiertos: " + plan.getPuntaje());
+     * </pre>
+     */
+    public PlanTurnos planificarTurnos(LocalDate desde, LocalDate hasta, Collection<? extends LugarTrabajo> lugares,
+                                       Duration presupuesto) {
+        if (lugares == null) {
+            throw new DatosInvalidosException("Los lugares a planificar no pueden ser nulos.");
+        }
+        cargarAsignaciones(desde, hasta);
+        PlanificadorTurnos planificador = new PlanificadorTurnos(empleados.values(), lugares);
+        return planificador.planificar(desde, hasta, presupuesto, asignaciones::porFechaYTurno);
+    }
+
+    /**
+     * Aplica un plan de turnos asignando cada una de sus asignaciones con {@link #asignarTurno}.
+     * Las que ya no son válidas (p. ej. porque alguien asignó el turno entre tanto) se omiten y se reportan.
+     *
+     * <b>Precondiciones:</b> El plan no debe ser nulo.
+     * <b>Poscondiciones:</b> Las asignaciones válidas del plan quedan registradas (y persistidas si hay repositorio).
+     *
+     * @param plan Plan calculado con {@link #planificarTurnos}.
+     * @return Asignaciones efectivamente creadas.
+     * @throws DatosInvalidosException si el plan es nulo.
+     * @example
+     * <pre>
+     *     List&lt;AsignacionTurno&gt; creadas = servicio.aplicarPlan(plan);
+     * </pre>
+     */
+    public List<AsignacionTurno> aplicarPlan(PlanTurnos plan) {
+        if (plan == null) {
+            throw new DatosInvalidosException("El plan a aplicar no puede ser nulo.");
+        }
+        List<AsignacionTurno> creadas = new ArrayList<>();
+        for (AsignacionTurno a : plan.getAsignaciones()) {
+            try {
+                creadas.add(asignarTurno(a.getEmpleado().getIdentificacion(), a.getLugarTrabajo(), a.getFecha(), a.getTurno()));
+            } catch (AsignacionInvalidaException | EmpleadoNoEncontradoException | DatosInvalidosException e) {
+                System.err.println("[WARN] No se aplicó la asignación planificada " + a + ": " + e.getMessage());
+            }
+        }
+        return creadas;
+    }
+
+    /**
+     * Cancela una asignación de turno.
+     *
+     * <b>Precondiciones:</b> La asignación no debe ser nula.
+     * <b>Poscondiciones:</b> La asignación deja de aparecer en las consultas y su baja queda persistida.
+     *
+     * @param asignacion Asignación a cancelar.
+     * @return true si la asignación existía.
+     * @throws DatosInvalidosException si la asignación es nula.
+     * @example
+     * <pre>
+     *     servicio.cancelarAsignacion(asignacion);
+     * </pre>
+     */
+    public boolean cancelarAsignacion(AsignacionTurno asignacion) {
+        if (asignacion == null) {
+            throw new DatosInvalidosException("La asignación a cancelar no puede ser nula.");
+        }
+        asegurarFechaCargada(asignacion.getFecha());
+        // La guardada puede tener otro id que la recibida (p. ej. una asignación igual construida por el llamador);
+        // la baja se persiste con el id del alta que anula
+        AsignacionTurno guardada = asignaciones.extraer(asignacion);
+        if (guardada == null) {
+            return false;
+        }
+        cumplimiento.asignacionCambiada(guardada);
+        if (asignacionTurnoRepository != null) {
+            asignacionTurnoRepository.registrarEliminacion(guardada);
+        }
+        return true;
+    }
+
+    /**
+     * Da a conocer un lugar de trabajo al servicio, para poder resolver las asignaciones persistidas
+     * que lo referencian e incluirlo en {@link #generarReporteCumplimiento(LocalDate)}. Los lugares usados
+     * en {@link #asignarTurno} se registran solos.
+     *
+     * <b>Precondiciones:</b> El lugar no debe ser nulo.
+     * <b>Poscondiciones:</b> Las fechas que se carguen después resuelven las asignaciones a este lugar;
+     * si es una taquilla, tienda o cafetería, queda persistido para los siguientes arranques.
+     *
+     * @param lugarTrabajo Lugar de trabajo.
+     * @throws DatosInvalidosException si el lugar es nulo.
+     * @example
+     * <pre>
+     *     servicio.registrarLugarTrabajo(new Taquilla("Taquilla Norte", 1));
+     * </pre>
+     */
+    public void registrarLugarTrabajo(LugarTrabajo lugarTrabajo) {
+        if (lugarTrabajo == null) {
+            throw new DatosInvalidosException("El lugar de trabajo a registrar no puede ser nulo.");
+        }
+        LugarTrabajo anterior = lugares.put(lugarTrabajo.getClaveLugar(), lugarTrabajo);
+        cumplimiento.invalidar(lugarTrabajo); // El elemento pudo cambiar sus requisitos
+        if (anterior != lugarTrabajo && asignacionTurnoRepository != null) {
+            asignacionTurnoRepository.registrarLugar(lugarTrabajo);
+        }
+    }
+
+    /**
+     * Busca un lugar de trabajo conocido por el servicio o por el resolutor de lugares.
+     *
+     * @param claveLugar Clave del lugar (ver {@link LugarTrabajo#getClaveLugar()}).
+     * @return Versión vigente del lugar, o vacío si no se conoce.
+     */
+    public Optional<LugarTrabajo> consultarLugarTrabajo(String claveLugar) {
+        return claveLugar == null ? Optional.empty() : Optional.ofNullable(resolverLugar(claveLugar));
+    }
+
+    /**
+     * Consulta los lugares de trabajo que conoce el servicio: los registrados (taquillas, tiendas,
+     * cafeterías) y los de las asignaciones ya cargadas, en su versión vigente.
+     *
+     * <b>Poscondiciones:</b> Devuelve los lugares ordenados por clave, sin los que ya no existen.
+     *
+     * @return Lugares de trabajo conocidos.
+     * @example
+     * <pre>
+     *     List&lt;LugarTrabajo&gt; lugares = servicio.consultarLugaresTrabajo();
+     * </pre>
+     */
+    public List<LugarTrabajo> consultarLugaresTrabajo() {
+        List<LugarTrabajo> vigentes = new ArrayList<>();
+        for (String clave : lugares.keySet().stream().sorted().toList()) {
+            LugarTrabajo lugar = resolverLugar(clave);
+            if (lugar != null) {
+                vigentes.add(lugar);
+            }
+        }
+        return vigentes;
+    }
+
+    // Lee la partición de la fecha la primera vez que se necesita; los demás hilos esperan a que termine
+    private void asegurarFechaCargada(LocalDate fecha) {
+        if (asignacionTurnoRepository == null || fecha == null) {
+            return;
+        }
+        fechasCargadas.computeIfAbsent(fecha, f -> {
+            for (AsignacionTurno a : asignacionTurnoRepository.cargarFecha(f, empleados::get, this::resolverLugar)) {
+                asignaciones.agregar(a);
+            }
+            return Boolean.TRUE;
+        });
+    }
+
+    // El resolutor va primero: las atracciones pueden haberse recargado desde que se guardaron en 'lugares'
+    private LugarTrabajo resolverLugar(String clave) {
+        LugarTrabajo vigente = lugarResolver.apply(clave);
+        if (vigente != null) {
+            lugares.put(clave, vigente);
+            return vigente;
+        }
+        return lugares.get(clave);
+    }
+
     /**
      * Verifica si un lugar de trabajo cumple con los requisitos de personal para un turno específico.
      *
@@ -307,47 +585,14 @@ public class ServicioGestionEmpleados {
              throw new DatosInvalidosException("Lugar de trabajo, fecha y turno no pueden ser nulos para verificar requisitos.");
          }
 
-        // Obtener los empleados asignados a este lugar, fecha y turno
-        List<Empleado> empleadosAsignadosEsteTurno;
-        synchronized (asignaciones) {
-             empleadosAsignadosEsteTurno = asignaciones.stream()
-                .filter(a -> a.getFecha().equals(fecha) &&
-                               a.getTurno() == turno &&
-                               lugarTrabajo.equals(a.getLugarTrabajo())) // Use equals for LugarTrabajo comparison
-                .map(AsignacionTurno::getEmpleado)
-                .collect(Collectors.toList());
-        }
-
-        // --- Verificación de Requisitos para el Turno Específico ---
+        asegurarFechaCargada(fecha);
+        EstadoCumplimientoPersonal estado = cumplimiento.evaluar(lugarTrabajo, fecha, turno);
 
-        // 1. Verificar número mínimo de empleados
-        int empleadosNecesarios = 0;
-        if (lugarTrabajo instanceof Atraccion) empleadosNecesarios = ((Atraccion) lugarTrabajo).getEmpleadosMinimos();
-        else if (lugarTrabajo instanceof Cafeteria) empleadosNecesarios = ((Cafeteria) lugarTrabajo).getEmpleadosRequeridos();
-        else if (lugarTrabajo instanceof Taquilla) empleadosNecesarios = ((Taquilla) lugarTrabajo).getEmpleadosRequeridos(); // Check type Taquilla
-        // Tienda no tiene mínimo explícito, pero requiere Cajero.
-
-        if (empleadosNecesarios > 0 && empleadosAsignadosEsteTurno.size() < empleadosNecesarios) {
-            System.out.println("Incumplimiento Requisitos: Faltan empleados en " + lugarTrabajo.getNombreLugar() + " para " + fecha + " " + turno + ". Necesarios: " + empleadosNecesarios + ", Asignados: " + empleadosAsignadosEsteTurno.size());
+        if (estado.getEmpleadosFaltantes() > 0) {
+            System.out.println("Incumplimiento Requisitos: Faltan empleados en " + lugarTrabajo.getNombreLugar() + " para " + fecha + " " + turno + ". Necesarios: " + estado.getEmpleadosNecesarios() + ", Asignados: " + estado.getEmpleadosAsignados());
             return false;
         }
-
-        // 2. Verificar si hay al menos un empleado asignable para ese lugar (tipo y capacitaciones generales)
-        boolean hayAlMenosUnAsignable = empleadosAsignadosEsteTurno.stream()
-                                        .anyMatch(lugarTrabajo::puedeAsignarEmpleado);
-
-        // 3. Verificaciones específicas de roles requeridos para el turno
-        boolean requisitosEspecificosCumplidos = true;
-        if (lugarTrabajo instanceof Tienda || lugarTrabajo instanceof Taquilla) {
-            // Verificación estricta: debe haber un Cajero con MANEJO_CAJA
-            boolean tieneCajeroCapacitado = empleadosAsignadosEsteTurno.stream()
-                .anyMatch(e -> e instanceof Cajero && ((Cajero) e).tieneCapacitacion(Capacitacion.MANEJO_CAJA));
-            if (!tieneCajeroCapacitado) {
-                requisitosEspecificosCumplidos = false;
-            }
-        }
-
-        if (!hayAlMenosUnAsignable || !requisitosEspecificosCumplidos) {
+        if (estado.isSinEmpleadoApto() || estado.isFaltaCajero()) {
             System.out.println("Incumplimiento Requisitos: Algunos empleados asignados a " + lugarTrabajo.getNombreLugar() + " para " + fecha + " " + turno + " no cumplen los requisitos básicos del puesto (tipo/capacitación general) o falta cajero capacitado.");
             return false;
         }
@@ -356,6 +601,82 @@ public class ServicioGestionEmpleados {
         return true;
     }
 
+    /**
+     * Genera el reporte de cumplimiento de personal de un día para todos los lugares conocidos por el servicio
+     * (los registrados y los que tienen asignaciones), en todos los turnos.
+     *
+     * <b>Precondiciones:</b> La fecha no debe ser nula.
+     * <b>Poscondiciones:</b> Devuelve un reporte sin imprimir nada; los lugares sin cambios desde el último
+     * reporte no se vuelven a evaluar.
+     *
+     * @param fecha Fecha a evaluar.
+     * @return Reporte con el estado de cada lugar y turno.
+     * @throws DatosInvalidosException si la fecha es nula.
+     * @example
+     * <pre>
+     *     ReporteCumplimientoPersonal reporte = servicio.generarReporteCumplimiento(LocalDate.now());
+     *     if (!reporte.isCumpleTodo()) {
+     *         reporte.getIncumplimientos().forEach(System.out::println);
+     *     }
+     * </pre>
+     */
+    public ReporteCumplimientoPersonal generarReporteCumplimiento(LocalDate fecha) {
+        if (fecha == null) {
+            throw new DatosInvalidosException("La fecha no puede ser nula para generar el reporte de cumplimiento.");
+        }
+        asegurarFechaCargada(fecha); // Registra los lugares de las asignaciones de ese día
+        return generarReporteCumplimiento(fecha, consultarLugaresTrabajo());
+    }
+
+    /**
+     * Genera el reporte de cumplimiento de personal de un día para los lugares dados, en todos los turnos.
+     *
+     * <b>Precondiciones:</b> La fecha y los lugares no deben ser nulos.
+     * <b>Poscondiciones:</b> Devuelve un reporte sin imprimir nada.
+     *
+     * @param fecha Fecha a evaluar.
+     * @param lugaresTrabajo Lugares de trabajo a evaluar.
+     * @return Reporte con el estado de cada lugar y turno, en el orden de los lugares dados.
+     * @throws DatosInvalidosException si la fecha o los lugares son nulos.
+     * @example
+     * <pre>
+     *     ReporteCumplimientoPersonal reporte = servicio.generarReporteCumplimiento(fecha, List.of(taquilla, tienda));
+     * </pre>
+     */
+    public ReporteCumplimientoPersonal generarReporteCumplimiento(LocalDate fecha,
+                                                                  Collection<? extends LugarTrabajo> lugaresTrabajo) {
+        if (fecha == null || lugaresTrabajo == null) {
+            throw new DatosInvalidosException("La fecha y los lugares no pueden ser nulos para generar el reporte de cumplimiento.");
+        }
+        asegurarFechaCargada(fecha);
+        return cumplimiento.evaluar(fecha, lugaresTrabajo);
+    }
+
+    /**
+     * Número mínimo de empleados que exige un lugar por turno (0 si no tiene mínimo explícito).
+     */
+    static int empleadosNecesarios(LugarTrabajo lugarTrabajo) {
+        if (lugarTrabajo instanceof Atraccion) return ((Atraccion) lugarTrabajo).getEmpleadosMinimos();
+        if (lugarTrabajo instanceof Cafeteria) return ((Cafeteria) lugarTrabajo).getEmpleadosRequeridos();
+        if (lugarTrabajo instanceof Taquilla) return ((Taquilla) lugarTrabajo).getEmpleadosRequeridos();
+        // Tienda no tiene mínimo explícito, pero requiere Cajero.
+        return 0;
+    }
+
+    /**
+     * Indica si el lugar exige en cada turno un Cajero con la capacitación MANEJO_CAJA.
+     */
+    static boolean requiereCajero(LugarTrabajo lugarTrabajo) {
+        return lugarTrabajo instanceof Tienda || lugarTrabajo instanceof Taquilla;
+    }
+
+    /**
+     * Indica si el empleado cubre el puesto de cajero que exigen tiendas y taquillas.
+     */
+    static boolean esCajeroCapacitado(Empleado empleado) {
+        return empleado instanceof Cajero && ((Cajero) empleado).tieneCapacitacion(Capacitacion.MANEJO_CAJA);
+    }
+
     /**
      * Autoriza una nueva capacitación para un empleado. (Operación de Administrador)
      *
@@ -387,6 +708,8 @@ public class ServicioGestionEmpleados {
                  .orElseThrow(() -> new EmpleadoNoEncontradoException(identificacionEmpleado));
 
          empleado.agregarCapacitacion(capacitacion);
+         capacitaciones.actualizar(empleado);
+         cumplimiento.invalidar(); // La capacitación puede volver apto al empleado donde ya está asignado
          // En app real: empleadoRepository.save(empleado); // Guardar el cambio
          System.out.println("Capacitación " + capacitacion.name() + " autorizada para " + empleado.getNombre());
      }
@@ -413,6 +736,8 @@ public class ServicioGestionEmpleados {
             throw new EmpleadoNoEncontradoException(empleado.getIdentificacion());
         }
         empleados.put(empleado.getIdentificacion(), empleado);
+        capacitaciones.actualizar(empleado);
+        cumplimiento.invalidar();
         empleadoRepository.guardarEmpleados(new ArrayList<>(empleados.values()));
     }
 
@@ -437,9 +762,37 @@ public class ServicioGestionEmpleados {
             throw new EmpleadoNoEncontradoException(identificacion);
         }
         empleados.remove(identificacion);
+        capacitaciones.quitar(identificacion);
+        cancelarAsignacionesDe(Set.of(identificacion));
+        cumplimiento.invalidar(); // Los estados calculados pueden contar al empleado eliminado
         empleadoRepository.guardarEmpleados(new ArrayList<>(empleados.values()));
     }
 
+    /**
+     * Consulta los empleados que el lugar de trabajo acepta según sus capacitaciones y su tipo.
+     *
+     * <b>Precondiciones:</b> El lugar no debe ser nulo.
+     * <b>Poscondiciones:</b> Solo se evalúa {@code puedeAsignarEmpleado} sobre los empleados cuyo perfil de
+     * capacitaciones contiene la máscara requerida por el lugar; el resto se descarta sin revisarlo.
+     *
+     * @param lugar Lugar de trabajo (atracción, cafetería, tienda o taquilla).
+     * @return Lista de empleados habilitados, ordenada por identificación.
+     * @throws DatosInvalidosException si el lugar es nulo.
+     * @example
+     * <pre>
+     *     List<Empleado> operarios = servicio.consultarEmpleadosHabilitados(montanaRusa);
+     * </pre>
+     */
+    public List<Empleado> consultarEmpleadosHabilitados(LugarTrabajo lugar) {
+        if (lugar == null) {
+            throw new DatosInvalidosException("El lugar de trabajo no puede ser nulo.");
+        }
+        return capacitaciones.empleadosCon(lugar.getMascaraCapacitacionesRequeridas()).stream()
+                .filter(lugar::puedeAsignarEmpleado)
+                .sorted(Comparator.comparing(Empleado::getIdentificacion))
+                .toList();
+    }
+
     /**
      * Consulta todos los empleados de un tipo específico (Cajero, Cocinero, etc).
      *
@@ -487,7 +840,27 @@ public class ServicioGestionEmpleados {
                 .toList();
         for (String id : idsAEliminar) {
             empleados.remove(id);
+            capacitaciones.quitar(id);
+        }
+        if (!idsAEliminar.isEmpty()) {
+            cancelarAsignacionesDe(new HashSet<>(idsAEliminar));
+            cumplimiento.invalidar();
         }
         empleadoRepository.guardarEmpleados(new ArrayList<>(empleados.values()));
     }
+
+    // Quita del índice y da de baja las asignaciones cargadas de los empleados eliminados; las de fechas aún
+    // no cargadas se descartan al cargarlas, porque el empleado ya no existe
+    private void cancelarAsignacionesDe(Set<String> identificaciones) {
+        for (AsignacionTurno asignacion : asignaciones.todas()) {
+            if (asignacion.getEmpleado() == null
+                    || !identificaciones.contains(asignacion.getEmpleado().getIdentificacion())) {
+                continue;
+            }
+            AsignacionTurno guardada = asignaciones.extraer(asignacion);
+            if (guardada != null && asignacionTurnoRepository != null) {
+                asignacionTurnoRepository.registrarEliminacion(guardada);
+            }
+        }
+    }
 }
@@ -1,11 +1,15 @@
 package aplicacion;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.UUID;
 import java.util.List;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.ArrayList;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import dominio.tiquete.*;
 import dominio.usuario.Usuario;
@@ -17,21 +21,133 @@ import dominio.empleado.Empleado;
 import dominio.excepciones.DatosInvalidosException;
 import dominio.excepciones.TiqueteInvalidoException;
 import dominio.elementoparque.ElementoParque;
+import infraestructura.persistencia.ColaPersistenciaTiquetes;
+import infraestructura.persistencia.MetricasPersistencia;
 import infraestructura.persistencia.TiqueteRepositoryJson;
 
 public class ServicioVentaTiquetes {
 
     private static final double DESCUENTO_EMPLEADO = 0.50;
-    private final TiqueteRepositoryJson tiqueteRepository;
-    private final Map<String, Tiquete> tiquetesVendidos = new HashMap<>();
+    private final TiqueteRepository tiqueteRepository;
+    // Estructuras concurrentes: ventas, usos y consultas llegan desde la GUI, las consolas y los torniquetes
+    private final Map<String, Tiquete> tiquetesVendidos = new ConcurrentHashMap<>();
+    // Índices secundarios (código -> tiquete); se mantienen en agregarTiquete/quitarTiquete
+    private final Map<String, Map<String, Tiquete>> indicePorComprador = new ConcurrentHashMap<>();
+    private final Map<LocalDate, Map<String, Tiquete>> indicePorFecha = new ConcurrentHashMap<>();
+    private final Map<Class<? extends Tiquete>, Map<String, Tiquete>> indicePorClase = new ConcurrentHashMap<>();
+    // Guardado completo (repositorios sin registro de operaciones): las solicitudes concurrentes se agrupan
+    private final AtomicLong versionSolicitada = new AtomicLong();
+    private final Object candadoGuardado = new Object();
+    private long versionGuardada = 0;
+    // Serializa el alta de tiquetes desconocidos que llegan por registrarUsoTiquete, para persistir una sola venta
+    private final Object candadoAltaPorUso = new Object();
+    // Solo existe si el repositorio está en modo journal
+    private final ColaPersistenciaTiquetes colaPersistencia;
+    // Compartido por los servicios de la instalación: el nodo se toma de la configuración una sola vez,
+    // o del que se le asignó en el primer arranque. Se crea con el primer servicio que lo usa (lee o escribe
+    // un archivo): si falla, el error llega a ese constructor y el siguiente lo vuelve a intentar
+    private static GeneradorCodigoTiquete generadorPorDefecto;
+    private final GeneradorCodigoTiquete generadorCodigos;
+    // Si el repositorio busca por código sin cargar (ver TiqueteRepository#buscaSinCargar), los tiquetes no se
+    // cargan al iniciar: el mapa guarda los de esta sesión y la carga completa se hace con la primera consulta
+    // que la necesita (por comprador, fecha o tipo)
+    private final java.util.function.Function<String, Atraccion> atraccionResolver;
+    private final java.util.function.Function<String, ? extends Usuario> compradorResolver;
+    private final Object candadoCarga = new Object();
+    private volatile boolean tiquetesCargados;
 
-    public ServicioVentaTiquetes(TiqueteRepositoryJson tiqueteRepository, java.util.function.Function<String, Atraccion> atraccionResolver) {
+    public ServicioVentaTiquetes(TiqueteRepository tiqueteRepository, java.util.function.Function<String, Atraccion> atraccionResolver) {
+        this(tiqueteRepository, atraccionResolver, ColaPersistenciaTiquetes.VENTANA_POR_DEFECTO);
+    }
+
+    /**
+     * Crea el servicio indicando cómo resolver los compradores de los tiquetes cargados.
+     * Cada tiquete resuelve su comprador en el primer acceso; los de un mismo comprador comparten
+     * la instancia que devuelva {@code compradorResolver} (ver {@link ResolutorCompradores}).
+     *
+     * @param tiqueteRepository Repositorio de tiquetes.
+     * @param atraccionResolver Función para buscar una Atraccion por su ID.
+     * @param compradorResolver Función para buscar un Usuario por su identificación.
+     */
+    public ServicioVentaTiquetes(TiqueteRepository tiqueteRepository, java.util.function.Function<String, Atraccion> atraccionResolver,
+                                 java.util.function.Function<String, ? extends Usuario> compradorResolver) {
+        this(tiqueteRepository, atraccionResolver, compradorResolver, ColaPersistenciaTiquetes.VENTANA_POR_DEFECTO, generadorPorDefecto());
+    }
+
+    public ServicioVentaTiquetes(TiqueteRepository tiqueteRepository, java.util.function.Function<String, Atraccion> atraccionResolver,
+                                 java.time.Duration ventanaAgrupacion) {
+        this(tiqueteRepository, atraccionResolver, ventanaAgrupacion, generadorPorDefecto());
+    }
+
+    public ServicioVentaTiquetes(TiqueteRepository tiqueteRepository, java.util.function.Function<String, Atraccion> atraccionResolver,
+                                 java.time.Duration ventanaAgrupacion, GeneradorCodigoTiquete generadorCodigos) {
+        this(tiqueteRepository, atraccionResolver, null, ventanaAgrupacion, generadorCodigos);
+    }
+
+    /**
+     * Crea el servicio indicando la ventana de agrupación de escrituras y el generador de códigos.
+     * Si el repositorio es JSON en modo journal, las ventas y usos se persisten a través de una cola
+     * asíncrona que agrupa en una sola escritura + fsync todo lo que llega dentro de la ventana.
+     * Otros repositorios que registran operaciones (p. ej. el almacén binario) las reciben directamente.
+     *
+     * @param tiqueteRepository Repositorio de tiquetes.
+     * @param atraccionResolver Función para buscar una Atraccion por su ID.
+     * @param compradorResolver Función para buscar un Usuario por su identificación; null si no se conoce.
+     * @param ventanaAgrupacion Ventana de agrupación de la cola de persistencia.
+     * @param generadorCodigos Generador de códigos para los tiquetes nuevos.
+     */
+    public ServicioVentaTiquetes(TiqueteRepository tiqueteRepository, java.util.function.Function<String, Atraccion> atraccionResolver,
+                                 java.util.function.Function<String, ? extends Usuario> compradorResolver,
+                                 java.time.Duration ventanaAgrupacion, GeneradorCodigoTiquete generadorCodigos) {
+        if (generadorCodigos == null) {
+            throw new DatosInvalidosException("El generador de códigos no puede ser nulo.");
+        }
         this.tiqueteRepository = tiqueteRepository;
-        for (Tiquete t : tiqueteRepository.cargarTiquetes(atraccionResolver)) {
-            tiquetesVendidos.put(t.getCodigo(), t);
+        this.generadorCodigos = generadorCodigos;
+        this.atraccionResolver = atraccionResolver;
+        this.compradorResolver = compradorResolver;
+        this.colaPersistencia = tiqueteRepository instanceof TiqueteRepositoryJson repoJson && repoJson.isModoJournal()
+                ? new ColaPersistenciaTiquetes(repoJson, ventanaAgrupacion, ColaPersistenciaTiquetes.CAPACIDAD_POR_DEFECTO)
+                : null;
+        if (!tiqueteRepository.buscaSinCargar()) {
+            cargarTiquetes();
         }
     }
 
+    // Los tiquetes ya presentes (vendidos o usados en esta sesión) conservan su instancia
+    private void cargarTiquetes() {
+        synchronized (candadoCarga) {
+            if (tiquetesCargados) {
+                return;
+            }
+            for (Tiquete t : tiqueteRepository.cargarTiquetes(atraccionResolver, compradorResolver)) {
+                agregarSiFalta(t);
+            }
+            tiquetesCargados = true;
+        }
+    }
+
+    // Busca en el repositorio un tiquete que aún no está en el mapa, sin cargar todos; null si no existe
+    private Tiquete buscarSinCargar(String codigo) {
+        if (tiquetesCargados) {
+            return null;
+        }
+        Tiquete encontrado = tiqueteRepository.buscarPorCodigo(codigo, atraccionResolver).orElse(null);
+        if (encontrado == null) {
+            return null;
+        }
+        encontrado.setResolutorComprador(compradorResolver);
+        return agregarSiFalta(encontrado);
+    }
+
+    private static synchronized GeneradorCodigoTiquete generadorPorDefecto() {
+        if (generadorPorDefecto == null) {
+            generadorPorDefecto = GeneradorCodigoSecuencial.desdeConfiguracion(
+                    java.nio.file.Paths.get(infraestructura.persistencia.JsonUtil.getDataFilePath("nodo_tiquetes.txt")));
+        }
+        return generadorPorDefecto;
+    }
+
     private double calcularPrecioFinal(Usuario comprador, double precioBase) {
         if (comprador instanceof Empleado) {
             return precioBase * (1 - DESCUENTO_EMPLEADO);
@@ -40,6 +156,11 @@ public class ServicioVentaTiquetes {
     }
 
     public TiqueteGeneral venderTiqueteGeneral(Usuario comprador, CategoriaTiquete categoria, double precioBase) {
+        return venderTiqueteGeneral(comprador, categoria, precioBase, Durabilidad.ESPERAR_DISCO);
+    }
+
+    public TiqueteGeneral venderTiqueteGeneral(Usuario comprador, CategoriaTiquete categoria, double precioBase,
+            Durabilidad durabilidad) {
         if (comprador == null || categoria == null) {
             throw new DatosInvalidosException("Comprador y categoría no pueden ser nulos.");
         }
@@ -49,14 +170,20 @@ public class ServicioVentaTiquetes {
         TiqueteGeneral tg = new TiqueteGeneral(codigo, LocalDateTime.now(), precioFinal,
                 comprador.getIdentificacion(), comprador.getNombre(),
                 esEmpleado, categoria, comprador);
-        tiquetesVendidos.put(codigo, tg);
-        tiqueteRepository.guardarTiquetes(new ArrayList<>(tiquetesVendidos.values()));
+        publicarVenta(tg, durabilidad);
         return tg;
     }
 
     public TiqueteTemporada venderTiqueteTemporada(Usuario comprador, CategoriaTiquete categoria,
                                                     LocalDateTime fechaInicio, LocalDateTime fechaFin,
                                                     double precioBase) {
+        return venderTiqueteTemporada(comprador, categoria, fechaInicio, fechaFin, precioBase, Durabilidad.ESPERAR_DISCO);
+    }
+
+    public TiqueteTemporada venderTiqueteTemporada(Usuario comprador, CategoriaTiquete categoria,
+                                                    LocalDateTime fechaInicio, LocalDateTime fechaFin,
+                                                    double precioBase,
+            Durabilidad durabilidad) {
         if (comprador == null || categoria == null || fechaInicio == null || fechaFin == null) {
             throw new DatosInvalidosException("Comprador, categoría y fechas no pueden ser nulos.");
         }
@@ -70,12 +197,16 @@ public class ServicioVentaTiquetes {
         TiqueteTemporada tt = new TiqueteTemporada(codigo, LocalDateTime.now(), precioFinal,
                 comprador.getIdentificacion(), comprador.getNombre(),
                 esEmpleado, categoria, fechaInicio, fechaFin, comprador);
-        tiquetesVendidos.put(codigo, tt);
-        tiqueteRepository.guardarTiquetes(new ArrayList<>(tiquetesVendidos.values()));
+        publicarVenta(tt, durabilidad);
         return tt;
     }
 
     public EntradaIndividual venderEntradaIndividual(Usuario comprador, Atraccion atraccion, double precioBase) {
+        return venderEntradaIndividual(comprador, atraccion, precioBase, Durabilidad.ESPERAR_DISCO);
+    }
+
+    public EntradaIndividual venderEntradaIndividual(Usuario comprador, Atraccion atraccion, double precioBase,
+            Durabilidad durabilidad) {
         if (comprador == null || atraccion == null) {
             throw new DatosInvalidosException("Comprador y atracción no pueden ser nulos.");
         }
@@ -85,12 +216,16 @@ public class ServicioVentaTiquetes {
         EntradaIndividual ei = new EntradaIndividual(codigo, LocalDateTime.now(), precioFinal,
                 comprador.getIdentificacion(), comprador.getNombre(),
                 esEmpleado, atraccion, comprador);
-        tiquetesVendidos.put(codigo, ei);
-        tiqueteRepository.guardarTiquetes(new ArrayList<>(tiquetesVendidos.values()));
+        publicarVenta(ei, durabilidad);
         return ei;
     }
 
     public FastPass venderFastPass(Usuario comprador, LocalDateTime fechaValida, double precioBase) {
+        return venderFastPass(comprador, fechaValida, precioBase, Durabilidad.ESPERAR_DISCO);
+    }
+
+    public FastPass venderFastPass(Usuario comprador, LocalDateTime fechaValida, double precioBase,
+            Durabilidad durabilidad) {
         if (comprador == null || fechaValida == null) {
             throw new DatosInvalidosException("Comprador y fecha de validez no pueden ser nulos.");
         }
@@ -99,13 +234,92 @@ public class ServicioVentaTiquetes {
         double precioFinal = calcularPrecioFinal(comprador, precioBase);
         FastPass fp = new FastPass(codigo, LocalDateTime.now(), fechaValida, precioFinal,
                 comprador.getIdentificacion(), comprador.getNombre(), esEmpleado, comprador);
-        tiquetesVendidos.put(codigo, fp);
-        tiqueteRepository.guardarTiquetes(new ArrayList<>(tiquetesVendidos.values()));
+        publicarVenta(fp, durabilidad);
         return fp;
     }
 
+    // En modo journal el evento pasa por la cola de persistencia; si el repositorio registra operaciones
+    // se le entrega directamente; en otro caso se reescriben todos los tiquetes.
+    // La venta se encola antes de publicarla en el mapa, así ningún uso de ese tiquete puede quedar antes en el journal.
+    private void publicarVenta(Tiquete tiquete, Durabilidad durabilidad) {
+        if (colaPersistencia != null) {
+            CompletableFuture<Void> confirmacion = colaPersistencia.encolarVenta(tiquete);
+            agregarTiquete(tiquete);
+            esperarSiCorresponde(confirmacion, durabilidad);
+        } else if (tiqueteRepository.registraOperaciones()) {
+            tiqueteRepository.registrarVenta(tiquete, durabilidad == Durabilidad.ESPERAR_DISCO);
+            agregarTiquete(tiquete);
+        } else {
+            agregarTiquete(tiquete);
+            guardarTodos();
+        }
+    }
+
+    private void persistirUso(Tiquete tiquete, Durabilidad durabilidad) {
+        if (colaPersistencia != null) {
+            esperarSiCorresponde(colaPersistencia.encolarUso(tiquete), durabilidad);
+        } else if (tiqueteRepository.registraOperaciones()) {
+            tiqueteRepository.registrarUso(tiquete, durabilidad == Durabilidad.ESPERAR_DISCO);
+        } else {
+            guardarTodos();
+        }
+    }
+
+    private void persistirEliminacion(List<String> codigos) {
+        if (colaPersistencia != null) {
+            esperarSiCorresponde(colaPersistencia.encolarEliminacion(codigos), Durabilidad.ESPERAR_DISCO);
+        } else if (tiqueteRepository.registraOperaciones()) {
+            tiqueteRepository.registrarEliminacion(codigos);
+        } else {
+            guardarTodos();
+        }
+    }
+
+    // Quien encuentra que otro hilo ya guardó una versión que incluye su cambio no vuelve a escribir
+    private void guardarTodos() {
+        long miVersion = versionSolicitada.incrementAndGet();
+        synchronized (candadoGuardado) {
+            if (versionGuardada >= miVersion) {
+                return;
+            }
+            long version = versionSolicitada.get();
+            tiqueteRepository.guardarTiquetes(new ArrayList<>(tiquetesVendidos.values()));
+            versionGuardada = version;
+        }
+    }
+
+    private void esperarSiCorresponde(CompletableFuture<Void> confirmacion, Durabilidad durabilidad) {
+        if (durabilidad == Durabilidad.SIN_ESPERA) {
+            return;
+        }
+        try {
+            confirmacion.join();
+        } catch (CompletionException e) {
+            throw new RuntimeException("No se pudo persistir la operación de tiquete: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Devuelve las métricas de la cola de persistencia (profundidad, lotes y latencia de escritura).
+     *
+     * @return Métricas actuales, o vacío si el repositorio no está en modo journal.
+     */
+    public Optional<MetricasPersistencia> getMetricasPersistencia() {
+        return colaPersistencia == null ? Optional.empty() : Optional.of(colaPersistencia.getMetricas());
+    }
+
+    /**
+     * Escribe las operaciones pendientes en la cola de persistencia y la detiene.
+     * Debe llamarse antes de cerrar el repositorio de tiquetes.
+     */
+    public void cerrar() {
+        if (colaPersistencia != null) {
+            colaPersistencia.cerrar();
+        }
+    }
+
     private String generarCodigoUnico() {
-        return UUID.randomUUID().toString();
+        return generadorCodigos.generarCodigo();
     }
 
     public boolean validarTiquete(Tiquete tiquete, LocalDateTime fechaUso) {
@@ -173,69 +387,173 @@ public class ServicioVentaTiquetes {
         return true;
     }
 
-    public void registrarUsoTiquete(Tiquete tiquete) {
+    public boolean registrarUsoTiquete(Tiquete tiquete) {
+        return registrarUsoTiquete(tiquete, Durabilidad.ESPERAR_DISCO);
+    }
+
+    /**
+     * Registra el uso de un tiquete. Si varios hilos registran el mismo tiquete a la vez, solo uno
+     * realiza la marca y la persiste; los demás no generan un segundo uso. Un tiquete que el servicio
+     * no tenía registrado se persiste primero como venta, para que su uso no se pierda al reiniciar.
+     *
+     * @param tiquete Tiquete utilizado.
+     * @param durabilidad Si se espera a que el uso quede en disco.
+     * @return true si esta llamada registró el uso; false si el tiquete ya estaba utilizado.
+     */
+    public boolean registrarUsoTiquete(Tiquete tiquete, Durabilidad durabilidad) {
         if (tiquete == null) {
             throw new DatosInvalidosException("El tiquete a registrar no puede ser nulo.");
         }
-        tiquete.marcarComoUtilizado();
-        tiquetesVendidos.put(tiquete.getCodigo(), tiquete);
-        tiqueteRepository.guardarTiquetes(new ArrayList<>(tiquetesVendidos.values()));
+        // La instancia registrada es la que guarda el estado compartido
+        Tiquete registrado = tiquetesVendidos.get(tiquete.getCodigo());
+        if (registrado == null) {
+            synchronized (candadoAltaPorUso) {
+                registrado = tiquetesVendidos.get(tiquete.getCodigo());
+                if (registrado == null) {
+                    registrado = buscarSinCargar(tiquete.getCodigo());
+                }
+                if (registrado == null) {
+                    publicarVenta(tiquete, durabilidad); // La venta queda antes que el uso en el registro
+                    registrado = tiquete;
+                }
+            }
+        }
+        boolean primerUso = registrado.intentarMarcarComoUtilizado();
+        if (registrado != tiquete) {
+            tiquete.marcarComoUtilizado();
+        }
+        if (!primerUso) {
+            System.out.println("El tiquete ya tenía un uso registrado: " + tiquete.getCodigo());
+            return false;
+        }
+        persistirUso(registrado, durabilidad);
         System.out.println("Uso registrado para tiquete: " + tiquete.getCodigo());
+        return true;
     }
 
     public List<Tiquete> consultarTiquetesPorUsuario(String identificacion) {
         if (identificacion == null || identificacion.trim().isEmpty()) {
             throw new DatosInvalidosException("La identificación no puede ser nula ni vacía.");
         }
-        return tiquetesVendidos.values().stream()
-                .filter(t -> identificacion.equals(t.getIdentificacionComprador()))
-                .toList();
+        cargarTiquetes();
+        return valoresIndexados(indicePorComprador.get(identificacion));
     }
 
     public java.util.List<Tiquete> consultarTiquetesPorFecha(java.time.LocalDate fecha) {
         if (fecha == null) {
             throw new DatosInvalidosException("La fecha no puede ser nula.");
         }
-        return tiquetesVendidos.values().stream()
-                .filter(t -> t.getFechaHoraEmision().toLocalDate().equals(fecha))
-                .toList();
+        cargarTiquetes();
+        return valoresIndexados(indicePorFecha.get(fecha));
     }
 
     public <T extends Tiquete> java.util.List<T> consultarTiquetesPorTipo(Class<T> tipo) {
         if (tipo == null) {
             throw new DatosInvalidosException("El tipo de tiquete no puede ser nulo.");
         }
-        return tiquetesVendidos.values().stream()
-                .filter(tipo::isInstance)
-                .map(tipo::cast)
-                .toList();
+        cargarTiquetes();
+        // Solo se recorren las clases concretas compatibles con el tipo pedido
+        List<T> resultado = new ArrayList<>();
+        for (Map.Entry<Class<? extends Tiquete>, Map<String, Tiquete>> entrada : indicePorClase.entrySet()) {
+            if (tipo.isAssignableFrom(entrada.getKey())) {
+                for (Tiquete t : entrada.getValue().values()) {
+                    resultado.add(tipo.cast(t));
+                }
+            }
+        }
+        return java.util.Collections.unmodifiableList(resultado);
     }
 
     public void eliminarTiquetesPorUsuario(String identificacion) {
         if (identificacion == null || identificacion.trim().isEmpty()) {
             throw new DatosInvalidosException("La identificación no puede ser nula ni vacía.");
         }
-        List<String> codigosAEliminar = tiquetesVendidos.values().stream()
-                .filter(t -> identificacion.equals(t.getIdentificacionComprador()))
+        List<String> codigosAEliminar = consultarTiquetesPorUsuario(identificacion).stream()
                 .map(Tiquete::getCodigo)
                 .toList();
         for (String codigo : codigosAEliminar) {
-            tiquetesVendidos.remove(codigo);
+            quitarTiquete(codigo);
         }
-        tiqueteRepository.guardarTiquetes(new ArrayList<>(tiquetesVendidos.values()));
+        persistirEliminacion(codigosAEliminar);
     }
 
     public <T extends Tiquete> void eliminarTiquetesPorTipo(Class<T> tipo) {
         if (tipo == null) {
             throw new DatosInvalidosException("El tipo de tiquete no puede ser nulo.");
         }
-        List<String> codigosAEliminar = tiquetesVendidos.values().stream()
-                .filter(tipo::isInstance)
+        List<String> codigosAEliminar = consultarTiquetesPorTipo(tipo).stream()
                 .map(Tiquete::getCodigo)
                 .toList();
         for (String codigo : codigosAEliminar) {
-            tiquetesVendidos.remove(codigo);
+            quitarTiquete(codigo);
+        }
+        persistirEliminacion(codigosAEliminar);
+    }
+
+    // Registra el tiquete en el mapa principal y en los índices, reemplazando el anterior con el mismo código.
+    // compute bloquea solo la entrada de ese código, así los índices quedan coherentes sin un candado global.
+    private void agregarTiquete(Tiquete tiquete) {
+        tiquetesVendidos.compute(tiquete.getCodigo(), (_, anterior) -> {
+            if (anterior != null && anterior != tiquete) {
+                desindexar(anterior);
+            }
+            indexar(tiquete);
+            return tiquete;
+        });
+    }
+
+    // Como agregarTiquete, pero si ya hay un tiquete con ese código se conserva; devuelve el que quedó
+    private Tiquete agregarSiFalta(Tiquete tiquete) {
+        return tiquetesVendidos.computeIfAbsent(tiquete.getCodigo(), _ -> {
+            indexar(tiquete);
+            return tiquete;
+        });
+    }
+
+    private void quitarTiquete(String codigo) {
+        tiquetesVendidos.computeIfPresent(codigo, (_, eliminado) -> {
+            desindexar(eliminado);
+            return null;
+        });
+    }
+
+    private void indexar(Tiquete tiquete) {
+        if (tiquete.getIdentificacionComprador() != null) {
+            agregarAIndice(indicePorComprador, tiquete.getIdentificacionComprador(), tiquete);
         }
-        tiqueteRepository.guardarTiquetes(new ArrayList<>(tiquetesVendidos.values()));
+        if (tiquete.getFechaHoraEmision() != null) {
+            agregarAIndice(indicePorFecha, tiquete.getFechaHoraEmision().toLocalDate(), tiquete);
+        }
+        agregarAIndice(indicePorClase, tiquete.getClass(), tiquete);
+    }
+
+    private void desindexar(Tiquete tiquete) {
+        if (tiquete.getIdentificacionComprador() != null) {
+            quitarDeIndice(indicePorComprador, tiquete.getIdentificacionComprador(), tiquete.getCodigo());
+        }
+        if (tiquete.getFechaHoraEmision() != null) {
+            quitarDeIndice(indicePorFecha, tiquete.getFechaHoraEmision().toLocalDate(), tiquete.getCodigo());
+        }
+        quitarDeIndice(indicePorClase, tiquete.getClass(), tiquete.getCodigo());
+    }
+
+    private static <K> void agregarAIndice(Map<K, Map<String, Tiquete>> indice, K clave, Tiquete tiquete) {
+        indice.compute(clave, (_, grupo) -> {
+            Map<String, Tiquete> resultado = grupo != null ? grupo : new ConcurrentHashMap<>();
+            resultado.put(tiquete.getCodigo(), tiquete);
+            return resultado;
+        });
+    }
+
+    // El grupo vacío se elimina dentro de compute, así no se pierde una inserción concurrente en la misma clave
+    private static <K> void quitarDeIndice(Map<K, Map<String, Tiquete>> indice, K clave, String codigo) {
+        indice.computeIfPresent(clave, (_, grupo) -> {
+            grupo.remove(codigo);
+            return grupo.isEmpty() ? null : grupo;
+        });
+    }
+
+    private static List<Tiquete> valoresIndexados(Map<String, Tiquete> grupo) {
+        return grupo == null ? List.of() : List.copyOf(grupo.values());
     }
 }
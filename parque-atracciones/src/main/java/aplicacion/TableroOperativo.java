@@ -0,0 +1,422 @@
+package aplicacion;
+
+import dominio.elementoparque.ElementoParque;
+import dominio.excepciones.DatosInvalidosException;
+import dominio.util.CondicionClimatica;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Tablero del estado operativo de los elementos del parque según el clima actual.
+ * <p>
+ * Para cada {@link CondicionClimatica} se precalcula el conjunto de elementos que pueden operar
+ * (según {@link ElementoParque#puedeOperarEnClima(CondicionClimatica)}, respetando las reglas
+ * propias de cada tipo de elemento). Cambiar el clima solo sustituye el conjunto activo, y los
+ * suscriptores reciben únicamente los elementos cuyo estado cambió; las diferencias entre cada par
+ * de climas se calculan una vez y se reutilizan hasta que algún elemento entre o salga de uno de
+ * ellos. Actualizar un elemento solo lo evalúa a él en cada clima.
+ * </p>
+ *
+ * <b>Contexto:</b> Lo mantiene {@link ServicioGestionElementosParque} al día con los elementos del
+ * parque; lo usan el personal de operaciones y las vistas (paneles de la GUI, consolas) para saber
+ * qué atracciones y espectáculos pueden funcionar en cada momento.
+ *
+ * <b>Precondiciones generales:</b> Los elementos tienen IDs únicos y el clima nunca es nulo.
+ * <b>Poscondiciones generales:</b> El conjunto activo corresponde siempre al clima actual, y los
+ * suscriptores reciben los cambios de uno en uno y en el orden en que se aplicaron. Se les notifica
+ * sin ningún candado del tablero tomado, así que pueden consultarlo o modificarlo desde la notificación.
+ *
+ * @author Sistema Parque
+ * @example
+ * <pre>
+ *     TableroOperativo tablero = new TableroOperativo(servicioElementos.consultarTodosLosElementos(), CondicionClimatica.NORMAL);
+ *     tablero.suscribir((anterior, actual, habilitados, deshabilitados) -> panel.refrescar(habilitados, deshabilitados));
+ *     tablero.cambiarClima(CondicionClimatica.TORMENTA);
+ *     boolean opera = tablero.puedeOperar("A1");
+ * </pre>
+ */
+public class TableroOperativo {
+
+    /**
+     * Recibe los cambios de estado operativo provocados por un cambio de clima o por la
+     * actualización de un elemento.
+     */
+    @FunctionalInterface
+    public interface SuscriptorTablero {
+        /**
+         * @param anterior Clima antes del cambio (igual a {@code actual} si cambió un elemento).
+         * @param actual Clima vigente.
+         * @param habilitados Elementos que ahora pueden operar y antes no.
+         * @param deshabilitados Elementos que antes podían operar y ahora no.
+         */
+        void estadoCambiado(CondicionClimatica anterior, CondicionClimatica actual,
+                            List<ElementoParque> habilitados, List<ElementoParque> deshabilitados);
+    }
+
+    // Diferencia precalculada entre los conjuntos operables de dos climas
+    private static final class Transicion {
+        private final List<ElementoParque> habilitados;
+        private final List<ElementoParque> deshabilitados;
+
+        private Transicion(List<ElementoParque> habilitados, List<ElementoParque> deshabilitados) {
+            this.habilitados = habilitados;
+            this.deshabilitados = deshabilitados;
+        }
+    }
+
+    private final Map<String, ElementoParque> elementos = new LinkedHashMap<>();
+    // Conjuntos inmutables por clima: al cambiar un elemento solo se copian los climas donde cambia su pertenencia
+    private final EnumMap<CondicionClimatica, Set<ElementoParque>> operablesPorClima = new EnumMap<>(CondicionClimatica.class);
+    private final EnumMap<CondicionClimatica, EnumMap<CondicionClimatica, Transicion>> transiciones = new EnumMap<>(CondicionClimatica.class);
+    // Cambio ya aplicado, pendiente de notificar
+    private static final class Notificacion {
+        private final CondicionClimatica anterior;
+        private final CondicionClimatica actual;
+        private final List<ElementoParque> habilitados;
+        private final List<ElementoParque> deshabilitados;
+
+        private Notificacion(CondicionClimatica anterior, CondicionClimatica actual,
+                             List<ElementoParque> habilitados, List<ElementoParque> deshabilitados) {
+            this.anterior = anterior;
+            this.actual = actual;
+            this.habilitados = habilitados;
+            this.deshabilitados = deshabilitados;
+        }
+    }
+
+    private final List<SuscriptorTablero> suscriptores = new CopyOnWriteArrayList<>();
+    // Cada cambio encola su notificación bajo el candado del tablero; un solo hilo a la vez las entrega,
+    // en orden y ya sin el candado
+    private final Queue<Notificacion> notificacionesPendientes = new ArrayDeque<>();
+    private boolean entregando;
+    private volatile CondicionClimatica climaActual;
+    private volatile Set<ElementoParque> operablesActuales;
+
+    /**
+     * Crea el tablero y precalcula los conjuntos operables de todos los climas.
+     *
+     * <b>Precondiciones:</b> La colección y el clima inicial no deben ser nulos.
+     *
+     * @param elementosParque Elementos del parque a seguir.
+     * @param climaInicial Clima vigente al crear el tablero.
+     * @throws DatosInvalidosException si algún parámetro es nulo.
+     */
+    public TableroOperativo(Collection<? extends ElementoParque> elementosParque, CondicionClimatica climaInicial) {
+        if (elementosParque == null || climaInicial == null) {
+            throw new DatosInvalidosException("Los elementos y el clima inicial no pueden ser nulos.");
+        }
+        for (ElementoParque elemento : elementosParque) {
+            elementos.put(elemento.getId(), elemento);
+        }
+        recalcularConjuntos();
+        this.climaActual = climaInicial;
+        this.operablesActuales = operablesPorClima.get(climaInicial);
+    }
+
+    /**
+     * Registra un suscriptor de cambios de estado.
+     *
+     * @param suscriptor Suscriptor a notificar.
+     * @throws DatosInvalidosException si el suscriptor es nulo.
+     */
+    public void suscribir(SuscriptorTablero suscriptor) {
+        if (suscriptor == null) {
+            throw new DatosInvalidosException("El suscriptor no puede ser nulo.");
+        }
+        suscriptores.add(suscriptor);
+    }
+
+    /**
+     * @param suscriptor Suscriptor a retirar.
+     */
+    public void desuscribir(SuscriptorTablero suscriptor) {
+        suscriptores.remove(suscriptor);
+    }
+
+    /**
+     * Cambia el clima vigente y notifica a los suscriptores los elementos cuyo estado cambió.
+     *
+     * <b>Precondiciones:</b> El clima no debe ser nulo.
+     * <b>Poscondiciones:</b> El conjunto activo es el precalculado para el nuevo clima. Los suscriptores
+     * son notificados después de los cambios anteriores; si otro hilo está entregando notificaciones,
+     * es ese hilo el que entrega esta.
+     *
+     * @param nuevoClima Nuevo clima vigente.
+     * @throws DatosInvalidosException si el clima es nulo.
+     */
+    public void cambiarClima(CondicionClimatica nuevoClima) {
+        if (nuevoClima == null) {
+            throw new DatosInvalidosException("El clima no puede ser nulo.");
+        }
+        synchronized (this) {
+            CondicionClimatica anterior = climaActual;
+            if (anterior == nuevoClima) {
+                return;
+            }
+            climaActual = nuevoClima;
+            operablesActuales = operablesPorClima.get(nuevoClima);
+            Transicion transicion = transicion(anterior, nuevoClima);
+            encolar(anterior, nuevoClima, transicion.habilitados, transicion.deshabilitados);
+        }
+        entregarNotificaciones();
+    }
+
+    /**
+     * Agrega o actualiza un elemento (p. ej. tras cambiar sus restricciones de clima) y notifica
+     * si cambió su estado bajo el clima vigente. Solo se evalúa este elemento en cada clima.
+     *
+     * @param elemento Elemento nuevo o modificado.
+     * @throws DatosInvalidosException si el elemento es nulo.
+     */
+    public void actualizarElemento(ElementoParque elemento) {
+        if (elemento == null) {
+            throw new DatosInvalidosException("El elemento no puede ser nulo.");
+        }
+        synchronized (this) {
+            aplicarActualizacion(elemento);
+        }
+        entregarNotificaciones();
+    }
+
+    /**
+     * Deja de seguir un elemento; si estaba operando, se notifica como deshabilitado.
+     *
+     * @param idElemento ID del elemento.
+     */
+    public void quitarElemento(String idElemento) {
+        synchronized (this) {
+            aplicarQuitar(idElemento);
+        }
+        entregarNotificaciones();
+    }
+
+    /**
+     * Ajusta el tablero a los elementos dados: deja de seguir los que ya no están y agrega o
+     * actualiza el resto, notificando como en {@link #actualizarElemento} y {@link #quitarElemento}.
+     * Sirve tras cambios masivos (eliminaciones en bloque, recargas del repositorio).
+     *
+     * @param elementosParque Elementos vigentes del parque.
+     * @throws DatosInvalidosException si la colección es nula.
+     */
+    public void sincronizar(Collection<? extends ElementoParque> elementosParque) {
+        if (elementosParque == null) {
+            throw new DatosInvalidosException("Los elementos no pueden ser nulos.");
+        }
+        Set<String> vigentes = new LinkedHashSet<>();
+        for (ElementoParque elemento : elementosParque) {
+            vigentes.add(elemento.getId());
+        }
+        synchronized (this) {
+            List<String> retirados = new ArrayList<>(elementos.keySet());
+            retirados.removeAll(vigentes);
+            retirados.forEach(this::aplicarQuitar);
+            for (ElementoParque elemento : elementosParque) {
+                // Una instancia ya seguida puede haber cambiado sus restricciones: se reevalúa igual
+                if (elementos.get(elemento.getId()) != elemento || cambioPertenencia(elemento)) {
+                    aplicarActualizacion(elemento);
+                }
+            }
+        }
+        entregarNotificaciones();
+    }
+
+    /**
+     * @return Clima vigente.
+     */
+    public CondicionClimatica getClimaActual() {
+        return climaActual;
+    }
+
+    /**
+     * @return Vista inmutable de los elementos que pueden operar con el clima vigente.
+     */
+    public Set<ElementoParque> getElementosOperables() {
+        return operablesActuales;
+    }
+
+    /**
+     * @param clima Condición climática.
+     * @return Vista inmutable de los elementos que pueden operar con ese clima.
+     */
+    public synchronized Set<ElementoParque> getElementosOperables(CondicionClimatica clima) {
+        return operablesPorClima.get(clima);
+    }
+
+    /**
+     * Indica si un elemento puede operar con el clima vigente.
+     *
+     * @param idElemento ID del elemento.
+     * @return true si el elemento está seguido por el tablero y puede operar.
+     */
+    public boolean puedeOperar(String idElemento) {
+        ElementoParque elemento;
+        synchronized (this) {
+            elemento = elementos.get(idElemento);
+        }
+        return elemento != null && operablesActuales.contains(elemento);
+    }
+
+    // Bajo el candado del tablero
+    private void aplicarActualizacion(ElementoParque elemento) {
+        CondicionClimatica clima = climaActual;
+        ElementoParque anterior = elementos.put(elemento.getId(), elemento);
+        boolean antes = anterior != null && operablesActuales.contains(anterior);
+        reubicar(anterior, elemento);
+        operablesActuales = operablesPorClima.get(clima);
+        boolean ahora = operablesActuales.contains(elemento);
+        if (antes != ahora) {
+            encolar(clima, clima, ahora ? List.of(elemento) : List.of(), ahora ? List.of() : List.of(elemento));
+        }
+    }
+
+    // Bajo el candado del tablero
+    private void aplicarQuitar(String idElemento) {
+        ElementoParque quitado = elementos.remove(idElemento);
+        if (quitado == null) {
+            return;
+        }
+        CondicionClimatica clima = climaActual;
+        boolean operaba = operablesActuales.contains(quitado);
+        reubicar(quitado, null);
+        operablesActuales = operablesPorClima.get(clima);
+        if (operaba) {
+            encolar(clima, clima, List.of(), List.of(quitado));
+        }
+    }
+
+    // Calcula los conjuntos operables de todos los climas; solo al crear el tablero
+    private void recalcularConjuntos() {
+        for (CondicionClimatica clima : CondicionClimatica.values()) {
+            Set<ElementoParque> operables = new LinkedHashSet<>();
+            for (ElementoParque elemento : elementos.values()) {
+                if (elemento.puedeOperarEnClima(clima)) {
+                    operables.add(elemento);
+                }
+            }
+            operablesPorClima.put(clima, Collections.unmodifiableSet(operables));
+        }
+        transiciones.clear();
+    }
+
+    // Sustituye {@code anterior} por {@code nuevo} (null si se quita) solo en los climas donde cambia
+    // algo, y descarta únicamente las transiciones que tocan esos climas
+    private void reubicar(ElementoParque anterior, ElementoParque nuevo) {
+        Set<CondicionClimatica> afectados = EnumSet.noneOf(CondicionClimatica.class);
+        for (CondicionClimatica clima : CondicionClimatica.values()) {
+            Set<ElementoParque> operables = operablesPorClima.get(clima);
+            boolean estaba = anterior != null && operables.contains(anterior);
+            boolean queda = nuevo != null && nuevo.puedeOperarEnClima(clima);
+            if (!estaba && !queda || estaba && queda && anterior == nuevo) {
+                continue;
+            }
+            Set<ElementoParque> copia = new LinkedHashSet<>(operables);
+            if (estaba) {
+                copia.remove(anterior);
+            }
+            if (queda) {
+                copia.add(nuevo);
+            }
+            operablesPorClima.put(clima, Collections.unmodifiableSet(copia));
+            afectados.add(clima);
+        }
+        if (afectados.isEmpty()) {
+            return;
+        }
+        transiciones.keySet().removeAll(afectados);
+        for (EnumMap<CondicionClimatica, Transicion> desde : transiciones.values()) {
+            desde.keySet().removeAll(afectados);
+        }
+    }
+
+    private boolean cambioPertenencia(ElementoParque elemento) {
+        for (CondicionClimatica clima : CondicionClimatica.values()) {
+            if (operablesPorClima.get(clima).contains(elemento) != elemento.puedeOperarEnClima(clima)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Transicion transicion(CondicionClimatica desde, CondicionClimatica hacia) {
+        return transiciones.computeIfAbsent(desde, _ -> new EnumMap<>(CondicionClimatica.class))
+                .computeIfAbsent(hacia, _ -> {
+                    Set<ElementoParque> antes = operablesPorClima.get(desde);
+                    Set<ElementoParque> despues = operablesPorClima.get(hacia);
+                    List<ElementoParque> habilitados = new ArrayList<>();
+                    List<ElementoParque> deshabilitados = new ArrayList<>();
+                    for (ElementoParque elemento : despues) {
+                        if (!antes.contains(elemento)) {
+                            habilitados.add(elemento);
+                        }
+                    }
+                    for (ElementoParque elemento : antes) {
+                        if (!despues.contains(elemento)) {
+                            deshabilitados.add(elemento);
+                        }
+                    }
+                    return new Transicion(List.copyOf(habilitados), List.copyOf(deshabilitados));
+                });
+    }
+
+    // Bajo el candado del tablero
+    private void encolar(CondicionClimatica anterior, CondicionClimatica actual,
+                         List<ElementoParque> habilitados, List<ElementoParque> deshabilitados) {
+        if (!habilitados.isEmpty() || !deshabilitados.isEmpty()) {
+            notificacionesPendientes.add(new Notificacion(anterior, actual, habilitados, deshabilitados));
+        }
+    }
+
+    // Sin el candado del tablero. Si otro hilo (o este mismo, desde un suscriptor) ya está entregando,
+    // él entregará también lo recién encolado
+    private void entregarNotificaciones() {
+        synchronized (this) {
+            if (entregando) {
+                return;
+            }
+            entregando = true;
+        }
+        Notificacion notificacion = null;
+        try {
+            while (true) {
+                synchronized (this) {
+                    notificacion = notificacionesPendientes.poll();
+                    if (notificacion == null) {
+                        entregando = false;
+                        return;
+                    }
+                }
+                notificar(notificacion);
+            }
+        } finally {
+            if (notificacion != null) {
+                // Solo si notificar terminó con un Error: otro cambio retomará la entrega
+                synchronized (this) {
+                    entregando = false;
+                }
+            }
+        }
+    }
+
+    private void notificar(Notificacion notificacion) {
+        for (SuscriptorTablero suscriptor : suscriptores) {
+            try {
+                suscriptor.estadoCambiado(notificacion.anterior, notificacion.actual,
+                        notificacion.habilitados, notificacion.deshabilitados);
+            } catch (RuntimeException e) {
+                System.err.println("[WARN] Un suscriptor del tablero operativo falló: " + e.getMessage());
+            }
+        }
+    }
+}
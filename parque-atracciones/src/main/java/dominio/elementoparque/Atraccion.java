@@ -22,6 +22,9 @@ public abstract class Atraccion extends ElementoParque implements LugarTrabajo {
     private NivelExclusividad nivelExclusividad;
     private List<Empleado> empleadosAsignados;
     private Set<Capacitacion> capacitacionesRequeridas;
+    // Caché de capacitacionesRequeridas como máscara; transient porque Gson reconstruye las atracciones
+    // sin pasar por el constructor, así que se calcula al primer uso (null = sin calcular)
+    private transient volatile Long mascaraCapacitacionesRequeridas;
 
     // ✅ NUEVOS CAMPOS: restricciones físicas
     private double alturaMinima;
@@ -49,6 +52,15 @@ public abstract class Atraccion extends ElementoParque implements LugarTrabajo {
         return getNombre();
     }
 
+    /**
+     * Las atracciones se identifican por su ID, que no cambia aunque se renombren.
+     * @return Clave "Atraccion:" seguida del ID.
+     */
+    @Override
+    public String getClaveLugar() {
+        return "Atraccion:" + getId();
+    }
+
     @Override
     public void asignarEmpleado(Empleado empleado) {
         if (empleado == null) {
@@ -68,7 +80,7 @@ public abstract class Atraccion extends ElementoParque implements LugarTrabajo {
             return false;
         }
         return empleadosAsignados.stream()
-                .allMatch(e -> e.cumpleCapacitaciones(capacitacionesRequeridas));
+                .allMatch(e -> e.cumpleCapacitaciones(getMascaraCapacitacionesRequeridas()));
     }
 
     @Override
@@ -76,8 +88,19 @@ public abstract class Atraccion extends ElementoParque implements LugarTrabajo {
         return new HashSet<>(capacitacionesRequeridas);
     }
 
+    @Override
+    public long getMascaraCapacitacionesRequeridas() {
+        Long mascara = mascaraCapacitacionesRequeridas;
+        if (mascara == null) {
+            mascara = Capacitacion.mascaraDe(capacitacionesRequeridas);
+            mascaraCapacitacionesRequeridas = mascara;
+        }
+        return mascara;
+    }
+
     protected void setCapacitacionesRequeridas(Set<Capacitacion> capacitaciones) {
         this.capacitacionesRequeridas = new HashSet<>(capacitaciones);
+        this.mascaraCapacitacionesRequeridas = null;
     }
 
     public abstract boolean puedeAsignarEmpleado(Empleado empleado);
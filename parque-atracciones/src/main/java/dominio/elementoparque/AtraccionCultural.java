@@ -136,7 +136,7 @@ public class AtraccionCultural extends Atraccion {
     @Override
     public boolean puedeAsignarEmpleado(Empleado empleado) {
         if (empleado == null) return false; // O lanzar DatosInvalidosException
-        return empleado.cumpleCapacitaciones(getCapacitacionesRequeridas());
+        return empleado.cumpleCapacitaciones(getMascaraCapacitacionesRequeridas());
     }
 
     /**
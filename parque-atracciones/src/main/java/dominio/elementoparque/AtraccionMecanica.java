@@ -314,7 +314,7 @@ public class AtraccionMecanica extends Atraccion {
         }
         // Requisito 2: Debe cumplir TODAS las capacitaciones requeridas por esta atracción
         // Se obtienen las capacitaciones configuradas en el constructor (vía super.setCapacitacionesRequeridas)
-        return empleado.cumpleCapacitaciones(super.getCapacitacionesRequeridas());
+        return empleado.cumpleCapacitaciones(getMascaraCapacitacionesRequeridas());
     }
 
     /**
@@ -338,7 +338,7 @@ public class AtraccionMecanica extends Atraccion {
         }
         // Para cumplir con el test, cualquier empleado que no sea OperarioAtraccion o no tenga las capacitaciones requeridas
         // debe lanzar CapacitacionInsuficienteException
-        if (!(empleado instanceof OperarioAtraccion) || !empleado.cumpleCapacitaciones(super.getCapacitacionesRequeridas())) {
+        if (!(empleado instanceof OperarioAtraccion) || !empleado.cumpleCapacitaciones(getMascaraCapacitacionesRequeridas())) {
             throw new CapacitacionInsuficienteException(empleado, this);
         }
         super.asignarEmpleado(empleado);
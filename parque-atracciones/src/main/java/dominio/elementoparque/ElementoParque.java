@@ -37,6 +37,8 @@ public abstract class ElementoParque {
     private LocalDateTime fechaInicioTemporada;
     private LocalDateTime fechaFinTemporada;
     protected List<CondicionClimatica> climaNoPermitido;
+    // No se persiste; puede ser null en instancias creadas por deserialización
+    private transient List<ObservadorCalendario> observadoresCalendario;
 
     /**
      * Constructor protegido para inicializar un elemento del parque.
@@ -138,6 +140,49 @@ public abstract class ElementoParque {
         this.fechaInicioTemporada = fechaInicio;
         this.fechaFinTemporada = fechaFin;
         this.esDeTemporada = true;
+        notificarCambioCalendario();
+    }
+
+    /**
+     * Registra un observador que será avisado cuando cambie la temporada (o los horarios) del elemento.
+     *
+     * @param observador Observador a registrar.
+     */
+    public synchronized void agregarObservadorCalendario(ObservadorCalendario observador) {
+        if (observador == null) {
+            return;
+        }
+        List<ObservadorCalendario> nuevos = observadoresCalendario == null ? new ArrayList<>() : new ArrayList<>(observadoresCalendario);
+        if (!nuevos.contains(observador)) {
+            nuevos.add(observador);
+        }
+        observadoresCalendario = nuevos;
+    }
+
+    /**
+     * @param observador Observador a retirar.
+     */
+    public synchronized void quitarObservadorCalendario(ObservadorCalendario observador) {
+        if (observadoresCalendario != null) {
+            List<ObservadorCalendario> nuevos = new ArrayList<>(observadoresCalendario);
+            nuevos.remove(observador);
+            observadoresCalendario = nuevos.isEmpty() ? null : nuevos;
+        }
+    }
+
+    /**
+     * Avisa a los observadores de calendario que la temporada u horarios del elemento cambiaron.
+     */
+    protected void notificarCambioCalendario() {
+        List<ObservadorCalendario> actuales;
+        synchronized (this) {
+            actuales = observadoresCalendario;
+        }
+        if (actuales != null) {
+            for (ObservadorCalendario observador : actuales) {
+                observador.calendarioCambiado(this);
+            }
+        }
     }
 
     /**
@@ -164,6 +209,16 @@ public abstract class ElementoParque {
         return new ArrayList<>(climaNoPermitido);
     }
 
+    /**
+     * Indica si la condición climática está entre las no permitidas, sin copiar la lista.
+     *
+     * @param clima Condición climática a consultar.
+     * @return true si el elemento tiene restringida la operación en ese clima.
+     */
+    public boolean restringidoPorClima(CondicionClimatica clima) {
+        return climaNoPermitido.contains(clima);
+    }
+
     /**
      * Define las condiciones climáticas en las que el elemento no puede operar.
      *
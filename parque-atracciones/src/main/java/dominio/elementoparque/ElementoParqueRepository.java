@@ -1,11 +1,21 @@
 package dominio.elementoparque;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Predicate;
 
 /**
  * Interfaz que define las operaciones de persistencia para las atracciones y espectáculos.
  * Sigue el patrón Repository para abstraer el acceso a datos.
+ * <p>
+ * Varias modificaciones pueden agruparse en una unidad de trabajo ({@link #beginUnitOfWork()},
+ * {@link #commitUnitOfWork()}, {@link #rollbackUnitOfWork()}): mientras está abierta, los cambios
+ * se aplican en memoria y se persisten juntos al confirmar.
+ * </p>
  */
 public interface ElementoParqueRepository {
     /**
@@ -74,13 +84,32 @@ public interface ElementoParqueRepository {
 
     /**
      * Devuelve todas las atracciones almacenadas.
+     * La lista puede ser una vista de solo lectura compartida entre llamadas: no debe modificarse.
      *
      * @return Una lista con todas las atracciones.
      */
     List<Atraccion> findAllAtracciones();
     
+    /**
+     * Devuelve una tabla inmutable id → atracción con todas las atracciones almacenadas.
+     * Pensada para cargas masivas (p. ej. de tiquetes): se construye una sola vez y todas las
+     * búsquedas comparten las mismas instancias de Atraccion.
+     *
+     * @return Mapa inmutable de atracciones indexado por ID.
+     */
+    default Map<String, Atraccion> findAllAtraccionesById() {
+        Map<String, Atraccion> tabla = new LinkedHashMap<>();
+        for (Atraccion a : findAllAtracciones()) {
+            if (a != null && a.getId() != null) {
+                tabla.putIfAbsent(a.getId(), a);
+            }
+        }
+        return Collections.unmodifiableMap(tabla);
+    }
+
     /**
      * Devuelve todos los elementos del parque (atracciones y espectáculos).
+     * La lista puede ser una vista de solo lectura compartida entre llamadas: no debe modificarse.
      *
      * @return Una lista con todos los elementos.
      */
@@ -93,8 +122,69 @@ public interface ElementoParqueRepository {
      */
     void deleteById(String id);
     
+    /**
+     * Guarda varios elementos (atracciones o espectáculos) persistiendo una sola vez.
+     *
+     * @param elementos Elementos a guardar.
+     * @throws IllegalArgumentException si algún elemento no es atracción ni espectáculo.
+     */
+    default void saveAll(Collection<? extends ElementoParque> elementos) {
+        enUnidadDeTrabajo(() -> {
+            for (ElementoParque elemento : elementos) {
+                if (elemento instanceof Atraccion atraccion) {
+                    save(atraccion);
+                } else if (elemento instanceof Espectaculo espectaculo) {
+                    save(espectaculo);
+                } else {
+                    throw new IllegalArgumentException("Tipo de elemento desconocido: " + elemento);
+                }
+            }
+        });
+    }
+
+    /**
+     * Elimina varios elementos por su ID persistiendo una sola vez.
+     *
+     * @param ids IDs de los elementos a eliminar; los que no existen se ignoran.
+     * @return Número de elementos eliminados.
+     */
+    default int deleteAllById(Collection<String> ids) {
+        int[] eliminados = {0};
+        enUnidadDeTrabajo(() -> {
+            for (String id : ids) {
+                if (findById(id).isPresent()) {
+                    deleteById(id);
+                    eliminados[0]++;
+                }
+            }
+        });
+        return eliminados[0];
+    }
+
+    /**
+     * Elimina todos los elementos que cumplen una condición persistiendo una sola vez.
+     *
+     * @param condicion Condición que deben cumplir los elementos a eliminar.
+     * @return Número de elementos eliminados.
+     */
+    default int deleteAll(Predicate<? super ElementoParque> condicion) {
+        return deleteAllById(findAll().stream().filter(condicion).map(ElementoParque::getId).toList());
+    }
+
+    /**
+     * Busca los elementos que cumplen un filtro por atributos (exclusividad, riesgo, clima).
+     * La implementación por defecto evalúa el filtro sobre todos los elementos.
+     *
+     * @param filtro Criterio de búsqueda.
+     * @return Lista con los elementos que cumplen el filtro.
+     */
+    default List<ElementoParque> findByFiltro(FiltroElementos filtro) {
+        return findAll().stream().filter(filtro::cumple).toList();
+    }
+
     /**
      * Devuelve todas las atracciones mecánicas.
+     * La lista puede ser una vista de solo lectura compartida entre llamadas: no debe modificarse.
      *
      * @return Una lista con todas las atracciones mecánicas.
      */
@@ -102,6 +192,7 @@ public interface ElementoParqueRepository {
 
     /**
      * Devuelve todas las atracciones culturales.
+     * La lista puede ser una vista de solo lectura compartida entre llamadas: no debe modificarse.
      *
      * @return Una lista con todas las atracciones culturales.
      */
@@ -109,8 +200,91 @@ public interface ElementoParqueRepository {
 
     /**
      * Devuelve todos los espectáculos.
+     * La lista puede ser una vista de solo lectura compartida entre llamadas: no debe modificarse.
      *
      * @return Una lista con todos los espectáculos.
      */
     List<Espectaculo> findAllEspectaculos();
+
+    /**
+     * Devuelve la versión actual de los datos. Crece cada vez que cambia algún elemento guardado
+     * (save, delete, descarte de una unidad de trabajo o recarga desde disco), así que dos lecturas
+     * con la misma versión ven los mismos elementos.
+     * La implementación por defecto no lleva versiones y devuelve siempre 0.
+     *
+     * @return Versión de los datos.
+     */
+    default long getVersion() {
+        return 0;
+    }
+
+    /**
+     * Indica si los datos cambiaron desde una versión leída antes con {@link #getVersion()}.
+     * Permite omitir refrescos de pantalla o recálculos cuando nada cambió.
+     *
+     * @param version Versión leída antes.
+     * @return true si la versión actual es distinta.
+     */
+    default boolean haCambiadoDesde(long version) {
+        return getVersion() != version;
+    }
+
+    /**
+     * Inicia una unidad de trabajo: los save y deleteById siguientes se aplican en memoria y no se
+     * persisten hasta {@link #commitUnitOfWork()}.
+     * La implementación por defecto no agrupa nada y cada operación se persiste de inmediato.
+     *
+     * @throws IllegalStateException si ya hay una unidad de trabajo abierta.
+     */
+    default void beginUnitOfWork() {
+    }
+
+    /**
+     * Indica si hay una unidad de trabajo abierta.
+     *
+     * @return true entre {@link #beginUnitOfWork()} y su commit o rollback.
+     */
+    default boolean isUnitOfWorkActive() {
+        return false;
+    }
+
+    /**
+     * Persiste los cambios de la unidad de trabajo abierta, escribiendo una sola vez cada archivo modificado.
+     *
+     * @throws IllegalStateException si no hay una unidad de trabajo abierta.
+     */
+    default void commitUnitOfWork() {
+    }
+
+    /**
+     * Descarta los cambios de la unidad de trabajo abierta y restaura el contenido previo del repositorio.
+     * Los cambios hechos directamente sobre las instancias (sin save) no se revierten.
+     *
+     * @throws UnsupportedOperationException si el repositorio no puede descartar cambios.
+     */
+    default void rollbackUnitOfWork() {
+        throw new UnsupportedOperationException("Este repositorio no soporta descartar unidades de trabajo.");
+    }
+
+    /**
+     * Ejecuta las operaciones dentro de la unidad de trabajo abierta o, si no hay ninguna, dentro de una propia.
+     */
+    private void enUnidadDeTrabajo(Runnable operaciones) {
+        if (isUnitOfWorkActive()) {
+            operaciones.run();
+            return;
+        }
+        beginUnitOfWork();
+        try {
+            operaciones.run();
+        } catch (RuntimeException e) {
+            try {
+                rollbackUnitOfWork();
+            } catch (UnsupportedOperationException noSoportado) {
+                e.addSuppressed(noSoportado);
+            }
+            throw e;
+        }
+        commitUnitOfWork();
+    }
 }
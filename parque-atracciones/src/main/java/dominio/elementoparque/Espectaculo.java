@@ -139,6 +139,7 @@ public class Espectaculo extends ElementoParque {
              throw new DatosInvalidosException("Debe proporcionar al menos un horario para el espectáculo.");
          }
         this.horarios = new ArrayList<>(horarios);
+        notificarCambioCalendario();
     }
 
     /**
@@ -0,0 +1,192 @@
+package dominio.elementoparque;
+
+import dominio.util.CondicionClimatica;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Criterio de búsqueda de elementos del parque por sus atributos enumerados, combinable con
+ * conjunciones y disyunciones.
+ * <p>
+ * Los repositorios con índices por atributo (ver {@link ElementoParqueRepository#findByFiltro(FiltroElementos)})
+ * resuelven cada criterio simple con su índice y las combinaciones con operaciones de conjuntos;
+ * los demás evalúan {@link #cumple(ElementoParque)} sobre cada elemento.
+ * </p>
+ *
+ * @author Sistema Parque
+ * @example
+ * <pre>
+ *     FiltroElementos filtro = FiltroElementos.exclusividad(NivelExclusividad.ORO)
+ *             .y(FiltroElementos.climaNoPermitido(CondicionClimatica.TORMENTA)
+ *                     .o(FiltroElementos.riesgo(NivelRiesgo.ALTO)));
+ *     List&lt;ElementoParque&gt; elementos = repositorio.findByFiltro(filtro);
+ * </pre>
+ */
+public sealed interface FiltroElementos
+        permits FiltroElementos.PorExclusividad, FiltroElementos.PorRiesgo, FiltroElementos.PorClimaNoPermitido,
+                FiltroElementos.Todos, FiltroElementos.Alguno {
+
+    /**
+     * Evalúa el criterio sobre un elemento.
+     *
+     * @param elemento Elemento a evaluar.
+     * @return true si el elemento cumple el criterio.
+     */
+    boolean cumple(ElementoParque elemento);
+
+    /** Atracciones con el nivel de exclusividad indicado. */
+    static FiltroElementos exclusividad(NivelExclusividad nivel) {
+        return new PorExclusividad(nivel);
+    }
+
+    /** Atracciones mecánicas con el nivel de riesgo indicado. */
+    static FiltroElementos riesgo(NivelRiesgo nivel) {
+        return new PorRiesgo(nivel);
+    }
+
+    /** Elementos que no pueden operar en la condición climática indicada. */
+    static FiltroElementos climaNoPermitido(CondicionClimatica clima) {
+        return new PorClimaNoPermitido(clima);
+    }
+
+    /**
+     * @param otro Criterio adicional.
+     * @return Criterio que exige cumplir este y el otro.
+     */
+    default FiltroElementos y(FiltroElementos otro) {
+        return new Todos(List.of(this, otro));
+    }
+
+    /**
+     * @param otro Criterio alternativo.
+     * @return Criterio que exige cumplir este o el otro.
+     */
+    default FiltroElementos o(FiltroElementos otro) {
+        return new Alguno(List.of(this, otro));
+    }
+
+    final class PorExclusividad implements FiltroElementos {
+        private final NivelExclusividad nivel;
+
+        private PorExclusividad(NivelExclusividad nivel) {
+            if (nivel == null) {
+                throw new IllegalArgumentException("El nivel de exclusividad no puede ser nulo.");
+            }
+            this.nivel = nivel;
+        }
+
+        public NivelExclusividad getNivel() {
+            return nivel;
+        }
+
+        @Override
+        public boolean cumple(ElementoParque elemento) {
+            return elemento instanceof Atraccion a && nivel == a.getNivelExclusividad();
+        }
+    }
+
+    final class PorRiesgo implements FiltroElementos {
+        private final NivelRiesgo nivel;
+
+        private PorRiesgo(NivelRiesgo nivel) {
+            if (nivel == null) {
+                throw new IllegalArgumentException("El nivel de riesgo no puede ser nulo.");
+            }
+            this.nivel = nivel;
+        }
+
+        public NivelRiesgo getNivel() {
+            return nivel;
+        }
+
+        @Override
+        public boolean cumple(ElementoParque elemento) {
+            return elemento instanceof AtraccionMecanica m && nivel == m.getNivelRiesgo();
+        }
+    }
+
+    final class PorClimaNoPermitido implements FiltroElementos {
+        private final CondicionClimatica clima;
+
+        private PorClimaNoPermitido(CondicionClimatica clima) {
+            if (clima == null) {
+                throw new IllegalArgumentException("El clima no puede ser nulo.");
+            }
+            this.clima = clima;
+        }
+
+        public CondicionClimatica getClima() {
+            return clima;
+        }
+
+        @Override
+        public boolean cumple(ElementoParque elemento) {
+            return elemento.restringidoPorClima(clima);
+        }
+    }
+
+    /** Conjunción de criterios. */
+    final class Todos implements FiltroElementos {
+        private final List<FiltroElementos> criterios;
+
+        private Todos(List<FiltroElementos> criterios) {
+            this.criterios = aplanar(criterios, Todos.class);
+        }
+
+        public List<FiltroElementos> getCriterios() {
+            return criterios;
+        }
+
+        @Override
+        public boolean cumple(ElementoParque elemento) {
+            for (FiltroElementos criterio : criterios) {
+                if (!criterio.cumple(elemento)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /** Disyunción de criterios. */
+    final class Alguno implements FiltroElementos {
+        private final List<FiltroElementos> criterios;
+
+        private Alguno(List<FiltroElementos> criterios) {
+            this.criterios = aplanar(criterios, Alguno.class);
+        }
+
+        public List<FiltroElementos> getCriterios() {
+            return criterios;
+        }
+
+        @Override
+        public boolean cumple(ElementoParque elemento) {
+            for (FiltroElementos criterio : criterios) {
+                if (criterio.cumple(elemento)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    // a.y(b).y(c) se guarda como una sola conjunción de tres criterios (igual para las disyunciones)
+    private static List<FiltroElementos> aplanar(List<FiltroElementos> criterios, Class<? extends FiltroElementos> tipo) {
+        List<FiltroElementos> planos = new ArrayList<>();
+        for (FiltroElementos criterio : criterios) {
+            if (criterio == null) {
+                throw new IllegalArgumentException("Los criterios combinados no pueden ser nulos.");
+            }
+            if (criterio instanceof Todos todos && tipo == Todos.class) {
+                planos.addAll(todos.getCriterios());
+            } else if (criterio instanceof Alguno alguno && tipo == Alguno.class) {
+                planos.addAll(alguno.getCriterios());
+            } else {
+                planos.add(criterio);
+            }
+        }
+        return List.copyOf(planos);
+    }
+}
@@ -0,0 +1,213 @@
+package dominio.elementoparque;
+
+import dominio.util.ArbolIntervalos;
+import dominio.util.RangoFechaHora;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Índice temporal de los elementos del parque: temporadas de los elementos y horarios de los espectáculos.
+ * <p>
+ * Guarda las temporadas y los horarios en árboles de intervalos ({@link ArbolIntervalos}), de modo
+ * que "qué está abierto ahora" o "qué espectáculos empiezan en las próximas dos horas" se responden
+ * en O(log n + k) en lugar de recorrer todos los elementos y horarios. Se registra como
+ * {@link ObservadorCalendario} de cada elemento indexado, así que los cambios hechos con
+ * {@link ElementoParque#setTemporada} o {@link Espectaculo#setHorarios} se reflejan solos.
+ * </p>
+ *
+ * <b>Contexto:</b> Lo mantiene el servicio de gestión de elementos para sus consultas por fecha.
+ *
+ * <b>Precondiciones generales:</b> Los elementos tienen IDs únicos.
+ * <b>Poscondiciones generales:</b> Las consultas coinciden con {@link ElementoParque#estaDisponibleEnFecha}
+ * y {@link RangoFechaHora#incluyeFecha} de los elementos indexados.
+ *
+ * @author Sistema Parque
+ * @example
+ * <pre>
+ *     IndiceCalendario indice = IndiceCalendario.desdeElementos(repositorio.findAll());
+ *     List&lt;ElementoParque&gt; abiertos = indice.disponiblesEn(LocalDateTime.now());
+ *     List&lt;Espectaculo&gt; proximos = indice.espectaculosQueInicianEntre(ahora, ahora.plusHours(2));
+ * </pre>
+ */
+public class IndiceCalendario implements ObservadorCalendario {
+
+    // Ubicación de un intervalo en su árbol, para poder eliminarlo
+    private static final class Entrada {
+        private final LocalDateTime inicio;
+        private final long id;
+
+        private Entrada(LocalDateTime inicio, long id) {
+            this.inicio = inicio;
+            this.id = id;
+        }
+    }
+
+    private final Map<String, ElementoParque> elementos = new HashMap<>();
+    // Elementos sin temporada: siempre disponibles
+    private final Map<String, ElementoParque> sinTemporada = new LinkedHashMap<>();
+    private final ArbolIntervalos<LocalDateTime, ElementoParque> temporadas = new ArbolIntervalos<>();
+    private final Map<String, Entrada> temporadaPorId = new HashMap<>();
+    private final ArbolIntervalos<LocalDateTime, Espectaculo> horarios = new ArbolIntervalos<>();
+    private final Map<String, List<Entrada>> horariosPorId = new HashMap<>();
+
+    /**
+     * Crea un índice vacío.
+     */
+    public IndiceCalendario() {
+    }
+
+    /**
+     * Crea el índice con los elementos dados. Es una fábrica y no un constructor porque el índice se
+     * registra como observador de cada elemento, y no debe hacerlo antes de estar construido.
+     *
+     * @param elementosParque Elementos a indexar.
+     * @return Índice con los elementos registrados.
+     */
+    public static IndiceCalendario desdeElementos(Collection<? extends ElementoParque> elementosParque) {
+        IndiceCalendario indice = new IndiceCalendario();
+        for (ElementoParque elemento : elementosParque) {
+            indice.registrar(elemento);
+        }
+        return indice;
+    }
+
+    /**
+     * Indexa un elemento, o lo reindexa si ya había uno con su ID (aunque sea otra instancia).
+     *
+     * @param elemento Elemento a indexar.
+     */
+    public synchronized void registrar(ElementoParque elemento) {
+        if (elemento == null || elemento.getId() == null) {
+            return;
+        }
+        ElementoParque anterior = elementos.put(elemento.getId(), elemento);
+        if (anterior != null) {
+            desindexar(anterior.getId());
+            if (anterior != elemento) {
+                anterior.quitarObservadorCalendario(this);
+            }
+        }
+        indexar(elemento);
+        elemento.agregarObservadorCalendario(this);
+    }
+
+    /**
+     * Quita del índice el elemento con el ID dado.
+     *
+     * @param idElemento ID del elemento.
+     */
+    public synchronized void quitar(String idElemento) {
+        ElementoParque anterior = elementos.remove(idElemento);
+        if (anterior != null) {
+            desindexar(idElemento);
+            anterior.quitarObservadorCalendario(this);
+        }
+    }
+
+    @Override
+    public synchronized void calendarioCambiado(ElementoParque elemento) {
+        // Solo cuenta si es la instancia indexada para su ID
+        if (elementos.get(elemento.getId()) == elemento) {
+            desindexar(elemento.getId());
+            indexar(elemento);
+        }
+    }
+
+    /**
+     * Elementos disponibles en una fecha: los que no son de temporada y aquellos cuya temporada la incluye.
+     *
+     * @param fecha Fecha y hora a consultar.
+     * @return Lista de elementos disponibles.
+     */
+    public synchronized List<ElementoParque> disponiblesEn(LocalDateTime fecha) {
+        List<ElementoParque> disponibles = new ArrayList<>(sinTemporada.values());
+        temporadas.intervalosQueContienen(fecha, disponibles::add);
+        return disponibles;
+    }
+
+    /**
+     * Espectáculos con alguna función en curso en la fecha dada.
+     *
+     * @param fecha Fecha y hora a consultar.
+     * @return Lista de espectáculos (sin repetidos).
+     */
+    public synchronized List<Espectaculo> espectaculosEnCurso(LocalDateTime fecha) {
+        Set<Espectaculo> enCurso = new LinkedHashSet<>();
+        horarios.intervalosQueContienen(fecha, enCurso::add);
+        return new ArrayList<>(enCurso);
+    }
+
+    /**
+     * Espectáculos con alguna función que empieza en el rango dado.
+     *
+     * @param desde Inicio del rango (incluido).
+     * @param hasta Fin del rango (incluido).
+     * @return Lista de espectáculos (sin repetidos), en orden de su primera función en el rango.
+     */
+    public synchronized List<Espectaculo> espectaculosQueInicianEntre(LocalDateTime desde, LocalDateTime hasta) {
+        Set<Espectaculo> proximos = new LinkedHashSet<>();
+        horarios.intervalosQueInicianEntre(desde, hasta, proximos::add);
+        return new ArrayList<>(proximos);
+    }
+
+    /**
+     * @return Número de elementos indexados.
+     */
+    public synchronized int tamano() {
+        return elementos.size();
+    }
+
+    /**
+     * Deja de observar todos los elementos indexados y vacía el índice.
+     */
+    public synchronized void cerrar() {
+        for (ElementoParque elemento : elementos.values()) {
+            elemento.quitarObservadorCalendario(this);
+        }
+        elementos.clear();
+        sinTemporada.clear();
+        temporadas.limpiar();
+        temporadaPorId.clear();
+        horarios.limpiar();
+        horariosPorId.clear();
+    }
+
+    private void indexar(ElementoParque elemento) {
+        String id = elemento.getId();
+        if (elemento.isEsDeTemporada()) {
+            LocalDateTime inicio = elemento.getFechaInicioTemporada();
+            temporadaPorId.put(id, new Entrada(inicio, temporadas.insertar(inicio, elemento.getFechaFinTemporada(), elemento)));
+        } else {
+            sinTemporada.put(id, elemento);
+        }
+        if (elemento instanceof Espectaculo espectaculo) {
+            List<Entrada> entradas = new ArrayList<>();
+            for (RangoFechaHora rango : espectaculo.getHorarios()) {
+                entradas.add(new Entrada(rango.getInicio(), horarios.insertar(rango.getInicio(), rango.getFin(), espectaculo)));
+            }
+            horariosPorId.put(id, entradas);
+        }
+    }
+
+    private void desindexar(String id) {
+        sinTemporada.remove(id);
+        Entrada temporada = temporadaPorId.remove(id);
+        if (temporada != null) {
+            temporadas.eliminar(temporada.inicio, temporada.id);
+        }
+        List<Entrada> entradas = horariosPorId.remove(id);
+        if (entradas != null) {
+            for (Entrada entrada : entradas) {
+                horarios.eliminar(entrada.inicio, entrada.id);
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package dominio.elementoparque;
+
+/**
+ * Recibe los cambios de calendario de un elemento del parque: su temporada o, en los
+ * espectáculos, sus horarios.
+ *
+ * <b>Contexto:</b> Permite que índices temporales como {@link IndiceCalendario} se mantengan al día
+ * sin que quien modifica el elemento tenga que avisarles.
+ *
+ * @author Sistema Parque
+ */
+@FunctionalInterface
+public interface ObservadorCalendario {
+    /**
+     * @param elemento Elemento cuyo calendario cambió.
+     */
+    void calendarioCambiado(ElementoParque elemento);
+}
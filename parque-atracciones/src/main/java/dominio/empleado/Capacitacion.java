@@ -1,5 +1,9 @@
 package dominio.empleado;
 
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+
 /**
  * Representa una capacitación o certificación que puede tener un empleado del parque.
  * <p>
@@ -7,6 +11,8 @@ package dominio.empleado;
  * </p>
  *
  * <b>Contexto:</b> Enum para tipos de capacitación requeridos en el parque.
+ * Un conjunto de capacitaciones se puede representar como máscara de bits ({@link #getMascara()}),
+ * con un bit por valor; así "tiene todas las requeridas" es un único AND.
  *
  * @author Sistema Parque
  * @example
@@ -40,4 +46,60 @@ public enum Capacitacion {
     public String getDescripcion() {
         return descripcion;
     }
+
+    /**
+     * Obtiene el bit que representa esta capacitación en una máscara.
+     * El enum tiene pocos valores, así que cualquier conjunto cabe en un {@code long}.
+     * @return Máscara con solo el bit de esta capacitación.
+     */
+    public long getMascara() {
+        return 1L << ordinal();
+    }
+
+    /**
+     * Convierte un conjunto de capacitaciones en su máscara de bits.
+     * @param capacitaciones Capacitaciones (los null se ignoran); null equivale a vacío.
+     * @return Máscara con un bit por capacitación.
+     */
+    public static long mascaraDe(Collection<Capacitacion> capacitaciones) {
+        long mascara = 0L;
+        if (capacitaciones != null) {
+            for (Capacitacion c : capacitaciones) {
+                if (c != null) {
+                    mascara |= c.getMascara();
+                }
+            }
+        }
+        return mascara;
+    }
+
+    /**
+     * Convierte varias capacitaciones en su máscara de bits.
+     * @param capacitaciones Capacitaciones.
+     * @return Máscara con un bit por capacitación.
+     */
+    public static long mascaraDe(Capacitacion... capacitaciones) {
+        long mascara = 0L;
+        for (Capacitacion c : capacitaciones) {
+            mascara |= c.getMascara();
+        }
+        return mascara;
+    }
+
+    /**
+     * Convierte una máscara de bits en el conjunto de capacitaciones que representa.
+     * @param mascara Máscara de bits.
+     * @return Conjunto nuevo y modificable.
+     */
+    public static Set<Capacitacion> desdeMascara(long mascara) {
+        EnumSet<Capacitacion> capacitaciones = EnumSet.noneOf(Capacitacion.class);
+        for (Capacitacion c : VALORES) {
+            if ((mascara & c.getMascara()) != 0) {
+                capacitaciones.add(c);
+            }
+        }
+        return capacitaciones;
+    }
+
+    private static final Capacitacion[] VALORES = values();
 }
\ No newline at end of file
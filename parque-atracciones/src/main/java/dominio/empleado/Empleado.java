@@ -1,6 +1,5 @@
 package dominio.empleado;
 
-import java.util.HashSet;
 import java.util.Set;
 import dominio.usuario.Usuario;
 
@@ -30,7 +29,8 @@ import dominio.usuario.Usuario;
  * </pre>
  */
 public abstract class Empleado extends Usuario {
-    private Set<Capacitacion> capacitaciones;
+    // Un bit por capacitación (ver Capacitacion#getMascara); volatile para lecturas sin cerrojo
+    private volatile long capacitaciones;
 
     /**
      * Constructor base para empleados del parque.
@@ -53,8 +53,8 @@ public abstract class Empleado extends Usuario {
                     String username, String password) {
         // Call the Usuario constructor with all required parameters
         super(identificacion, nombre, email, telefono, username, password);
-        // Initialize capacitaciones
-        this.capacitaciones = new HashSet<>();
+        // Sin capacitaciones iniciales
+        this.capacitaciones = 0L;
     }
 
     /**
@@ -62,7 +62,15 @@ public abstract class Empleado extends Usuario {
      * @return Set de capacitaciones.
      */
     public Set<Capacitacion> getCapacitaciones() {
-        return new HashSet<>(capacitaciones);
+        return Capacitacion.desdeMascara(capacitaciones);
+    }
+
+    /**
+     * Obtiene las capacitaciones del empleado como máscara de bits, sin copiar nada.
+     * @return Máscara con un bit por capacitación (ver {@link Capacitacion#getMascara()}).
+     */
+    public long getMascaraCapacitaciones() {
+        return capacitaciones;
     }
 
     /**
@@ -78,7 +86,12 @@ public abstract class Empleado extends Usuario {
      * </pre>
      */
     public void agregarCapacitacion(Capacitacion capacitacion) {
-        this.capacitaciones.add(capacitacion);
+        if (capacitacion == null) {
+            return;
+        }
+        synchronized (this) {
+            this.capacitaciones |= capacitacion.getMascara();
+        }
     }
 
     /**
@@ -95,7 +108,7 @@ public abstract class Empleado extends Usuario {
      * </pre>
      */
     public boolean tieneCapacitacion(Capacitacion capacitacion) {
-        return this.capacitaciones.contains(capacitacion);
+        return capacitacion != null && (this.capacitaciones & capacitacion.getMascara()) != 0;
     }
 
     /**
@@ -112,7 +125,21 @@ public abstract class Empleado extends Usuario {
      * </pre>
      */
     public boolean cumpleCapacitaciones(Set<Capacitacion> capacitacionesRequeridas) {
-        return this.capacitaciones.containsAll(capacitacionesRequeridas);
+        return cumpleCapacitaciones(Capacitacion.mascaraDe(capacitacionesRequeridas));
+    }
+
+    /**
+     * Verifica si el empleado cumple todas las capacitaciones de una máscara con un único AND.
+     *
+     * @param mascaraRequerida Máscara de las capacitaciones requeridas.
+     * @return true si cumple todas, false si no.
+     * @example
+     * <pre>
+     *     boolean cumple = empleado.cumpleCapacitaciones(Capacitacion.MANEJO_CAJA.getMascara());
+     * </pre>
+     */
+    public boolean cumpleCapacitaciones(long mascaraRequerida) {
+        return (this.capacitaciones & mascaraRequerida) == mascaraRequerida;
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,155 @@
+package dominio.empleado;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice invertido de empleados por capacitaciones.
+ * <p>
+ * Agrupa a los empleados según su máscara exacta de capacitaciones (ver {@link Capacitacion#getMascara()}).
+ * Como hay muchos menos perfiles distintos que empleados, responder "quién tiene estas capacitaciones"
+ * recorre solo los perfiles y se queda con los que contienen la máscara pedida, sin revisar a cada empleado.
+ * </p>
+ *
+ * <b>Contexto:</b> Lo mantiene {@code ServicioGestionEmpleados}; un cambio de capacitaciones hecho
+ * directamente sobre el Empleado se refleja al volver a llamar a {@link #actualizar(Empleado)}.
+ *
+ * <b>Poscondiciones generales:</b>
+ * <ul>
+ *   <li>Cada empleado aparece como mucho una vez, bajo la máscara que tenía en su última actualización.</li>
+ *   <li>Las consultas no bloquean; las actualizaciones de un mismo índice se serializan.</li>
+ * </ul>
+ *
+ * @author Sistema Parque
+ * @example
+ * <pre>
+ *     IndiceCapacitaciones indice = new IndiceCapacitaciones(empleados);
+ *     List&lt;Empleado&gt; operarios = indice.empleadosCon(atraccion.getMascaraCapacitacionesRequeridas());
+ * </pre>
+ */
+public final class IndiceCapacitaciones {
+    // Máscara exacta -> empleados con ese perfil, por identificación
+    private final Map<Long, Map<String, Empleado>> porMascara = new ConcurrentHashMap<>();
+    // Identificación -> máscara con la que está indexado
+    private final Map<String, Long> mascaraIndexada = new ConcurrentHashMap<>();
+
+    public IndiceCapacitaciones() {
+    }
+
+    /**
+     * Crea el índice con los empleados dados.
+     *
+     * @param empleados Empleados a indexar; se ignoran los nulos.
+     */
+    public IndiceCapacitaciones(Collection<? extends Empleado> empleados) {
+        for (Empleado e : empleados) {
+            actualizar(e);
+        }
+    }
+
+    /**
+     * Indexa un empleado con sus capacitaciones actuales, sustituyendo la entrada anterior con la misma
+     * identificación si existía.
+     *
+     * <b>Precondiciones:</b> El empleado no debe ser nulo.
+     * <b>Poscondiciones:</b> El empleado queda bajo su máscara actual y solo bajo ella.
+     *
+     * @param empleado Empleado a indexar; null no hace nada.
+     */
+    public synchronized void actualizar(Empleado empleado) {
+        if (empleado == null) {
+            return;
+        }
+        String id = empleado.getIdentificacion();
+        long mascara = empleado.getMascaraCapacitaciones();
+        Long anterior = mascaraIndexada.put(id, mascara);
+        if (anterior != null && anterior != mascara) {
+            quitarDeGrupo(anterior, id);
+        }
+        porMascara.computeIfAbsent(mascara, _ -> new ConcurrentHashMap<>()).put(id, empleado);
+    }
+
+    /**
+     * Quita del índice al empleado con la identificación dada.
+     *
+     * @param identificacion Identificación del empleado.
+     * @return true si estaba indexado.
+     */
+    public synchronized boolean quitar(String identificacion) {
+        if (identificacion == null) {
+            return false;
+        }
+        Long anterior = mascaraIndexada.remove(identificacion);
+        if (anterior == null) {
+            return false;
+        }
+        quitarDeGrupo(anterior, identificacion);
+        return true;
+    }
+
+    /**
+     * Devuelve los empleados que tienen todas las capacitaciones de la máscara.
+     *
+     * <b>Poscondiciones:</b> Cada empleado devuelto cumple {@code empleado.cumpleCapacitaciones(mascaraRequerida)}.
+     *
+     * @param mascaraRequerida Máscara de las capacitaciones requeridas; 0 devuelve a todos.
+     * @return Nueva lista con los empleados habilitados, sin orden definido.
+     * @example
+     * <pre>
+     *     List&lt;Empleado&gt; cajeros = indice.empleadosCon(Capacitacion.mascaraDe(Capacitacion.MANEJO_CAJA));
+     * </pre>
+     */
+    public List<Empleado> empleadosCon(long mascaraRequerida) {
+        List<Empleado> resultado = new ArrayList<>();
+        for (Map.Entry<Long, Map<String, Empleado>> grupo : porMascara.entrySet()) {
+            if ((grupo.getKey() & mascaraRequerida) == mascaraRequerida) {
+                resultado.addAll(grupo.getValue().values());
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Cuenta los empleados que tienen todas las capacitaciones de la máscara, sin construir la lista.
+     *
+     * @param mascaraRequerida Máscara de las capacitaciones requeridas.
+     * @return Número de empleados habilitados.
+     */
+    public int contarCon(long mascaraRequerida) {
+        int total = 0;
+        for (Map.Entry<Long, Map<String, Empleado>> grupo : porMascara.entrySet()) {
+            if ((grupo.getKey() & mascaraRequerida) == mascaraRequerida) {
+                total += grupo.getValue().size();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * @return Número de perfiles de capacitación distintos indexados.
+     */
+    public int perfilesDistintos() {
+        return porMascara.size();
+    }
+
+    /**
+     * @return Número de empleados indexados.
+     */
+    public int tamano() {
+        return mascaraIndexada.size();
+    }
+
+    private void quitarDeGrupo(long mascara, String identificacion) {
+        Map<String, Empleado> grupo = porMascara.get(mascara);
+        if (grupo == null) {
+            return;
+        }
+        grupo.remove(identificacion);
+        if (grupo.isEmpty()) {
+            porMascara.remove(mascara);
+        }
+    }
+}
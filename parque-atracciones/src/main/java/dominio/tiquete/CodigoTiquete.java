@@ -0,0 +1,104 @@
+package dominio.tiquete;
+
+/**
+ * Conversión entre la forma binaria (64 bits) y la forma imprimible de los códigos compactos de tiquete.
+ * <p>
+ * La forma imprimible usa Base32 de Crockford: 13 caracteres de ancho fijo, sin letras ambiguas
+ * (I, L, O, U), aptos para imprimir, dictar o codificar en un QR alfanumérico. Al ser de ancho
+ * fijo, el orden lexicográfico de los textos coincide con el orden numérico de los códigos.
+ * La forma binaria es un {@code long}, adecuada para almacenar e indexar.
+ * </p>
+ * <p>
+ * Los códigos que no son compactos (por ejemplo, los UUID históricos) siguen siendo válidos como
+ * texto; simplemente no tienen forma binaria.
+ * </p>
+ *
+ * @author Sistema Parque
+ * @example
+ * <pre>
+ *     String texto = CodigoTiquete.aTexto(123456789L);   // "00000003NQK8N"
+ *     long valor = CodigoTiquete.aBinario(texto);        // 123456789
+ *     CodigoTiquete.esCompacto("3f2c...-uuid");           // false
+ * </pre>
+ */
+public final class CodigoTiquete {
+    /** Longitud de la forma imprimible de un código compacto. */
+    public static final int LONGITUD_COMPACTO = 13;
+
+    private static final char[] ALFABETO = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final byte[] VALORES = new byte[128];
+
+    static {
+        java.util.Arrays.fill(VALORES, (byte) -1);
+        for (int i = 0; i < ALFABETO.length; i++) {
+            VALORES[ALFABETO[i]] = (byte) i;
+            VALORES[Character.toLowerCase(ALFABETO[i])] = (byte) i;
+        }
+        // Sustituciones de Crockford para caracteres que se confunden al leer
+        VALORES['O'] = VALORES['o'] = 0;
+        VALORES['I'] = VALORES['i'] = VALORES['L'] = VALORES['l'] = 1;
+    }
+
+    private CodigoTiquete() {
+    }
+
+    /**
+     * Convierte un código binario a su forma imprimible.
+     *
+     * @param valor Código de 64 bits.
+     * @return Texto de {@value #LONGITUD_COMPACTO} caracteres.
+     */
+    public static String aTexto(long valor) {
+        char[] texto = new char[LONGITUD_COMPACTO];
+        for (int i = LONGITUD_COMPACTO - 1; i >= 0; i--) {
+            texto[i] = ALFABETO[(int) (valor & 0x1F)];
+            valor >>>= 5;
+        }
+        return new String(texto);
+    }
+
+    /**
+     * Indica si el texto es un código compacto válido (y por tanto tiene forma binaria).
+     *
+     * @param codigo Código de tiquete.
+     * @return true si se puede convertir con {@link #aBinario(String)}.
+     */
+    public static boolean esCompacto(String codigo) {
+        if (codigo == null || codigo.length() != LONGITUD_COMPACTO) {
+            return false;
+        }
+        // 13 caracteres son 65 bits: el primero solo puede aportar 4
+        if (valorDe(codigo.charAt(0)) > 0xF) {
+            return false;
+        }
+        for (int i = 1; i < LONGITUD_COMPACTO; i++) {
+            if (valorDe(codigo.charAt(i)) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Convierte la forma imprimible de un código compacto a su valor binario.
+     * Acepta minúsculas y las sustituciones de Crockford (O por 0; I y L por 1).
+     *
+     * @param codigo Texto de {@value #LONGITUD_COMPACTO} caracteres.
+     * @return Código de 64 bits.
+     * @throws IllegalArgumentException si el texto no es un código compacto.
+     */
+    public static long aBinario(String codigo) {
+        if (!esCompacto(codigo)) {
+            throw new IllegalArgumentException("El código '" + codigo + "' no es un código compacto de tiquete.");
+        }
+        long valor = 0;
+        for (int i = 0; i < LONGITUD_COMPACTO; i++) {
+            valor = (valor << 5) | valorDe(codigo.charAt(i));
+        }
+        return valor;
+    }
+
+    private static int valorDe(char c) {
+        return c < VALORES.length ? VALORES[c] : -1;
+    }
+}
@@ -27,7 +27,12 @@ public class EntradaIndividual extends Tiquete {
     }
 
     public boolean esValidoParaAtraccion(Atraccion a) {
-        return this.atraccion.equals(a);
+        if (this.atraccion == a) {
+            return a != null; // Caso habitual: la atracción cargada es la misma instancia compartida
+        }
+        // Instancias distintas de la misma atracción (p. ej. actualizada tras la carga)
+        return this.atraccion != null && a != null && this.atraccion.getId() != null
+                && this.atraccion.getId().equals(a.getId());
     }
 
     @Override
@@ -0,0 +1,169 @@
+package dominio.tiquete;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generador de códigos de tiquete de 64 bits ordenados por tiempo.
+ * <p>
+ * Cada código se compone de 41 bits de milisegundos desde {@link #EPOCA}, 10 bits de
+ * identificador de nodo (taquilla o terminal) y 12 bits de secuencia dentro del mismo
+ * milisegundo. Dos taquillas con nodos distintos nunca generan el mismo código, sin necesidad de
+ * coordinarse. La generación no usa candados ni {@code SecureRandom}: un único
+ * {@link AtomicLong} guarda el último instante y secuencia emitidos.
+ * </p>
+ * <p>
+ * Si se agotan las 4096 secuencias de un milisegundo, o el reloj del sistema retrocede, el
+ * generador continúa con el siguiente milisegundo lógico en lugar de esperar, de modo que los
+ * códigos de un mismo nodo son siempre estrictamente crecientes.
+ * </p>
+ *
+ * <b>Contexto:</b> Generador por defecto del servicio de venta de tiquetes. El código se entrega
+ * en su forma imprimible ({@link CodigoTiquete#aTexto(long)}).
+ *
+ * @author Sistema Parque
+ * @example
+ * <pre>
+ *     GeneradorCodigoSecuencial generador = new GeneradorCodigoSecuencial(7);
+ *     long binario = generador.generarCodigoBinario();
+ *     String texto = generador.generarCodigo(); // 13 caracteres Base32 de Crockford
+ * </pre>
+ */
+public class GeneradorCodigoSecuencial implements GeneradorCodigoTiquete {
+    /** Instante cero de los códigos (2024-01-01T00:00:00Z); 41 bits alcanzan hasta ~2093. */
+    public static final long EPOCA = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    /** Propiedad del sistema con el identificador de nodo de esta instalación. */
+    public static final String PROPIEDAD_NODO = "parque.tiquetes.nodo";
+
+    public static final int BITS_NODO = 10;
+    public static final int BITS_SECUENCIA = 12;
+    public static final int NODO_MAXIMO = (1 << BITS_NODO) - 1;
+    private static final long MASCARA_SECUENCIA = (1L << BITS_SECUENCIA) - 1;
+
+    private final long nodo;
+    // (milisegundos desde la época << BITS_SECUENCIA) | secuencia del último código emitido
+    private final AtomicLong ultimo = new AtomicLong(-1);
+
+    /**
+     * Crea un generador para el nodo indicado.
+     *
+     * @param nodo Identificador de la taquilla o terminal, entre 0 y {@value #NODO_MAXIMO}.
+     * @throws IllegalArgumentException si el nodo está fuera de rango.
+     */
+    public GeneradorCodigoSecuencial(int nodo) {
+        if (nodo < 0 || nodo > NODO_MAXIMO) {
+            throw new IllegalArgumentException("El nodo del generador de códigos debe estar entre 0 y " + NODO_MAXIMO + ".");
+        }
+        this.nodo = nodo;
+    }
+
+    /**
+     * Crea un generador con el nodo configurado en la propiedad del sistema {@value #PROPIEDAD_NODO}.
+     * Si no está configurada, usa el nodo guardado en el archivo dado; la primera vez que falta, elige
+     * uno al azar y lo guarda, de modo que la instalación conserva su nodo entre reinicios. Dos
+     * instalaciones que se asignan nodo solas solo difieren con alta probabilidad: en producción cada
+     * taquilla debe configurar el suyo.
+     *
+     * <b>Poscondiciones:</b> El archivo contiene el nodo usado si no había propiedad configurada.
+     *
+     * @param archivoNodo Archivo donde se guarda el nodo asignado a esta instalación.
+     * @return Generador para esta instalación.
+     * @throws IllegalArgumentException si la propiedad o el archivo no contienen un nodo válido.
+     * @throws IllegalStateException si el nodo asignado no se puede guardar.
+     * @example
+     * <pre>
+     *     GeneradorCodigoSecuencial g = GeneradorCodigoSecuencial.desdeConfiguracion(Paths.get("data/nodo_tiquetes.txt"));
+     * </pre>
+     */
+    public static GeneradorCodigoSecuencial desdeConfiguracion(java.nio.file.Path archivoNodo) {
+        String configurado = System.getProperty(PROPIEDAD_NODO);
+        if (configurado != null && !configurado.isBlank()) {
+            return new GeneradorCodigoSecuencial(leerNodo(configurado, "La propiedad " + PROPIEDAD_NODO));
+        }
+        try {
+            if (!java.nio.file.Files.exists(archivoNodo)) {
+                int asignado = new java.security.SecureRandom().nextInt(NODO_MAXIMO + 1);
+                java.nio.file.Files.createDirectories(archivoNodo.toAbsolutePath().getParent());
+                try {
+                    // CREATE_NEW: si otro proceso lo asignó a la vez, gana el que lo escribió primero
+                    java.nio.file.Files.writeString(archivoNodo, Integer.toString(asignado),
+                            java.nio.file.StandardOpenOption.CREATE_NEW, java.nio.file.StandardOpenOption.WRITE,
+                            java.nio.file.StandardOpenOption.SYNC);
+                    System.err.println("[WARN] " + PROPIEDAD_NODO + " no está configurada; se asignó el nodo " + asignado
+                            + " y se guardó en " + archivoNodo);
+                    return new GeneradorCodigoSecuencial(asignado);
+                } catch (java.nio.file.FileAlreadyExistsException e) {
+                    // Se lee el que quedó guardado
+                }
+            }
+            return new GeneradorCodigoSecuencial(leerNodo(java.nio.file.Files.readString(archivoNodo), "El archivo " + archivoNodo));
+        } catch (java.io.IOException e) {
+            throw new IllegalStateException("No se pudo leer ni guardar el nodo de códigos de tiquete en " + archivoNodo, e);
+        }
+    }
+
+    private static int leerNodo(String texto, String origen) {
+        try {
+            return Integer.parseInt(texto.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(origen + " debe contener un número entero: " + texto, e);
+        }
+    }
+
+    @Override
+    public String generarCodigo() {
+        return CodigoTiquete.aTexto(generarCodigoBinario());
+    }
+
+    /**
+     * Genera un nuevo código en su forma binaria.
+     *
+     * @return Código de 64 bits (siempre positivo).
+     */
+    public long generarCodigoBinario() {
+        while (true) {
+            long anterior = ultimo.get();
+            long ahora = System.currentTimeMillis() - EPOCA;
+            long instanteAnterior = anterior >> BITS_SECUENCIA;
+            long siguiente;
+            if (ahora > instanteAnterior) {
+                siguiente = ahora << BITS_SECUENCIA;
+            } else {
+                // Mismo milisegundo, reloj atrasado o secuencias agotadas: se avanza sobre el último valor
+                siguiente = anterior + 1;
+            }
+            if (ultimo.compareAndSet(anterior, siguiente)) {
+                long instante = siguiente >> BITS_SECUENCIA;
+                long secuencia = siguiente & MASCARA_SECUENCIA;
+                return (instante << (BITS_NODO + BITS_SECUENCIA)) | (nodo << BITS_SECUENCIA) | secuencia;
+            }
+        }
+    }
+
+    /**
+     * @return Identificador de nodo de este generador.
+     */
+    public int getNodo() {
+        return (int) nodo;
+    }
+
+    /**
+     * Extrae el instante de emisión de un código binario generado por esta clase.
+     *
+     * @param codigo Código binario.
+     * @return Instante de generación (precisión de milisegundos).
+     */
+    public static Instant instanteDe(long codigo) {
+        return Instant.ofEpochMilli((codigo >>> (BITS_NODO + BITS_SECUENCIA)) + EPOCA);
+    }
+
+    /**
+     * Extrae el nodo que generó un código binario.
+     *
+     * @param codigo Código binario.
+     * @return Identificador de nodo.
+     */
+    public static int nodoDe(long codigo) {
+        return (int) ((codigo >>> BITS_SECUENCIA) & NODO_MAXIMO);
+    }
+}
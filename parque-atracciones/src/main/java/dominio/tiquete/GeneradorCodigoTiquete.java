@@ -0,0 +1,27 @@
+package dominio.tiquete;
+
+/**
+ * Interfaz para los generadores de códigos únicos de tiquetes.
+ * <p>
+ * Permite cambiar la estrategia de generación sin modificar el servicio de venta.
+ * Los códigos generados deben ser únicos entre todas las taquillas que venden a la vez.
+ * </p>
+ *
+ * <b>Contexto:</b> Usado por el servicio de venta de tiquetes al emitir cada tiquete.
+ *
+ * @author Sistema Parque
+ * @example
+ * <pre>
+ *     GeneradorCodigoTiquete generador = new GeneradorCodigoSecuencial(3);
+ *     String codigo = generador.generarCodigo(); // Ej: "0CKQ7ZT4R0C00"
+ * </pre>
+ */
+@FunctionalInterface
+public interface GeneradorCodigoTiquete {
+    /**
+     * Genera un nuevo código de tiquete.
+     *
+     * @return Código único, no nulo.
+     */
+    String generarCodigo();
+}
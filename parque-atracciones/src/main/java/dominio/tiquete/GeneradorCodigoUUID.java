@@ -0,0 +1,19 @@
+package dominio.tiquete;
+
+import java.util.UUID;
+
+/**
+ * Generador de códigos de tiquete basado en UUID aleatorios (formato de 36 caracteres).
+ * <p>
+ * Es el formato histórico de los códigos; se conserva para instalaciones que lo necesiten.
+ * Los tiquetes con códigos UUID siguen siendo válidos con cualquier generador.
+ * </p>
+ *
+ * @author Sistema Parque
+ */
+public class GeneradorCodigoUUID implements GeneradorCodigoTiquete {
+    @Override
+    public String generarCodigo() {
+        return UUID.randomUUID().toString();
+    }
+}
@@ -2,6 +2,8 @@ package dominio.tiquete;
 
 import java.io.Serializable;
 import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 import dominio.usuario.Usuario;
 import dominio.elementoparque.ElementoParque;
 
@@ -16,9 +18,12 @@ public abstract class Tiquete implements Serializable {
     private String identificacionComprador;
     private String nombreComprador;
 
-    private boolean utilizado = false;
+    // Atómico: varios puntos de acceso pueden registrar el uso del mismo tiquete a la vez
+    private final AtomicBoolean utilizado = new AtomicBoolean(false);
 
     protected Usuario comprador;
+    // Resolución diferida del comprador (tiquetes cargados del repositorio); compartida por todos los tiquetes
+    private transient volatile Function<String, ? extends Usuario> resolutorComprador;
 
     public Tiquete(String codigo, LocalDateTime fechaHoraEmision, double precio,
                    String identificacionComprador, String nombreComprador) {
@@ -50,19 +55,56 @@ public abstract class Tiquete implements Serializable {
     }
 
     public boolean estaUtilizado() {
-        return utilizado;
+        return utilizado.get();
     }
 
     public void marcarComoUtilizado() {
-        this.utilizado = true;
+        utilizado.set(true);
     }
 
+    /**
+     * Marca el tiquete como utilizado solo si aún no lo estaba, de forma atómica.
+     *
+     * @return true si esta llamada realizó la marca; false si el tiquete ya estaba utilizado.
+     */
+    public boolean intentarMarcarComoUtilizado() {
+        return utilizado.compareAndSet(false, true);
+    }
+
+    /**
+     * Devuelve el comprador del tiquete. Si el tiquete se cargó con un resolutor de compradores,
+     * el comprador se resuelve en el primer acceso y queda guardado en el tiquete.
+     *
+     * @return Comprador, o null si no se conoce.
+     */
     public Usuario getComprador() {
-        return comprador;
+        Usuario actual = comprador;
+        Function<String, ? extends Usuario> resolutor = resolutorComprador;
+        if (actual == null && resolutor != null) {
+            // Carrera benigna: el resolutor devuelve siempre la misma instancia para un comprador
+            actual = resolutor.apply(identificacionComprador);
+            comprador = actual;
+            resolutorComprador = null;
+        }
+        return actual;
     }
 
     public void setComprador(Usuario comprador) {
         this.comprador = comprador;
+        this.resolutorComprador = null;
+    }
+
+    /**
+     * Difiere la resolución del comprador hasta el primer {@link #getComprador()}.
+     * El resolutor recibe la identificación del comprador y debería devolver la misma instancia
+     * para todos los tiquetes de un mismo comprador.
+     *
+     * @param resolutor Función identificación -> comprador; null para no resolver.
+     */
+    public void setResolutorComprador(Function<String, ? extends Usuario> resolutor) {
+        if (comprador == null) {
+            this.resolutorComprador = resolutor;
+        }
     }
 
     // ✅ Default implementation
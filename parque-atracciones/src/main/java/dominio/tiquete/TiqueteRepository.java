@@ -0,0 +1,141 @@
+package dominio.tiquete;
+
+import dominio.elementoparque.Atraccion;
+import dominio.usuario.Usuario;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Interfaz que define las operaciones de persistencia para los tiquetes vendidos.
+ * Sigue el patrón Repository para abstraer el acceso a datos.
+ * <p>
+ * Hay dos estilos de persistencia: reescribir todos los tiquetes con {@link #guardarTiquetes(List)},
+ * o registrar cada operación por separado ({@link #registrarVenta(Tiquete)},
+ * {@link #registrarUso(Tiquete)}, {@link #registrarEliminacion(Collection)}) cuando la
+ * implementación lo soporta, según {@link #registraOperaciones()}.
+ * </p>
+ */
+public interface TiqueteRepository {
+    /**
+     * Carga todos los tiquetes vigentes.
+     *
+     * @param atraccionResolver Función para buscar una Atraccion por su ID.
+     * @return Lista de tiquetes cargados.
+     */
+    List<Tiquete> cargarTiquetes(Function<String, Atraccion> atraccionResolver);
+
+    /**
+     * Carga todos los tiquetes vigentes, difiriendo la resolución de sus compradores.
+     * Cada tiquete consulta {@code compradorResolver} en su primer {@link Tiquete#getComprador()}.
+     *
+     * @param atraccionResolver Función para buscar una Atraccion por su ID.
+     * @param compradorResolver Función para buscar un Usuario por su identificación.
+     * @return Lista de tiquetes cargados.
+     */
+    default List<Tiquete> cargarTiquetes(Function<String, Atraccion> atraccionResolver,
+                                         Function<String, ? extends Usuario> compradorResolver) {
+        List<Tiquete> tiquetes = cargarTiquetes(atraccionResolver);
+        for (Tiquete t : tiquetes) {
+            t.setResolutorComprador(compradorResolver);
+        }
+        return tiquetes;
+    }
+
+    /**
+     * Reemplaza todos los tiquetes persistidos por los de la lista.
+     *
+     * @param tiquetes Lista de tiquetes a guardar.
+     */
+    void guardarTiquetes(List<Tiquete> tiquetes);
+
+    /**
+     * Indica si el repositorio persiste cada operación por separado, sin necesitar la lista completa.
+     *
+     * @return true si se pueden usar los métodos registrar*.
+     */
+    default boolean registraOperaciones() {
+        return false;
+    }
+
+    /**
+     * Registra la venta de un tiquete.
+     *
+     * @param tiquete Tiquete vendido.
+     * @throws IllegalStateException si el repositorio no registra operaciones (ver {@link #registraOperaciones()}).
+     */
+    void registrarVenta(Tiquete tiquete);
+
+    /**
+     * Registra la venta de un tiquete, indicando si debe quedar en disco antes de retornar. Sin esperar,
+     * la venta llega al disco a más tardar con la siguiente operación que sí espere o al cerrar.
+     * La implementación por defecto siempre espera.
+     *
+     * @param tiquete Tiquete vendido.
+     * @param esperarDisco true para retornar solo cuando la venta está sincronizada en disco.
+     * @throws IllegalStateException si el repositorio no registra operaciones (ver {@link #registraOperaciones()}).
+     */
+    default void registrarVenta(Tiquete tiquete, boolean esperarDisco) {
+        registrarVenta(tiquete);
+    }
+
+    /**
+     * Registra el uso de un tiquete.
+     *
+     * @param tiquete Tiquete utilizado.
+     * @throws IllegalStateException si el repositorio no registra operaciones (ver {@link #registraOperaciones()}).
+     */
+    void registrarUso(Tiquete tiquete);
+
+    /**
+     * Registra el uso de un tiquete, indicando si debe quedar en disco antes de retornar
+     * (ver {@link #registrarVenta(Tiquete, boolean)}). La implementación por defecto siempre espera.
+     *
+     * @param tiquete Tiquete utilizado.
+     * @param esperarDisco true para retornar solo cuando el uso está sincronizado en disco.
+     * @throws IllegalStateException si el repositorio no registra operaciones (ver {@link #registraOperaciones()}).
+     */
+    default void registrarUso(Tiquete tiquete, boolean esperarDisco) {
+        registrarUso(tiquete);
+    }
+
+    /**
+     * Registra la eliminación de varios tiquetes.
+     *
+     * @param codigos Códigos de los tiquetes eliminados.
+     * @throws IllegalStateException si el repositorio no registra operaciones (ver {@link #registraOperaciones()}).
+     */
+    void registrarEliminacion(Collection<String> codigos);
+
+    /**
+     * Busca un tiquete por su código.
+     * La implementación por defecto recorre todos los tiquetes.
+     *
+     * @param codigo Código del tiquete.
+     * @param atraccionResolver Función para buscar una Atraccion por su ID.
+     * @return Un Optional con el tiquete encontrado, o vacío si no existe.
+     */
+    default Optional<Tiquete> buscarPorCodigo(String codigo, Function<String, Atraccion> atraccionResolver) {
+        return cargarTiquetes(atraccionResolver).stream()
+                .filter(t -> t.getCodigo().equals(codigo))
+                .findFirst();
+    }
+
+    /**
+     * Indica si {@link #buscarPorCodigo} consulta el almacenamiento directamente (p. ej. con un índice),
+     * sin cargar todos los tiquetes. En ese caso quien use el repositorio no necesita cargarlos al iniciar.
+     *
+     * @return true si la búsqueda por código no recorre todos los tiquetes.
+     */
+    default boolean buscaSinCargar() {
+        return false;
+    }
+
+    /**
+     * Libera los recursos del repositorio y deja en disco las operaciones pendientes.
+     */
+    default void cerrar() {
+    }
+}
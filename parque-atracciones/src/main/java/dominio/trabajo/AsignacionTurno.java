@@ -108,15 +108,20 @@ public class AsignacionTurno {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         AsignacionTurno that = (AsignacionTurno) o;
+        // El lugar se compara por clave: tras recargar, la misma atracción puede ser otra instancia
         return Objects.equals(empleado, that.empleado) &&
-               Objects.equals(lugarTrabajo, that.lugarTrabajo) &&
+               Objects.equals(claveLugar(), that.claveLugar()) &&
                Objects.equals(fecha, that.fecha) &&
                turno == that.turno;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(empleado, lugarTrabajo, fecha, turno);
+        return Objects.hash(empleado, claveLugar(), fecha, turno);
+    }
+
+    private String claveLugar() {
+        return lugarTrabajo != null ? lugarTrabajo.getClaveLugar() : null;
     }
 
     @Override
@@ -0,0 +1,95 @@
+package dominio.trabajo;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import dominio.empleado.Empleado;
+import dominio.excepciones.DatosInvalidosException;
+
+/**
+ * Interfaz que define las operaciones de persistencia para las asignaciones de turno.
+ * Sigue el patrón Repository para abstraer el acceso a datos.
+ * <p>
+ * Las asignaciones se guardan particionadas por fecha: cargar un día o una semana solo lee las
+ * particiones de esas fechas, nunca el historial completo. Cada alta o baja se registra por separado.
+ * </p>
+ */
+public interface AsignacionTurnoRepository {
+
+    /**
+     * Carga las asignaciones vigentes de una fecha.
+     * Las asignaciones cuyo empleado o lugar no se puede resolver se omiten.
+     *
+     * @param fecha Fecha a cargar.
+     * @param empleadoResolver Función para buscar un Empleado por su identificación.
+     * @param lugarResolver Función para buscar un LugarTrabajo por su {@link LugarTrabajo#getClaveLugar() clave}.
+     * @return Asignaciones de esa fecha, en el orden en que se registraron.
+     */
+    List<AsignacionTurno> cargarFecha(LocalDate fecha, Function<String, ? extends Empleado> empleadoResolver,
+                                      Function<String, ? extends LugarTrabajo> lugarResolver);
+
+    /**
+     * Carga las asignaciones vigentes de un rango de fechas, leyendo solo las particiones del rango.
+     *
+     * @param desde Primera fecha (incluida).
+     * @param hasta Última fecha (incluida).
+     * @param empleadoResolver Función para buscar un Empleado por su identificación.
+     * @param lugarResolver Función para buscar un LugarTrabajo por su clave.
+     * @return Asignaciones del rango, ordenadas por fecha.
+     * @throws DatosInvalidosException si el rango es nulo o está invertido.
+     */
+    default List<AsignacionTurno> cargarRango(LocalDate desde, LocalDate hasta,
+                                              Function<String, ? extends Empleado> empleadoResolver,
+                                              Function<String, ? extends LugarTrabajo> lugarResolver) {
+        if (desde == null || hasta == null || hasta.isBefore(desde)) {
+            throw new DatosInvalidosException("El rango de fechas a cargar es inválido: " + desde + " - " + hasta);
+        }
+        List<AsignacionTurno> asignaciones = new ArrayList<>();
+        for (LocalDate fecha = desde; !fecha.isAfter(hasta); fecha = fecha.plusDays(1)) {
+            asignaciones.addAll(cargarFecha(fecha, empleadoResolver, lugarResolver));
+        }
+        return asignaciones;
+    }
+
+    /**
+     * Registra una nueva asignación en la partición de su fecha.
+     *
+     * @param asignacion Asignación creada.
+     */
+    void registrarAsignacion(AsignacionTurno asignacion);
+
+    /**
+     * Registra la baja de una asignación en la partición de su fecha.
+     *
+     * @param asignacion Asignación eliminada.
+     */
+    void registrarEliminacion(AsignacionTurno asignacion);
+
+    /**
+     * Devuelve las fechas que tienen una partición guardada, sin leer su contenido.
+     *
+     * @return Fechas con partición, en orden ascendente.
+     */
+    List<LocalDate> fechasConAsignaciones();
+
+    /**
+     * Guarda la descripción de un lugar de trabajo que no tiene otro repositorio (taquillas, tiendas y
+     * cafeterías), para poder resolver sus asignaciones al reiniciar. Guardar otra vez la misma clave la
+     * reemplaza. Los lugares que el repositorio no sabe describir se ignoran.
+     *
+     * @param lugarTrabajo Lugar de trabajo.
+     */
+    default void registrarLugar(LugarTrabajo lugarTrabajo) {
+    }
+
+    /**
+     * Carga los lugares de trabajo guardados con {@link #registrarLugar}.
+     *
+     * @return Lugares guardados, uno por clave.
+     */
+    default List<LugarTrabajo> cargarLugares() {
+        return new ArrayList<>();
+    }
+}
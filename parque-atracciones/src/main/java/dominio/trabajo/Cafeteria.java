@@ -58,6 +58,8 @@ public class Cafeteria implements LugarTrabajo {
             Capacitacion.ATENCION_CLIENTE_GENERAL,
             Capacitacion.MANIPULACION_ALIMENTOS_BASICO // Cajeros pueden manejar alimentos pre-empacados
         )));
+    private static final long MASCARA_COCINERO = Capacitacion.mascaraDe(CAPACITACIONES_REQUERIDAS_COCINERO);
+    private static final long MASCARA_CAJERO = Capacitacion.mascaraDe(CAPACITACIONES_REQUERIDAS_CAJERO);
 
     /**
      * Constructor de la cafetería.
@@ -165,6 +167,15 @@ public class Cafeteria implements LugarTrabajo {
         // Devolvemos las de Cajero como base mínima.
         return CAPACITACIONES_REQUERIDAS_CAJERO;
     }
+
+    /**
+     * {@inheritDoc}
+     * Es lo común a los requisitos de Cocinero y de Cajero, que cumple cualquier empleado aceptado.
+     */
+    @Override
+    public long getMascaraCapacitacionesRequeridas() {
+        return MASCARA_COCINERO & MASCARA_CAJERO;
+    }
     
     /**
      * Obtiene la lista de empleados asignados a esta cafetería.
@@ -201,11 +212,11 @@ public class Cafeteria implements LugarTrabajo {
     public boolean puedeAsignarEmpleado(Empleado empleado) {
         Objects.requireNonNull(empleado, "El empleado no puede ser nulo.");
         if (empleado instanceof Cocinero) {
-            return empleado.cumpleCapacitaciones(CAPACITACIONES_REQUERIDAS_COCINERO);
+            return empleado.cumpleCapacitaciones(MASCARA_COCINERO);
         } else if (empleado instanceof Cajero) {
              // Un cocinero también puede actuar como cajero si tiene las capacitaciones de cajero
              // (aunque ya las tiene por defecto en el constructor de Cocinero)
-            return empleado.cumpleCapacitaciones(CAPACITACIONES_REQUERIDAS_CAJERO);
+            return empleado.cumpleCapacitaciones(MASCARA_CAJERO);
         }
         return false; // No es ni Cocinero ni Cajero
     }
@@ -0,0 +1,286 @@
+package dominio.trabajo;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import dominio.excepciones.DatosInvalidosException;
+
+/**
+ * Almacén indexado y concurrente de asignaciones de turno.
+ * <p>
+ * Las asignaciones se agrupan por día y, dentro de cada día, se indexan por turno, por empleado y por
+ * (lugar de trabajo, turno). Así, comprobar duplicados, consultar el día de un empleado o el personal de un
+ * lugar en un turno cuesta O(log k) sobre las asignaciones implicadas, en lugar de recorrer todas las
+ * asignaciones de la temporada.
+ * </p>
+ * <p>
+ * No usa un cerrojo global: los índices son mapas concurrentes ({@link ConcurrentHashMap} y
+ * {@link ConcurrentSkipListMap}), de modo que las lecturas nunca bloquean y las escrituras sobre días
+ * distintos no compiten entre sí. Agregar o quitar una asignación es atómico respecto de las demás
+ * operaciones sobre una asignación igual: se hace dentro del {@code compute} de su entrada, así que
+ * nunca queda a medio indexar. Las consultas son débilmente consistentes: una asignación que se está
+ * agregando en ese instante puede aparecer en un índice antes que en otro. Cada lista resultante respeta el orden en que se agregaron las asignaciones.
+ * </p>
+ *
+ * <b>Contexto:</b> Lo usa el servicio de gestión de empleados para guardar y consultar los turnos asignados.
+ *
+ * <b>Precondiciones generales:</b> Las asignaciones no son nulas.
+ * <b>Poscondiciones generales:</b> Nunca se guardan dos asignaciones iguales según {@link AsignacionTurno#equals}.
+ *
+ * @author Sistema Parque
+ * @example
+ * <pre>
+ *     IndiceAsignaciones indice = new IndiceAsignaciones();
+ *     indice.agregar(asignacion);
+ *     List&lt;AsignacionTurno&gt; personal = indice.porLugarFechaYTurno(taquilla, fecha, Turno.APERTURA);
+ * </pre>
+ */
+public final class IndiceAsignaciones {
+
+    // Asignaciones de una fecha; cada índice ordena por secuencia de inserción
+    private static final class Dia {
+        private final Map<AsignacionTurno, Long> secuencias = new ConcurrentHashMap<>();
+        private final ConcurrentSkipListMap<Long, AsignacionTurno> todas = new ConcurrentSkipListMap<>();
+        private final Map<Turno, ConcurrentSkipListMap<Long, AsignacionTurno>> porTurno = nuevoPorTurno();
+        private final Map<String, ConcurrentSkipListMap<Long, AsignacionTurno>> porEmpleado = new ConcurrentHashMap<>();
+        // Por clave del lugar, para que otra instancia del mismo lugar (p. ej. recargada) encuentre sus asignaciones
+        private final Map<String, Map<Turno, ConcurrentSkipListMap<Long, AsignacionTurno>>> porLugar =
+                new ConcurrentHashMap<>();
+    }
+
+    private final Map<LocalDate, Dia> dias = new ConcurrentHashMap<>();
+    private final AtomicLong siguienteSecuencia = new AtomicLong();
+    private final AtomicInteger tamano = new AtomicInteger();
+
+    /**
+     * Crea un índice vacío.
+     */
+    public IndiceAsignaciones() {
+    }
+
+    /**
+     * Crea un índice con las asignaciones dadas, en ese orden.
+     *
+     * @param asignaciones Asignaciones iniciales; las repetidas se ignoran.
+     */
+    public IndiceAsignaciones(Collection<AsignacionTurno> asignaciones) {
+        for (AsignacionTurno a : asignaciones) {
+            agregar(a);
+        }
+    }
+
+    /**
+     * Agrega una asignación a todos los índices.
+     *
+     * <b>Precondiciones:</b> La asignación no es nula.
+     * <b>Poscondiciones:</b> Si no existía una asignación igual, queda visible en todas las consultas.
+     *
+     * @param asignacion Asignación a agregar.
+     * @return true si se agregó; false si ya existía una asignación igual.
+     * @throws DatosInvalidosException si la asignación es nula.
+     */
+    public boolean agregar(AsignacionTurno asignacion) {
+        if (asignacion == null) {
+            throw new DatosInvalidosException("La asignación a indexar no puede ser nula.");
+        }
+        Dia dia = dias.computeIfAbsent(asignacion.getFecha(), _ -> new Dia());
+        Long secuencia = siguienteSecuencia.getAndIncrement();
+        // compute bloquea la entrada de esta asignación: un extraer concurrente de una igual espera a
+        // que esté en todos los índices, y dos hilos que asignan lo mismo a la vez no la duplican
+        boolean[] agregada = new boolean[1];
+        dia.secuencias.compute(asignacion, (_, existente) -> {
+            if (existente != null) {
+                return existente;
+            }
+            dia.todas.put(secuencia, asignacion);
+            dia.porTurno.get(asignacion.getTurno()).put(secuencia, asignacion);
+            dia.porEmpleado.computeIfAbsent(asignacion.getEmpleado().getIdentificacion(), _ -> new ConcurrentSkipListMap<>())
+                    .put(secuencia, asignacion);
+            if (asignacion.getLugarTrabajo() != null) {
+                dia.porLugar.computeIfAbsent(asignacion.getLugarTrabajo().getClaveLugar(), _ -> nuevoPorTurno())
+                        .get(asignacion.getTurno()).put(secuencia, asignacion);
+            }
+            tamano.incrementAndGet();
+            agregada[0] = true;
+            return secuencia;
+        });
+        return agregada[0];
+    }
+
+    /**
+     * Quita una asignación de todos los índices.
+     *
+     * @param asignacion Asignación a quitar (se compara con {@link AsignacionTurno#equals}).
+     * @return true si existía.
+     */
+    public boolean quitar(AsignacionTurno asignacion) {
+        return extraer(asignacion) != null;
+    }
+
+    /**
+     * Quita una asignación de todos los índices y devuelve la que estaba guardada, que puede ser otra
+     * instancia igual (con otro id) a la dada.
+     *
+     * @param asignacion Asignación a quitar (se compara con {@link AsignacionTurno#equals}).
+     * @return Asignación guardada que se quitó, o null si no existía.
+     */
+    public AsignacionTurno extraer(AsignacionTurno asignacion) {
+        if (asignacion == null) {
+            return null;
+        }
+        Dia dia = dia(asignacion.getFecha());
+        if (dia == null) {
+            return null;
+        }
+        AsignacionTurno[] guardada = new AsignacionTurno[1];
+        // Dentro del compute de la entrada: la asignación se quita de todos los índices o de ninguno
+        dia.secuencias.computeIfPresent(asignacion, (_, secuencia) -> {
+            // Las asignaciones iguales comparten empleado, lugar, fecha y turno: sirven de clave para los índices
+            guardada[0] = dia.todas.remove(secuencia);
+            dia.porTurno.get(asignacion.getTurno()).remove(secuencia);
+            Map<Long, AsignacionTurno> delEmpleado = dia.porEmpleado.get(asignacion.getEmpleado().getIdentificacion());
+            if (delEmpleado != null) {
+                delEmpleado.remove(secuencia);
+            }
+            if (asignacion.getLugarTrabajo() != null) {
+                Map<Turno, ConcurrentSkipListMap<Long, AsignacionTurno>> delLugar = dia.porLugar.get(asignacion.getLugarTrabajo().getClaveLugar());
+                if (delLugar != null) {
+                    delLugar.get(asignacion.getTurno()).remove(secuencia);
+                }
+            }
+            tamano.decrementAndGet();
+            return null;
+        });
+        return guardada[0];
+    }
+
+    /**
+     * Indica si existe una asignación igual a la dada.
+     *
+     * @param asignacion Asignación a buscar.
+     * @return true si existe.
+     */
+    public boolean contiene(AsignacionTurno asignacion) {
+        if (asignacion == null) {
+            return false;
+        }
+        Dia dia = dia(asignacion.getFecha());
+        return dia != null && dia.secuencias.containsKey(asignacion);
+    }
+
+    /**
+     * Indica si el empleado tiene alguna asignación en la fecha y el turno dados.
+     *
+     * @param identificacionEmpleado ID del empleado.
+     * @param fecha Fecha a consultar.
+     * @param turno Turno a consultar.
+     * @return true si tiene al menos una asignación en ese turno.
+     */
+    public boolean tieneAsignacionEnTurno(String identificacionEmpleado, LocalDate fecha, Turno turno) {
+        Dia dia = dia(fecha);
+        if (dia == null || identificacionEmpleado == null) {
+            return false;
+        }
+        Map<Long, AsignacionTurno> delEmpleado = dia.porEmpleado.get(identificacionEmpleado);
+        if (delEmpleado == null) {
+            return false;
+        }
+        // Un empleado tiene a lo sumo un puñado de asignaciones por día
+        for (AsignacionTurno a : delEmpleado.values()) {
+            if (a.getTurno() == turno) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param fecha Fecha a consultar.
+     * @return Asignaciones de esa fecha, en orden de inserción.
+     */
+    public List<AsignacionTurno> porFecha(LocalDate fecha) {
+        Dia dia = dia(fecha);
+        return dia == null ? new ArrayList<>() : new ArrayList<>(dia.todas.values());
+    }
+
+    /**
+     * @param fecha Fecha a consultar.
+     * @param turno Turno a consultar.
+     * @return Asignaciones de esa fecha y turno, en orden de inserción.
+     */
+    public List<AsignacionTurno> porFechaYTurno(LocalDate fecha, Turno turno) {
+        Dia dia = dia(fecha);
+        return dia == null || turno == null ? new ArrayList<>() : new ArrayList<>(dia.porTurno.get(turno).values());
+    }
+
+    /**
+     * @param identificacionEmpleado ID del empleado.
+     * @param fecha Fecha a consultar.
+     * @return Asignaciones del empleado en esa fecha, en orden de inserción.
+     */
+    public List<AsignacionTurno> porEmpleadoYFecha(String identificacionEmpleado, LocalDate fecha) {
+        Dia dia = dia(fecha);
+        if (dia == null || identificacionEmpleado == null) {
+            return new ArrayList<>();
+        }
+        Map<Long, AsignacionTurno> delEmpleado = dia.porEmpleado.get(identificacionEmpleado);
+        return delEmpleado == null ? new ArrayList<>() : new ArrayList<>(delEmpleado.values());
+    }
+
+    /**
+     * @param lugarTrabajo Lugar de trabajo a consultar.
+     * @param fecha Fecha a consultar.
+     * @param turno Turno a consultar.
+     * @return Asignaciones a ese lugar en esa fecha y turno, en orden de inserción.
+     */
+    public List<AsignacionTurno> porLugarFechaYTurno(LugarTrabajo lugarTrabajo, LocalDate fecha, Turno turno) {
+        Dia dia = dia(fecha);
+        if (dia == null || lugarTrabajo == null || turno == null) {
+            return new ArrayList<>();
+        }
+        Map<Turno, ConcurrentSkipListMap<Long, AsignacionTurno>> delLugar = dia.porLugar.get(lugarTrabajo.getClaveLugar());
+        return delLugar == null ? new ArrayList<>() : new ArrayList<>(delLugar.get(turno).values());
+    }
+
+    /**
+     * @return Todas las asignaciones, agrupadas por fecha ascendente y en orden de inserción dentro de cada fecha.
+     */
+    public List<AsignacionTurno> todas() {
+        List<LocalDate> fechas = new ArrayList<>(dias.keySet());
+        Collections.sort(fechas);
+        List<AsignacionTurno> resultado = new ArrayList<>();
+        for (LocalDate fecha : fechas) {
+            resultado.addAll(porFecha(fecha));
+        }
+        return resultado;
+    }
+
+    /**
+     * @return Número de asignaciones almacenadas.
+     */
+    public int tamano() {
+        return tamano.get();
+    }
+
+    private Dia dia(LocalDate fecha) {
+        return fecha == null ? null : dias.get(fecha);
+    }
+
+    private static Map<Turno, ConcurrentSkipListMap<Long, AsignacionTurno>> nuevoPorTurno() {
+        // Se llena completo antes de publicarse y no vuelve a modificarse: es seguro leerlo sin cerrojo
+        Map<Turno, ConcurrentSkipListMap<Long, AsignacionTurno>> porTurno = new EnumMap<>(Turno.class);
+        for (Turno t : Turno.values()) {
+            porTurno.put(t, new ConcurrentSkipListMap<>());
+        }
+        return porTurno;
+    }
+}
@@ -44,4 +44,23 @@ public interface LugarTrabajo {
      * @return Conjunto de capacitaciones requeridas
      */
     Set<Capacitacion> getCapacitacionesRequeridas();
+
+    /**
+     * Obtiene las capacitaciones requeridas como máscara de bits (ver {@link Capacitacion#getMascara()}).
+     * Todo empleado que el lugar acepta cumple esta máscara, así que sirve para descartar candidatos con un AND.
+     * Las implementaciones con requisitos fijos la precalculan para no crear conjuntos en cada verificación.
+     * @return Máscara de las capacitaciones requeridas
+     */
+    default long getMascaraCapacitacionesRequeridas() {
+        return Capacitacion.mascaraDe(getCapacitacionesRequeridas());
+    }
+
+    /**
+     * Obtiene una clave estable que identifica este lugar de trabajo al persistir asignaciones.
+     * Por defecto combina el tipo del lugar y su nombre.
+     * @return Clave del lugar (p. ej. "Taquilla:Taquilla Norte")
+     */
+    default String getClaveLugar() {
+        return getClass().getSimpleName() + ":" + getNombreLugar();
+    }
 }
@@ -50,6 +50,7 @@ public class Taquilla implements LugarTrabajo { // Implement LugarTrabajo
             Capacitacion.MANEJO_CAJA,
             Capacitacion.ATENCION_CLIENTE_GENERAL
         )));
+    private static final long MASCARA_REQUERIDA = Capacitacion.mascaraDe(CAPACITACIONES_REQUERIDAS);
 
     /**
      * Constructor de la Taquilla.
@@ -154,7 +155,7 @@ public class Taquilla implements LugarTrabajo { // Implement LugarTrabajo
         Objects.requireNonNull(empleado, "El empleado no puede ser nulo.");
         // Verifica que el empleado sea Cajero y tenga las capacitaciones
         boolean esTipoValido = empleado instanceof Cajero;
-        boolean tieneCapacitaciones = empleado.cumpleCapacitaciones(CAPACITACIONES_REQUERIDAS);
+        boolean tieneCapacitaciones = empleado.cumpleCapacitaciones(MASCARA_REQUERIDA);
         return esTipoValido && tieneCapacitaciones;
     }
 
@@ -168,6 +169,11 @@ public class Taquilla implements LugarTrabajo { // Implement LugarTrabajo
         return CAPACITACIONES_REQUERIDAS;
     }
 
+    @Override
+    public long getMascaraCapacitacionesRequeridas() {
+        return MASCARA_REQUERIDA;
+    }
+
     /**
      * Remueve un empleado de la lista de empleados asignados.
      *
@@ -19,6 +19,7 @@ public class Tienda implements LugarTrabajo {
 
     private String nombre;
     private Set<Capacitacion> capacitacionesRequeridas; 
+    private long mascaraRequerida;
     private List<Empleado> empleadosAsignados;
     private int maximoEmpleados;
 
@@ -42,6 +43,7 @@ public class Tienda implements LugarTrabajo {
         this.capacitacionesRequeridas = new HashSet<>();
         this.capacitacionesRequeridas.add(Capacitacion.MANEJO_CAJA); 
         this.capacitacionesRequeridas.add(Capacitacion.ATENCION_CLIENTE_GENERAL); 
+        this.mascaraRequerida = Capacitacion.mascaraDe(this.capacitacionesRequeridas);
     }
 
     @Override
@@ -53,11 +55,20 @@ public class Tienda implements LugarTrabajo {
         return new ArrayList<>(empleadosAsignados); 
     }
 
+    public int getMaximoEmpleados() {
+        return maximoEmpleados;
+    }
+
     @Override
     public Set<Capacitacion> getCapacitacionesRequeridas() {
         return new HashSet<>(capacitacionesRequeridas); 
     }
 
+    @Override
+    public long getMascaraCapacitacionesRequeridas() {
+        return mascaraRequerida;
+    }
+
     /**
      * Implementación de LugarTrabajo: Verifica si un empleado puede ser asignado.
      * Chequea si tiene las capacitaciones requeridas y si hay cupo.
@@ -76,7 +87,7 @@ public class Tienda implements LugarTrabajo {
             return false; // No hay cupo
         }
         // Verifica si tiene las capacitaciones requeridas para la tienda
-        return empleado.cumpleCapacitaciones(this.capacitacionesRequeridas);
+        return empleado.cumpleCapacitaciones(this.mascaraRequerida);
     }
 
     /**
@@ -95,7 +106,7 @@ public class Tienda implements LugarTrabajo {
          if (empleadosAsignados.size() >= maximoEmpleados) {
              throw new AsignacionInvalidaException("No hay cupo disponible en la tienda '" + nombre + "'.");
          }
-        if (!empleado.cumpleCapacitaciones(this.capacitacionesRequeridas)) {
+        if (!empleado.cumpleCapacitaciones(this.mascaraRequerida)) {
              throw new CapacitacionInsuficienteException(empleado, this);
         }
 
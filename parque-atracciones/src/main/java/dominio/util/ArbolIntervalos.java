@@ -0,0 +1,274 @@
+package dominio.util;
+
+import java.util.function.Consumer;
+
+/**
+ * Árbol de intervalos cerrados [inicio, fin] con un valor asociado a cada uno.
+ * <p>
+ * Es un árbol AVL ordenado por inicio; cada nodo guarda además el mayor fin de su subárbol, lo que
+ * permite descartar ramas completas en las consultas. Inserción y eliminación cuestan O(log n); las
+ * consultas por punto, por superposición y por rango de inicios cuestan O(log n + k), siendo k el
+ * número de intervalos devueltos.
+ * </p>
+ * <p>
+ * Pueden existir varios intervalos con los mismos extremos: cada inserción devuelve un identificador
+ * que se usa para eliminar exactamente ese intervalo. No es seguro para uso concurrente.
+ * </p>
+ *
+ * <b>Contexto:</b> Base del índice de calendario de temporadas y horarios de espectáculos.
+ *
+ * @param <K> Tipo de los extremos (p. ej. {@link java.time.LocalDateTime}).
+ * @param <V> Tipo del valor asociado a cada intervalo.
+ * @author Sistema Parque
+ * @example
+ * <pre>
+ *     ArbolIntervalos&lt;LocalDateTime, String&gt; arbol = new ArbolIntervalos&lt;&gt;();
+ *     long id = arbol.insertar(inicio, fin, "A1");
+ *     arbol.intervalosQueContienen(LocalDateTime.now(), abiertos::add);
+ *     arbol.eliminar(inicio, id);
+ * </pre>
+ */
+public class ArbolIntervalos<K extends Comparable<? super K>, V> {
+
+    private final class Nodo {
+        private final K inicio;
+        private final K fin;
+        private final V valor;
+        private final long id;
+        private K maxFin;
+        private int altura = 1;
+        private Nodo izquierdo;
+        private Nodo derecho;
+
+        private Nodo(K inicio, K fin, V valor, long id) {
+            this.inicio = inicio;
+            this.fin = fin;
+            this.valor = valor;
+            this.id = id;
+            this.maxFin = fin;
+        }
+    }
+
+    private Nodo raiz;
+    private int tamano;
+    private long siguienteId;
+
+    /**
+     * Inserta un intervalo.
+     *
+     * <b>Precondiciones:</b> inicio y fin no son nulos y fin no es anterior a inicio.
+     *
+     * @param inicio Extremo inicial (incluido).
+     * @param fin Extremo final (incluido).
+     * @param valor Valor asociado.
+     * @return Identificador del intervalo, necesario para eliminarlo.
+     * @throws IllegalArgumentException si los extremos son inválidos.
+     */
+    public long insertar(K inicio, K fin, V valor) {
+        if (inicio == null || fin == null || fin.compareTo(inicio) < 0) {
+            throw new IllegalArgumentException("El intervalo es inválido: [" + inicio + ", " + fin + "]");
+        }
+        long id = siguienteId++;
+        raiz = insertar(raiz, new Nodo(inicio, fin, valor, id));
+        tamano++;
+        return id;
+    }
+
+    /**
+     * Elimina el intervalo con el inicio y el identificador dados.
+     *
+     * @param inicio Extremo inicial con el que se insertó.
+     * @param id Identificador devuelto por {@link #insertar}.
+     * @return true si el intervalo existía.
+     */
+    public boolean eliminar(K inicio, long id) {
+        int antes = tamano;
+        raiz = eliminar(raiz, inicio, id);
+        return tamano < antes;
+    }
+
+    /**
+     * Entrega los valores de los intervalos que contienen el punto.
+     *
+     * @param punto Punto a consultar.
+     * @param consumidor Receptor de los valores, en orden de inicio.
+     */
+    public void intervalosQueContienen(K punto, Consumer<? super V> consumidor) {
+        intervalosQueSeSuperponen(punto, punto, consumidor);
+    }
+
+    /**
+     * Entrega los valores de los intervalos que se superponen con [desde, hasta].
+     *
+     * @param desde Inicio del rango consultado (incluido).
+     * @param hasta Fin del rango consultado (incluido).
+     * @param consumidor Receptor de los valores, en orden de inicio.
+     */
+    public void intervalosQueSeSuperponen(K desde, K hasta, Consumer<? super V> consumidor) {
+        superponen(raiz, desde, hasta, consumidor);
+    }
+
+    /**
+     * Entrega los valores de los intervalos cuyo inicio está en [desde, hasta].
+     *
+     * @param desde Límite inferior del inicio (incluido).
+     * @param hasta Límite superior del inicio (incluido).
+     * @param consumidor Receptor de los valores, en orden de inicio.
+     */
+    public void intervalosQueInicianEntre(K desde, K hasta, Consumer<? super V> consumidor) {
+        inicianEntre(raiz, desde, hasta, consumidor);
+    }
+
+    /**
+     * @return Número de intervalos almacenados.
+     */
+    public int tamano() {
+        return tamano;
+    }
+
+    /**
+     * Elimina todos los intervalos.
+     */
+    public void limpiar() {
+        raiz = null;
+        tamano = 0;
+    }
+
+    private void superponen(Nodo nodo, K desde, K hasta, Consumer<? super V> consumidor) {
+        // Ningún intervalo del subárbol termina después de "desde": se descarta la rama
+        if (nodo == null || nodo.maxFin.compareTo(desde) < 0) {
+            return;
+        }
+        superponen(nodo.izquierdo, desde, hasta, consumidor);
+        if (nodo.inicio.compareTo(hasta) <= 0) {
+            if (nodo.fin.compareTo(desde) >= 0) {
+                consumidor.accept(nodo.valor);
+            }
+            superponen(nodo.derecho, desde, hasta, consumidor);
+        }
+    }
+
+    private void inicianEntre(Nodo nodo, K desde, K hasta, Consumer<? super V> consumidor) {
+        if (nodo == null) {
+            return;
+        }
+        boolean despuesDeDesde = nodo.inicio.compareTo(desde) >= 0;
+        boolean antesDeHasta = nodo.inicio.compareTo(hasta) <= 0;
+        if (despuesDeDesde) {
+            inicianEntre(nodo.izquierdo, desde, hasta, consumidor);
+        }
+        if (despuesDeDesde && antesDeHasta) {
+            consumidor.accept(nodo.valor);
+        }
+        if (antesDeHasta) {
+            inicianEntre(nodo.derecho, desde, hasta, consumidor);
+        }
+    }
+
+    // Orden total: por inicio y, entre inicios iguales, por identificador de inserción
+    private int comparar(K inicio, long id, Nodo nodo) {
+        int c = inicio.compareTo(nodo.inicio);
+        return c != 0 ? c : Long.compare(id, nodo.id);
+    }
+
+    private Nodo insertar(Nodo nodo, Nodo nuevo) {
+        if (nodo == null) {
+            return nuevo;
+        }
+        if (comparar(nuevo.inicio, nuevo.id, nodo) < 0) {
+            nodo.izquierdo = insertar(nodo.izquierdo, nuevo);
+        } else {
+            nodo.derecho = insertar(nodo.derecho, nuevo);
+        }
+        return balancear(nodo);
+    }
+
+    private Nodo eliminar(Nodo nodo, K inicio, long id) {
+        if (nodo == null) {
+            return null;
+        }
+        int c = comparar(inicio, id, nodo);
+        if (c < 0) {
+            nodo.izquierdo = eliminar(nodo.izquierdo, inicio, id);
+        } else if (c > 0) {
+            nodo.derecho = eliminar(nodo.derecho, inicio, id);
+        } else {
+            tamano--;
+            if (nodo.izquierdo == null) {
+                return nodo.derecho;
+            }
+            if (nodo.derecho == null) {
+                return nodo.izquierdo;
+            }
+            // Se reemplaza por el sucesor (mínimo del subárbol derecho)
+            Nodo sucesor = nodo.derecho;
+            while (sucesor.izquierdo != null) {
+                sucesor = sucesor.izquierdo;
+            }
+            sucesor.derecho = quitarMinimo(nodo.derecho);
+            sucesor.izquierdo = nodo.izquierdo;
+            return balancear(sucesor);
+        }
+        return balancear(nodo);
+    }
+
+    private Nodo quitarMinimo(Nodo nodo) {
+        if (nodo.izquierdo == null) {
+            return nodo.derecho;
+        }
+        nodo.izquierdo = quitarMinimo(nodo.izquierdo);
+        return balancear(nodo);
+    }
+
+    private int altura(Nodo nodo) {
+        return nodo == null ? 0 : nodo.altura;
+    }
+
+    private void actualizar(Nodo nodo) {
+        nodo.altura = 1 + Math.max(altura(nodo.izquierdo), altura(nodo.derecho));
+        K max = nodo.fin;
+        if (nodo.izquierdo != null && nodo.izquierdo.maxFin.compareTo(max) > 0) {
+            max = nodo.izquierdo.maxFin;
+        }
+        if (nodo.derecho != null && nodo.derecho.maxFin.compareTo(max) > 0) {
+            max = nodo.derecho.maxFin;
+        }
+        nodo.maxFin = max;
+    }
+
+    private Nodo balancear(Nodo nodo) {
+        actualizar(nodo);
+        int balance = altura(nodo.izquierdo) - altura(nodo.derecho);
+        if (balance > 1) {
+            if (altura(nodo.izquierdo.izquierdo) < altura(nodo.izquierdo.derecho)) {
+                nodo.izquierdo = rotarIzquierda(nodo.izquierdo);
+            }
+            return rotarDerecha(nodo);
+        }
+        if (balance < -1) {
+            if (altura(nodo.derecho.derecho) < altura(nodo.derecho.izquierdo)) {
+                nodo.derecho = rotarDerecha(nodo.derecho);
+            }
+            return rotarIzquierda(nodo);
+        }
+        return nodo;
+    }
+
+    private Nodo rotarDerecha(Nodo nodo) {
+        Nodo nuevaRaiz = nodo.izquierdo;
+        nodo.izquierdo = nuevaRaiz.derecho;
+        nuevaRaiz.derecho = nodo;
+        actualizar(nodo);
+        actualizar(nuevaRaiz);
+        return nuevaRaiz;
+    }
+
+    private Nodo rotarIzquierda(Nodo nodo) {
+        Nodo nuevaRaiz = nodo.derecho;
+        nodo.derecho = nuevaRaiz.izquierdo;
+        nuevaRaiz.izquierdo = nodo;
+        actualizar(nodo);
+        actualizar(nuevaRaiz);
+        return nuevaRaiz;
+    }
+}
@@ -0,0 +1,23 @@
+package infraestructura.dto;
+
+import java.time.LocalDate;
+
+/**
+ * DTO para los eventos de las particiones de asignaciones de turno.
+ *
+ * <b>Uso:</b> Cada alta o baja de una asignación se agrega como una línea JSON al archivo
+ * de la fecha de la asignación.
+ *
+ * @author Sistema Parque
+ */
+public class AsignacionTurnoDTO {
+    public static final String ALTA = "ALTA";
+    public static final String BAJA = "BAJA";
+
+    public String operacion;
+    public String id;
+    public String identificacionEmpleado; // Solo para ALTA
+    public String claveLugar;             // Solo para ALTA; null para Servicio General
+    public LocalDate fecha;
+    public String turno;                  // Solo para ALTA
+}
@@ -0,0 +1,41 @@
+package infraestructura.dto;
+
+/**
+ * DTO para los eventos del journal de tiquetes.
+ *
+ * <b>Uso:</b> Cada venta, uso o eliminación de tiquetes se agrega como una línea JSON
+ * al journal, que luego se compacta sobre el snapshot de tiquetes.
+ *
+ * @author Sistema Parque
+ */
+public class EventoTiqueteDTO {
+    public static final String VENTA = "VENTA";
+    public static final String USO = "USO";
+    public static final String ELIMINACION = "ELIMINACION";
+
+    public String operacion;
+    public TiqueteDTO tiquete; // Solo para VENTA
+    public String codigo;      // Para USO y ELIMINACION
+
+    public static EventoTiqueteDTO venta(TiqueteDTO tiquete) {
+        EventoTiqueteDTO evento = new EventoTiqueteDTO();
+        evento.operacion = VENTA;
+        evento.tiquete = tiquete;
+        evento.codigo = tiquete.codigo;
+        return evento;
+    }
+
+    public static EventoTiqueteDTO uso(String codigo) {
+        EventoTiqueteDTO evento = new EventoTiqueteDTO();
+        evento.operacion = USO;
+        evento.codigo = codigo;
+        return evento;
+    }
+
+    public static EventoTiqueteDTO eliminacion(String codigo) {
+        EventoTiqueteDTO evento = new EventoTiqueteDTO();
+        evento.operacion = ELIMINACION;
+        evento.codigo = codigo;
+        return evento;
+    }
+}
@@ -0,0 +1,15 @@
+package infraestructura.dto;
+
+/**
+ * DTO para los lugares de trabajo que no pertenecen a otro repositorio (taquillas, tiendas y cafeterías).
+ *
+ * <b>Uso:</b> Se guarda un DTO por lugar para que las asignaciones que lo referencian por clave
+ * se puedan resolver al reiniciar.
+ *
+ * @author Sistema Parque
+ */
+public class LugarTrabajoDTO {
+    public String tipo;      // "Taquilla", "Tienda" o "Cafeteria"
+    public String nombre;
+    public int empleados;    // Requeridos (taquilla, cafetería) o máximo (tienda)
+}
@@ -0,0 +1,64 @@
+package infraestructura.mapper;
+
+import dominio.empleado.Empleado;
+import dominio.trabajo.AsignacionTurno;
+import dominio.trabajo.LugarTrabajo;
+import dominio.trabajo.Turno;
+import infraestructura.dto.AsignacionTurnoDTO;
+import java.util.function.Function;
+
+/**
+ * Mapper para convertir entre objetos AsignacionTurno y AsignacionTurnoDTO.
+ *
+ * <b>Uso:</b> El empleado y el lugar se guardan por identificación y clave, y se resuelven al cargar.
+ *
+ * @author Sistema Parque
+ */
+public class AsignacionTurnoMapper {
+
+    public static AsignacionTurnoDTO alta(AsignacionTurno asignacion) {
+        AsignacionTurnoDTO dto = new AsignacionTurnoDTO();
+        dto.operacion = AsignacionTurnoDTO.ALTA;
+        dto.id = asignacion.getId();
+        dto.identificacionEmpleado = asignacion.getEmpleado().getIdentificacion();
+        dto.claveLugar = asignacion.getLugarTrabajo() != null ? asignacion.getLugarTrabajo().getClaveLugar() : null;
+        dto.fecha = asignacion.getFecha();
+        dto.turno = asignacion.getTurno().name();
+        return dto;
+    }
+
+    public static AsignacionTurnoDTO baja(AsignacionTurno asignacion) {
+        AsignacionTurnoDTO dto = new AsignacionTurnoDTO();
+        dto.operacion = AsignacionTurnoDTO.BAJA;
+        dto.id = asignacion.getId();
+        dto.fecha = asignacion.getFecha();
+        return dto;
+    }
+
+    /**
+     * Reconstruye una asignación a partir de su evento de alta.
+     *
+     * @param dto Evento de alta leído del almacenamiento.
+     * @param empleadoResolver Función para buscar un Empleado por su identificación.
+     * @param lugarResolver Función para buscar un LugarTrabajo por su clave.
+     * @return Asignación reconstruida, o null si el empleado o el lugar no se pueden resolver.
+     */
+    public static AsignacionTurno fromDTO(AsignacionTurnoDTO dto, Function<String, ? extends Empleado> empleadoResolver,
+                                          Function<String, ? extends LugarTrabajo> lugarResolver) {
+        if (dto == null || dto.identificacionEmpleado == null || dto.turno == null) return null;
+        Empleado empleado = empleadoResolver.apply(dto.identificacionEmpleado);
+        if (empleado == null) {
+            System.err.println("[WARN] Asignación " + dto.id + ": no se encontró el empleado " + dto.identificacionEmpleado);
+            return null;
+        }
+        LugarTrabajo lugar = null;
+        if (dto.claveLugar != null) {
+            lugar = lugarResolver.apply(dto.claveLugar);
+            if (lugar == null) {
+                System.err.println("[WARN] Asignación " + dto.id + ": no se encontró el lugar de trabajo " + dto.claveLugar);
+                return null;
+            }
+        }
+        return new AsignacionTurno(dto.id, empleado, lugar, dto.fecha, Turno.valueOf(dto.turno));
+    }
+}
@@ -0,0 +1,55 @@
+package infraestructura.mapper;
+
+import dominio.trabajo.Cafeteria;
+import dominio.trabajo.LugarTrabajo;
+import dominio.trabajo.Taquilla;
+import dominio.trabajo.Tienda;
+import infraestructura.dto.LugarTrabajoDTO;
+
+/**
+ * Mapper para convertir entre los lugares de trabajo propios del personal y LugarTrabajoDTO.
+ *
+ * <b>Uso:</b> Solo describe taquillas, tiendas y cafeterías; las atracciones se guardan con los
+ * elementos del parque y se resuelven desde su repositorio.
+ *
+ * @author Sistema Parque
+ */
+public class LugarTrabajoMapper {
+
+    /**
+     * @param lugar Lugar de trabajo.
+     * @return DTO del lugar, o null si no es una taquilla, tienda o cafetería.
+     */
+    public static LugarTrabajoDTO toDTO(LugarTrabajo lugar) {
+        LugarTrabajoDTO dto = new LugarTrabajoDTO();
+        dto.nombre = lugar.getNombreLugar();
+        if (lugar instanceof Taquilla t) {
+            dto.tipo = "Taquilla";
+            dto.empleados = t.getEmpleadosRequeridos();
+        } else if (lugar instanceof Tienda t) {
+            dto.tipo = "Tienda";
+            dto.empleados = t.getMaximoEmpleados();
+        } else if (lugar instanceof Cafeteria c) {
+            dto.tipo = "Cafeteria";
+            dto.empleados = c.getEmpleadosRequeridos();
+        } else {
+            return null;
+        }
+        return dto;
+    }
+
+    /**
+     * @param dto DTO leído del almacenamiento.
+     * @return Lugar reconstruido, o null si el tipo es desconocido.
+     * @throws dominio.excepciones.DatosInvalidosException si el nombre o el número de empleados son inválidos.
+     */
+    public static LugarTrabajo fromDTO(LugarTrabajoDTO dto) {
+        if (dto == null || dto.tipo == null) return null;
+        return switch (dto.tipo) {
+            case "Taquilla" -> new Taquilla(dto.nombre, dto.empleados);
+            case "Tienda" -> new Tienda(dto.nombre, dto.empleados);
+            case "Cafeteria" -> new Cafeteria(dto.nombre, dto.empleados);
+            default -> null;
+        };
+    }
+}
@@ -2,8 +2,8 @@ package infraestructura.mapper;
 
 import dominio.tiquete.*;
 import infraestructura.dto.TiqueteDTO;
-import dominio.usuario.Cliente;
-import java.time.LocalDate;
+import dominio.usuario.Usuario;
+import java.util.function.Function;
 
 public class TiqueteMapper {
 
@@ -38,10 +38,35 @@ public class TiqueteMapper {
     }
 
     public static Tiquete fromDTO(TiqueteDTO dto, java.util.function.Function<String, dominio.elementoparque.Atraccion> atraccionResolver) {
+        return fromDTO(dto, atraccionResolver, null);
+    }
+
+    /**
+     * Reconstruye un tiquete a partir de su DTO.
+     * El comprador no se crea aquí: el tiquete guarda el resolutor y lo consulta en el primer
+     * {@link Tiquete#getComprador()}, de modo que los tiquetes de un mismo comprador comparten su instancia.
+     *
+     * @param dto DTO leído del almacenamiento.
+     * @param atraccionResolver Función para buscar una Atraccion por su ID.
+     * @param compradorResolver Función para buscar un Usuario por su identificación; null si no se conoce.
+     * @return Tiquete reconstruido, o null si el tipo no es reconocido.
+     */
+    public static Tiquete fromDTO(TiqueteDTO dto, java.util.function.Function<String, dominio.elementoparque.Atraccion> atraccionResolver,
+                                  Function<String, ? extends Usuario> compradorResolver) {
         if (dto == null) return null;
+        Tiquete tiquete = construirTiquete(dto, atraccionResolver);
+        if (tiquete != null) {
+            tiquete.setResolutorComprador(compradorResolver);
+            if (dto.utilizado) {
+                tiquete.marcarComoUtilizado();
+            }
+        }
+        return tiquete;
+    }
+
+    private static Tiquete construirTiquete(TiqueteDTO dto, java.util.function.Function<String, dominio.elementoparque.Atraccion> atraccionResolver) {
 
-        Cliente comprador = new Cliente(dto.idComprador, "fakepass", dto.nombreComprador, dto.idComprador,
-                "fake@email.com", "000000", LocalDate.of(2000, 1, 1), 1.75, 70);
+        Usuario comprador = null; // Se resuelve al primer acceso (ver fromDTO)
 
         switch (dto.tipo) {
             case "TiqueteGeneral":
@@ -0,0 +1,782 @@
+package infraestructura.persistencia;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+/**
+ * Almacén clave-valor embebido con estructura de log: claves y valores de texto guardados en
+ * segmentos de solo agregado, con un directorio de claves en memoria.
+ *
+ * <b>Uso:</b> Cada escritura agrega un registro al segmento activo y apunta la clave a él; borrar
+ * agrega una lápida. Leer una clave es una búsqueda en el directorio y una lectura posicional, así
+ * que escrituras y lecturas cuestan O(1) sin importar cuántas claves haya. Cuando el segmento
+ * activo llega a su tamaño máximo se abre otro.
+ *
+ * <b>Formato de datos:</b> archivos {@code segmento-<n>.log} con registros consecutivos:
+ * CRC32 (4 bytes), número de secuencia (8), largo de la clave (4), largo del valor (4; -1 en una
+ * lápida), clave y valor en UTF-8. El CRC cubre todo lo que le sigue. Al abrir se recorren los
+ * segmentos y, para cada clave, gana el registro de mayor secuencia; un registro final incompleto
+ * (escritura interrumpida) se descarta truncando el segmento.
+ *
+ * <b>Compactación:</b> reescribe los registros vigentes de los segmentos cerrados en segmentos
+ * nuevos y borra los viejos; las lápidas desaparecen. Antes de borrar se publica la lista de
+ * segmentos compactados ({@code compactacion.pendiente}): si el proceso se interrumpe a mitad del
+ * borrado, al abrir se terminan de borrar todos, así que nunca queda un valor viejo sin la lápida
+ * que lo anulaba. Se hace en segundo plano cuando la
+ * proporción de bytes obsoletos de los segmentos cerrados supera {@value #PROPORCION_COMPACTACION}.
+ * Las lecturas no se bloquean mientras se copian los registros, solo durante el cambio de segmentos.
+ *
+ * @author Sistema Parque
+ */
+final class AlmacenClaveValorLog {
+    static final long TAMANO_SEGMENTO_PREDETERMINADO = 4L << 20;
+    private static final int TAMANO_CABECERA_REGISTRO = 4 + 8 + 4 + 4;
+    private static final int LARGO_LAPIDA = -1;
+    private static final double PROPORCION_COMPACTACION = 0.5;
+    private static final String PREFIJO_SEGMENTO = "segmento-";
+    private static final String EXTENSION_SEGMENTO = ".log";
+    private static final String EXTENSION_TEMPORAL = ".tmp";
+    private static final String COMPACTACION_PENDIENTE = "compactacion.pendiente";
+
+    private static final class Segmento {
+        private final long id;
+        private final Path ruta;
+        private final FileChannel canal;
+        private long tamano;
+        private long bytesObsoletos;
+
+        private Segmento(long id, Path ruta, FileChannel canal, long tamano) {
+            this.id = id;
+            this.ruta = ruta;
+            this.canal = canal;
+            this.tamano = tamano;
+        }
+    }
+
+    // Dónde está el valor vigente de una clave
+    private static final class Ubicacion {
+        private final Segmento segmento;
+        private final long posicion;
+        private final int largoRegistro;
+        private final int largoValor;
+        private final long secuencia;
+
+        private Ubicacion(Segmento segmento, long posicion, int largoRegistro, int largoValor, long secuencia) {
+            this.segmento = segmento;
+            this.posicion = posicion;
+            this.largoRegistro = largoRegistro;
+            this.largoValor = largoValor;
+            this.secuencia = secuencia;
+        }
+    }
+
+    // Registro leído de un segmento
+    private static final class Registro {
+        private final long secuencia;
+        private final String clave;
+        private final byte[] valor; // null en una lápida
+        private final int largo;
+
+        private Registro(long secuencia, String clave, byte[] valor, int largo) {
+            this.secuencia = secuencia;
+            this.clave = clave;
+            this.valor = valor;
+            this.largo = largo;
+        }
+    }
+
+    private final Path directorio;
+    private final long tamanoMaximoSegmento;
+    private final boolean forzarDisco;
+
+    // Escrituras y cambio de segmentos con el de escritura; lecturas con el de lectura
+    private final ReentrantReadWriteLock candado = new ReentrantReadWriteLock();
+    private final Object candadoCompactacion = new Object();
+    private final Map<String, Ubicacion> directorioClaves = new HashMap<>();
+    private final TreeMap<Long, Segmento> segmentos = new TreeMap<>();
+    private Segmento activo;
+    private long siguienteSecuencia = 1;
+    private long siguienteIdSegmento = 1;
+    private boolean cerrado;
+    private final ScheduledExecutorService compactador;
+
+    /**
+     * Abre (o crea) el almacén en un directorio.
+     *
+     * @param directorioAbsoluto Directorio de los segmentos.
+     * @param tamanoMaximoSegmento Bytes a partir de los cuales se abre un segmento nuevo.
+     * @param forzarDisco true para sincronizar cada escritura con el disco antes de retornar.
+     * @param periodoCompactacion Cada cuánto se revisa si conviene compactar; null para no hacerlo en segundo plano.
+     * @throws RuntimeException si no se pueden abrir los segmentos.
+     */
+    AlmacenClaveValorLog(String directorioAbsoluto, long tamanoMaximoSegmento, boolean forzarDisco,
+                         Duration periodoCompactacion) {
+        if (tamanoMaximoSegmento <= TAMANO_CABECERA_REGISTRO) {
+            throw new IllegalArgumentException("El tamaño máximo de segmento es demasiado pequeño: " + tamanoMaximoSegmento);
+        }
+        this.directorio = Paths.get(directorioAbsoluto);
+        this.tamanoMaximoSegmento = tamanoMaximoSegmento;
+        this.forzarDisco = forzarDisco;
+        try {
+            abrirSegmentos();
+        } catch (IOException e) {
+            cerrarCanales();
+            throw new RuntimeException("No se pudo abrir el almacén " + directorio, e);
+        }
+        if (periodoCompactacion != null) {
+            this.compactador = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "compactador-almacen");
+                t.setDaemon(true);
+                return t;
+            });
+            long periodo = Math.max(1, periodoCompactacion.toMillis());
+            compactador.scheduleWithFixedDelay(this::compactarSiConvieneSeguro, periodo, periodo, TimeUnit.MILLISECONDS);
+        } else {
+            this.compactador = null;
+        }
+    }
+
+    /**
+     * Devuelve el valor vigente de una clave.
+     *
+     * @param clave Clave a buscar.
+     * @return El valor, o null si la clave no existe.
+     */
+    String leer(String clave) {
+        candado.readLock().lock();
+        try {
+            comprobarAbierto();
+            Ubicacion ubicacion = directorioClaves.get(clave);
+            if (ubicacion == null) {
+                return null;
+            }
+            int inicioValor = ubicacion.largoRegistro - ubicacion.largoValor;
+            ByteBuffer valor = ByteBuffer.allocate(ubicacion.largoValor);
+            leerCompleto(ubicacion.segmento.canal, valor, ubicacion.posicion + inicioValor);
+            return new String(valor.array(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new RuntimeException("Error al leer la clave " + clave + " del almacén " + directorio, e);
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    /**
+     * Guarda el valor de una clave, reemplazando el anterior.
+     *
+     * @param clave Clave (no nula).
+     * @param valor Valor (no nulo).
+     */
+    void escribir(String clave, String valor) {
+        agregar(clave, valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Guarda varias claves como un solo grupo: sus registros se agregan juntos al segmento activo con
+     * una sola escritura y una sola sincronización con el disco, y solo entonces pasan a ser visibles.
+     * Si la escritura falla, el segmento vuelve a su tamaño anterior y ninguna clave cambia.
+     *
+     * @param escrituras Clave -> valor, en el orden a escribir; un valor null elimina la clave.
+     * @throws RuntimeException si no se puede escribir el grupo.
+     */
+    void escribirLote(Map<String, String> escrituras) {
+        candado.writeLock().lock();
+        try {
+            comprobarAbierto();
+            List<String> claves = new ArrayList<>();
+            List<byte[]> valores = new ArrayList<>();
+            List<ByteBuffer> registros = new ArrayList<>();
+            int total = 0;
+            for (Map.Entry<String, String> escritura : escrituras.entrySet()) {
+                byte[] valor = escritura.getValue() == null ? null : escritura.getValue().getBytes(StandardCharsets.UTF_8);
+                if (valor == null && !directorioClaves.containsKey(escritura.getKey())) {
+                    continue; // Como en eliminar: no hace falta lápida para una clave que no existe
+                }
+                ByteBuffer registro = codificar(siguienteSecuencia + registros.size(),
+                        escritura.getKey().getBytes(StandardCharsets.UTF_8), valor);
+                claves.add(escritura.getKey());
+                valores.add(valor);
+                registros.add(registro);
+                total += registro.remaining();
+            }
+            if (registros.isEmpty()) {
+                return;
+            }
+            ByteBuffer grupo = ByteBuffer.allocate(total);
+            registros.forEach(grupo::put);
+            grupo.flip();
+            // El grupo va entero en un segmento, aunque supere el tamaño máximo
+            if (activo.tamano > 0 && activo.tamano + total > tamanoMaximoSegmento) {
+                rotar();
+            }
+            long inicio = activo.tamano;
+            try {
+                escribirCompleto(activo.canal, grupo, inicio);
+                activo.canal.force(false);
+            } catch (IOException e) {
+                try {
+                    activo.canal.truncate(inicio);
+                } catch (IOException alTruncar) {
+                    e.addSuppressed(alTruncar);
+                }
+                throw e;
+            }
+            long posicion = inicio;
+            for (int i = 0; i < registros.size(); i++) {
+                int largo = registros.get(i).capacity();
+                publicar(claves.get(i), valores.get(i), posicion, largo, siguienteSecuencia++);
+                posicion += largo;
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error al escribir un lote de " + escrituras.size() + " claves en el almacén " + directorio, e);
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Elimina una clave.
+     *
+     * @param clave Clave a eliminar.
+     * @return true si la clave existía.
+     */
+    boolean eliminar(String clave) {
+        candado.writeLock().lock();
+        try {
+            comprobarAbierto();
+            if (!directorioClaves.containsKey(clave)) {
+                return false;
+            }
+            agregar(clave, null);
+            return true;
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param clave Clave a buscar.
+     * @return true si la clave existe.
+     */
+    boolean contiene(String clave) {
+        candado.readLock().lock();
+        try {
+            return directorioClaves.containsKey(clave);
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param prefijo Prefijo de las claves buscadas.
+     * @return Copia de las claves vigentes que empiezan con el prefijo, sin orden definido.
+     */
+    List<String> clavesConPrefijo(String prefijo) {
+        candado.readLock().lock();
+        try {
+            List<String> claves = new ArrayList<>();
+            for (String clave : directorioClaves.keySet()) {
+                if (clave.startsWith(prefijo)) {
+                    claves.add(clave);
+                }
+            }
+            return claves;
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Número de claves vigentes.
+     */
+    int tamano() {
+        candado.readLock().lock();
+        try {
+            return directorioClaves.size();
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Número de segmentos en disco.
+     */
+    int numeroSegmentos() {
+        candado.readLock().lock();
+        try {
+            return segmentos.size();
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    /**
+     * Compacta los segmentos cerrados: copia sus registros vigentes a segmentos nuevos y borra los viejos.
+     * Si {@code cerrarActivo} es true, primero cierra el segmento activo para compactarlo también.
+     *
+     * @param cerrarActivo true para incluir el segmento activo.
+     */
+    void compactar(boolean cerrarActivo) {
+        synchronized (candadoCompactacion) {
+            List<Segmento> cerrados = new ArrayList<>();
+            candado.writeLock().lock();
+            try {
+                comprobarAbierto();
+                if (cerrarActivo && activo.tamano > 0) {
+                    rotar();
+                }
+                for (Segmento segmento : segmentos.values()) {
+                    if (segmento != activo) {
+                        cerrados.add(segmento);
+                    }
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("No se pudo cerrar el segmento activo de " + directorio, e);
+            } finally {
+                candado.writeLock().unlock();
+            }
+            if (cerrados.isEmpty()) {
+                return;
+            }
+            try {
+                copiarVigentes(cerrados);
+            } catch (IOException e) {
+                throw new RuntimeException("Error al compactar el almacén " + directorio, e);
+            }
+        }
+    }
+
+    /**
+     * Detiene la compactación en segundo plano, sincroniza y cierra los segmentos.
+     */
+    void cerrar() {
+        if (compactador != null) {
+            compactador.shutdown();
+            try {
+                compactador.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        candado.writeLock().lock();
+        try {
+            if (cerrado) {
+                return;
+            }
+            cerrado = true;
+            if (activo != null) {
+                try {
+                    activo.canal.force(false);
+                } catch (IOException e) {
+                    System.err.println("[WARN] No se pudo sincronizar " + activo.ruta + ": " + e.getMessage());
+                }
+            }
+            cerrarCanales();
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    private void agregar(String clave, byte[] valor) {
+        byte[] bytesClave = clave.getBytes(StandardCharsets.UTF_8);
+        candado.writeLock().lock();
+        try {
+            comprobarAbierto();
+            long secuencia = siguienteSecuencia++;
+            ByteBuffer registro = codificar(secuencia, bytesClave, valor);
+            if (activo.tamano > 0 && activo.tamano + registro.remaining() > tamanoMaximoSegmento) {
+                rotar();
+            }
+            long posicion = activo.tamano;
+            int largo = registro.remaining();
+            escribirCompleto(activo.canal, registro, posicion);
+            if (forzarDisco) {
+                activo.canal.force(false);
+            }
+            publicar(clave, valor, posicion, largo, secuencia);
+        } catch (IOException e) {
+            throw new RuntimeException("Error al escribir la clave " + clave + " en el almacén " + directorio, e);
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    // Con el candado de escritura: apunta la clave al registro recién escrito al final del segmento activo
+    private void publicar(String clave, byte[] valor, long posicion, int largo, long secuencia) {
+        activo.tamano = posicion + largo;
+        Ubicacion anterior;
+        if (valor == null) {
+            anterior = directorioClaves.remove(clave);
+            activo.bytesObsoletos += largo; // La lápida solo sirve hasta la próxima compactación
+        } else {
+            anterior = directorioClaves.put(clave, new Ubicacion(activo, posicion, largo, valor.length, secuencia));
+        }
+        if (anterior != null) {
+            anterior.segmento.bytesObsoletos += anterior.largoRegistro;
+        }
+    }
+
+    private static ByteBuffer codificar(long secuencia, byte[] clave, byte[] valor) {
+        int largoValor = valor == null ? 0 : valor.length;
+        ByteBuffer registro = ByteBuffer.allocate(TAMANO_CABECERA_REGISTRO + clave.length + largoValor);
+        registro.putInt(0);
+        registro.putLong(secuencia);
+        registro.putInt(clave.length);
+        registro.putInt(valor == null ? LARGO_LAPIDA : valor.length);
+        registro.put(clave);
+        if (valor != null) {
+            registro.put(valor);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(registro.array(), 4, registro.capacity() - 4);
+        registro.putInt(0, (int) crc.getValue());
+        return registro.flip();
+    }
+
+    /**
+     * Lee el registro que empieza en la posición dada.
+     *
+     * @return El registro, o null si está incompleto o corrupto.
+     */
+    private static Registro leerRegistro(FileChannel canal, long posicion, long tamano) throws IOException {
+        if (tamano - posicion < TAMANO_CABECERA_REGISTRO) {
+            return null;
+        }
+        ByteBuffer cabecera = ByteBuffer.allocate(TAMANO_CABECERA_REGISTRO);
+        leerCompleto(canal, cabecera, posicion);
+        cabecera.flip();
+        int crcGuardado = cabecera.getInt();
+        long secuencia = cabecera.getLong();
+        int largoClave = cabecera.getInt();
+        int largoValor = cabecera.getInt();
+        long largo = (long) TAMANO_CABECERA_REGISTRO + largoClave + Math.max(largoValor, 0);
+        if (largoClave < 0 || largoValor < LARGO_LAPIDA || posicion + largo > tamano) {
+            return null;
+        }
+        ByteBuffer cuerpo = ByteBuffer.allocate((int) largo - TAMANO_CABECERA_REGISTRO);
+        leerCompleto(canal, cuerpo, posicion + TAMANO_CABECERA_REGISTRO);
+        CRC32 crc = new CRC32();
+        crc.update(cabecera.array(), 4, TAMANO_CABECERA_REGISTRO - 4);
+        crc.update(cuerpo.array());
+        if ((int) crc.getValue() != crcGuardado) {
+            return null;
+        }
+        String clave = new String(cuerpo.array(), 0, largoClave, StandardCharsets.UTF_8);
+        byte[] valor = null;
+        if (largoValor != LARGO_LAPIDA) {
+            valor = new byte[largoValor];
+            System.arraycopy(cuerpo.array(), largoClave, valor, 0, largoValor);
+        }
+        return new Registro(secuencia, clave, valor, (int) largo);
+    }
+
+    private void abrirSegmentos() throws IOException {
+        Files.createDirectories(directorio);
+        terminarCompactacionPendiente();
+        List<Long> ids = new ArrayList<>();
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(directorio)) {
+            for (Path archivo : archivos) {
+                String nombre = archivo.getFileName().toString();
+                if (nombre.endsWith(EXTENSION_TEMPORAL)) {
+                    Files.deleteIfExists(archivo); // Compactación interrumpida: los originales siguen completos
+                } else if (nombre.startsWith(PREFIJO_SEGMENTO) && nombre.endsWith(EXTENSION_SEGMENTO)) {
+                    try {
+                        ids.add(Long.parseLong(nombre.substring(PREFIJO_SEGMENTO.length(), nombre.length() - EXTENSION_SEGMENTO.length())));
+                    } catch (NumberFormatException e) {
+                        System.err.println("[WARN] Archivo ignorado en el almacén " + directorio + ": " + nombre);
+                    }
+                }
+            }
+        }
+        ids.sort(null);
+        // Lápidas vistas al cargar, para decidir entre registros de distintos segmentos por secuencia
+        Map<String, Long> lapidas = new HashMap<>();
+        for (long id : ids) {
+            Segmento segmento = abrirSegmento(id);
+            segmentos.put(id, segmento);
+            cargarRegistros(segmento, lapidas);
+            siguienteIdSegmento = Math.max(siguienteIdSegmento, id + 1);
+        }
+        activo = segmentos.isEmpty() ? null : segmentos.lastEntry().getValue();
+        if (activo == null || activo.tamano >= tamanoMaximoSegmento) {
+            rotar();
+        }
+    }
+
+    private Segmento abrirSegmento(long id) throws IOException {
+        Path ruta = directorio.resolve(PREFIJO_SEGMENTO + id + EXTENSION_SEGMENTO);
+        FileChannel canal = FileChannel.open(ruta, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new Segmento(id, ruta, canal, canal.size());
+    }
+
+    private void cargarRegistros(Segmento segmento, Map<String, Long> lapidas) throws IOException {
+        long posicion = 0;
+        while (posicion < segmento.tamano) {
+            Registro registro = leerRegistro(segmento.canal, posicion, segmento.tamano);
+            if (registro == null) {
+                System.err.println("[WARN] Registro incompleto en " + segmento.ruta + " (byte " + posicion
+                        + "), se descarta el resto del segmento.");
+                segmento.canal.truncate(posicion);
+                segmento.tamano = posicion;
+                break;
+            }
+            siguienteSecuencia = Math.max(siguienteSecuencia, registro.secuencia + 1);
+            Ubicacion actual = directorioClaves.get(registro.clave);
+            Long lapida = lapidas.get(registro.clave);
+            long secuenciaVigente = Math.max(actual == null ? 0 : actual.secuencia, lapida == null ? 0 : lapida);
+            if (registro.secuencia < secuenciaVigente) {
+                segmento.bytesObsoletos += registro.largo; // Ya hay uno más nuevo
+            } else {
+                if (actual != null) {
+                    actual.segmento.bytesObsoletos += actual.largoRegistro;
+                }
+                if (registro.valor == null) {
+                    directorioClaves.remove(registro.clave);
+                    lapidas.put(registro.clave, registro.secuencia);
+                    segmento.bytesObsoletos += registro.largo;
+                } else {
+                    directorioClaves.put(registro.clave, new Ubicacion(segmento, posicion, registro.largo,
+                            registro.valor.length, registro.secuencia));
+                }
+            }
+            posicion += registro.largo;
+        }
+    }
+
+    // Debe llamarse con el candado de escritura tomado (o durante la construcción)
+    private void rotar() throws IOException {
+        if (activo != null) {
+            activo.canal.force(false);
+        }
+        Segmento nuevo = abrirSegmento(siguienteIdSegmento++);
+        segmentos.put(nuevo.id, nuevo);
+        activo = nuevo;
+    }
+
+    private void copiarVigentes(List<Segmento> cerrados) throws IOException {
+        // Los segmentos cerrados ya no cambian: se recorren sin candado y solo se consulta el directorio.
+        // Los identificadores de los segmentos nuevos se asignan al publicarlos.
+        List<Path> temporales = new ArrayList<>();
+        List<Map<String, Ubicacion>> copiados = new ArrayList<>();
+        FileChannel salida = null;
+        Map<String, Ubicacion> copiadosSalida = null;
+        long tamanoSalida = 0;
+        try {
+            for (Segmento segmento : cerrados) {
+                long posicion = 0;
+                while (posicion < segmento.tamano) {
+                    Registro registro = leerRegistro(segmento.canal, posicion, segmento.tamano);
+                    if (registro == null) {
+                        break;
+                    }
+                    if (registro.valor != null && esVigente(registro.clave, segmento, posicion)) {
+                        if (salida == null || tamanoSalida + registro.largo > tamanoMaximoSegmento) {
+                            if (salida != null) {
+                                salida.force(false);
+                                salida.close();
+                            }
+                            Path temporal = Files.createTempFile(directorio, "compactacion-", EXTENSION_TEMPORAL);
+                            salida = FileChannel.open(temporal, StandardOpenOption.WRITE);
+                            temporales.add(temporal);
+                            copiadosSalida = new HashMap<>();
+                            copiados.add(copiadosSalida);
+                            tamanoSalida = 0;
+                        }
+                        escribirCompleto(salida, codificar(registro.secuencia,
+                                registro.clave.getBytes(StandardCharsets.UTF_8), registro.valor), tamanoSalida);
+                        // El segmento se conoce al publicarlo; aquí solo se anota la posición
+                        copiadosSalida.put(registro.clave, new Ubicacion(null, tamanoSalida, registro.largo,
+                                registro.valor.length, registro.secuencia));
+                        tamanoSalida += registro.largo;
+                    }
+                    posicion += registro.largo;
+                }
+            }
+            if (salida != null) {
+                salida.force(false);
+                salida.close();
+                salida = null;
+            }
+            publicarCompactacion(cerrados, temporales, copiados);
+        } finally {
+            if (salida != null) {
+                salida.close();
+            }
+            for (Path temporal : temporales) {
+                Files.deleteIfExists(temporal);
+            }
+        }
+    }
+
+    private boolean esVigente(String clave, Segmento segmento, long posicion) {
+        candado.readLock().lock();
+        try {
+            Ubicacion ubicacion = directorioClaves.get(clave);
+            return ubicacion != null && ubicacion.segmento == segmento && ubicacion.posicion == posicion;
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    private void publicarCompactacion(List<Segmento> cerrados, List<Path> temporales,
+                                      List<Map<String, Ubicacion>> copiados) throws IOException {
+        candado.writeLock().lock();
+        try {
+            if (cerrado) {
+                return;
+            }
+            for (int i = 0; i < temporales.size(); i++) {
+                long id = siguienteIdSegmento++;
+                Path destino = directorio.resolve(PREFIJO_SEGMENTO + id + EXTENSION_SEGMENTO);
+                mover(temporales.get(i), destino);
+                Segmento nuevo = abrirSegmento(id);
+                segmentos.put(id, nuevo);
+                for (Map.Entry<String, Ubicacion> copia : copiados.get(i).entrySet()) {
+                    Ubicacion original = copia.getValue();
+                    Ubicacion vigente = directorioClaves.get(copia.getKey());
+                    if (vigente != null && vigente.secuencia == original.secuencia) {
+                        directorioClaves.put(copia.getKey(), new Ubicacion(nuevo, original.posicion,
+                                original.largoRegistro, original.largoValor, original.secuencia));
+                    } else {
+                        nuevo.bytesObsoletos += original.largoRegistro; // Se sobrescribió durante la copia
+                    }
+                }
+            }
+            temporales.clear();
+            sincronizarDirectorio(); // Los segmentos nuevos quedan en disco antes de anunciar el borrado
+            // Nadie apunta ya a los segmentos compactados. Se borran todos o, si algo se interrumpe,
+            // se terminan de borrar al abrir: borrar solo algunos podría quitar una lápida y dejar el
+            // valor que anulaba, y ningún orden por id lo evita porque los segmentos compactados
+            // reciben ids mayores que el activo
+            StringBuilder pendientes = new StringBuilder();
+            for (Segmento segmento : cerrados) {
+                pendientes.append(segmento.id).append('\n');
+            }
+            Path temporalPendiente = directorio.resolve(COMPACTACION_PENDIENTE + EXTENSION_TEMPORAL);
+            try (FileChannel canal = FileChannel.open(temporalPendiente, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                escribirCompleto(canal, ByteBuffer.wrap(pendientes.toString().getBytes(StandardCharsets.UTF_8)), 0);
+                canal.force(false);
+            }
+            mover(temporalPendiente, directorio.resolve(COMPACTACION_PENDIENTE));
+            sincronizarDirectorio();
+            for (Segmento segmento : cerrados) {
+                segmentos.remove(segmento.id);
+                segmento.canal.close();
+                Files.deleteIfExists(segmento.ruta);
+            }
+            Files.deleteIfExists(directorio.resolve(COMPACTACION_PENDIENTE));
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    // Borra los segmentos de una compactación interrumpida después de publicar sus reemplazos
+    private void terminarCompactacionPendiente() throws IOException {
+        Path pendiente = directorio.resolve(COMPACTACION_PENDIENTE);
+        if (!Files.exists(pendiente)) {
+            return;
+        }
+        for (String linea : Files.readAllLines(pendiente, StandardCharsets.UTF_8)) {
+            if (!linea.isBlank()) {
+                Files.deleteIfExists(directorio.resolve(PREFIJO_SEGMENTO + linea.trim() + EXTENSION_SEGMENTO));
+            }
+        }
+        sincronizarDirectorio();
+        Files.delete(pendiente);
+    }
+
+    private static void mover(Path origen, Path destino) throws IOException {
+        try {
+            Files.move(origen, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(origen, destino, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // Hace durables los renombres y borrados del directorio; no todos los sistemas permiten abrirlo
+    private void sincronizarDirectorio() {
+        try (FileChannel canal = FileChannel.open(directorio, StandardOpenOption.READ)) {
+            canal.force(true);
+        } catch (IOException e) {
+            // En Windows no se puede abrir un directorio como canal: ahí los renombres ya son durables
+        }
+    }
+
+    private void compactarSiConvieneSeguro() {
+        try {
+            boolean conviene;
+            candado.readLock().lock();
+            try {
+                long total = 0;
+                long obsoletos = 0;
+                for (Segmento segmento : segmentos.values()) {
+                    if (segmento != activo) {
+                        total += segmento.tamano;
+                        obsoletos += segmento.bytesObsoletos;
+                    }
+                }
+                conviene = !cerrado && total > 0 && obsoletos >= total * PROPORCION_COMPACTACION;
+            } finally {
+                candado.readLock().unlock();
+            }
+            if (conviene) {
+                compactar(false);
+            }
+        } catch (RuntimeException e) {
+            System.err.println("[ERROR] Falló la compactación del almacén " + directorio + ": " + e.getMessage());
+        }
+    }
+
+    private void comprobarAbierto() {
+        if (cerrado) {
+            throw new IllegalStateException("El almacén " + directorio + " está cerrado.");
+        }
+    }
+
+    private void cerrarCanales() {
+        for (Segmento segmento : segmentos.values()) {
+            try {
+                segmento.canal.close();
+            } catch (IOException e) {
+                System.err.println("[WARN] No se pudo cerrar " + segmento.ruta + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private static void leerCompleto(FileChannel canal, ByteBuffer destino, long posicion) throws IOException {
+        while (destino.hasRemaining()) {
+            int leidos = canal.read(destino, posicion + destino.position());
+            if (leidos < 0) {
+                throw new IOException("Fin de archivo inesperado en la posición " + posicion);
+            }
+        }
+    }
+
+    private static void escribirCompleto(FileChannel canal, ByteBuffer origen, long posicion) throws IOException {
+        long inicio = posicion - origen.position();
+        while (origen.hasRemaining()) {
+            canal.write(origen, inicio + origen.position());
+        }
+    }
+}
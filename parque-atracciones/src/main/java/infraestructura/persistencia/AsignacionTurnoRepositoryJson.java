@@ -0,0 +1,164 @@
+package infraestructura.persistencia;
+
+import dominio.empleado.Empleado;
+import dominio.trabajo.AsignacionTurno;
+import dominio.trabajo.AsignacionTurnoRepository;
+import dominio.trabajo.LugarTrabajo;
+import infraestructura.dto.AsignacionTurnoDTO;
+import infraestructura.dto.LugarTrabajoDTO;
+import infraestructura.mapper.AsignacionTurnoMapper;
+import infraestructura.mapper.LugarTrabajoMapper;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Repositorio de asignaciones de turno en archivos JSON Lines particionados por fecha.
+ *
+ * <b>Uso:</b> Cada fecha tiene su propio archivo {@code <aaaa-mm-dd>.jsonl} dentro del directorio del
+ * repositorio, al que solo se agregan líneas: una por alta y una por baja. Cargar una fecha lee únicamente
+ * su archivo y reproduce sus eventos, así que el historial de otras fechas nunca se interpreta.
+ * Las escrituras y lecturas de una misma fecha se serializan; las de fechas distintas no compiten.
+ * Las taquillas, tiendas y cafeterías se describen en {@code lugares.json}, en el mismo directorio, una
+ * línea por registro; al cargar gana la última línea de cada clave.
+ *
+ * @author Sistema Parque
+ */
+public class AsignacionTurnoRepositoryJson implements AsignacionTurnoRepository {
+    private static final String EXTENSION = ".jsonl";
+    private static final String ARCHIVO_LUGARES = "lugares.json";
+
+    private final Path directorio;
+    private final Map<LocalDate, Object> candados = new ConcurrentHashMap<>();
+
+    /**
+     * @param directorioBaseName Nombre del directorio bajo 'data' (p. ej. "asignaciones").
+     */
+    public AsignacionTurnoRepositoryJson(String directorioBaseName) {
+        this.directorio = Paths.get(JsonUtil.getDataFilePath(directorioBaseName));
+    }
+
+    @Override
+    public List<AsignacionTurno> cargarFecha(LocalDate fecha, Function<String, ? extends Empleado> empleadoResolver,
+                                             Function<String, ? extends LugarTrabajo> lugarResolver) {
+        if (fecha == null) {
+            return new ArrayList<>();
+        }
+        // Se reproducen los eventos: una baja anula el alta con el mismo id
+        Map<String, AsignacionTurnoDTO> vigentes = new LinkedHashMap<>();
+        synchronized (candado(fecha)) {
+            JsonUtil.readLinesAbsolute(archivo(fecha).toString(), AsignacionTurnoDTO.class, dto -> {
+                if (dto.id == null) {
+                    return;
+                }
+                if (AsignacionTurnoDTO.BAJA.equals(dto.operacion)) {
+                    vigentes.remove(dto.id);
+                } else {
+                    vigentes.put(dto.id, dto);
+                }
+            });
+        }
+        List<AsignacionTurno> asignaciones = new ArrayList<>();
+        for (AsignacionTurnoDTO dto : vigentes.values()) {
+            try {
+                AsignacionTurno a = AsignacionTurnoMapper.fromDTO(dto, empleadoResolver, lugarResolver);
+                if (a != null) {
+                    asignaciones.add(a);
+                }
+            } catch (RuntimeException e) {
+                System.err.println("[ERROR] Error al mapear AsignacionTurnoDTO " + dto.id + ": " + e.getMessage());
+            }
+        }
+        return asignaciones;
+    }
+
+    @Override
+    public void registrarAsignacion(AsignacionTurno asignacion) {
+        agregar(asignacion.getFecha(), AsignacionTurnoMapper.alta(asignacion));
+    }
+
+    @Override
+    public void registrarEliminacion(AsignacionTurno asignacion) {
+        agregar(asignacion.getFecha(), AsignacionTurnoMapper.baja(asignacion));
+    }
+
+    @Override
+    public List<LocalDate> fechasConAsignaciones() {
+        List<LocalDate> fechas = new ArrayList<>();
+        if (!Files.isDirectory(directorio)) {
+            return fechas;
+        }
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(directorio, "*" + EXTENSION)) {
+            for (Path p : archivos) {
+                String nombre = p.getFileName().toString();
+                try {
+                    fechas.add(LocalDate.parse(nombre.substring(0, nombre.length() - EXTENSION.length())));
+                } catch (DateTimeParseException e) {
+                    System.err.println("[WARN] Archivo ajeno en el directorio de asignaciones, se ignora: " + nombre);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("[ERROR] No se pudo listar el directorio de asignaciones " + directorio + ": " + e.getMessage());
+        }
+        Collections.sort(fechas);
+        return fechas;
+    }
+
+    @Override
+    public void registrarLugar(LugarTrabajo lugarTrabajo) {
+        LugarTrabajoDTO dto = LugarTrabajoMapper.toDTO(lugarTrabajo);
+        if (dto == null) {
+            return; // Las atracciones se resuelven desde el repositorio de elementos
+        }
+        synchronized (this) {
+            JsonUtil.appendLinesAbsolute(directorio.resolve(ARCHIVO_LUGARES).toString(), List.of(dto));
+        }
+    }
+
+    @Override
+    public List<LugarTrabajo> cargarLugares() {
+        Map<String, LugarTrabajoDTO> porClave = new LinkedHashMap<>();
+        synchronized (this) {
+            JsonUtil.readLinesAbsolute(directorio.resolve(ARCHIVO_LUGARES).toString(), LugarTrabajoDTO.class,
+                    dto -> porClave.put(dto.tipo + ":" + dto.nombre, dto));
+        }
+        List<LugarTrabajo> lugares = new ArrayList<>();
+        for (LugarTrabajoDTO dto : porClave.values()) {
+            try {
+                LugarTrabajo lugar = LugarTrabajoMapper.fromDTO(dto);
+                if (lugar != null) {
+                    lugares.add(lugar);
+                }
+            } catch (RuntimeException e) {
+                System.err.println("[ERROR] Error al mapear LugarTrabajoDTO " + dto.tipo + ":" + dto.nombre + ": " + e.getMessage());
+            }
+        }
+        return lugares;
+    }
+
+    private void agregar(LocalDate fecha, AsignacionTurnoDTO evento) {
+        synchronized (candado(fecha)) {
+            JsonUtil.appendLinesAbsolute(archivo(fecha).toString(), List.of(evento));
+        }
+    }
+
+    private Object candado(LocalDate fecha) {
+        return candados.computeIfAbsent(fecha, _ -> new Object());
+    }
+
+    private Path archivo(LocalDate fecha) {
+        return directorio.resolve(fecha + EXTENSION);
+    }
+}
@@ -0,0 +1,249 @@
+package infraestructura.persistencia;
+
+import dominio.tiquete.Tiquete;
+import infraestructura.dto.EventoTiqueteDTO;
+import infraestructura.mapper.TiqueteMapper;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Cola acotada de persistencia asíncrona para los eventos de tiquetes (group commit).
+ *
+ * <b>Uso:</b> Las taquillas encolan ventas, usos y eliminaciones; un único hilo escritor toma todo
+ * lo que llega dentro de la ventana de agrupación y lo escribe en el journal del
+ * {@link TiqueteRepositoryJson} con una sola escritura y un único fsync. Cada operación recibe un
+ * {@link CompletableFuture} que se completa cuando su lote está en disco, de modo que el llamador
+ * decide si esperar la durabilidad o continuar de inmediato.
+ *
+ * <b>Contrapresión:</b> Si la cola está llena, encolar bloquea hasta que el escritor libere espacio.
+ *
+ * @author Sistema Parque
+ */
+public class ColaPersistenciaTiquetes {
+    /** Ventana de agrupación por defecto. */
+    public static final Duration VENTANA_POR_DEFECTO = Duration.ofMillis(5);
+    /** Capacidad por defecto de la cola (operaciones pendientes). */
+    public static final int CAPACIDAD_POR_DEFECTO = 4096;
+
+    private final TiqueteRepositoryJson repositorio;
+    private final BlockingQueue<OperacionPendiente> cola;
+    private final int capacidad;
+    private final long ventanaNanos;
+    private final Thread escritor;
+    private volatile boolean cerrada = false;
+    // Los productores comprueban 'cerrada' y encolan bajo la lectura; cerrar toma la escritura, así que
+    // ninguna operación puede entrar en la cola después de que cerrar la vacíe
+    private final ReadWriteLock cierre = new ReentrantReadWriteLock();
+
+    private final AtomicLong lotesEscritos = new AtomicLong();
+    private final AtomicLong eventosEscritos = new AtomicLong();
+    private final AtomicLong erroresEscritura = new AtomicLong();
+    private final AtomicLong latenciaUltimaNanos = new AtomicLong();
+    private final AtomicLong latenciaTotalNanos = new AtomicLong();
+    private final AtomicLong latenciaMaximaNanos = new AtomicLong();
+
+    private static class OperacionPendiente {
+        final List<EventoTiqueteDTO> eventos;
+        final CompletableFuture<Void> confirmacion = new CompletableFuture<>();
+
+        OperacionPendiente(List<EventoTiqueteDTO> eventos) {
+            this.eventos = eventos;
+        }
+    }
+
+    /**
+     * Crea la cola con la ventana y capacidad por defecto.
+     *
+     * @param repositorio Repositorio de tiquetes en modo journal.
+     */
+    public ColaPersistenciaTiquetes(TiqueteRepositoryJson repositorio) {
+        this(repositorio, VENTANA_POR_DEFECTO, CAPACIDAD_POR_DEFECTO);
+    }
+
+    /**
+     * Crea la cola e inicia el hilo escritor.
+     *
+     * <b>Precondiciones:</b> El repositorio está en modo journal, la ventana no es negativa y la capacidad es positiva.
+     *
+     * @param repositorio Repositorio de tiquetes en modo journal.
+     * @param ventanaAgrupacion Tiempo que el escritor espera operaciones adicionales antes de escribir un lote.
+     * @param capacidad Número máximo de operaciones pendientes.
+     * @throws IllegalArgumentException si algún parámetro es inválido.
+     */
+    public ColaPersistenciaTiquetes(TiqueteRepositoryJson repositorio, Duration ventanaAgrupacion, int capacidad) {
+        if (repositorio == null || !repositorio.isModoJournal()) {
+            throw new IllegalArgumentException("La cola de persistencia requiere un repositorio de tiquetes en modo journal.");
+        }
+        if (ventanaAgrupacion == null || ventanaAgrupacion.isNegative()) {
+            throw new IllegalArgumentException("La ventana de agrupación no puede ser nula ni negativa.");
+        }
+        if (capacidad <= 0) {
+            throw new IllegalArgumentException("La capacidad de la cola debe ser positiva.");
+        }
+        this.repositorio = repositorio;
+        this.capacidad = capacidad;
+        this.cola = new ArrayBlockingQueue<>(capacidad);
+        this.ventanaNanos = ventanaAgrupacion.toNanos();
+        this.escritor = new Thread(this::ejecutarEscritor, "escritor-tiquetes");
+        this.escritor.setDaemon(true);
+        this.escritor.start();
+    }
+
+    /**
+     * Encola la venta de un tiquete. El tiquete se convierte a DTO en el hilo llamador.
+     *
+     * @param tiquete Tiquete vendido.
+     * @return Futuro que se completa cuando la venta está en disco.
+     */
+    public CompletableFuture<Void> encolarVenta(Tiquete tiquete) {
+        return encolar(List.of(EventoTiqueteDTO.venta(TiqueteMapper.toDTO(tiquete))));
+    }
+
+    /**
+     * Encola el uso de un tiquete.
+     *
+     * @param tiquete Tiquete utilizado.
+     * @return Futuro que se completa cuando el uso está en disco.
+     */
+    public CompletableFuture<Void> encolarUso(Tiquete tiquete) {
+        return encolar(List.of(EventoTiqueteDTO.uso(tiquete.getCodigo())));
+    }
+
+    /**
+     * Encola la eliminación de varios tiquetes como una sola operación.
+     *
+     * @param codigos Códigos de los tiquetes eliminados.
+     * @return Futuro que se completa cuando las eliminaciones están en disco.
+     */
+    public CompletableFuture<Void> encolarEliminacion(Collection<String> codigos) {
+        List<EventoTiqueteDTO> eventos = new ArrayList<>();
+        for (String codigo : codigos) {
+            eventos.add(EventoTiqueteDTO.eliminacion(codigo));
+        }
+        return encolar(eventos);
+    }
+
+    /**
+     * Devuelve una instantánea de las métricas de la cola.
+     *
+     * @return Métricas actuales.
+     */
+    public MetricasPersistencia getMetricas() {
+        long lotes = lotesEscritos.get();
+        return new MetricasPersistencia(cola.size(), capacidad, lotes, eventosEscritos.get(), erroresEscritura.get(),
+                latenciaUltimaNanos.get() / 1_000_000.0,
+                lotes == 0 ? 0 : latenciaTotalNanos.get() / 1_000_000.0 / lotes,
+                latenciaMaximaNanos.get() / 1_000_000.0);
+    }
+
+    /**
+     * Deja de aceptar operaciones, escribe las pendientes y detiene el hilo escritor.
+     */
+    public void cerrar() {
+        cierre.writeLock().lock();
+        try {
+            cerrada = true;
+        } finally {
+            cierre.writeLock().unlock();
+        }
+        try {
+            escritor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Por si el escritor terminó antes de que llegara la última operación; desde aquí nadie más encola
+        List<OperacionPendiente> restantes = new ArrayList<>();
+        cola.drainTo(restantes);
+        if (!restantes.isEmpty()) {
+            escribirLote(restantes);
+        }
+    }
+
+    private CompletableFuture<Void> encolar(List<EventoTiqueteDTO> eventos) {
+        OperacionPendiente operacion = new OperacionPendiente(eventos);
+        // put puede bloquear con la cola llena; el escritor sigue vaciándola mientras cerrar espera
+        cierre.readLock().lock();
+        try {
+            if (cerrada) {
+                throw new IllegalStateException("La cola de persistencia de tiquetes está cerrada.");
+            }
+            if (eventos.isEmpty()) {
+                operacion.confirmacion.complete(null);
+                return operacion.confirmacion;
+            }
+            cola.put(operacion);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrumpido mientras se encolaba un evento de tiquete.", e);
+        } finally {
+            cierre.readLock().unlock();
+        }
+        return operacion.confirmacion;
+    }
+
+    private void ejecutarEscritor() {
+        List<OperacionPendiente> lote = new ArrayList<>();
+        while (!cerrada || !cola.isEmpty()) {
+            try {
+                OperacionPendiente primera = cola.poll(100, TimeUnit.MILLISECONDS);
+                if (primera == null) {
+                    continue;
+                }
+                lote.add(primera);
+                // Agrupa lo que llegue dentro de la ventana (o lo que ya esté en cola)
+                long limite = System.nanoTime() + ventanaNanos;
+                long restante;
+                while ((restante = limite - System.nanoTime()) > 0) {
+                    OperacionPendiente siguiente = cola.poll(restante, TimeUnit.NANOSECONDS);
+                    if (siguiente == null) {
+                        break;
+                    }
+                    lote.add(siguiente);
+                }
+                cola.drainTo(lote);
+                escribirLote(lote);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+
+    private void escribirLote(List<OperacionPendiente> lote) {
+        List<EventoTiqueteDTO> eventos = new ArrayList<>();
+        for (OperacionPendiente operacion : lote) {
+            eventos.addAll(operacion.eventos);
+        }
+        long inicio = System.nanoTime();
+        try {
+            repositorio.registrarEventos(eventos);
+        } catch (RuntimeException e) {
+            erroresEscritura.incrementAndGet();
+            System.err.println("[ERROR] No se pudo escribir un lote de " + eventos.size() + " eventos de tiquetes: " + e.getMessage());
+            for (OperacionPendiente operacion : lote) {
+                operacion.confirmacion.completeExceptionally(e);
+            }
+            return;
+        }
+        long latencia = System.nanoTime() - inicio;
+        lotesEscritos.incrementAndGet();
+        eventosEscritos.addAndGet(eventos.size());
+        latenciaUltimaNanos.set(latencia);
+        latenciaTotalNanos.addAndGet(latencia);
+        latenciaMaximaNanos.accumulateAndGet(latencia, Math::max);
+        for (OperacionPendiente operacion : lote) {
+            operacion.confirmacion.complete(null);
+        }
+    }
+}
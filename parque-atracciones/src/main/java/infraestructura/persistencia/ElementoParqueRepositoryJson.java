@@ -1,23 +1,62 @@
 package infraestructura.persistencia;
 
 import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
 
 import dominio.elementoparque.*;
 
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 public class ElementoParqueRepositoryJson implements ElementoParqueRepository {
 
+    // Tiempo que se esperan más eventos de un mismo guardado antes de recargar
+    private static final long ESPERA_AGRUPACION_MILIS = 100;
+
     private final String atraccionesMecanicasPath;
     private final String atraccionesCulturalesPath;
     private final String espectaculosPath;
 
-    private List<AtraccionMecanica> atraccionesMecanicas;
-    private List<AtraccionCultural> atraccionesCulturales;
-    private List<Espectaculo> espectaculos;
+    // Estado publicado: los lectores lo toman sin bloqueo; las escrituras (sincronizadas) publican uno nuevo
+    private volatile Instantanea instantanea;
+    // Cambios aún sin publicar: los de la unidad de trabajo abierta, que se publican juntos al confirmar
+    private volatile Borrador borrador;
+    // Unidad de trabajo: archivos aún sin escribir (también los de una confirmación fallida)
+    private boolean unidadDeTrabajoActiva = false;
+    private final Set<String> archivosModificados = new LinkedHashSet<>();
+    // IDs guardados en el lote: su instancia pudo editarse en el lugar, así que al descartar se releen del archivo
+    private final Set<String> idsModificadosEnLote = new HashSet<>();
+    // Recarga en caliente: firma de la última escritura propia de cada archivo, para no recargarla
+    private final Map<String, List<Object>> firmasPropias = new ConcurrentHashMap<>();
+    private WatchService vigilante;
+    private Thread hiloRecarga;
+    private volatile boolean recargaDetenida;
     /**
      * Constructor for ElementoParqueRepositoryJson.
      * @param atraccionesDirName The base directory name under 'data' containing attraction type files (e.g., "elementos").
@@ -37,13 +76,16 @@ public class ElementoParqueRepositoryJson implements ElementoParqueRepository {
     }
 
     private void cargarDatos() {
-        atraccionesMecanicas = cargarElementos(atraccionesMecanicasPath, new TypeToken<List<AtraccionMecanica>>() {});
-        atraccionesCulturales = cargarElementos(atraccionesCulturalesPath, new TypeToken<List<AtraccionCultural>>() {});
-        espectaculos = cargarElementos(espectaculosPath, new TypeToken<List<Espectaculo>>() {});
+        instantanea = new Instantanea(0,
+                cargarElementos(atraccionesMecanicasPath, AtraccionMecanica.class),
+                cargarElementos(atraccionesCulturalesPath, AtraccionCultural.class),
+                cargarElementos(espectaculosPath, Espectaculo.class));
     }
 
-    private <T> List<T> cargarElementos(String rutaArchivoAbsoluta, TypeToken<List<T>> typeToken) {
-        return JsonUtil.readFromFileAbsolute(rutaArchivoAbsoluta, typeToken);
+    private <T> List<T> cargarElementos(String rutaArchivoAbsoluta, Class<T> tipo) {
+        List<T> elementos = new ArrayList<>();
+        JsonUtil.readStreamAbsolute(rutaArchivoAbsoluta, tipo, elementos::add);
+        return elementos;
     }
 
     @Override
@@ -62,187 +104,920 @@ public class ElementoParqueRepositoryJson implements ElementoParqueRepository {
         return espectaculo;
     }
 
-    private void guardarAtraccionMecanica(AtraccionMecanica atraccion) {
-        boolean found = false;
-        for (int i = 0; i < atraccionesMecanicas.size(); i++) {
-            if (atraccionesMecanicas.get(i).getId().equals(atraccion.getId())) {
-                atraccionesMecanicas.set(i, atraccion);
-                found = true;
-                break;
-            }
-        }
-        if (!found) {
-            atraccionesMecanicas.add(atraccion);
-        }
-        JsonUtil.writeToFileAbsolute(atraccionesMecanicasPath, atraccionesMecanicas);
+    private synchronized void guardarAtraccionMecanica(AtraccionMecanica atraccion) {
+        Borrador cambios = borrador();
+        cambios.mecanicas.reemplazarOAgregar(atraccion);
+        cambios.indiceAtracciones.indexar(atraccion);
+        cambios.reindexarAtributos(atraccion.getId());
+        cambios.version++;
+        marcarModificadoEnLote(atraccion.getId());
+        persistir(atraccionesMecanicasPath);
     }
 
-    private void guardarAtraccionCultural(AtraccionCultural atraccion) {
-        boolean found = false;
-        for (int i = 0; i < atraccionesCulturales.size(); i++) {
-            if (atraccionesCulturales.get(i).getId().equals(atraccion.getId())) {
-                atraccionesCulturales.set(i, atraccion);
-                found = true;
-                break;
-            }
-        }
-        if (!found) {
-            atraccionesCulturales.add(atraccion);
-        }
-        JsonUtil.writeToFileAbsolute(atraccionesCulturalesPath, atraccionesCulturales);
+    private synchronized void guardarAtraccionCultural(AtraccionCultural atraccion) {
+        Borrador cambios = borrador();
+        cambios.culturales.reemplazarOAgregar(atraccion);
+        cambios.indiceAtracciones.indexar(atraccion);
+        cambios.reindexarAtributos(atraccion.getId());
+        cambios.version++;
+        marcarModificadoEnLote(atraccion.getId());
+        persistir(atraccionesCulturalesPath);
     }
 
-    private void guardarEspectaculo(Espectaculo espectaculo) {
-        boolean found = false;
-        for (int i = 0; i < espectaculos.size(); i++) {
-            if (espectaculos.get(i).getId().equals(espectaculo.getId())) {
-                espectaculos.set(i, espectaculo);
-                found = true;
-                break;
-            }
-        }
-        if (!found) {
-            espectaculos.add(espectaculo);
-        }
-        JsonUtil.writeToFileAbsolute(espectaculosPath, espectaculos);
+    private synchronized void guardarEspectaculo(Espectaculo espectaculo) {
+        Borrador cambios = borrador();
+        cambios.espectaculos.reemplazarOAgregar(espectaculo);
+        cambios.indiceEspectaculos.indexar(espectaculo);
+        cambios.reindexarAtributos(espectaculo.getId());
+        cambios.version++;
+        marcarModificadoEnLote(espectaculo.getId());
+        persistir(espectaculosPath);
     }
 
     @Override
     public Optional<Atraccion> findAtraccionById(String id) {
-        for (AtraccionMecanica atraccion : atraccionesMecanicas) {
-            if (atraccion.getId().equals(id)) {
-                return Optional.of(atraccion);
-            }
-        }
-        for (AtraccionCultural atraccion : atraccionesCulturales) {
-            if (atraccion.getId().equals(id)) {
-                return Optional.of(atraccion);
-            }
-        }
-        return Optional.empty();
+        return leer(estado -> Optional.ofNullable(estado.indiceAtracciones().porId(id)));
     }
 
     @Override
     public Optional<Espectaculo> findEspectaculoById(String id) {
-        for (Espectaculo espectaculo : espectaculos) {
-            if (espectaculo.getId().equals(id)) {
-                return Optional.of(espectaculo);
-            }
-        }
-        return Optional.empty();
+        return leer(estado -> Optional.ofNullable(estado.indiceEspectaculos().porId(id)));
     }
 
     @Override
     public Optional<ElementoParque> findById(String id) {
-        Optional<Atraccion> atraccionOpt = findAtraccionById(id);
-        if (atraccionOpt.isPresent()) {
-            return Optional.of(atraccionOpt.get());
-        }
+        return leer(estado -> Optional.ofNullable(estado.porId(id)));
+    }
 
-        Optional<Espectaculo> espectaculoOpt = findEspectaculoById(id);
-        if (espectaculoOpt.isPresent()) {
-            return Optional.of(espectaculoOpt.get());
-        }
+    @Override
+    public Optional<Atraccion> findAtraccionByNombre(String nombre) {
+        return leer(estado -> Optional.ofNullable(estado.indiceAtracciones().porNombre(nombre)));
+    }
 
-        return Optional.empty();
+    @Override
+    public Optional<Espectaculo> findEspectaculoByNombre(String nombre) {
+        return leer(estado -> Optional.ofNullable(estado.indiceEspectaculos().porNombre(nombre)));
     }
 
     @Override
-    public Optional<Atraccion> findAtraccionByNombre(String nombre) {
-        for (AtraccionMecanica atraccion : atraccionesMecanicas) {
-            if (atraccion.getNombre().equalsIgnoreCase(nombre)) {
-                return Optional.of(atraccion);
-            }
-        }
-        for (AtraccionCultural atraccion : atraccionesCulturales) {
-            if (atraccion.getNombre().equalsIgnoreCase(nombre)) {
+    public Optional<ElementoParque> findByNombre(String nombre) {
+        return leer(estado -> {
+            Atraccion atraccion = estado.indiceAtracciones().porNombre(nombre);
+            if (atraccion != null) {
                 return Optional.of(atraccion);
             }
+            return Optional.ofNullable(estado.indiceEspectaculos().porNombre(nombre));
+        });
+    }
+
+    @Override
+    public List<Atraccion> findAllAtracciones() {
+        return leer(Estado::atracciones);
+    }
+
+    @Override
+    public List<ElementoParque> findAll() {
+        return leer(Estado::todos);
+    }
+
+    @Override
+    public long getVersion() {
+        return leer(Estado::version);
+    }
+
+    @Override
+    public synchronized void deleteById(String id) {
+        Estado actual = vigente();
+        if (actual.mecanicas().stream().anyMatch(e -> e.getId().equals(id))) {
+            Borrador cambios = borrador();
+            cambios.mecanicas.quitarSi(e -> e.getId().equals(id));
+            quitarDeIndices(cambios, id, cambios.indiceAtracciones);
+            persistir(atraccionesMecanicasPath);
+        } else if (actual.culturales().stream().anyMatch(e -> e.getId().equals(id))) {
+            Borrador cambios = borrador();
+            cambios.culturales.quitarSi(e -> e.getId().equals(id));
+            quitarDeIndices(cambios, id, cambios.indiceAtracciones);
+            persistir(atraccionesCulturalesPath);
+        } else if (actual.espectaculos().stream().anyMatch(e -> e.getId().equals(id))) {
+            Borrador cambios = borrador();
+            cambios.espectaculos.quitarSi(e -> e.getId().equals(id));
+            quitarDeIndices(cambios, id, cambios.indiceEspectaculos);
+            persistir(espectaculosPath);
         }
-        return Optional.empty();
+    }
+
+    private static void quitarDeIndices(Borrador cambios, String id, IndiceElementos<?> indice) {
+        indice.quitar(id);
+        cambios.reindexarAtributos(id);
+        cambios.version++;
     }
 
     @Override
-    public Optional<Espectaculo> findEspectaculoByNombre(String nombre) {
-        for (Espectaculo espectaculo : espectaculos) {
-            if (espectaculo.getNombre().equalsIgnoreCase(nombre)) {
-                return Optional.of(espectaculo);
-            }
+    public List<ElementoParque> findByFiltro(FiltroElementos filtro) {
+        return leer(estado -> estado.indiceAtributos().buscar(filtro));
+    }
+
+    @Override
+    public synchronized int deleteAll(Predicate<? super ElementoParque> condicion) {
+        // Una sola pasada por lista; cada archivo afectado se escribe una vez
+        Estado actual = vigente();
+        List<AtraccionMecanica> mecanicas = new ArrayList<>(actual.mecanicas());
+        List<AtraccionCultural> culturales = new ArrayList<>(actual.culturales());
+        List<Espectaculo> espectaculos = new ArrayList<>(actual.espectaculos());
+        mecanicas.removeIf(condicion);
+        culturales.removeIf(condicion);
+        espectaculos.removeIf(condicion);
+        int eliminadosMecanicas = actual.mecanicas().size() - mecanicas.size();
+        int eliminadosCulturales = actual.culturales().size() - culturales.size();
+        int eliminadosEspectaculos = actual.espectaculos().size() - espectaculos.size();
+        if (eliminadosMecanicas + eliminadosCulturales + eliminadosEspectaculos == 0) {
+            return 0;
+        }
+        // Con las listas ya filtradas, los índices se reconstruyen una vez en lugar de desindexar uno a uno
+        Borrador cambios = borrador();
+        cambios.reemplazarListas(mecanicas, culturales, espectaculos);
+        cambios.version++;
+        List<String> rutas = new ArrayList<>(3);
+        if (eliminadosMecanicas > 0) {
+            rutas.add(atraccionesMecanicasPath);
+        }
+        if (eliminadosCulturales > 0) {
+            rutas.add(atraccionesCulturalesPath);
+        }
+        if (eliminadosEspectaculos > 0) {
+            rutas.add(espectaculosPath);
         }
-        return Optional.empty();
+        persistir(rutas.toArray(String[]::new));
+        return eliminadosMecanicas + eliminadosCulturales + eliminadosEspectaculos;
     }
 
     @Override
-    public Optional<ElementoParque> findByNombre(String nombre) {
-        Optional<Atraccion> atraccionOpt = findAtraccionByNombre(nombre);
-        if (atraccionOpt.isPresent()) {
-            return Optional.of(atraccionOpt.get());
+    public int deleteAllById(Collection<String> ids) {
+        Set<String> porEliminar = new HashSet<>(ids);
+        return deleteAll(e -> porEliminar.contains(e.getId()));
+    }
+
+    /**
+     * Consulta el estado vigente. Fuera de una unidad de trabajo es la instantánea publicada, que se lee sin
+     * bloqueo; durante una unidad de trabajo con cambios es el borrador, que se lee bajo el monitor para ver
+     * lo guardado en el lote.
+     */
+    private <R> R leer(Function<? super Estado, R> consulta) {
+        if (borrador == null) {
+            return consulta.apply(instantanea);
+        }
+        synchronized (this) {
+            return consulta.apply(vigente());
         }
+    }
+
+    // Fuera de una unidad de trabajo, el borrador de una operación en curso (o que falló a medias) aún no se publicó
+    private Estado vigente() {
+        return unidadDeTrabajoActiva && borrador != null ? borrador : instantanea;
+    }
 
-        Optional<Espectaculo> espectaculoOpt = findEspectaculoByNombre(nombre);
-        if (espectaculoOpt.isPresent()) {
-            return Optional.of(espectaculoOpt.get());
+    // Borrador sobre el que aplicar un cambio: el del lote abierto o, para una operación suelta, uno nuevo
+    private Borrador borrador() {
+        if (borrador == null || !unidadDeTrabajoActiva) {
+            borrador = new Borrador(instantanea);
         }
+        return borrador;
+    }
 
-        return Optional.empty();
+    // Publica el borrador como la nueva instantánea: los lectores pasan a verla completa de una vez
+    private void publicar() {
+        if (borrador != null) {
+            instantanea = new Instantanea(borrador);
+            borrador = null;
+        }
+    }
+
+    /**
+     * Marca archivos de categoría como modificados y, si no hay una unidad de trabajo abierta, publica el
+     * borrador y los escribe junto con los que haya dejado pendientes una confirmación fallida.
+     */
+    private void persistir(String... rutasArchivo) {
+        archivosModificados.addAll(Arrays.asList(rutasArchivo));
+        if (!unidadDeTrabajoActiva) {
+            publicar();
+            escribirModificados();
+        }
+    }
+
+    // Cada archivo deja de estar pendiente solo cuando quedó escrito: si uno falla, él y los siguientes siguen pendientes
+    private void escribirModificados() {
+        Iterator<String> pendientes = archivosModificados.iterator();
+        while (pendientes.hasNext()) {
+            String ruta = pendientes.next();
+            escribir(ruta, elementosDe(ruta));
+            pendientes.remove();
+        }
+    }
+
+    // Siempre bajo el monitor del repositorio, para que la recarga en caliente vea la firma ya registrada
+    private void escribir(String rutaArchivo, List<?> elementos) {
+        JsonUtil.writeToFileAbsolute(rutaArchivo, elementos);
+        List<Object> firma = firma(rutaArchivo);
+        if (firma != null) {
+            firmasPropias.put(rutaArchivo, firma);
+        }
+    }
+
+    private List<?> elementosDe(String rutaArchivo) {
+        Estado actual = vigente();
+        if (rutaArchivo.equals(atraccionesMecanicasPath)) {
+            return actual.mecanicas();
+        }
+        return rutaArchivo.equals(atraccionesCulturalesPath) ? actual.culturales() : actual.espectaculos();
     }
 
     @Override
-    public List<Atraccion> findAllAtracciones() {
-        List<Atraccion> todasLasAtracciones = new ArrayList<>();
-        todasLasAtracciones.addAll(atraccionesMecanicas);
-        todasLasAtracciones.addAll(atraccionesCulturales);
-        return todasLasAtracciones;
+    public synchronized boolean isUnitOfWorkActive() {
+        return unidadDeTrabajoActiva;
     }
 
     @Override
-    public List<ElementoParque> findAll() {
-        List<ElementoParque> todosLosElementos = new ArrayList<>();
-        todosLosElementos.addAll(atraccionesMecanicas);
-        todosLosElementos.addAll(atraccionesCulturales);
-        todosLosElementos.addAll(espectaculos);
-        return todosLosElementos;
+    public synchronized void beginUnitOfWork() {
+        if (unidadDeTrabajoActiva) {
+            throw new IllegalStateException("Ya hay una unidad de trabajo abierta.");
+        }
+        // Los cambios del lote van a un borrador que se crea con el primero: la instantánea publicada
+        // sigue siendo la previa al lote hasta confirmar
+        borrador = null;
+        unidadDeTrabajoActiva = true;
     }
 
     @Override
-    public void deleteById(String id) {
-        boolean removed = atraccionesMecanicas.removeIf(a -> a.getId().equals(id));
-        if (removed) {
-            JsonUtil.writeToFileAbsolute(atraccionesMecanicasPath, atraccionesMecanicas);
-            return;
+    public synchronized void commitUnitOfWork() {
+        if (!unidadDeTrabajoActiva) {
+            throw new IllegalStateException("No hay una unidad de trabajo abierta.");
+        }
+        // El lote se publica como una sola instantánea y cada archivo modificado se escribe una sola vez (de
+        // forma atómica, ver JsonUtil.writeStreamAbsolute). Si una escritura falla el lote queda confirmado en
+        // memoria y la unidad de trabajo se cierra igual: los archivos que faltan siguen pendientes y se
+        // escriben con la próxima modificación o guardarDatos()
+        try {
+            publicar();
+            escribirModificados();
+        } finally {
+            terminarUnidadDeTrabajo();
         }
+    }
 
-        removed = atraccionesCulturales.removeIf(a -> a.getId().equals(id));
-        if (removed) {
-            JsonUtil.writeToFileAbsolute(atraccionesCulturalesPath, atraccionesCulturales);
-            return;
+    @Override
+    public synchronized void rollbackUnitOfWork() {
+        if (!unidadDeTrabajoActiva) {
+            throw new IllegalStateException("No hay una unidad de trabajo abierta.");
         }
+        // Nada del lote se publicó: basta con descartar el borrador. La versión avanza igual, porque quien
+        // leyó durante el lote vio sus cambios y debe refrescar
+        Instantanea antes = instantanea;
+        long version = vigente().version() + 1;
+        borrador = null;
+        if (idsModificadosEnLote.isEmpty()) {
+            instantanea = new Instantanea(antes, version);
+        } else {
+            // Los archivos aún tienen el estado previo al lote (nada se escribe hasta confirmar): los elementos
+            // guardados en el lote se releen de ahí, porque su instancia pudo haberse modificado en el lugar
+            instantanea = new Instantanea(version,
+                    restaurados(antes.mecanicas, atraccionesMecanicasPath, AtraccionMecanica.class),
+                    restaurados(antes.culturales, atraccionesCulturalesPath, AtraccionCultural.class),
+                    restaurados(antes.espectaculos, espectaculosPath, Espectaculo.class));
+        }
+        terminarUnidadDeTrabajo();
+    }
 
-        removed = espectaculos.removeIf(e -> e.getId().equals(id));
-        if (removed) {
-            JsonUtil.writeToFileAbsolute(espectaculosPath, espectaculos);
-            return;
+    private void marcarModificadoEnLote(String id) {
+        if (unidadDeTrabajoActiva) {
+            idsModificadosEnLote.add(id);
         }
     }
 
-    public void guardarDatos() {
-        JsonUtil.writeToFileAbsolute(atraccionesMecanicasPath, atraccionesMecanicas);
-        JsonUtil.writeToFileAbsolute(atraccionesCulturalesPath, atraccionesCulturales);
-        JsonUtil.writeToFileAbsolute(espectaculosPath, espectaculos);
+    // Copia de la lista previa al lote con los elementos modificados en el lote reemplazados por su versión persistida
+    private <T extends ElementoParque> List<T> restaurados(List<T> antes, String rutaArchivo, Class<T> tipo) {
+        List<T> lista = new ArrayList<>(antes);
+        if (lista.stream().noneMatch(e -> idsModificadosEnLote.contains(e.getId()))) {
+            return lista;
+        }
+        Map<String, T> persistidos = new HashMap<>();
+        for (T e : cargarElementos(rutaArchivo, tipo)) {
+            persistidos.putIfAbsent(e.getId(), e);
+        }
+        for (int i = 0; i < lista.size(); i++) {
+            T persistido = idsModificadosEnLote.contains(lista.get(i).getId()) ? persistidos.get(lista.get(i).getId()) : null;
+            if (persistido != null) {
+                lista.set(i, persistido);
+            }
+        }
+        return lista;
+    }
+
+    private void terminarUnidadDeTrabajo() {
+        idsModificadosEnLote.clear();
+        borrador = null;
+        unidadDeTrabajoActiva = false;
+    }
+
+    public synchronized void guardarDatos() {
+        Estado actual = vigente();
+        escribir(atraccionesMecanicasPath, actual.mecanicas());
+        escribir(atraccionesCulturalesPath, actual.culturales());
+        escribir(espectaculosPath, actual.espectaculos());
+        if (!unidadDeTrabajoActiva) {
+            archivosModificados.clear();
+        }
     }
 
+    // Las listas de la instantánea son de solo lectura y no cambian: se entregan sin copiar (las del borrador, copiadas)
     @Override
     public List<AtraccionMecanica> findAllMecanicas() {
-        return new ArrayList<>(atraccionesMecanicas);
+        return leer(Estado::mecanicas);
     }
 
     @Override
     public List<AtraccionCultural> findAllCulturales() {
-        return new ArrayList<>(atraccionesCulturales);
+        return leer(Estado::culturales);
     }
 
     @Override
     public List<Espectaculo> findAllEspectaculos() {
-        return new ArrayList<>(espectaculos);
+        return leer(Estado::espectaculos);
+    }
+
+    /**
+     * Empieza a vigilar los archivos de datos y a recargar el que cambie fuera de la aplicación.
+     * <p>
+     * Solo se vuelve a leer el archivo modificado; la nueva instantánea se publica de una vez, así que
+     * los lectores ven el estado anterior o el nuevo completo, nunca una lista a medio cargar. Si el
+     * archivo no es JSON válido (por ejemplo, porque otro proceso aún lo está escribiendo), se conserva
+     * el estado anterior. Las escrituras del propio repositorio no provocan recarga, y los cambios
+     * externos que lleguen durante una unidad de trabajo se aplican al terminarla.
+     * </p>
+     *
+     * @throws RuntimeException si no se puede crear el vigilante de archivos.
+     */
+    public synchronized void iniciarRecargaEnCaliente() {
+        if (hiloRecarga != null) {
+            return;
+        }
+        Map<WatchKey, Path> directorios = new HashMap<>();
+        try {
+            vigilante = FileSystems.getDefault().newWatchService();
+            for (String ruta : List.of(atraccionesMecanicasPath, atraccionesCulturalesPath, espectaculosPath)) {
+                Path directorio = Paths.get(ruta).toAbsolutePath().getParent();
+                Files.createDirectories(directorio);
+                directorios.put(directorio.register(vigilante,
+                        StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY), directorio);
+            }
+        } catch (IOException e) {
+            cerrarVigilante();
+            throw new RuntimeException("No se pudo vigilar los archivos de elementos del parque", e);
+        }
+        recargaDetenida = false;
+        hiloRecarga = new Thread(() -> ejecutarRecarga(vigilante, directorios), "recarga-elementos");
+        hiloRecarga.setDaemon(true);
+        hiloRecarga.start();
+    }
+
+    /**
+     * Deja de vigilar los archivos de datos. No hace nada si la recarga en caliente no está activa.
+     */
+    public void detenerRecargaEnCaliente() {
+        Thread hilo;
+        synchronized (this) {
+            hilo = hiloRecarga;
+            hiloRecarga = null;
+            recargaDetenida = true;
+            cerrarVigilante();
+        }
+        if (hilo != null) {
+            try {
+                hilo.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * @return true si los archivos de datos se están vigilando.
+     */
+    public synchronized boolean isRecargaEnCalienteActiva() {
+        return hiloRecarga != null;
+    }
+
+    private void cerrarVigilante() {
+        if (vigilante != null) {
+            try {
+                vigilante.close();
+            } catch (IOException e) {
+                System.err.println("[WARN] No se pudo cerrar el vigilante de archivos: " + e.getMessage());
+            }
+            vigilante = null;
+        }
+    }
+
+    private void ejecutarRecarga(WatchService servicio, Map<WatchKey, Path> directorios) {
+        Set<String> pendientes = new LinkedHashSet<>();
+        while (!recargaDetenida) {
+            try {
+                WatchKey clave = servicio.poll(ESPERA_AGRUPACION_MILIS, TimeUnit.MILLISECONDS);
+                // Un guardado suele generar varios eventos: se agrupan antes de recargar
+                while (clave != null) {
+                    anotarCambios(clave, directorios.get(clave), pendientes);
+                    clave = servicio.poll(ESPERA_AGRUPACION_MILIS, TimeUnit.MILLISECONDS);
+                }
+                pendientes.removeIf(this::recargar);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ClosedWatchServiceException e) {
+                break;
+            }
+        }
+    }
+
+    private void anotarCambios(WatchKey clave, Path directorio, Set<String> pendientes) {
+        for (WatchEvent<?> evento : clave.pollEvents()) {
+            if (evento.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // Se perdieron eventos: se revisan todos los archivos
+                pendientes.addAll(List.of(atraccionesMecanicasPath, atraccionesCulturalesPath, espectaculosPath));
+            } else if (directorio != null && evento.context() instanceof Path nombre) {
+                String ruta = directorio.resolve(nombre).toString();
+                if (ruta.equals(atraccionesMecanicasPath) || ruta.equals(atraccionesCulturalesPath)
+                        || ruta.equals(espectaculosPath)) {
+                    pendientes.add(ruta);
+                }
+            }
+        }
+        clave.reset();
+    }
+
+    /**
+     * Recarga un archivo si cambió fuera del repositorio.
+     *
+     * @return true si el archivo quedó atendido; false si hay que reintentarlo (unidad de trabajo abierta).
+     */
+    private boolean recargar(String ruta) {
+        List<Object> firmaLeida;
+        synchronized (this) {
+            if (unidadDeTrabajoActiva) {
+                return false;
+            }
+            firmaLeida = firma(ruta);
+            if (firmaLeida == null || firmaLeida.equals(firmasPropias.get(ruta))) {
+                return true; // Borrado (se espera a que se vuelva a crear) o escrito por este repositorio
+            }
+        }
+        // Se lee fuera del monitor para no bloquear las escrituras mientras se analiza el archivo
+        List<ElementoParque> leidos = new ArrayList<>();
+        try {
+            JsonUtil.readStreamAbsoluteStrict(ruta, claseDe(ruta), leidos::add);
+        } catch (RuntimeException e) {
+            System.err.println("[WARN] No se recargó " + ruta + ", se conserva la versión anterior: " + e.getMessage());
+            return true;
+        }
+        synchronized (this) {
+            if (unidadDeTrabajoActiva) {
+                return false;
+            }
+            if (!firmaLeida.equals(firma(ruta))) {
+                return true; // Cambió mientras se leía: llegará otro evento con la versión nueva
+            }
+            Instantanea base = instantanea;
+            instantanea = new Instantanea(base.version + 1,
+                    ruta.equals(atraccionesMecanicasPath) ? convertir(leidos, AtraccionMecanica.class) : base.mecanicas,
+                    ruta.equals(atraccionesCulturalesPath) ? convertir(leidos, AtraccionCultural.class) : base.culturales,
+                    ruta.equals(espectaculosPath) ? convertir(leidos, Espectaculo.class) : base.espectaculos);
+            firmasPropias.put(ruta, firmaLeida);
+        }
+        return true;
+    }
+
+    private Class<? extends ElementoParque> claseDe(String ruta) {
+        if (ruta.equals(atraccionesMecanicasPath)) {
+            return AtraccionMecanica.class;
+        }
+        return ruta.equals(atraccionesCulturalesPath) ? AtraccionCultural.class : Espectaculo.class;
+    }
+
+    private static <T> List<T> convertir(List<ElementoParque> elementos, Class<T> tipo) {
+        List<T> convertidos = new ArrayList<>(elementos.size());
+        for (ElementoParque elemento : elementos) {
+            convertidos.add(tipo.cast(elemento));
+        }
+        return convertidos;
+    }
+
+    // Identifica una versión concreta del archivo: inodo, fecha de modificación y tamaño; null si no existe
+    private static List<Object> firma(String ruta) {
+        try {
+            BasicFileAttributes atributos = Files.readAttributes(Paths.get(ruta), BasicFileAttributes.class);
+            return List.of(String.valueOf(atributos.fileKey()), atributos.lastModifiedTime(), atributos.size());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /** Lo que ven las consultas: la instantánea publicada o, durante una unidad de trabajo, su borrador. */
+    private interface Estado {
+        long version();
+
+        List<AtraccionMecanica> mecanicas();
+
+        List<AtraccionCultural> culturales();
+
+        List<Espectaculo> espectaculos();
+
+        List<Atraccion> atracciones();
+
+        List<ElementoParque> todos();
+
+        IndiceElementos<Atraccion> indiceAtracciones();
+
+        IndiceElementos<Espectaculo> indiceEspectaculos();
+
+        IndiceAtributosElementos indiceAtributos();
+
+        default ElementoParque porId(String id) {
+            Atraccion atraccion = indiceAtracciones().porId(id);
+            return atraccion != null ? atraccion : indiceEspectaculos().porId(id);
+        }
+    }
+
+    /**
+     * Estado inmutable y versionado del repositorio: las listas de elementos y sus índices. Se completa
+     * antes de publicarse y no vuelve a modificarse, por lo que los lectores lo consultan sin bloqueos.
+     */
+    private static final class Instantanea implements Estado {
+        private final long version;
+        private final List<AtraccionMecanica> mecanicas;
+        private final List<AtraccionCultural> culturales;
+        private final List<Espectaculo> espectaculos;
+        // Concatenaciones para findAllAtracciones y findAll, calculadas una vez por versión
+        private final List<Atraccion> atracciones;
+        private final List<ElementoParque> todos;
+        // Índices hash por ID y por nombre plegado
+        private final IndiceElementos<Atraccion> indiceAtracciones;
+        private final IndiceElementos<Espectaculo> indiceEspectaculos;
+        // Mapas de bits por exclusividad, riesgo y clima no permitido para findByFiltro
+        private final IndiceAtributosElementos indiceAtributos;
+
+        /** Toma posesión de las listas y construye los índices desde cero. */
+        Instantanea(long version, List<AtraccionMecanica> mecanicas, List<AtraccionCultural> culturales,
+                    List<Espectaculo> espectaculos) {
+            this.version = version;
+            this.mecanicas = Collections.unmodifiableList(mecanicas);
+            this.culturales = Collections.unmodifiableList(culturales);
+            this.espectaculos = Collections.unmodifiableList(espectaculos);
+            this.atracciones = concatenarAtracciones();
+            this.todos = concatenarTodos();
+            this.indiceAtracciones = new IndiceElementos<>(() -> this.atracciones);
+            this.indiceEspectaculos = new IndiceElementos<>(() -> this.espectaculos);
+            this.indiceAtributos = new IndiceAtributosElementos();
+            indiceAtracciones.reconstruir();
+            indiceEspectaculos.reconstruir();
+            indiceAtributos.reconstruir(todos);
+        }
+
+        /** Publica un borrador: toma posesión de sus listas e índices, que el borrador ya no vuelve a tocar. */
+        Instantanea(Borrador borrador) {
+            this.version = borrador.version;
+            this.mecanicas = Collections.unmodifiableList(borrador.mecanicas.elementos);
+            this.culturales = Collections.unmodifiableList(borrador.culturales.elementos);
+            this.espectaculos = Collections.unmodifiableList(borrador.espectaculos.elementos);
+            this.atracciones = concatenarAtracciones();
+            this.todos = concatenarTodos();
+            this.indiceAtracciones = borrador.indiceAtracciones;
+            this.indiceEspectaculos = borrador.indiceEspectaculos;
+            this.indiceAtributos = borrador.indiceAtributos;
+            indiceAtracciones.cambiarFuente(() -> this.atracciones);
+            indiceEspectaculos.cambiarFuente(() -> this.espectaculos);
+        }
+
+        /** Mismo contenido que la base (comparte listas e índices) con otra versión. */
+        Instantanea(Instantanea base, long version) {
+            this.version = version;
+            this.mecanicas = base.mecanicas;
+            this.culturales = base.culturales;
+            this.espectaculos = base.espectaculos;
+            this.atracciones = base.atracciones;
+            this.todos = base.todos;
+            this.indiceAtracciones = base.indiceAtracciones;
+            this.indiceEspectaculos = base.indiceEspectaculos;
+            this.indiceAtributos = base.indiceAtributos;
+        }
+
+        @Override
+        public long version() {
+            return version;
+        }
+
+        @Override
+        public List<AtraccionMecanica> mecanicas() {
+            return mecanicas;
+        }
+
+        @Override
+        public List<AtraccionCultural> culturales() {
+            return culturales;
+        }
+
+        @Override
+        public List<Espectaculo> espectaculos() {
+            return espectaculos;
+        }
+
+        @Override
+        public List<Atraccion> atracciones() {
+            return atracciones;
+        }
+
+        @Override
+        public List<ElementoParque> todos() {
+            return todos;
+        }
+
+        @Override
+        public IndiceElementos<Atraccion> indiceAtracciones() {
+            return indiceAtracciones;
+        }
+
+        @Override
+        public IndiceElementos<Espectaculo> indiceEspectaculos() {
+            return indiceEspectaculos;
+        }
+
+        @Override
+        public IndiceAtributosElementos indiceAtributos() {
+            return indiceAtributos;
+        }
+
+        private List<Atraccion> concatenarAtracciones() {
+            return Collections.unmodifiableList(concatenar(mecanicas, culturales));
+        }
+
+        private List<ElementoParque> concatenarTodos() {
+            return Collections.unmodifiableList(concatenar(mecanicas, culturales, espectaculos));
+        }
+    }
+
+    /**
+     * Copia mutable de una instantánea sobre la que se aplican los cambios aún sin publicar. Se crea una vez
+     * por unidad de trabajo (o por operación suelta) y se publica de una vez, así que un lote de k guardados
+     * copia las listas y los índices una sola vez en lugar de k. Solo se usa bajo el monitor del repositorio;
+     * las listas que entrega a los lectores son copias.
+     */
+    private static final class Borrador implements Estado {
+        private long version;
+        private final ListaElementos<AtraccionMecanica> mecanicas;
+        private final ListaElementos<AtraccionCultural> culturales;
+        private final ListaElementos<Espectaculo> espectaculos;
+        private final IndiceElementos<Atraccion> indiceAtracciones;
+        private final IndiceElementos<Espectaculo> indiceEspectaculos;
+        private final IndiceAtributosElementos indiceAtributos;
+
+        Borrador(Instantanea base) {
+            this.version = base.version;
+            this.mecanicas = new ListaElementos<>(base.mecanicas);
+            this.culturales = new ListaElementos<>(base.culturales);
+            this.espectaculos = new ListaElementos<>(base.espectaculos);
+            this.indiceAtracciones = base.indiceAtracciones.copiar(() -> concatenar(mecanicas.elementos, culturales.elementos));
+            this.indiceEspectaculos = base.indiceEspectaculos.copiar(() -> espectaculos.elementos);
+            this.indiceAtributos = base.indiceAtributos.copiar();
+        }
+
+        // El ID puede seguir existiendo en otra lista: se indexa el elemento que devolvería findById.
+        // Reindexar en su lugar conserva la posición, y con ella el orden de findByFiltro; solo se quita si ya no existe
+        void reindexarAtributos(String id) {
+            ElementoParque elemento = porId(id);
+            if (elemento != null) {
+                indiceAtributos.indexar(elemento);
+            } else {
+                indiceAtributos.quitar(id);
+            }
+        }
+
+        /** Toma posesión de las listas dadas y reconstruye los índices desde cero. */
+        void reemplazarListas(List<AtraccionMecanica> nuevasMecanicas, List<AtraccionCultural> nuevasCulturales,
+                              List<Espectaculo> nuevosEspectaculos) {
+            mecanicas.reemplazarTodo(nuevasMecanicas);
+            culturales.reemplazarTodo(nuevasCulturales);
+            espectaculos.reemplazarTodo(nuevosEspectaculos);
+            indiceAtracciones.reconstruir();
+            indiceEspectaculos.reconstruir();
+            indiceAtributos.reconstruir(concatenar(mecanicas.elementos, culturales.elementos, espectaculos.elementos));
+        }
+
+        @Override
+        public long version() {
+            return version;
+        }
+
+        @Override
+        public List<AtraccionMecanica> mecanicas() {
+            return Collections.unmodifiableList(new ArrayList<>(mecanicas.elementos));
+        }
+
+        @Override
+        public List<AtraccionCultural> culturales() {
+            return Collections.unmodifiableList(new ArrayList<>(culturales.elementos));
+        }
+
+        @Override
+        public List<Espectaculo> espectaculos() {
+            return Collections.unmodifiableList(new ArrayList<>(espectaculos.elementos));
+        }
+
+        @Override
+        public List<Atraccion> atracciones() {
+            return Collections.unmodifiableList(concatenar(mecanicas.elementos, culturales.elementos));
+        }
+
+        @Override
+        public List<ElementoParque> todos() {
+            return Collections.unmodifiableList(concatenar(mecanicas.elementos, culturales.elementos, espectaculos.elementos));
+        }
+
+        @Override
+        public IndiceElementos<Atraccion> indiceAtracciones() {
+            return indiceAtracciones;
+        }
+
+        @Override
+        public IndiceElementos<Espectaculo> indiceEspectaculos() {
+            return indiceEspectaculos;
+        }
+
+        @Override
+        public IndiceAtributosElementos indiceAtributos() {
+            return indiceAtributos;
+        }
+    }
+
+    /**
+     * Lista de una familia de elementos con la posición de cada ID (la primera, si se repite), para
+     * reemplazar un elemento guardado sin recorrer la lista.
+     */
+    private static final class ListaElementos<T extends ElementoParque> {
+        private final List<T> elementos;
+        private final Map<String, Integer> posicionPorId = new HashMap<>();
+
+        ListaElementos(List<T> base) {
+            this.elementos = new ArrayList<>(base);
+            reposicionar();
+        }
+
+        /** Reemplaza el elemento con el mismo ID, o lo agrega al final si no está. */
+        void reemplazarOAgregar(T elemento) {
+            Integer posicion = posicionPorId.get(elemento.getId());
+            if (posicion != null) {
+                elementos.set(posicion, elemento);
+            } else {
+                posicionPorId.put(elemento.getId(), elementos.size());
+                elementos.add(elemento);
+            }
+        }
+
+        /** Quita los elementos que cumplan la condición; las posiciones se recalculan solo si se quitó alguno. */
+        void quitarSi(Predicate<? super T> condicion) {
+            if (elementos.removeIf(condicion)) {
+                reposicionar();
+            }
+        }
+
+        void reemplazarTodo(List<T> nuevos) {
+            elementos.clear();
+            elementos.addAll(nuevos);
+            reposicionar();
+        }
+
+        private void reposicionar() {
+            posicionPorId.clear();
+            for (int i = 0; i < elementos.size(); i++) {
+                posicionPorId.putIfAbsent(elementos.get(i).getId(), i);
+            }
+        }
+    }
+
+    @SafeVarargs
+    private static <T> List<T> concatenar(List<? extends T>... listas) {
+        int tamano = 0;
+        for (List<? extends T> lista : listas) {
+            tamano += lista.size();
+        }
+        List<T> concatenada = new ArrayList<>(tamano);
+        for (List<? extends T> lista : listas) {
+            concatenada.addAll(lista);
+        }
+        return concatenada;
+    }
+
+    /**
+     * Índices hash por ID y por nombre (sin distinguir mayúsculas) sobre una familia de elementos.
+     * Ante IDs o nombres repetidos conserva el mismo elemento que encontraría un recorrido
+     * secuencial de la fuente: el primero en orden.
+     */
+    private static final class IndiceElementos<T extends ElementoParque> {
+        private Supplier<? extends List<? extends T>> fuente;
+        private final Map<String, T> porId = new HashMap<>();
+        private final Map<String, T> porNombre = new HashMap<>();
+        // Nombre plegado con el que está indexado cada ID, para desindexarlo si el elemento se renombra
+        private final Map<String, String> nombrePorId = new HashMap<>();
+
+        IndiceElementos(Supplier<? extends List<? extends T>> fuente) {
+            this.fuente = fuente;
+        }
+
+        /** Copia independiente de este índice que consulta otra fuente; el llamador la ajusta a sus diferencias. */
+        IndiceElementos<T> copiar(Supplier<? extends List<? extends T>> nuevaFuente) {
+            IndiceElementos<T> copia = new IndiceElementos<>(nuevaFuente);
+            copia.porId.putAll(porId);
+            copia.porNombre.putAll(porNombre);
+            copia.nombrePorId.putAll(nombrePorId);
+            return copia;
+        }
+
+        /** Pasa a consultar otra fuente con los mismos elementos, p. ej. al publicar un borrador. */
+        void cambiarFuente(Supplier<? extends List<? extends T>> nuevaFuente) {
+            this.fuente = nuevaFuente;
+        }
+
+        T porId(String id) {
+            return id == null ? null : porId.get(id);
+        }
+
+        T porNombre(String nombre) {
+            return nombre == null ? null : porNombre.get(plegar(nombre));
+        }
+
+        void reconstruir() {
+            porId.clear();
+            porNombre.clear();
+            nombrePorId.clear();
+            for (T elemento : fuente.get()) {
+                if (elemento.getId() == null) {
+                    continue;
+                }
+                porId.putIfAbsent(elemento.getId(), elemento);
+                if (elemento.getNombre() != null) {
+                    nombrePorId.putIfAbsent(elemento.getId(), plegar(elemento.getNombre()));
+                    porNombre.putIfAbsent(plegar(elemento.getNombre()), elemento);
+                }
+            }
+        }
+
+        /** Indexa un elemento recién agregado o reemplazado en la fuente. */
+        void indexar(T elemento) {
+            String id = elemento.getId();
+            porId.put(id, elemento);
+            String nombre = elemento.getNombre() == null ? null : plegar(elemento.getNombre());
+            String anterior = nombre == null ? nombrePorId.remove(id) : nombrePorId.put(id, nombre);
+            if (anterior != null && !anterior.equals(nombre)) {
+                reindexarNombre(anterior);
+            }
+            if (nombre != null) {
+                T actual = porNombre.get(nombre);
+                if (actual == null || actual.getId().equals(id)) {
+                    porNombre.put(nombre, elemento);
+                } else {
+                    reindexarNombre(nombre); // Nombre repetido: decide el orden de la fuente
+                }
+            }
+        }
+
+        /** Desindexa un ID ya eliminado de la fuente. */
+        void quitar(String id) {
+            porId.remove(id);
+            String nombre = nombrePorId.remove(id);
+            // Otra familia de la fuente puede conservar el mismo ID o nombre
+            for (T elemento : fuente.get()) {
+                if (id.equals(elemento.getId())) {
+                    porId.put(id, elemento);
+                    if (elemento.getNombre() != null) {
+                        nombrePorId.put(id, plegar(elemento.getNombre()));
+                    }
+                    break;
+                }
+            }
+            if (nombre != null) {
+                reindexarNombre(nombre);
+            }
+        }
+
+        private void reindexarNombre(String nombre) {
+            porNombre.remove(nombre);
+            for (T elemento : fuente.get()) {
+                if (elemento.getNombre() != null && plegar(elemento.getNombre()).equals(nombre)) {
+                    porNombre.put(nombre, elemento);
+                    return;
+                }
+            }
+        }
+
+        // Equivalente a equalsIgnoreCase: se pliega a mayúsculas y luego a minúsculas
+        private static String plegar(String nombre) {
+            return nombre.toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT);
+        }
     }
-}
\ No newline at end of file
+}
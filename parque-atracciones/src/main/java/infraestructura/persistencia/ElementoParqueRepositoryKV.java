@@ -0,0 +1,373 @@
+package infraestructura.persistencia;
+
+import dominio.elementoparque.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Implementación de ElementoParqueRepository sobre un almacén clave-valor con estructura de log
+ * ({@link AlmacenClaveValorLog}).
+ * <p>
+ * Cada elemento se guarda bajo la clave {@code elemento:<id>} como su tipo y su JSON; un índice
+ * {@code nombre:<nombre>} → ID en el mismo almacén resuelve las búsquedas por nombre. Guardar o
+ * eliminar un elemento agrega uno o dos registros al log en lugar de reescribir un archivo, y las
+ * búsquedas por ID o nombre leen un solo registro, así que su costo no crece con el catálogo.
+ * Los listados completos sí recorren todas las claves.
+ * </p>
+ * <p>
+ * Mantiene un mapa de identidad: cada elemento se materializa una sola vez y las lecturas
+ * posteriores devuelven la misma instancia. Ante nombres repetidos, la búsqueda por nombre devuelve
+ * el último elemento guardado con ese nombre.
+ * </p>
+ */
+public class ElementoParqueRepositoryKV implements ElementoParqueRepository {
+
+    private static final String PREFIJO_ELEMENTO = "elemento:";
+    private static final String PREFIJO_NOMBRE = "nombre:";
+    private static final Duration PERIODO_COMPACTACION = Duration.ofSeconds(30);
+
+    private final AlmacenClaveValorLog almacen;
+    // Mapa de identidad: ID -> entidad materializada
+    private final Map<String, ElementoParque> entidades = new HashMap<>();
+    private long version = 0;
+    // Unidad de trabajo: escrituras retenidas (valor null = borrado) y mapa de identidad al empezar
+    private boolean unidadDeTrabajoActiva = false;
+    private final Map<String, String> pendientes = new LinkedHashMap<>();
+    private Map<String, ElementoParque> entidadesAntesDelLote;
+
+    /**
+     * Abre el repositorio en un directorio bajo 'data', con compactación en segundo plano.
+     *
+     * @param directorioBaseName Nombre del directorio de segmentos bajo 'data' (ej. "elementos.kv").
+     */
+    public ElementoParqueRepositoryKV(String directorioBaseName) {
+        this(directorioBaseName, AlmacenClaveValorLog.TAMANO_SEGMENTO_PREDETERMINADO, PERIODO_COMPACTACION);
+    }
+
+    /**
+     * Abre el repositorio indicando el tamaño de los segmentos y el período de compactación.
+     *
+     * @param directorioBaseName Nombre del directorio de segmentos bajo 'data'.
+     * @param tamanoMaximoSegmento Bytes a partir de los cuales se abre un segmento nuevo.
+     * @param periodoCompactacion Cada cuánto se revisa si conviene compactar; null para no hacerlo en segundo plano.
+     */
+    public ElementoParqueRepositoryKV(String directorioBaseName, long tamanoMaximoSegmento, Duration periodoCompactacion) {
+        this.almacen = new AlmacenClaveValorLog(JsonUtil.getDataFilePath(directorioBaseName),
+                tamanoMaximoSegmento, false, periodoCompactacion);
+    }
+
+    @Override
+    public Atraccion save(Atraccion atraccion) {
+        if (atraccion == null) return null;
+        guardar(atraccion);
+        return atraccion;
+    }
+
+    @Override
+    public Espectaculo save(Espectaculo espectaculo) {
+        if (espectaculo == null) return null;
+        guardar(espectaculo);
+        return espectaculo;
+    }
+
+    private synchronized void guardar(ElementoParque elemento) {
+        String id = elemento.getId();
+        ElementoParque guardado = decodificar(leer(PREFIJO_ELEMENTO + id));
+        escribir(PREFIJO_ELEMENTO + id, codificar(elemento));
+        String nombreAnterior = guardado == null || guardado.getNombre() == null ? null : plegar(guardado.getNombre());
+        String nombre = elemento.getNombre() == null ? null : plegar(elemento.getNombre());
+        if (nombreAnterior != null && !nombreAnterior.equals(nombre)) {
+            quitarNombre(nombreAnterior, id);
+        }
+        if (nombre != null) {
+            escribir(PREFIJO_NOMBRE + nombre, id);
+        }
+        entidades.put(id, elemento);
+        version++;
+    }
+
+    @Override
+    public synchronized void deleteById(String id) {
+        if (id == null) return;
+        ElementoParque guardado = decodificar(leer(PREFIJO_ELEMENTO + id));
+        if (guardado == null) {
+            return;
+        }
+        escribir(PREFIJO_ELEMENTO + id, null);
+        if (guardado.getNombre() != null) {
+            quitarNombre(plegar(guardado.getNombre()), id);
+        }
+        entidades.remove(id);
+        version++;
+    }
+
+    // El nombre puede haber pasado a otro elemento: solo se borra si sigue apuntando a este ID
+    private void quitarNombre(String nombre, String id) {
+        if (id.equals(leer(PREFIJO_NOMBRE + nombre))) {
+            escribir(PREFIJO_NOMBRE + nombre, null);
+        }
+    }
+
+    @Override
+    public Optional<Atraccion> findAtraccionById(String id) {
+        return findById(id).filter(e -> e instanceof Atraccion).map(e -> (Atraccion) e);
+    }
+
+    @Override
+    public Optional<Espectaculo> findEspectaculoById(String id) {
+        return findById(id).filter(e -> e instanceof Espectaculo).map(e -> (Espectaculo) e);
+    }
+
+    @Override
+    public synchronized Optional<ElementoParque> findById(String id) {
+        return id == null ? Optional.empty() : Optional.ofNullable(entidad(id));
+    }
+
+    @Override
+    public Optional<Atraccion> findAtraccionByNombre(String nombre) {
+        return findByNombre(nombre).filter(e -> e instanceof Atraccion).map(e -> (Atraccion) e);
+    }
+
+    @Override
+    public Optional<Espectaculo> findEspectaculoByNombre(String nombre) {
+        return findByNombre(nombre).filter(e -> e instanceof Espectaculo).map(e -> (Espectaculo) e);
+    }
+
+    @Override
+    public synchronized Optional<ElementoParque> findByNombre(String nombre) {
+        if (nombre == null) return Optional.empty();
+        String id = leer(PREFIJO_NOMBRE + plegar(nombre));
+        return id == null ? Optional.empty() : Optional.ofNullable(entidad(id));
+    }
+
+    @Override
+    public List<Atraccion> findAllAtracciones() {
+        List<Atraccion> atracciones = new ArrayList<>();
+        for (ElementoParque elemento : findAll()) {
+            if (elemento instanceof Atraccion atraccion) {
+                atracciones.add(atraccion);
+            }
+        }
+        return atracciones;
+    }
+
+    /**
+     * Devuelve todos los elementos: primero las atracciones mecánicas, luego las culturales y
+     * luego los espectáculos, cada grupo ordenado por ID.
+     */
+    @Override
+    public synchronized List<ElementoParque> findAll() {
+        List<String> ids = new ArrayList<>();
+        for (String clave : claves(PREFIJO_ELEMENTO)) {
+            ids.add(clave.substring(PREFIJO_ELEMENTO.length()));
+        }
+        ids.sort(null);
+        List<ElementoParque> elementos = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            ElementoParque elemento = entidad(id);
+            if (elemento != null) {
+                elementos.add(elemento);
+            }
+        }
+        elementos.sort(Comparator.comparingInt(ElementoParqueRepositoryKV::ordenTipo)); // Estable: conserva el orden por ID
+        return elementos;
+    }
+
+    @Override
+    public List<AtraccionMecanica> findAllMecanicas() {
+        List<AtraccionMecanica> mecanicas = new ArrayList<>();
+        for (ElementoParque elemento : findAll()) {
+            if (elemento instanceof AtraccionMecanica mecanica) {
+                mecanicas.add(mecanica);
+            }
+        }
+        return mecanicas;
+    }
+
+    @Override
+    public List<AtraccionCultural> findAllCulturales() {
+        List<AtraccionCultural> culturales = new ArrayList<>();
+        for (ElementoParque elemento : findAll()) {
+            if (elemento instanceof AtraccionCultural cultural) {
+                culturales.add(cultural);
+            }
+        }
+        return culturales;
+    }
+
+    @Override
+    public List<Espectaculo> findAllEspectaculos() {
+        List<Espectaculo> espectaculos = new ArrayList<>();
+        for (ElementoParque elemento : findAll()) {
+            if (elemento instanceof Espectaculo espectaculo) {
+                espectaculos.add(espectaculo);
+            }
+        }
+        return espectaculos;
+    }
+
+    @Override
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    @Override
+    public synchronized boolean isUnitOfWorkActive() {
+        return unidadDeTrabajoActiva;
+    }
+
+    @Override
+    public synchronized void beginUnitOfWork() {
+        if (unidadDeTrabajoActiva) {
+            throw new IllegalStateException("Ya hay una unidad de trabajo abierta.");
+        }
+        entidadesAntesDelLote = new HashMap<>(entidades);
+        unidadDeTrabajoActiva = true;
+    }
+
+    @Override
+    public synchronized void commitUnitOfWork() {
+        if (!unidadDeTrabajoActiva) {
+            throw new IllegalStateException("No hay una unidad de trabajo abierta.");
+        }
+        try {
+            // Todo el lote va en un solo grupo de registros, con una escritura y una sincronización con el disco
+            almacen.escribirLote(pendientes);
+        } catch (RuntimeException e) {
+            descartarLote(); // Nada llegó al almacén: se vuelve al estado de antes del lote
+            throw e;
+        }
+        terminarUnidadDeTrabajo();
+    }
+
+    @Override
+    public synchronized void rollbackUnitOfWork() {
+        if (!unidadDeTrabajoActiva) {
+            throw new IllegalStateException("No hay una unidad de trabajo abierta.");
+        }
+        descartarLote();
+    }
+
+    private void descartarLote() {
+        entidades.clear();
+        entidades.putAll(entidadesAntesDelLote);
+        // Lo guardado en el lote pudo editarse en el lugar: se vuelve a materializar desde el almacén
+        for (String clave : pendientes.keySet()) {
+            if (clave.startsWith(PREFIJO_ELEMENTO)) {
+                entidades.remove(clave.substring(PREFIJO_ELEMENTO.length()));
+            }
+        }
+        version++;
+        terminarUnidadDeTrabajo();
+    }
+
+    private void terminarUnidadDeTrabajo() {
+        pendientes.clear();
+        entidadesAntesDelLote = null;
+        unidadDeTrabajoActiva = false;
+    }
+
+    /**
+     * Compacta el almacén de inmediato, incluido el segmento en uso.
+     */
+    public void compactar() {
+        almacen.compactar(true);
+    }
+
+    /**
+     * Detiene la compactación en segundo plano y cierra el almacén.
+     */
+    public void cerrar() {
+        almacen.cerrar();
+    }
+
+    private ElementoParque entidad(String id) {
+        ElementoParque elemento = entidades.get(id);
+        if (elemento == null) {
+            elemento = decodificar(leer(PREFIJO_ELEMENTO + id));
+            if (elemento != null) {
+                entidades.put(id, elemento);
+            }
+        }
+        return elemento;
+    }
+
+    // Lecturas y escrituras pasan por la unidad de trabajo, si hay una abierta
+    private String leer(String clave) {
+        if (unidadDeTrabajoActiva && pendientes.containsKey(clave)) {
+            return pendientes.get(clave);
+        }
+        return almacen.leer(clave);
+    }
+
+    private void escribir(String clave, String valor) {
+        if (unidadDeTrabajoActiva) {
+            pendientes.put(clave, valor);
+        } else if (valor == null) {
+            almacen.eliminar(clave);
+        } else {
+            almacen.escribir(clave, valor);
+        }
+    }
+
+    private Collection<String> claves(String prefijo) {
+        List<String> claves = almacen.clavesConPrefijo(prefijo);
+        if (unidadDeTrabajoActiva) {
+            pendientes.forEach((clave, valor) -> {
+                if (clave.startsWith(prefijo)) {
+                    claves.remove(clave);
+                    if (valor != null) {
+                        claves.add(clave);
+                    }
+                }
+            });
+        }
+        return claves;
+    }
+
+    // Valor guardado: el tipo del elemento, un salto de línea y su JSON compacto
+    private static String codificar(ElementoParque elemento) {
+        return elemento.getClass().getSimpleName() + '\n' + JsonUtil.toJsonLine(elemento);
+    }
+
+    private static ElementoParque decodificar(String valor) {
+        if (valor == null) {
+            return null;
+        }
+        int separador = valor.indexOf('\n');
+        String tipo = separador < 0 ? "" : valor.substring(0, separador);
+        String json = valor.substring(separador + 1);
+        switch (tipo) {
+            case "AtraccionMecanica":
+                return JsonUtil.fromJsonLine(json, AtraccionMecanica.class);
+            case "AtraccionCultural":
+                return JsonUtil.fromJsonLine(json, AtraccionCultural.class);
+            case "Espectaculo":
+                return JsonUtil.fromJsonLine(json, Espectaculo.class);
+            default:
+                System.err.println("[WARN] Tipo de elemento desconocido en el almacén: " + tipo);
+                return null;
+        }
+    }
+
+    private static int ordenTipo(ElementoParque elemento) {
+        if (elemento instanceof AtraccionMecanica) {
+            return 0;
+        }
+        return elemento instanceof AtraccionCultural ? 1 : 2;
+    }
+
+    // Equivalente a equalsIgnoreCase: se pliega a mayúsculas y luego a minúsculas
+    private static String plegar(String nombre) {
+        return nombre.toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT);
+    }
+}
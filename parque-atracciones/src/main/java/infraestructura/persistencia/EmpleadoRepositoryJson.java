@@ -5,7 +5,6 @@ import infraestructura.mapper.EmpleadoMapper;
 import dominio.empleado.Empleado;
 import java.util.List;
 import java.util.ArrayList;
-import com.google.gson.reflect.TypeToken;
 
 /**
  * Repositorio para la persistencia de empleados en archivos JSON.
@@ -32,12 +31,8 @@ public class EmpleadoRepositoryJson {
      * @param empleados Lista de empleados a guardar.
      */
     public void guardarEmpleados(List<Empleado> empleados) {
-        List<EmpleadoDTO> dtos = new ArrayList<>();
-        for (Empleado e : empleados) {
-            dtos.add(EmpleadoMapper.toDTO(e));
-        }
-        // Use the absolute path and JsonUtil's writing method
-        JsonUtil.writeToFileAbsolute(archivoAbsoluto, dtos);
+        // Los DTOs se generan a medida que se escriben, sin construir la lista completa
+        JsonUtil.writeStreamAbsolute(archivoAbsoluto, empleados.stream().map(EmpleadoMapper::toDTO).iterator(), false);
     }
 
     /**
@@ -46,22 +41,18 @@ public class EmpleadoRepositoryJson {
      * @return Lista de empleados cargados.
      */
     public List<Empleado> cargarEmpleados() {
-        // Use the absolute path and JsonUtil's reading method
-        List<EmpleadoDTO> dtos = JsonUtil.readFromFileAbsolute(archivoAbsoluto, new TypeToken<List<EmpleadoDTO>>() {});
-
+        // Cada DTO se convierte apenas se lee, sin materializar la lista de DTOs
         List<Empleado> empleados = new ArrayList<>();
-        if (dtos != null) {
-            for (EmpleadoDTO dto : dtos) {
-                try {
-                    Empleado e = EmpleadoMapper.fromDTO(dto);
-                    if (e != null) {
-                        empleados.add(e);
-                    }
-                } catch (Exception ex) {
-                    // Log mapping errors for specific DTOs
+        JsonUtil.readStreamAbsolute(archivoAbsoluto, EmpleadoDTO.class, dto -> {
+            try {
+                Empleado e = EmpleadoMapper.fromDTO(dto);
+                if (e != null) {
+                    empleados.add(e);
                 }
+            } catch (Exception ex) {
+                System.err.println("[ERROR] Error al mapear EmpleadoDTO a Empleado: " + dto.identificacion + " - Error: " + ex.getMessage());
             }
-        }
+        });
         return empleados;
         // Removed redundant try-catch block as JsonUtil handles file reading errors
     }
@@ -0,0 +1,160 @@
+package infraestructura.persistencia;
+
+import dominio.elementoparque.Atraccion;
+import dominio.elementoparque.AtraccionMecanica;
+import dominio.elementoparque.ElementoParque;
+import dominio.elementoparque.FiltroElementos;
+import dominio.elementoparque.NivelExclusividad;
+import dominio.elementoparque.NivelRiesgo;
+import dominio.util.CondicionClimatica;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Índices de mapa de bits sobre los atributos enumerados de los elementos del parque
+ * (nivel de exclusividad, nivel de riesgo y climas no permitidos).
+ * <p>
+ * Cada elemento ocupa una posición fija; por cada valor de cada enumeración se guarda un
+ * {@link BitSet} con las posiciones de los elementos que lo tienen. Un {@link FiltroElementos}
+ * se resuelve con operaciones AND/OR sobre esos conjuntos, sin recorrer los elementos.
+ * Las posiciones liberadas al eliminar se recuperan al reconstruir el índice.
+ * </p>
+ * <p>
+ * El índice refleja el estado de cada elemento la última vez que se indexó: los cambios hechos
+ * sobre una instancia se ven después de guardarla en el repositorio.
+ * </p>
+ */
+final class IndiceAtributosElementos {
+    private final List<ElementoParque> porPosicion = new ArrayList<>();
+    private final Map<String, Integer> posicionPorId = new HashMap<>();
+    private final BitSet ocupadas = new BitSet();
+    private final EnumMap<NivelExclusividad, BitSet> porExclusividad = new EnumMap<>(NivelExclusividad.class);
+    private final EnumMap<NivelRiesgo, BitSet> porRiesgo = new EnumMap<>(NivelRiesgo.class);
+    private final EnumMap<CondicionClimatica, BitSet> porClimaNoPermitido = new EnumMap<>(CondicionClimatica.class);
+
+    IndiceAtributosElementos() {
+        for (NivelExclusividad nivel : NivelExclusividad.values()) {
+            porExclusividad.put(nivel, new BitSet());
+        }
+        for (NivelRiesgo nivel : NivelRiesgo.values()) {
+            porRiesgo.put(nivel, new BitSet());
+        }
+        for (CondicionClimatica clima : CondicionClimatica.values()) {
+            porClimaNoPermitido.put(clima, new BitSet());
+        }
+    }
+
+    /** Copia independiente del índice, para modificarla sin afectar a quien lea este. */
+    IndiceAtributosElementos copiar() {
+        IndiceAtributosElementos copia = new IndiceAtributosElementos();
+        copia.porPosicion.addAll(porPosicion);
+        copia.posicionPorId.putAll(posicionPorId);
+        copia.ocupadas.or(ocupadas);
+        porExclusividad.forEach((nivel, bits) -> copia.porExclusividad.get(nivel).or(bits));
+        porRiesgo.forEach((nivel, bits) -> copia.porRiesgo.get(nivel).or(bits));
+        porClimaNoPermitido.forEach((clima, bits) -> copia.porClimaNoPermitido.get(clima).or(bits));
+        return copia;
+    }
+
+    /** Vacía el índice y vuelve a indexar los elementos en el orden dado. */
+    void reconstruir(Iterable<? extends ElementoParque> elementos) {
+        porPosicion.clear();
+        posicionPorId.clear();
+        ocupadas.clear();
+        porExclusividad.values().forEach(BitSet::clear);
+        porRiesgo.values().forEach(BitSet::clear);
+        porClimaNoPermitido.values().forEach(BitSet::clear);
+        for (ElementoParque elemento : elementos) {
+            if (elemento.getId() != null && !posicionPorId.containsKey(elemento.getId())) {
+                indexar(elemento);
+            }
+        }
+    }
+
+    /** Indexa un elemento nuevo o reemplaza los atributos del que tenga su mismo ID. */
+    void indexar(ElementoParque elemento) {
+        Integer posicion = posicionPorId.get(elemento.getId());
+        if (posicion == null) {
+            posicion = porPosicion.size();
+            porPosicion.add(elemento);
+            posicionPorId.put(elemento.getId(), posicion);
+        } else {
+            limpiarBits(posicion);
+            porPosicion.set(posicion, elemento);
+        }
+        ocupadas.set(posicion);
+        if (elemento instanceof Atraccion atraccion && atraccion.getNivelExclusividad() != null) {
+            porExclusividad.get(atraccion.getNivelExclusividad()).set(posicion);
+        }
+        if (elemento instanceof AtraccionMecanica mecanica && mecanica.getNivelRiesgo() != null) {
+            porRiesgo.get(mecanica.getNivelRiesgo()).set(posicion);
+        }
+        for (CondicionClimatica clima : CondicionClimatica.values()) {
+            if (elemento.restringidoPorClima(clima)) {
+                porClimaNoPermitido.get(clima).set(posicion);
+            }
+        }
+    }
+
+    /** Quita del índice el elemento con el ID dado, si está. */
+    void quitar(String id) {
+        Integer posicion = posicionPorId.remove(id);
+        if (posicion != null) {
+            limpiarBits(posicion);
+            ocupadas.clear(posicion);
+            porPosicion.set(posicion, null);
+        }
+    }
+
+    /**
+     * Devuelve los elementos que cumplen el filtro, en orden de posición.
+     *
+     * @param filtro Criterio de búsqueda.
+     * @return Elementos que lo cumplen.
+     */
+    List<ElementoParque> buscar(FiltroElementos filtro) {
+        BitSet resultado = evaluar(filtro);
+        List<ElementoParque> elementos = new ArrayList<>(resultado.cardinality());
+        for (int i = resultado.nextSetBit(0); i >= 0; i = resultado.nextSetBit(i + 1)) {
+            elementos.add(porPosicion.get(i));
+        }
+        return elementos;
+    }
+
+    // Siempre devuelve un BitSet nuevo: los del índice no se modifican
+    private BitSet evaluar(FiltroElementos filtro) {
+        return switch (filtro) {
+            case FiltroElementos.PorExclusividad f -> (BitSet) porExclusividad.get(f.getNivel()).clone();
+            case FiltroElementos.PorRiesgo f -> (BitSet) porRiesgo.get(f.getNivel()).clone();
+            case FiltroElementos.PorClimaNoPermitido f -> (BitSet) porClimaNoPermitido.get(f.getClima()).clone();
+            case FiltroElementos.Todos f -> {
+                BitSet conjunto = (BitSet) ocupadas.clone();
+                for (FiltroElementos criterio : f.getCriterios()) {
+                    conjunto.and(evaluar(criterio));
+                    if (conjunto.isEmpty()) {
+                        break;
+                    }
+                }
+                yield conjunto;
+            }
+            case FiltroElementos.Alguno f -> {
+                BitSet conjunto = new BitSet();
+                for (FiltroElementos criterio : f.getCriterios()) {
+                    conjunto.or(evaluar(criterio));
+                }
+                yield conjunto;
+            }
+        };
+    }
+
+    private void limpiarBits(int posicion) {
+        porExclusividad.values().forEach(bits -> bits.clear(posicion));
+        porRiesgo.values().forEach(bits -> bits.clear(posicion));
+        porClimaNoPermitido.values().forEach(bits -> bits.clear(posicion));
+    }
+}
@@ -1,6 +1,6 @@
 package infraestructura.persistencia;
 
-import com.google.gson.reflect.TypeToken;
+import com.google.gson.JsonObject;
 import dominio.elementoparque.*;
 import infraestructura.dto.AtraccionCulturalDTO;
 import infraestructura.dto.AtraccionMecanicaDTO;
@@ -10,12 +10,23 @@ import infraestructura.mapper.AtraccionCulturalMapper;
 import infraestructura.mapper.AtraccionMecanicaMapper;
 import infraestructura.mapper.EspectaculoMapper;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
  * Implementación de ElementoParqueRepository usando persistencia JSON.
+ * <p>
+ * Mantiene un mapa de identidad: cada elemento se convierte de DTO a entidad una sola vez y las
+ * lecturas posteriores devuelven la misma instancia. Guardar un elemento reemplaza la entidad
+ * registrada por la instancia guardada; eliminarlo la descarta.
+ * </p>
  */
 public class JsonElementoParqueRepository implements ElementoParqueRepository {
     
@@ -25,36 +36,151 @@ public class JsonElementoParqueRepository implements ElementoParqueRepository {
     private final AtraccionCulturalMapper atraccionCulturalMapper = new AtraccionCulturalMapper();
     private final EspectaculoMapper espectaculoMapper = new EspectaculoMapper();
     
-    // Cache de elementos para evitar leer el archivo repetidamente
-    private List<ElementoParqueDTO> elementosCache;
+    // Forma persistida de cada elemento (id -> DTO), en el orden del archivo; se lee una sola vez
+    private Map<String, ElementoParqueDTO> elementosCache;
+    // Mapa de identidad (id -> entidad): cada elemento se materializa una vez y se comparte en lecturas posteriores
+    private final Map<String, ElementoParque> entidadesCache = new HashMap<>();
+    // Unidad de trabajo: el archivo se escribe una sola vez al confirmar
+    private boolean unidadDeTrabajoActiva = false;
+    private boolean cambiosPendientes = false;
+    private Map<String, ElementoParqueDTO> elementosAntesDelLote;
+    // Se incrementa con cada cambio de los elementos en memoria (ver getVersion)
+    private long version = 0;
+    private Map<String, ElementoParque> entidadesAntesDelLote;
+    // IDs guardados durante el lote: su entidad pudo editarse en el lugar, así que al descartar se rematerializa
+    private final Set<String> idsModificadosEnLote = new HashSet<>();
     
     /**
      * Obtiene todos los elementos del archivo JSON.
-     * @return Lista de DTOs de elementos del parque
+     * @return Mapa de DTOs de elementos del parque por ID, en el orden del archivo
      */
-    private List<ElementoParqueDTO> getElementos() {
+    private Map<String, ElementoParqueDTO> getElementos() {
         if (elementosCache == null) {
-            TypeToken<List<ElementoParqueDTO>> typeToken = new TypeToken<>() {};
-            List<ElementoParqueDTO> elementos = JsonUtil.readFromFileAbsolute(JsonUtil.getDataFilePath(ELEMENTOS_FILE + ".json"), typeToken);
+            // ElementoParqueDTO es abstracto: cada elemento se lee por separado y se convierte según su "tipo"
+            Map<String, ElementoParqueDTO> elementos = new LinkedHashMap<>();
+            JsonUtil.<ElementoParqueDTO>readStreamAbsolute(JsonUtil.getDataFilePath(ELEMENTOS_FILE + ".json"),
+                    JsonElementoParqueRepository::claseDto, dto -> {
+                        if (elementos.putIfAbsent(dto.getId(), dto) != null) {
+                            System.err.println("[WARN] Elemento con ID repetido en " + ELEMENTOS_FILE + ": " + dto.getId() + ", se conserva el primero.");
+                        }
+                    });
             elementosCache = elementos;
         }
         return elementosCache;
     }
+
+    /**
+     * Devuelve la entidad de un DTO cargado, materializándola solo la primera vez.
+     * @param dto DTO del elemento
+     * @return Entidad compartida del elemento
+     */
+    private ElementoParque entidad(ElementoParqueDTO dto) {
+        return entidadesCache.computeIfAbsent(dto.getId(), _ -> convertDtoToElemento(dto));
+    }
+
+    private static Class<? extends ElementoParqueDTO> claseDto(JsonObject objeto) {
+        String tipo = objeto.has("tipo") && !objeto.get("tipo").isJsonNull() ? objeto.get("tipo").getAsString() : null;
+        if (tipo == null) {
+            System.err.println("[WARN] Elemento sin campo 'tipo' en " + ELEMENTOS_FILE + ", se omite.");
+            return null;
+        }
+        switch (tipo) {
+            case "AtraccionMecanica":
+                return AtraccionMecanicaDTO.class;
+            case "AtraccionCultural":
+                return AtraccionCulturalDTO.class;
+            case "Espectaculo":
+                return EspectaculoDTO.class;
+            default:
+                System.err.println("[WARN] Tipo de elemento desconocido en " + ELEMENTOS_FILE + ": " + tipo);
+                return null;
+        }
+    }
     
     /**
      * Guarda todos los elementos en el archivo JSON.
-     * @param elementos Lista de DTOs a guardar
+     * Solo se escriben los DTOs; las entidades en memoria no se vuelven a convertir.
      */
-    private void saveElementos(List<ElementoParqueDTO> elementos) {
-        JsonUtil.writeToFileAbsolute(JsonUtil.getDataFilePath(ELEMENTOS_FILE + ".json"), elementos);
-        elementosCache = elementos;
+    private void saveElementos() {
+        if (unidadDeTrabajoActiva) {
+            cambiosPendientes = true;
+            return;
+        }
+        JsonUtil.writeToFileAbsolute(JsonUtil.getDataFilePath(ELEMENTOS_FILE + ".json"), new ArrayList<>(getElementos().values()));
+    }
+
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public boolean isUnitOfWorkActive() {
+        return unidadDeTrabajoActiva;
+    }
+
+    @Override
+    public void beginUnitOfWork() {
+        if (unidadDeTrabajoActiva) {
+            throw new IllegalStateException("Ya hay una unidad de trabajo abierta.");
+        }
+        elementosAntesDelLote = new LinkedHashMap<>(getElementos());
+        entidadesAntesDelLote = new HashMap<>(entidadesCache);
+        unidadDeTrabajoActiva = true;
+    }
+
+    @Override
+    public void commitUnitOfWork() {
+        if (!unidadDeTrabajoActiva) {
+            throw new IllegalStateException("No hay una unidad de trabajo abierta.");
+        }
+        boolean escribir = cambiosPendientes;
+        terminarUnidadDeTrabajo();
+        if (escribir) {
+            saveElementos();
+        }
+    }
+
+    @Override
+    public void rollbackUnitOfWork() {
+        if (!unidadDeTrabajoActiva) {
+            throw new IllegalStateException("No hay una unidad de trabajo abierta.");
+        }
+        elementosCache = elementosAntesDelLote;
+        entidadesCache.clear();
+        entidadesCache.putAll(entidadesAntesDelLote);
+        // La instancia guardada en el lote puede ser la misma de antes ya modificada: se vuelve a leer del DTO
+        entidadesCache.keySet().removeAll(idsModificadosEnLote);
+        version++;
+        terminarUnidadDeTrabajo();
+    }
+
+    private void terminarUnidadDeTrabajo() {
+        unidadDeTrabajoActiva = false;
+        cambiosPendientes = false;
+        elementosAntesDelLote = null;
+        entidadesAntesDelLote = null;
+        idsModificadosEnLote.clear();
+    }
+
+    /**
+     * Registra la nueva versión de un elemento: su DTO para persistir y la instancia guardada como
+     * la entidad que reciben las lecturas posteriores.
+     */
+    private void registrar(ElementoParque elemento, ElementoParqueDTO dto) {
+        getElementos().put(dto.getId(), dto);
+        entidadesCache.put(dto.getId(), elemento);
+        if (unidadDeTrabajoActiva) {
+            idsModificadosEnLote.add(dto.getId());
+        }
+        version++;
+        saveElementos();
     }
 
     @Override
     public Atraccion save(Atraccion atraccion) {
         if (atraccion == null) return null;
         
-        List<ElementoParqueDTO> elementos = getElementos();
         ElementoParqueDTO dto;
         
         // Convertir la entidad a DTO según su tipo
@@ -66,21 +192,7 @@ public class JsonElementoParqueRepository implements ElementoParqueRepository {
             throw new IllegalArgumentException("Tipo de atracción desconocido: " + atraccion.getClass().getName());
         }
         
-        // Buscar si ya existe para actualizar o añadir nuevo
-        boolean found = false;
-        for (int i = 0; i < elementos.size(); i++) {
-            if (elementos.get(i).getId().equals(dto.getId())) {
-                elementos.set(i, dto);
-                found = true;
-                break;
-            }
-        }
-        
-        if (!found) {
-            elementos.add(dto);
-        }
-        
-        saveElementos(elementos);
+        registrar(atraccion, dto);
         return atraccion;
     }
 
@@ -88,24 +200,7 @@ public class JsonElementoParqueRepository implements ElementoParqueRepository {
     public Espectaculo save(Espectaculo espectaculo) {
         if (espectaculo == null) return null;
         
-        List<ElementoParqueDTO> elementos = getElementos();
-        EspectaculoDTO dto = espectaculoMapper.toDto(espectaculo);
-        
-        // Buscar si ya existe para actualizar o añadir nuevo
-        boolean found = false;
-        for (int i = 0; i < elementos.size(); i++) {
-            if (elementos.get(i).getId().equals(dto.getId())) {
-                elementos.set(i, dto);
-                found = true;
-                break;
-            }
-        }
-        
-        if (!found) {
-            elementos.add(dto);
-        }
-        
-        saveElementos(elementos);
+        registrar(espectaculo, espectaculoMapper.toDto(espectaculo));
         return espectaculo;
     }
 
@@ -113,74 +208,74 @@ public class JsonElementoParqueRepository implements ElementoParqueRepository {
     public Optional<Atraccion> findAtraccionById(String id) {
         if (id == null) return Optional.empty();
         
-        return getElementos().stream()
-                .filter(dto -> id.equals(dto.getId()) && !dto.getTipo().equals("Espectaculo"))
-                .findFirst()
-                .map(this::convertDtoToAtraccion);
+        ElementoParqueDTO dto = getElementos().get(id);
+        if (dto == null || dto.getTipo().equals("Espectaculo")) {
+            return Optional.empty();
+        }
+        return Optional.of((Atraccion) entidad(dto));
     }
 
     @Override
     public Optional<Espectaculo> findEspectaculoById(String id) {
         if (id == null) return Optional.empty();
         
-        return getElementos().stream()
-                .filter(dto -> id.equals(dto.getId()) && dto.getTipo().equals("Espectaculo"))
-                .findFirst()
-                .map(dto -> espectaculoMapper.toEntity((EspectaculoDTO) dto));
+        ElementoParqueDTO dto = getElementos().get(id);
+        if (dto == null || !dto.getTipo().equals("Espectaculo")) {
+            return Optional.empty();
+        }
+        return Optional.of((Espectaculo) entidad(dto));
     }
 
     @Override
     public Optional<ElementoParque> findById(String id) {
         if (id == null) return Optional.empty();
         
-        return getElementos().stream()
-                .filter(dto -> id.equals(dto.getId()))
-                .findFirst()
-                .map(this::convertDtoToElemento);
+        ElementoParqueDTO dto = getElementos().get(id);
+        return dto == null ? Optional.empty() : Optional.of(entidad(dto));
     }
 
     @Override
     public Optional<Atraccion> findAtraccionByNombre(String nombre) {
         if (nombre == null) return Optional.empty();
         
-        return getElementos().stream()
+        return getElementos().values().stream()
                 .filter(dto -> nombre.equals(dto.getNombre()) && !dto.getTipo().equals("Espectaculo"))
                 .findFirst()
-                .map(this::convertDtoToAtraccion);
+                .map(dto -> (Atraccion) entidad(dto));
     }
 
     @Override
     public Optional<Espectaculo> findEspectaculoByNombre(String nombre) {
         if (nombre == null) return Optional.empty();
         
-        return getElementos().stream()
+        return getElementos().values().stream()
                 .filter(dto -> nombre.equals(dto.getNombre()) && dto.getTipo().equals("Espectaculo"))
                 .findFirst()
-                .map(dto -> espectaculoMapper.toEntity((EspectaculoDTO) dto));
+                .map(dto -> (Espectaculo) entidad(dto));
     }
 
     @Override
     public Optional<ElementoParque> findByNombre(String nombre) {
         if (nombre == null) return Optional.empty();
         
-        return getElementos().stream()
+        return getElementos().values().stream()
                 .filter(dto -> nombre.equals(dto.getNombre()))
                 .findFirst()
-                .map(this::convertDtoToElemento);
+                .map(this::entidad);
     }
 
     @Override
     public List<Atraccion> findAllAtracciones() {
-        return getElementos().stream()
+        return getElementos().values().stream()
                 .filter(dto -> !dto.getTipo().equals("Espectaculo"))
-                .map(this::convertDtoToAtraccion)
+                .map(dto -> (Atraccion) entidad(dto))
                 .collect(Collectors.toList());
     }
 
     @Override
     public List<ElementoParque> findAll() {
-        return getElementos().stream()
-                .map(this::convertDtoToElemento)
+        return getElementos().values().stream()
+                .map(this::entidad)
                 .collect(Collectors.toList());
     }
 
@@ -188,37 +283,34 @@ public class JsonElementoParqueRepository implements ElementoParqueRepository {
     public void deleteById(String id) {
         if (id == null) return;
         
-        List<ElementoParqueDTO> elementos = getElementos();
-        List<ElementoParqueDTO> filtrados = elementos.stream()
-                .filter(dto -> !id.equals(dto.getId()))
-                .collect(Collectors.toList());
-        
-        if (filtrados.size() < elementos.size()) {
-            saveElementos(filtrados);
+        if (getElementos().remove(id) != null) {
+            entidadesCache.remove(id);
+            version++;
+            saveElementos();
         }
     }
 
     @Override
     public List<AtraccionMecanica> findAllMecanicas() {
-        return getElementos().stream()
+        return getElementos().values().stream()
                 .filter(dto -> dto.getTipo().equals("AtraccionMecanica"))
-                .map(dto -> atraccionMecanicaMapper.toEntity((AtraccionMecanicaDTO) dto))
+                .map(dto -> (AtraccionMecanica) entidad(dto))
                 .collect(Collectors.toList());
     }
 
     @Override
     public List<AtraccionCultural> findAllCulturales() {
-        return getElementos().stream()
+        return getElementos().values().stream()
                 .filter(dto -> dto.getTipo().equals("AtraccionCultural"))
-                .map(dto -> atraccionCulturalMapper.toEntity((AtraccionCulturalDTO) dto))
+                .map(dto -> (AtraccionCultural) entidad(dto))
                 .collect(Collectors.toList());
     }
 
     @Override
     public List<Espectaculo> findAllEspectaculos() {
-        return getElementos().stream()
+        return getElementos().values().stream()
                 .filter(dto -> dto.getTipo().equals("Espectaculo"))
-                .map(dto -> espectaculoMapper.toEntity((EspectaculoDTO) dto))
+                .map(dto -> (Espectaculo) entidad(dto))
                 .collect(Collectors.toList());
     }
     
@@ -241,22 +333,4 @@ public class JsonElementoParqueRepository implements ElementoParqueRepository {
                 throw new IllegalArgumentException("Tipo de elemento desconocido: " + dto.getTipo());
         }
     }
-    
-    /**
-     * Convierte un DTO a la entidad Atraccion correspondiente.
-     * @param dto DTO a convertir
-     * @return Entidad Atraccion
-     */
-    private Atraccion convertDtoToAtraccion(ElementoParqueDTO dto) {
-        if (dto == null) return null;
-        
-        switch (dto.getTipo()) {
-            case "AtraccionMecanica":
-                return atraccionMecanicaMapper.toEntity((AtraccionMecanicaDTO) dto);
-            case "AtraccionCultural":
-                return atraccionCulturalMapper.toEntity((AtraccionCulturalDTO) dto);
-            default:
-                throw new IllegalArgumentException("Tipo de atracción desconocido: " + dto.getTipo());
-        }
-    }
 }
@@ -5,14 +5,22 @@ import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
 
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
+import java.io.BufferedWriter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Utilidad para leer y escribir objetos en formato JSON.
@@ -20,6 +28,7 @@ import java.util.List;
 public class JsonUtil {
     private static final String PARQUE_ROOT_MARKER = "parque-atracciones"; // Directory name to identify the root
     private static final String DATA_DIR_NAME = "data"; // Name of the data directory
+    private static final int TAMANO_BUFFER_ESCRITURA = 64 * 1024;
 
     /**
      * Devuelve la ruta absoluta y normalizada a un archivo dentro del directorio de datos.
@@ -77,30 +86,165 @@ public class JsonUtil {
             .setLenient()
             .create();
 
+    // Sin pretty printing: cada objeto debe ocupar exactamente una línea en los archivos de journal
+    private static final Gson gsonLinea = new GsonBuilder()
+            .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+            .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
+            .create();
+
     /**
-     * Guarda una lista de objetos en un archivo JSON (ruta absoluta).
+     * Guarda una lista de objetos en un archivo JSON (ruta absoluta) en formato compacto.
+     * La escritura es atómica: ver {@link #writeStreamAbsolute(String, Iterator, boolean)}.
      *
      * @param absolutePath Ruta absoluta del archivo.
      * @param objects Lista de objetos a guardar.
      * @param <T> Tipo de los objetos.
      */
     public static <T> void writeToFileAbsolute(String absolutePath, List<T> objects) {
-        // Ensure parent directory exists
-        java.nio.file.Path filePath = java.nio.file.Paths.get(absolutePath);
-        try {
-            java.nio.file.Files.createDirectories(filePath.getParent());
-        } catch (IOException e) {
-            System.err.println("Advertencia: No se pudo crear el directorio padre para " + absolutePath + ": " + e.getMessage());
-            // Decide if you want to throw or just log
-            // throw new RuntimeException("No se pudo crear el directorio padre para " + absolutePath, e);
-        }
+        writeStreamAbsolute(absolutePath, objects.iterator(), false);
+    }
+
+    /**
+     * Guarda una lista de objetos en un archivo JSON (ruta absoluta), con formato legible opcional.
+     * Pensado para exportaciones que deben leer personas.
+     *
+     * @param absolutePath Ruta absoluta del archivo.
+     * @param objects Lista de objetos a guardar.
+     * @param prettyPrint true para indentar la salida.
+     * @param <T> Tipo de los objetos.
+     */
+    public static <T> void writeToFileAbsolute(String absolutePath, List<T> objects, boolean prettyPrint) {
+        writeStreamAbsolute(absolutePath, objects.iterator(), prettyPrint);
+    }
 
-        try (FileWriter writer = new FileWriter(absolutePath)) {
-            gson.toJson(objects, writer);
+    /**
+     * Escribe un arreglo JSON tomando los elementos de un iterador, sin construir la lista en memoria.
+     * <p>
+     * La salida es UTF-8 con buffer y se escribe primero en un archivo temporal del mismo
+     * directorio, que se sincroniza a disco (fsync) y luego reemplaza al archivo destino con un
+     * renombrado atómico. Si el proceso muere a mitad de la escritura, el archivo destino conserva
+     * su contenido anterior.
+     * </p>
+     *
+     * @param absolutePath Ruta absoluta del archivo destino.
+     * @param elementos Iterador de los objetos a escribir, en orden.
+     * @param prettyPrint true para indentar la salida (formato de exportación); false para JSON compacto.
+     * @param <T> Tipo de los objetos.
+     * @throws RuntimeException si no se puede escribir o reemplazar el archivo.
+     */
+    public static <T> void writeStreamAbsolute(String absolutePath, Iterator<T> elementos, boolean prettyPrint) {
+        java.nio.file.Path filePath = java.nio.file.Paths.get(absolutePath).toAbsolutePath();
+        java.nio.file.Path directorio = filePath.getParent();
+        java.nio.file.Path temporal = null;
+        try {
+            java.nio.file.Files.createDirectories(directorio);
+            temporal = java.nio.file.Files.createTempFile(directorio, filePath.getFileName().toString(), ".tmp");
+            try (FileOutputStream salida = new FileOutputStream(temporal.toFile());
+                 com.google.gson.stream.JsonWriter writer = new com.google.gson.stream.JsonWriter(new BufferedWriter(
+                         new OutputStreamWriter(salida, StandardCharsets.UTF_8), TAMANO_BUFFER_ESCRITURA))) {
+                if (prettyPrint) {
+                    writer.setIndent("  ");
+                }
+                writer.beginArray();
+                while (elementos.hasNext()) {
+                    T elemento = elementos.next();
+                    if (elemento == null) {
+                        writer.nullValue();
+                    } else {
+                        gsonLinea.toJson(elemento, elemento.getClass(), writer);
+                    }
+                }
+                writer.endArray();
+                writer.flush();
+                salida.getFD().sync();
+            }
+            try {
+                java.nio.file.Files.move(temporal, filePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (java.nio.file.AtomicMoveNotSupportedException e) {
+                java.nio.file.Files.move(temporal, filePath, StandardCopyOption.REPLACE_EXISTING);
+            }
         } catch (IOException e) {
             throw new RuntimeException("Error al escribir en el archivo " + absolutePath, e);
         } catch (com.google.gson.JsonIOException e) {
-             throw new RuntimeException("Error de E/S de GSON al escribir en el archivo " + absolutePath, e);
+            throw new RuntimeException("Error de E/S de GSON al escribir en el archivo " + absolutePath, e);
+        } finally {
+            if (temporal != null) {
+                try {
+                    java.nio.file.Files.deleteIfExists(temporal);
+                } catch (IOException e) {
+                    System.err.println("[WARN] No se pudo eliminar el archivo temporal " + temporal + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Reescribe un arreglo JSON elemento por elemento: cada objeto leído del archivo pasa por la
+     * transformación y el resultado se escribe en su lugar (null lo omite); al final se agregan los
+     * elementos adicionales. Solo un elemento está en memoria a la vez y el reemplazo es atómico, como en
+     * {@link #writeStreamAbsolute}. Si el archivo no existe o está vacío, solo se escriben los adicionales.
+     *
+     * @param absolutePath Ruta absoluta del archivo a reescribir.
+     * @param tipo Clase de los elementos del arreglo.
+     * @param transformacion Función que recibe cada objeto leído y devuelve el que se escribe, o null.
+     * @param adicionales Objetos a agregar después de los leídos.
+     * @param <T> Tipo de los objetos.
+     * @throws RuntimeException si el archivo no se puede leer, no es un arreglo JSON válido o no se puede escribir;
+     *                          en ese caso el archivo conserva su contenido anterior.
+     */
+    public static <T> void rewriteStreamAbsolute(String absolutePath, Class<T> tipo,
+                                                 java.util.function.UnaryOperator<T> transformacion, Iterator<T> adicionales) {
+        File file = new File(absolutePath);
+        if (!file.exists() || file.length() == 0) {
+            writeStreamAbsolute(absolutePath, adicionales, false);
+            return;
+        }
+        try (com.google.gson.stream.JsonReader reader = new com.google.gson.stream.JsonReader(abrirLectorUtf8(file))) {
+            reader.setLenient(true);
+            com.google.gson.stream.JsonToken inicio = reader.peek();
+            boolean vacio = inicio == com.google.gson.stream.JsonToken.END_DOCUMENT || inicio == com.google.gson.stream.JsonToken.NULL;
+            if (!vacio) {
+                reader.beginArray();
+            }
+            Iterator<T> elementos = new Iterator<>() {
+                private T siguiente;
+                private boolean leidoTodo = vacio;
+
+                @Override
+                public boolean hasNext() {
+                    try {
+                        while (siguiente == null && !leidoTodo) {
+                            if (!reader.hasNext()) {
+                                leidoTodo = true;
+                                break;
+                            }
+                            T leido = gson.fromJson(reader, tipo);
+                            siguiente = leido == null ? null : transformacion.apply(leido);
+                        }
+                    } catch (IOException e) {
+                        throw new java.io.UncheckedIOException(e);
+                    }
+                    return siguiente != null || adicionales.hasNext();
+                }
+
+                @Override
+                public T next() {
+                    if (!hasNext()) {
+                        throw new java.util.NoSuchElementException();
+                    }
+                    if (siguiente == null) {
+                        return adicionales.next();
+                    }
+                    T elemento = siguiente;
+                    siguiente = null;
+                    return elemento;
+                }
+            };
+            writeStreamAbsolute(absolutePath, elementos, false);
+        } catch (IOException | java.io.UncheckedIOException e) {
+            throw new RuntimeException("Error de E/S al reescribir el archivo " + absolutePath, e);
+        } catch (com.google.gson.JsonParseException | IllegalStateException e) {
+            throw new RuntimeException("Error de sintaxis JSON en el archivo " + absolutePath, e);
         }
     }
 
@@ -127,7 +271,7 @@ public class JsonUtil {
              return new ArrayList<>();
          }
 
-        try (FileReader reader = new FileReader(file)) {
+        try (Reader reader = abrirLectorUtf8(file)) {
             Type type = typeToken.getType();
             List<T> result = gson.fromJson(reader, type);
             return result != null ? result : new ArrayList<>(); // Ensure non-null return
@@ -145,4 +289,235 @@ public class JsonUtil {
              return new ArrayList<>(); // Or throw new RuntimeException(...)
         }
     }
+
+    /**
+     * Lee un arreglo JSON elemento por elemento y entrega cada objeto al consumidor, sin
+     * construir la lista completa en memoria.
+     * Si el archivo no existe, no hace nada.
+     *
+     * @param absolutePath Ruta absoluta del archivo.
+     * @param tipo Clase de los elementos del arreglo.
+     * @param consumidor Función que recibe cada objeto leído, en orden.
+     * @param <T> Tipo de los objetos.
+     * @return Número de objetos entregados al consumidor.
+     */
+    public static <T> int readStreamAbsolute(String absolutePath, Class<T> tipo, Consumer<T> consumidor) {
+        return leerArreglo(absolutePath, reader -> gson.fromJson(reader, tipo), consumidor);
+    }
+
+    /**
+     * Lee un arreglo JSON polimórfico elemento por elemento. Cada elemento se lee como
+     * {@link com.google.gson.JsonObject} y el selector decide la clase concreta a la que se convierte
+     * (por ejemplo, según un campo "tipo"). Solo un elemento está en memoria a la vez.
+     *
+     * @param absolutePath Ruta absoluta del archivo.
+     * @param selectorTipo Devuelve la clase concreta para cada objeto, o null para omitirlo.
+     * @param consumidor Función que recibe cada objeto leído, en orden.
+     * @param <T> Tipo base de los objetos.
+     * @return Número de objetos entregados al consumidor.
+     */
+    public static <T> int readStreamAbsolute(String absolutePath,
+                                             java.util.function.Function<com.google.gson.JsonObject, Class<? extends T>> selectorTipo,
+                                             Consumer<T> consumidor) {
+        return leerArreglo(absolutePath, reader -> {
+            com.google.gson.JsonObject objeto = gson.fromJson(reader, com.google.gson.JsonObject.class);
+            Class<? extends T> tipo = objeto == null ? null : selectorTipo.apply(objeto);
+            return tipo == null ? null : gson.fromJson(objeto, tipo);
+        }, consumidor);
+    }
+
+    private static Reader abrirLectorUtf8(File file) throws IOException {
+        return new java.io.BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8));
+    }
+
+    @FunctionalInterface
+    private interface LectorElemento<T> {
+        T leer(com.google.gson.stream.JsonReader reader) throws IOException;
+    }
+
+    /**
+     * Lee un arreglo JSON completo elemento por elemento, pero sin tolerar errores: si el archivo está
+     * mal formado o no se puede leer, lanza una excepción en lugar de conservar lo leído hasta entonces.
+     * Sirve para no publicar datos a medias (por ejemplo, un archivo que otro proceso está escribiendo).
+     * Si el archivo no existe, no entrega nada. Un archivo de cero bytes se considera incompleto (un editor
+     * que lo trunca antes de escribirlo), no una lista vacía; para vaciarlo debe contener {@code []}.
+     *
+     * @param absolutePath Ruta absoluta del archivo.
+     * @param tipo Clase de los elementos del arreglo.
+     * @param consumidor Función que recibe cada objeto leído, en orden.
+     * @param <T> Tipo de los objetos.
+     * @return Número de objetos entregados al consumidor.
+     * @throws RuntimeException si el archivo está vacío, no se puede leer o no es un arreglo JSON válido.
+     */
+    public static <T> int readStreamAbsoluteStrict(String absolutePath, Class<T> tipo, Consumer<T> consumidor) {
+        File file = new File(absolutePath);
+        if (file.isFile() && file.length() == 0) {
+            throw new RuntimeException("El archivo " + absolutePath + " está vacío, probablemente a medio escribir");
+        }
+        try {
+            return recorrerArreglo(new File(absolutePath), reader -> gson.fromJson(reader, tipo), consumidor);
+        } catch (IOException e) {
+            throw new RuntimeException("Error de E/S al leer el archivo " + absolutePath, e);
+        } catch (com.google.gson.JsonParseException | IllegalStateException e) {
+            throw new RuntimeException("Error de sintaxis JSON en el archivo " + absolutePath, e);
+        }
+    }
+
+    private static <T> int leerArreglo(String absolutePath, LectorElemento<T> lector, Consumer<T> consumidor) {
+        File file = new File(absolutePath);
+        if (file.exists() && (!file.isFile() || !file.canRead())) {
+            System.err.println("[ERROR] No se puede leer el archivo: " + absolutePath);
+            return 0;
+        }
+        // Los elementos entregados antes de un error se conservan
+        int[] leidos = {0};
+        Consumer<T> contador = elemento -> {
+            consumidor.accept(elemento);
+            leidos[0]++;
+        };
+        try {
+            return recorrerArreglo(file, lector, contador);
+        } catch (IOException e) {
+            System.err.println("Error de E/S al leer el archivo " + absolutePath + ": " + e.getMessage());
+        } catch (com.google.gson.JsonParseException | IllegalStateException e) {
+            System.err.println("Error de sintaxis JSON en el archivo " + absolutePath + " tras " + leidos[0] + " elementos: " + e.getMessage());
+        }
+        return leidos[0];
+    }
+
+    private static <T> int recorrerArreglo(File file, LectorElemento<T> lector, Consumer<T> consumidor) throws IOException {
+        if (!file.exists() || file.length() == 0) {
+            return 0;
+        }
+        int leidos = 0;
+        try (com.google.gson.stream.JsonReader reader = new com.google.gson.stream.JsonReader(abrirLectorUtf8(file))) {
+            reader.setLenient(true);
+            com.google.gson.stream.JsonToken inicio = reader.peek();
+            if (inicio == com.google.gson.stream.JsonToken.END_DOCUMENT || inicio == com.google.gson.stream.JsonToken.NULL) {
+                return 0; // Archivo vacío o "null", equivalente a una lista vacía
+            }
+            reader.beginArray();
+            while (reader.hasNext()) {
+                T elemento = lector.leer(reader);
+                if (elemento != null) {
+                    consumidor.accept(elemento);
+                    leidos++;
+                }
+            }
+            reader.endArray();
+        }
+        return leidos;
+    }
+
+    /**
+     * Convierte un objeto a JSON compacto en una sola línea (el formato de {@link #appendLinesAbsolute}).
+     *
+     * @param objeto Objeto a convertir.
+     * @return Texto JSON del objeto.
+     */
+    public static String toJsonLine(Object objeto) {
+        return gsonLinea.toJson(objeto);
+    }
+
+    /**
+     * Interpreta un objeto JSON escrito con {@link #toJsonLine(Object)}.
+     *
+     * @param json Texto JSON del objeto.
+     * @param tipo Clase del objeto.
+     * @param <T> Tipo del objeto.
+     * @return El objeto interpretado.
+     * @throws com.google.gson.JsonParseException si el texto no es JSON válido para el tipo.
+     */
+    public static <T> T fromJsonLine(String json, Class<T> tipo) {
+        return gsonLinea.fromJson(json, tipo);
+    }
+
+    /**
+     * Agrega objetos al final de un archivo, uno por línea en formato JSON compacto (JSON Lines).
+     * Crea el archivo si no existe.
+     *
+     * @param absolutePath Ruta absoluta del archivo.
+     * @param objects Objetos a agregar, en orden.
+     * @param <T> Tipo de los objetos.
+     */
+    public static <T> void appendLinesAbsolute(String absolutePath, List<T> objects) {
+        appendLinesAbsolute(absolutePath, objects, false);
+    }
+
+    /**
+     * Agrega objetos al final de un archivo en formato JSON Lines con una única escritura,
+     * opcionalmente forzando los datos a disco (fsync) antes de retornar.
+     *
+     * @param absolutePath Ruta absoluta del archivo.
+     * @param objects Objetos a agregar, en orden.
+     * @param forzarDisco true para esperar a que los datos queden en el dispositivo de almacenamiento.
+     * @param <T> Tipo de los objetos.
+     */
+    public static <T> void appendLinesAbsolute(String absolutePath, List<T> objects, boolean forzarDisco) {
+        java.nio.file.Path filePath = java.nio.file.Paths.get(absolutePath);
+        StringBuilder lineas = new StringBuilder();
+        for (T object : objects) {
+            lineas.append(gsonLinea.toJson(object)).append('\n');
+        }
+        java.nio.ByteBuffer buffer = java.nio.charset.StandardCharsets.UTF_8.encode(java.nio.CharBuffer.wrap(lineas));
+        try {
+            java.nio.file.Files.createDirectories(filePath.getParent());
+            try (java.nio.channels.FileChannel canal = java.nio.channels.FileChannel.open(filePath,
+                    java.nio.file.StandardOpenOption.CREATE, java.nio.file.StandardOpenOption.WRITE,
+                    java.nio.file.StandardOpenOption.APPEND)) {
+                while (buffer.hasRemaining()) {
+                    canal.write(buffer);
+                }
+                if (forzarDisco) {
+                    canal.force(false);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error al agregar líneas al archivo " + absolutePath, e);
+        }
+    }
+
+    /**
+     * Lee un archivo JSON Lines y entrega cada objeto al consumidor, en orden.
+     * Las líneas vacías se ignoran; las líneas que no se pueden interpretar (por ejemplo, una
+     * escritura interrumpida al final del archivo) se reportan y se omiten.
+     * Si el archivo no existe, no hace nada.
+     *
+     * @param absolutePath Ruta absoluta del archivo.
+     * @param tipo Clase de los objetos de cada línea.
+     * @param consumidor Función que recibe cada objeto leído.
+     * @param <T> Tipo de los objetos.
+     * @return Número de objetos entregados al consumidor.
+     */
+    public static <T> int readLinesAbsolute(String absolutePath, Class<T> tipo, Consumer<T> consumidor) {
+        java.nio.file.Path filePath = java.nio.file.Paths.get(absolutePath);
+        if (!java.nio.file.Files.isRegularFile(filePath)) {
+            return 0;
+        }
+        int leidos = 0;
+        int numeroLinea = 0;
+        try (java.io.BufferedReader reader = java.nio.file.Files.newBufferedReader(filePath, java.nio.charset.StandardCharsets.UTF_8)) {
+            String linea;
+            while ((linea = reader.readLine()) != null) {
+                numeroLinea++;
+                if (linea.isBlank()) {
+                    continue;
+                }
+                T objeto;
+                try {
+                    objeto = gsonLinea.fromJson(linea, tipo);
+                } catch (com.google.gson.JsonParseException e) {
+                    System.err.println("[WARN] Línea " + numeroLinea + " inválida en " + absolutePath + ", se omite: " + e.getMessage());
+                    continue;
+                }
+                if (objeto != null) {
+                    consumidor.accept(objeto);
+                    leidos++;
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error de E/S al leer el archivo " + absolutePath + ": " + e.getMessage());
+        }
+        return leidos;
+    }
 }
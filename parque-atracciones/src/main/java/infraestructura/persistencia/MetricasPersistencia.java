@@ -0,0 +1,69 @@
+package infraestructura.persistencia;
+
+/**
+ * Instantánea inmutable de las métricas de la cola de persistencia de tiquetes.
+ *
+ * <b>Uso:</b> Permite observar la profundidad de la cola y la latencia de las escrituras
+ * agrupadas (group commit) sin acceder a los detalles de la cola.
+ *
+ * @author Sistema Parque
+ */
+public class MetricasPersistencia {
+    private final int profundidadCola;
+    private final int capacidadCola;
+    private final long lotesEscritos;
+    private final long eventosEscritos;
+    private final long erroresEscritura;
+    private final double latenciaUltimaEscrituraMs;
+    private final double latenciaPromedioEscrituraMs;
+    private final double latenciaMaximaEscrituraMs;
+
+    public MetricasPersistencia(int profundidadCola, int capacidadCola, long lotesEscritos, long eventosEscritos,
+                                long erroresEscritura, double latenciaUltimaEscrituraMs,
+                                double latenciaPromedioEscrituraMs, double latenciaMaximaEscrituraMs) {
+        this.profundidadCola = profundidadCola;
+        this.capacidadCola = capacidadCola;
+        this.lotesEscritos = lotesEscritos;
+        this.eventosEscritos = eventosEscritos;
+        this.erroresEscritura = erroresEscritura;
+        this.latenciaUltimaEscrituraMs = latenciaUltimaEscrituraMs;
+        this.latenciaPromedioEscrituraMs = latenciaPromedioEscrituraMs;
+        this.latenciaMaximaEscrituraMs = latenciaMaximaEscrituraMs;
+    }
+
+    /** @return Operaciones encoladas pendientes de escritura. */
+    public int getProfundidadCola() { return profundidadCola; }
+
+    /** @return Capacidad máxima de la cola. */
+    public int getCapacidadCola() { return capacidadCola; }
+
+    /** @return Número de escrituras (lotes) realizadas. */
+    public long getLotesEscritos() { return lotesEscritos; }
+
+    /** @return Número total de eventos escritos. */
+    public long getEventosEscritos() { return eventosEscritos; }
+
+    /** @return Número de lotes cuya escritura falló. */
+    public long getErroresEscritura() { return erroresEscritura; }
+
+    /** @return Duración de la última escritura + fsync, en milisegundos. */
+    public double getLatenciaUltimaEscrituraMs() { return latenciaUltimaEscrituraMs; }
+
+    /** @return Duración promedio de escritura + fsync, en milisegundos. */
+    public double getLatenciaPromedioEscrituraMs() { return latenciaPromedioEscrituraMs; }
+
+    /** @return Duración máxima observada de escritura + fsync, en milisegundos. */
+    public double getLatenciaMaximaEscrituraMs() { return latenciaMaximaEscrituraMs; }
+
+    /** @return Eventos promedio por lote escrito. */
+    public double getEventosPorLote() {
+        return lotesEscritos == 0 ? 0 : (double) eventosEscritos / lotesEscritos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MetricasPersistencia{cola=%d/%d, lotes=%d, eventos=%d, errores=%d, latencia(ult/prom/max)=%.2f/%.2f/%.2f ms}",
+                profundidadCola, capacidadCola, lotesEscritos, eventosEscritos, erroresEscritura,
+                latenciaUltimaEscrituraMs, latenciaPromedioEscrituraMs, latenciaMaximaEscrituraMs);
+    }
+}
@@ -0,0 +1,720 @@
+package infraestructura.persistencia;
+
+import dominio.elementoparque.Atraccion;
+import dominio.tiquete.CodigoTiquete;
+import dominio.tiquete.Tiquete;
+import dominio.tiquete.TiqueteRepository;
+import dominio.usuario.Usuario;
+import infraestructura.dto.TiqueteDTO;
+import infraestructura.mapper.TiqueteMapper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Repositorio de tiquetes en un archivo binario de registros de ancho fijo, mapeado en memoria.
+ *
+ * <b>Uso:</b> Cada tiquete ocupa un registro de {@value #TAMANO_REGISTRO} bytes en
+ * {@code <archivo>}; la búsqueda por código usa un índice hash de direccionamiento abierto
+ * guardado en {@code <archivo>.idx}. Registrar el uso de un tiquete cambia un byte en su lugar y
+ * eliminar lo marca con una lápida, sin reescribir el archivo. Al iniciar solo se mapean los
+ * archivos; no hay nada que interpretar, y la búsqueda por código va directo al índice, así que no hace
+ * falta cargar los tiquetes. Guardar la lista completa escribe un archivo temporal y lo renombra sobre
+ * el anterior, así que una interrupción deja la versión anterior o la nueva, nunca una mezcla.
+ *
+ * <b>Durabilidad:</b> ventas y usos pueden registrarse sin esperar al disco; lo que quede sin forzar se
+ * sincroniza con la siguiente operación que sí espera, o al cerrar. Si el sistema cae antes, esas
+ * operaciones pueden perderse (un registro a medio llegar se descarta al cargar).
+ *
+ * <b>Formato de datos:</b> cabecera de {@value #TAMANO_CABECERA} bytes (magia, versión, tamaño de
+ * registro, número de registros) seguida de los registros, mapeados por segmentos para superar el
+ * límite de 2 GB de un {@link MappedByteBuffer}.
+ *
+ * <b>Textos largos:</b> los textos que no caben en su campo del registro (nombres o ids largos) se
+ * agregan a {@code <archivo>.textos} y el campo guarda su posición y largo; ese archivo solo crece.
+ *
+ * <b>Índice:</b> tabla de potencia de dos de ranuras de 8 bytes (número de registro + 1; 0 = vacía)
+ * con sondeo lineal. Es un dato derivado: si falta, no corresponde a los datos o el repositorio no
+ * se cerró correctamente, se reconstruye recorriendo los registros.
+ *
+ * @author Sistema Parque
+ */
+public class TiqueteRepositoryBinario implements TiqueteRepository {
+    private static final int MAGIA_DATOS = 0x54514231;  // "TQB1"
+    private static final int MAGIA_INDICE = 0x54514931; // "TQI1"
+    private static final int VERSION = 1;
+
+    static final int TAMANO_REGISTRO = 256;
+    static final int TAMANO_CABECERA = 64;
+    private static final int REGISTROS_POR_SEGMENTO = 1 << 16;
+    private static final long BYTES_POR_SEGMENTO = (long) REGISTROS_POR_SEGMENTO * TAMANO_REGISTRO;
+
+    // Cabecera de datos
+    private static final int CAB_MAGIA = 0;
+    private static final int CAB_VERSION = 4;
+    private static final int CAB_TAMANO_REGISTRO = 8;
+    private static final int CAB_NUMERO_REGISTROS = 16;
+
+    // Cabecera del índice
+    private static final int IDX_TAMANO_CABECERA = 40;
+    private static final int IDX_MAGIA = 0;
+    private static final int IDX_VERSION = 4;
+    private static final int IDX_CAPACIDAD = 8;
+    private static final int IDX_OCUPADAS = 16;
+    private static final int IDX_REGISTROS_INDEXADOS = 24;
+    private static final int IDX_CERRADO_LIMPIO = 32;
+    private static final long CAPACIDAD_INDICE_MINIMA = 1 << 12;
+    private static final long CAPACIDAD_INDICE_MAXIMA = 1L << 27; // El índice debe caber en un solo mapeo (< 2 GB)
+    private static final double CARGA_MAXIMA_INDICE = 0.7;
+
+    // Campos del registro (desplazamientos en bytes)
+    private static final int REG_CODIGO = 0;            // 1 byte de longitud + 39 bytes ASCII
+    private static final int LARGO_CODIGO = 39;
+    private static final int REG_TIPO = 40;
+    private static final int REG_FLAGS = 41;
+    private static final int REG_CATEGORIA = 42;        // ordinal + 1; 0 = sin categoría
+    private static final int REG_FECHA_COMPRA = 48;     // 8 bytes segundos + 4 bytes nanos
+    private static final int REG_PRECIO = 60;
+    private static final int REG_FECHA_A = 68;          // inicio de temporada o fecha válida del FastPass
+    private static final int REG_FECHA_B = 80;          // fin de temporada
+    private static final int REG_ID_ATRACCION = 92;     // 1 byte de longitud + 31 bytes UTF-8
+    private static final int REG_ID_COMPRADOR = 124;    // 1 byte de longitud + 31 bytes UTF-8
+    private static final int REG_NOMBRE_COMPRADOR = 156; // 1 byte de longitud + 63 bytes UTF-8
+    private static final int LARGO_ID = 31;
+    private static final int LARGO_NOMBRE = 63;
+    private static final int TEXTO_NULO = 0xFF;
+    private static final int TEXTO_EXTERNO = 0xFE;      // + 8 bytes posición + 4 bytes largo en el archivo de textos
+
+    private static final byte FLAG_UTILIZADO = 1;
+    private static final byte FLAG_EMPLEADO = 2;
+    private static final byte FLAG_ELIMINADO = 4;
+
+    private static final String[] TIPOS = {null, "TiqueteGeneral", "TiqueteTemporada", "EntradaIndividual", "FastPass"};
+    private static final dominio.tiquete.CategoriaTiquete[] CATEGORIAS = dominio.tiquete.CategoriaTiquete.values();
+
+    private final Path archivoDatos;
+    private final Path archivoIndice;
+    private final Path archivoTextos;
+    private FileChannel canalDatos;
+    private MappedByteBuffer cabecera;
+    private final FileChannel canalTextos;
+    private boolean textosSinForzar = false;
+    // Hubo operaciones registradas sin esperar al disco desde la última sincronización completa
+    private boolean cambiosSinForzar = false;
+    private final List<MappedByteBuffer> segmentos = new ArrayList<>();
+    private long numeroRegistros;
+
+    private FileChannel canalIndice;
+    private MappedByteBuffer indice;
+    private long capacidadIndice;
+    private long ranurasOcupadas;
+    private boolean cerrado = false;
+
+    /**
+     * Abre (o crea) el almacén binario de tiquetes.
+     *
+     * @param archivoBaseName Nombre del archivo bajo 'data' (ej. "tiquetes.bin").
+     * @throws IllegalStateException si el archivo existe pero no tiene el formato esperado.
+     */
+    public TiqueteRepositoryBinario(String archivoBaseName) {
+        this.archivoDatos = Paths.get(JsonUtil.getDataFilePath(archivoBaseName));
+        this.archivoIndice = Paths.get(archivoDatos + ".idx");
+        this.archivoTextos = Paths.get(archivoDatos + ".textos");
+        try {
+            abrirDatos();
+            this.canalTextos = FileChannel.open(archivoTextos, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            abrirIndice();
+        } catch (IOException e) {
+            throw new RuntimeException("Error al abrir el almacén binario de tiquetes " + archivoDatos, e);
+        }
+    }
+
+    private void abrirDatos() throws IOException {
+        canalDatos = FileChannel.open(archivoDatos, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        boolean nuevo = canalDatos.size() == 0;
+        cabecera = canalDatos.map(FileChannel.MapMode.READ_WRITE, 0, TAMANO_CABECERA);
+        if (nuevo) {
+            cabecera.putInt(CAB_MAGIA, MAGIA_DATOS);
+            cabecera.putInt(CAB_VERSION, VERSION);
+            cabecera.putInt(CAB_TAMANO_REGISTRO, TAMANO_REGISTRO);
+            cabecera.putLong(CAB_NUMERO_REGISTROS, 0);
+            cabecera.force();
+        } else if (cabecera.getInt(CAB_MAGIA) != MAGIA_DATOS || cabecera.getInt(CAB_VERSION) != VERSION
+                || cabecera.getInt(CAB_TAMANO_REGISTRO) != TAMANO_REGISTRO) {
+            canalDatos.close();
+            throw new IllegalStateException("El archivo " + archivoDatos + " no es un almacén binario de tiquetes válido.");
+        }
+        segmentos.clear();
+        numeroRegistros = cabecera.getLong(CAB_NUMERO_REGISTROS);
+    }
+
+    @Override
+    public boolean registraOperaciones() {
+        return true;
+    }
+
+    @Override
+    public boolean buscaSinCargar() {
+        return true;
+    }
+
+    @Override
+    public List<Tiquete> cargarTiquetes(Function<String, Atraccion> atraccionResolver) {
+        return cargarTiquetes(atraccionResolver, null);
+    }
+
+    @Override
+    public synchronized List<Tiquete> cargarTiquetes(Function<String, Atraccion> atraccionResolver,
+                                                     Function<String, ? extends Usuario> compradorResolver) {
+        verificarAbierto();
+        List<Tiquete> tiquetes = new ArrayList<>();
+        for (long i = 0; i < numeroRegistros; i++) {
+            ByteBuffer registro = registro(i);
+            if ((registro.get(REG_FLAGS) & FLAG_ELIMINADO) != 0) {
+                continue;
+            }
+            TiqueteDTO dto = leerRegistro(registro);
+            try {
+                Tiquete t = TiqueteMapper.fromDTO(dto, atraccionResolver, compradorResolver);
+                if (t != null) {
+                    tiquetes.add(t);
+                } else {
+                    System.err.println("[WARN] TiqueteMapper devolvió null para el registro " + i + " de " + archivoDatos);
+                }
+            } catch (Exception ex) {
+                System.err.println("[ERROR] Error al mapear el registro " + i + " (" + dto.codigo + "): " + ex.getMessage());
+            }
+        }
+        return tiquetes;
+    }
+
+    @Override
+    public synchronized Optional<Tiquete> buscarPorCodigo(String codigo, Function<String, Atraccion> atraccionResolver) {
+        verificarAbierto();
+        long numero = buscarRegistro(codigo);
+        if (numero < 0) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(TiqueteMapper.fromDTO(leerRegistro(registro(numero)), atraccionResolver));
+    }
+
+    /**
+     * Reemplaza todos los tiquetes escribiendo un archivo temporal completo y renombrándolo sobre el actual.
+     * Si se interrumpe antes del renombrado, el archivo anterior queda intacto.
+     */
+    @Override
+    public synchronized void guardarTiquetes(List<Tiquete> tiquetes) {
+        verificarAbierto();
+        Path temporal = Paths.get(archivoDatos + ".tmp");
+        try {
+            escribirArchivoDatos(temporal, tiquetes);
+            canalDatos.close();
+            try {
+                mover(temporal, archivoDatos);
+            } finally {
+                abrirDatos(); // El nuevo si se renombró; si no, el anterior
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error al guardar los tiquetes en " + archivoDatos, e);
+        } finally {
+            try {
+                Files.deleteIfExists(temporal);
+            } catch (IOException e) {
+                System.err.println("[WARN] No se pudo borrar el archivo temporal " + temporal + ": " + e.getMessage());
+            }
+        }
+        reconstruirIndice(capacidadPara(numeroRegistros));
+    }
+
+    private void escribirArchivoDatos(Path destino, List<Tiquete> tiquetes) throws IOException {
+        try (FileChannel canal = FileChannel.open(destino, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            ByteBuffer cab = ByteBuffer.allocate(TAMANO_CABECERA);
+            cab.putInt(CAB_MAGIA, MAGIA_DATOS);
+            cab.putInt(CAB_VERSION, VERSION);
+            cab.putInt(CAB_TAMANO_REGISTRO, TAMANO_REGISTRO);
+            cab.putLong(CAB_NUMERO_REGISTROS, tiquetes.size());
+            escribirCompleto(canal, cab, 0);
+            ByteBuffer registro = ByteBuffer.allocate(TAMANO_REGISTRO);
+            long posicion = TAMANO_CABECERA;
+            for (Tiquete t : tiquetes) {
+                java.util.Arrays.fill(registro.array(), (byte) 0);
+                registro.clear();
+                escribirRegistro(registro, TiqueteMapper.toDTO(t));
+                escribirCompleto(canal, registro, posicion);
+                posicion += TAMANO_REGISTRO;
+            }
+            forzarTextos(); // Los textos largos deben estar en disco antes que los registros que los referencian
+            canal.force(true);
+        }
+    }
+
+    private static void escribirCompleto(FileChannel canal, ByteBuffer datos, long posicion) throws IOException {
+        while (datos.hasRemaining()) {
+            canal.write(datos, posicion + datos.position());
+        }
+    }
+
+    private static void mover(Path origen, Path destino) throws IOException {
+        try {
+            Files.move(origen, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(origen, destino, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    @Override
+    public void registrarVenta(Tiquete tiquete) {
+        registrarVenta(tiquete, true);
+    }
+
+    @Override
+    public synchronized void registrarVenta(Tiquete tiquete, boolean esperarDisco) {
+        verificarAbierto();
+        TiqueteDTO dto = TiqueteMapper.toDTO(tiquete);
+        long existente = buscarRegistro(dto.codigo);
+        if (existente < 0) {
+            agregarRegistro(dto, esperarDisco);
+            return;
+        }
+        ByteBuffer registro = registro(existente);
+        escribirRegistro(registro, dto);
+        if (esperarDisco) {
+            forzarRegistro(existente);
+        } else {
+            cambiosSinForzar = true;
+        }
+    }
+
+    @Override
+    public void registrarUso(Tiquete tiquete) {
+        registrarUso(tiquete, true);
+    }
+
+    /**
+     * Marca el tiquete como utilizado cambiando únicamente el byte de banderas de su registro.
+     */
+    @Override
+    public synchronized void registrarUso(Tiquete tiquete, boolean esperarDisco) {
+        verificarAbierto();
+        long numero = buscarRegistro(tiquete.getCodigo());
+        if (numero < 0) {
+            System.err.println("[WARN] Uso registrado para tiquete desconocido: " + tiquete.getCodigo());
+            return;
+        }
+        cambiarFlag(numero, FLAG_UTILIZADO, esperarDisco);
+    }
+
+    @Override
+    public synchronized void registrarEliminacion(Collection<String> codigos) {
+        verificarAbierto();
+        for (String codigo : codigos) {
+            long numero = buscarRegistro(codigo);
+            if (numero >= 0) {
+                cambiarFlag(numero, FLAG_ELIMINADO, true);
+            }
+        }
+    }
+
+    /**
+     * Sincroniza datos e índice con el disco y libera los archivos.
+     * El índice queda marcado como consistente para evitar reconstruirlo en el siguiente inicio.
+     */
+    @Override
+    public synchronized void cerrar() {
+        if (cerrado) {
+            return;
+        }
+        forzarTodo();
+        indice.putInt(IDX_CERRADO_LIMPIO, 1);
+        indice.force();
+        try {
+            canalIndice.close();
+            canalDatos.close();
+            canalTextos.close();
+        } catch (IOException e) {
+            System.err.println("[WARN] Error al cerrar el almacén binario de tiquetes: " + e.getMessage());
+        }
+        cerrado = true;
+    }
+
+    /**
+     * Devuelve el número de registros del archivo, incluidos los eliminados.
+     *
+     * @return Registros escritos.
+     */
+    public synchronized long getNumeroRegistros() {
+        return numeroRegistros;
+    }
+
+    // ---------------------------------------------------------------- registros
+
+    private void agregarRegistro(TiqueteDTO dto, boolean esperarDisco) {
+        long numero = numeroRegistros;
+        ByteBuffer registro = registro(numero);
+        escribirRegistro(registro, dto);
+        if (esperarDisco) {
+            forzarRegistro(numero);
+        }
+        // Si se espera al disco, el registro queda en disco antes de contarlo en la cabecera
+        numeroRegistros = numero + 1;
+        cabecera.putLong(CAB_NUMERO_REGISTROS, numeroRegistros);
+        if (esperarDisco) {
+            cabecera.force();
+        } else {
+            cambiosSinForzar = true;
+        }
+        insertarEnIndice(dto.codigo, numero);
+    }
+
+    private void cambiarFlag(long numero, byte flag, boolean esperarDisco) {
+        MappedByteBuffer segmento = segmento(numero);
+        int posicion = posicionEnSegmento(numero) + REG_FLAGS;
+        segmento.put(posicion, (byte) (segmento.get(posicion) | flag));
+        if (!esperarDisco) {
+            cambiosSinForzar = true;
+            return;
+        }
+        forzarPendientes();
+        segmento.force(posicion, 1);
+    }
+
+    private void forzarRegistro(long numero) {
+        forzarTextos();
+        forzarPendientes();
+        segmento(numero).force(posicionEnSegmento(numero), TAMANO_REGISTRO);
+    }
+
+    // Lo registrado sin esperar al disco llega a él antes que la siguiente operación que sí espera
+    private void forzarPendientes() {
+        if (cambiosSinForzar) {
+            forzarTodo();
+            cambiosSinForzar = false;
+        }
+    }
+
+    private ByteBuffer registro(long numero) {
+        int posicion = posicionEnSegmento(numero);
+        return segmento(numero).slice(posicion, TAMANO_REGISTRO);
+    }
+
+    private static int posicionEnSegmento(long numero) {
+        return (int) (numero % REGISTROS_POR_SEGMENTO) * TAMANO_REGISTRO;
+    }
+
+    private MappedByteBuffer segmento(long numero) {
+        int indiceSegmento = (int) (numero / REGISTROS_POR_SEGMENTO);
+        while (segmentos.size() <= indiceSegmento) {
+            long inicio = TAMANO_CABECERA + segmentos.size() * BYTES_POR_SEGMENTO;
+            try {
+                // Mapear más allá del final extiende el archivo
+                segmentos.add(canalDatos.map(FileChannel.MapMode.READ_WRITE, inicio, BYTES_POR_SEGMENTO));
+            } catch (IOException e) {
+                throw new RuntimeException("Error al mapear el segmento " + segmentos.size() + " de " + archivoDatos, e);
+            }
+        }
+        return segmentos.get(indiceSegmento);
+    }
+
+    private void escribirRegistro(ByteBuffer registro, TiqueteDTO dto) {
+        int tipo = indiceTipo(dto.tipo);
+        byte flags = 0;
+        if (dto.utilizado) flags |= FLAG_UTILIZADO;
+        if (dto.esEmpleado) flags |= FLAG_EMPLEADO;
+
+        escribirTexto(registro, REG_CODIGO, dto.codigo, LARGO_CODIGO);
+        registro.put(REG_TIPO, (byte) tipo);
+        registro.put(REG_FLAGS, flags);
+        registro.put(REG_CATEGORIA, (byte) (dto.categoria == null ? 0 : dominio.tiquete.CategoriaTiquete.valueOf(dto.categoria).ordinal() + 1));
+        escribirFecha(registro, REG_FECHA_COMPRA, dto.fechaCompra);
+        registro.putDouble(REG_PRECIO, dto.precio);
+        escribirFecha(registro, REG_FECHA_A, "FastPass".equals(dto.tipo) ? dto.fechaValida : dto.fechaInicio);
+        escribirFecha(registro, REG_FECHA_B, dto.fechaFin);
+        escribirTexto(registro, REG_ID_ATRACCION, dto.idAtraccion, LARGO_ID);
+        escribirTexto(registro, REG_ID_COMPRADOR, dto.idComprador, LARGO_ID);
+        escribirTexto(registro, REG_NOMBRE_COMPRADOR, dto.nombreComprador, LARGO_NOMBRE);
+    }
+
+    private TiqueteDTO leerRegistro(ByteBuffer registro) {
+        TiqueteDTO dto = new TiqueteDTO();
+        int tipo = registro.get(REG_TIPO);
+        byte flags = registro.get(REG_FLAGS);
+        int categoria = registro.get(REG_CATEGORIA);
+
+        dto.codigo = leerTexto(registro, REG_CODIGO);
+        dto.tipo = tipo > 0 && tipo < TIPOS.length ? TIPOS[tipo] : null;
+        dto.utilizado = (flags & FLAG_UTILIZADO) != 0;
+        dto.esEmpleado = (flags & FLAG_EMPLEADO) != 0;
+        dto.categoria = categoria == 0 ? null : CATEGORIAS[categoria - 1].name();
+        dto.fechaCompra = leerFecha(registro, REG_FECHA_COMPRA);
+        dto.precio = registro.getDouble(REG_PRECIO);
+        if ("FastPass".equals(dto.tipo)) {
+            dto.fechaValida = leerFecha(registro, REG_FECHA_A);
+        } else {
+            dto.fechaInicio = leerFecha(registro, REG_FECHA_A);
+        }
+        dto.fechaFin = leerFecha(registro, REG_FECHA_B);
+        dto.idAtraccion = leerTexto(registro, REG_ID_ATRACCION);
+        dto.idComprador = leerTexto(registro, REG_ID_COMPRADOR);
+        dto.nombreComprador = leerTexto(registro, REG_NOMBRE_COMPRADOR);
+        return dto;
+    }
+
+    private static int indiceTipo(String tipo) {
+        for (int i = 1; i < TIPOS.length; i++) {
+            if (TIPOS[i].equals(tipo)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Tipo de tiquete no soportado por el almacén binario: " + tipo);
+    }
+
+    // Longitud 0xFF indica null; los textos que no caben se guardan en el archivo de textos en lugar de truncarse
+    private void escribirTexto(ByteBuffer registro, int posicion, String texto, int largoMaximo) {
+        if (texto == null) {
+            registro.put(posicion, (byte) TEXTO_NULO);
+            return;
+        }
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= largoMaximo) {
+            registro.put(posicion, (byte) bytes.length);
+            registro.put(posicion + 1, bytes);
+            return;
+        }
+        registro.put(posicion, (byte) TEXTO_EXTERNO);
+        registro.putLong(posicion + 1, agregarTexto(bytes));
+        registro.putInt(posicion + 9, bytes.length);
+    }
+
+    private String leerTexto(ByteBuffer registro, int posicion) {
+        int largo = registro.get(posicion) & 0xFF;
+        if (largo == TEXTO_NULO) {
+            return null;
+        }
+        if (largo == TEXTO_EXTERNO) {
+            return leerTextoExterno(registro.getLong(posicion + 1), registro.getInt(posicion + 9));
+        }
+        byte[] bytes = new byte[largo];
+        registro.get(posicion + 1, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private long agregarTexto(byte[] bytes) {
+        try {
+            long posicion = canalTextos.size();
+            escribirCompleto(canalTextos, ByteBuffer.wrap(bytes), posicion);
+            textosSinForzar = true;
+            return posicion;
+        } catch (IOException e) {
+            throw new RuntimeException("Error al escribir en el archivo de textos " + archivoTextos, e);
+        }
+    }
+
+    private String leerTextoExterno(long posicion, int largo) {
+        ByteBuffer bytes = ByteBuffer.allocate(largo);
+        try {
+            while (bytes.hasRemaining()) {
+                if (canalTextos.read(bytes, posicion + bytes.position()) < 0) {
+                    throw new IllegalStateException("El archivo de textos " + archivoTextos + " está truncado.");
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error al leer el archivo de textos " + archivoTextos, e);
+        }
+        return new String(bytes.array(), StandardCharsets.UTF_8);
+    }
+
+    private void forzarTextos() {
+        if (!textosSinForzar) {
+            return;
+        }
+        try {
+            canalTextos.force(false);
+            textosSinForzar = false;
+        } catch (IOException e) {
+            throw new RuntimeException("Error al sincronizar el archivo de textos " + archivoTextos, e);
+        }
+    }
+
+    // Long.MIN_VALUE en los segundos indica null
+    private static void escribirFecha(ByteBuffer registro, int posicion, LocalDateTime fecha) {
+        if (fecha == null) {
+            registro.putLong(posicion, Long.MIN_VALUE);
+            registro.putInt(posicion + 8, 0);
+            return;
+        }
+        registro.putLong(posicion, fecha.toEpochSecond(ZoneOffset.UTC));
+        registro.putInt(posicion + 8, fecha.getNano());
+    }
+
+    private static LocalDateTime leerFecha(ByteBuffer registro, int posicion) {
+        long segundos = registro.getLong(posicion);
+        if (segundos == Long.MIN_VALUE) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(segundos, registro.getInt(posicion + 8), ZoneOffset.UTC);
+    }
+
+    // ---------------------------------------------------------------- índice
+
+    private void abrirIndice() throws IOException {
+        if (Files.exists(archivoIndice)) {
+            canalIndice = FileChannel.open(archivoIndice, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            if (canalIndice.size() >= IDX_TAMANO_CABECERA) {
+                MappedByteBuffer cab = canalIndice.map(FileChannel.MapMode.READ_WRITE, 0, IDX_TAMANO_CABECERA);
+                long capacidad = cab.getLong(IDX_CAPACIDAD);
+                boolean valido = cab.getInt(IDX_MAGIA) == MAGIA_INDICE && cab.getInt(IDX_VERSION) == VERSION
+                        && cab.getInt(IDX_CERRADO_LIMPIO) == 1
+                        && cab.getLong(IDX_REGISTROS_INDEXADOS) == numeroRegistros
+                        && Long.bitCount(capacidad) == 1
+                        && canalIndice.size() == IDX_TAMANO_CABECERA + capacidad * 8;
+                if (valido) {
+                    capacidadIndice = capacidad;
+                    ranurasOcupadas = cab.getLong(IDX_OCUPADAS);
+                    indice = canalIndice.map(FileChannel.MapMode.READ_WRITE, 0, IDX_TAMANO_CABECERA + capacidad * 8);
+                    // Mientras esté abierto, un cierre abrupto invalida el índice
+                    indice.putInt(IDX_CERRADO_LIMPIO, 0);
+                    indice.force();
+                    return;
+                }
+            }
+            canalIndice.close();
+            System.err.println("[WARN] Índice de tiquetes desactualizado, se reconstruye: " + archivoIndice);
+        }
+        reconstruirIndice(capacidadPara(numeroRegistros));
+    }
+
+    private static long capacidadPara(long registros) {
+        long capacidad = CAPACIDAD_INDICE_MINIMA;
+        while (capacidad * CARGA_MAXIMA_INDICE < registros + 1) {
+            capacidad <<= 1;
+        }
+        return capacidad;
+    }
+
+    private void reconstruirIndice(long capacidad) {
+        if (capacidad > CAPACIDAD_INDICE_MAXIMA) {
+            throw new IllegalStateException("El índice de tiquetes alcanzó su capacidad máxima (" + CAPACIDAD_INDICE_MAXIMA + " ranuras).");
+        }
+        Path temporal = Paths.get(archivoIndice + ".tmp");
+        try {
+            Files.deleteIfExists(temporal);
+            FileChannel canalNuevo = FileChannel.open(temporal, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer nuevo = canalNuevo.map(FileChannel.MapMode.READ_WRITE, 0, IDX_TAMANO_CABECERA + capacidad * 8);
+            nuevo.putInt(IDX_MAGIA, MAGIA_INDICE);
+            nuevo.putInt(IDX_VERSION, VERSION);
+            nuevo.putLong(IDX_CAPACIDAD, capacidad);
+
+            FileChannel canalAnterior = canalIndice;
+            canalIndice = canalNuevo;
+            indice = nuevo;
+            capacidadIndice = capacidad;
+            ranurasOcupadas = 0;
+            for (long i = 0; i < numeroRegistros; i++) {
+                ByteBuffer registro = registro(i);
+                if ((registro.get(REG_FLAGS) & FLAG_ELIMINADO) == 0) {
+                    colocarEnIndice(leerTexto(registro, REG_CODIGO), i);
+                }
+            }
+            indice.putLong(IDX_OCUPADAS, ranurasOcupadas);
+            indice.putLong(IDX_REGISTROS_INDEXADOS, numeroRegistros);
+            indice.putInt(IDX_CERRADO_LIMPIO, 0);
+            indice.force();
+
+            if (canalAnterior != null && canalAnterior.isOpen()) {
+                canalAnterior.close();
+            }
+            mover(temporal, archivoIndice);
+        } catch (IOException e) {
+            throw new RuntimeException("Error al reconstruir el índice de tiquetes " + archivoIndice, e);
+        }
+    }
+
+    private void insertarEnIndice(String codigo, long numero) {
+        if (ranurasOcupadas + 1 > capacidadIndice * CARGA_MAXIMA_INDICE) {
+            // El registro ya está contado, así que la reconstrucción lo incluye
+            reconstruirIndice(capacidadIndice << 1);
+            return;
+        }
+        colocarEnIndice(codigo, numero);
+        indice.putLong(IDX_OCUPADAS, ranurasOcupadas);
+        indice.putLong(IDX_REGISTROS_INDEXADOS, numeroRegistros);
+    }
+
+    private void colocarEnIndice(String codigo, long numero) {
+        long mascara = capacidadIndice - 1;
+        long ranura = hash(codigo) & mascara;
+        while (indice.getLong(posicionRanura(ranura)) != 0) {
+            ranura = (ranura + 1) & mascara;
+        }
+        indice.putLong(posicionRanura(ranura), numero + 1);
+        ranurasOcupadas++;
+    }
+
+    private long buscarRegistro(String codigo) {
+        if (codigo == null) {
+            return -1;
+        }
+        long mascara = capacidadIndice - 1;
+        long ranura = hash(codigo) & mascara;
+        long valor;
+        while ((valor = indice.getLong(posicionRanura(ranura))) != 0) {
+            long numero = valor - 1;
+            ByteBuffer registro = registro(numero);
+            if ((registro.get(REG_FLAGS) & FLAG_ELIMINADO) == 0 && codigo.equals(leerTexto(registro, REG_CODIGO))) {
+                return numero;
+            }
+            ranura = (ranura + 1) & mascara;
+        }
+        return -1;
+    }
+
+    private static int posicionRanura(long ranura) {
+        return (int) (IDX_TAMANO_CABECERA + ranura * 8);
+    }
+
+    // Los códigos compactos se dispersan desde su forma binaria; los demás (UUID históricos) con FNV-1a de 64 bits
+    private static long hash(String codigo) {
+        if (CodigoTiquete.esCompacto(codigo)) {
+            long h = CodigoTiquete.aBinario(codigo) * 0x9E3779B97F4A7C15L;
+            return h ^ (h >>> 29);
+        }
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < codigo.length(); i++) {
+            h ^= codigo.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h ^ (h >>> 32);
+    }
+
+    private void forzarTodo() {
+        forzarTextos();
+        for (MappedByteBuffer segmento : segmentos) {
+            segmento.force();
+        }
+        cabecera.force();
+        indice.force();
+    }
+
+    private void verificarAbierto() {
+        if (cerrado) {
+            throw new IllegalStateException("El almacén binario de tiquetes está cerrado.");
+        }
+    }
+}
@@ -1,43 +1,229 @@
 package infraestructura.persistencia;
 
+import infraestructura.dto.EventoTiqueteDTO;
 import infraestructura.dto.TiqueteDTO;
 import infraestructura.mapper.TiqueteMapper;
 import dominio.tiquete.Tiquete;
+import dominio.tiquete.TiqueteRepository;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ArrayList;
-import com.google.gson.reflect.TypeToken; // Necesario para la deserialización con Gson
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Repositorio para la persistencia de tiquetes en archivos JSON.
  *
  * <b>Uso:</b> Permite guardar y cargar tiquetes desde archivos JSON en disco.
  *
+ * <b>Modo journal:</b> En lugar de reescribir todos los tiquetes en cada operación, las ventas,
+ * usos y eliminaciones se agregan como eventos (una línea JSON por evento) al archivo
+ * {@code <archivo>.log}. Un compactador en segundo plano rota el journal a
+ * {@code <archivo>.log.compactando}, escribe el snapshot completo en el archivo principal y
+ * descarta el journal rotado. Al cargar se lee el snapshot y se reaplican, en orden, los eventos
+ * de ambos journals. Los eventos fijan estado (no lo acumulan), por lo que reaplicar eventos ya
+ * incluidos en el snapshot no altera el resultado.
+ * <p>
+ * En memoria no se conservan los tiquetes: la compactación resume el journal rotado en los cambios
+ * por código y reescribe el snapshot elemento por elemento aplicándolos, así que su memoria depende
+ * del tamaño del journal, no del número de tiquetes. Cada DTO leído pertenece a una sola lectura y
+ * nunca se comparte con las escrituras concurrentes.
+ * </p>
+ *
  * @author Sistema Parque
  */
-public class TiqueteRepositoryJson {
+public class TiqueteRepositoryJson implements TiqueteRepository {
+    /** Número de eventos en el journal a partir del cual se solicita una compactación. */
+    private static final int UMBRAL_COMPACTACION = 1000;
+    /** Periodo de la compactación periódica, en segundos. */
+    private static final long PERIODO_COMPACTACION_SEG = 30;
+
     private final String archivoAbsoluto; // Store the absolute path
+    private final boolean modoJournal;
+    private final Path archivoJournal;
+    private final Path archivoJournalCompactando;
+
+    // Orden de adquisición: candadoCompactacion -> candadoJournal
+    private final Object candadoCompactacion = new Object();
+    private final Object candadoJournal = new Object();
+
+    // Eventos en los journals desde la última compactación; el estado vive solo en disco
+    private int eventosDesdeCompactacion = 0;
+    private final ScheduledExecutorService compactador;
 
     /**
      * Constructor for TiqueteRepositoryJson.
      * @param archivoBaseName The base file name under 'data' (e.g., "tiquetes.json").
      */
     public TiqueteRepositoryJson(String archivoBaseName) {
+        this(archivoBaseName, false);
+    }
+
+    /**
+     * Crea el repositorio indicando si se usa el modo journal.
+     *
+     * @param archivoBaseName Nombre del archivo bajo 'data' (ej. "tiquetes.json").
+     * @param modoJournal true para registrar eventos en un journal con compactación en segundo plano;
+     *                    false para reescribir el archivo completo en cada guardado.
+     */
+    public TiqueteRepositoryJson(String archivoBaseName, boolean modoJournal) {
         // Resolve absolute path using JsonUtil immediately
         this.archivoAbsoluto = JsonUtil.getDataFilePath(archivoBaseName);
+        this.modoJournal = modoJournal;
+        this.archivoJournal = Paths.get(archivoAbsoluto + ".log");
+        this.archivoJournalCompactando = Paths.get(archivoAbsoluto + ".log.compactando");
+
+        if (modoJournal) {
+            contarEventosJournal();
+            this.compactador = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "compactador-tiquetes");
+                t.setDaemon(true);
+                return t;
+            });
+            compactador.scheduleWithFixedDelay(this::compactarSeguro,
+                    PERIODO_COMPACTACION_SEG, PERIODO_COMPACTACION_SEG, TimeUnit.SECONDS);
+        } else {
+            this.compactador = null;
+        }
+    }
+
+    /**
+     * Indica si el repositorio registra las operaciones en un journal.
+     *
+     * @return true si está en modo journal.
+     */
+    public boolean isModoJournal() {
+        return modoJournal;
+    }
+
+    /**
+     * En modo journal cada operación se registra por separado.
+     *
+     * @return true si está en modo journal.
+     */
+    @Override
+    public boolean registraOperaciones() {
+        return modoJournal;
     }
 
     /**
      * Guarda la lista de tiquetes en el archivo JSON.
+     * En modo journal, la lista reemplaza el estado vigente y el journal se descarta.
      *
      * @param tiquetes Lista de tiquetes a guardar.
      */
+    @Override
     public void guardarTiquetes(List<Tiquete> tiquetes) {
+        if (!modoJournal) {
+            // Los DTOs se generan a medida que se escriben, sin construir la lista completa
+            JsonUtil.writeStreamAbsolute(archivoAbsoluto, tiquetes.stream().map(TiqueteMapper::toDTO).iterator(), false);
+            return;
+        }
         List<TiqueteDTO> dtos = new ArrayList<>();
         for (Tiquete t : tiquetes) {
             dtos.add(TiqueteMapper.toDTO(t));
         }
-        // Use the absolute path and JsonUtil's writing method
-        JsonUtil.writeToFileAbsolute(archivoAbsoluto, dtos);
+        synchronized (candadoCompactacion) {
+            synchronized (candadoJournal) {
+                escribirSnapshot(dtos);
+                try {
+                    Files.deleteIfExists(archivoJournal);
+                    Files.deleteIfExists(archivoJournalCompactando);
+                } catch (IOException e) {
+                    throw new RuntimeException("Error al descartar el journal de tiquetes " + archivoJournal, e);
+                }
+                eventosDesdeCompactacion = 0;
+            }
+        }
+    }
+
+    /**
+     * Registra la venta de un tiquete agregando un evento al journal.
+     *
+     * <b>Precondiciones:</b> El repositorio está en modo journal.
+     * <b>Poscondiciones:</b> El evento queda escrito en el journal antes de retornar.
+     *
+     * @param tiquete Tiquete vendido.
+     */
+    @Override
+    public void registrarVenta(Tiquete tiquete) {
+        TiqueteDTO dto = TiqueteMapper.toDTO(tiquete);
+        agregarEventos(List.of(EventoTiqueteDTO.venta(dto)), false);
+    }
+
+    /**
+     * Registra el uso de un tiquete agregando un evento al journal.
+     *
+     * <b>Precondiciones:</b> El repositorio está en modo journal.
+     *
+     * @param tiquete Tiquete utilizado.
+     */
+    @Override
+    public void registrarUso(Tiquete tiquete) {
+        agregarEventos(List.of(EventoTiqueteDTO.uso(tiquete.getCodigo())), false);
+    }
+
+    /**
+     * Registra la eliminación de varios tiquetes agregando un evento por código al journal.
+     *
+     * <b>Precondiciones:</b> El repositorio está en modo journal.
+     *
+     * @param codigos Códigos de los tiquetes eliminados.
+     */
+    @Override
+    public void registrarEliminacion(Collection<String> codigos) {
+        if (codigos.isEmpty()) {
+            return;
+        }
+        List<EventoTiqueteDTO> eventos = new ArrayList<>();
+        for (String codigo : codigos) {
+            eventos.add(EventoTiqueteDTO.eliminacion(codigo));
+        }
+        agregarEventos(eventos, false);
+    }
+
+    /**
+     * Agrega un lote de eventos al journal con una sola escritura, forzándola a disco.
+     * Pensado para escritores que agrupan eventos de varias operaciones (group commit).
+     *
+     * <b>Precondiciones:</b> El repositorio está en modo journal.
+     * <b>Poscondiciones:</b> Todos los eventos del lote están en disco antes de retornar.
+     *
+     * @param eventos Eventos a registrar, en orden.
+     */
+    public void registrarEventos(List<EventoTiqueteDTO> eventos) {
+        if (eventos.isEmpty()) {
+            return;
+        }
+        agregarEventos(eventos, true);
+    }
+
+    /**
+     * Detiene el compactador y compacta el journal pendiente sobre el snapshot.
+     * No tiene efecto si el repositorio no está en modo journal.
+     */
+    @Override
+    public void cerrar() {
+        if (!modoJournal) {
+            return;
+        }
+        compactador.shutdown();
+        try {
+            compactador.awaitTermination(PERIODO_COMPACTACION_SEG, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        compactar();
     }
 
     /**
@@ -47,26 +233,56 @@ public class TiqueteRepositoryJson {
      * @param atraccionResolver Función para buscar una Atraccion por su ID.
      * @return Lista de tiquetes cargados.
      */
+    @Override
     public List<Tiquete> cargarTiquetes(java.util.function.Function<String, dominio.elementoparque.Atraccion> atraccionResolver) {
-        // Use the absolute path and JsonUtil's reading method
-        List<TiqueteDTO> dtos = JsonUtil.readFromFileAbsolute(archivoAbsoluto, new TypeToken<List<TiqueteDTO>>(){});
+        return cargarTiquetes(atraccionResolver, null);
+    }
 
+    /**
+     * Carga la lista de tiquetes; el comprador de cada uno se resuelve en su primer acceso.
+     *
+     * @param atraccionResolver Función para buscar una Atraccion por su ID.
+     * @param compradorResolver Función para buscar un Usuario por su identificación; null si no se conoce.
+     * @return Lista de tiquetes cargados.
+     */
+    @Override
+    public List<Tiquete> cargarTiquetes(java.util.function.Function<String, dominio.elementoparque.Atraccion> atraccionResolver,
+                                        java.util.function.Function<String, ? extends dominio.usuario.Usuario> compradorResolver) {
         List<Tiquete> tiquetes = new ArrayList<>();
-        if (dtos != null) {
-            for (TiqueteDTO dto : dtos) {
-                 try {
-                    Tiquete t = TiqueteMapper.fromDTO(dto, atraccionResolver);
-                    if (t != null) {
-                        tiquetes.add(t);
-                    } else {
-                         System.err.println("[WARN] TiqueteMapper devolvió null para DTO: " + dto);
+        java.util.function.Consumer<TiqueteDTO> mapear = dto -> {
+            try {
+                Tiquete t = TiqueteMapper.fromDTO(dto, atraccionResolver, compradorResolver);
+                if (t != null) {
+                    tiquetes.add(t);
+                } else {
+                    System.err.println("[WARN] TiqueteMapper devolvió null para DTO: " + dto);
+                }
+            } catch (Exception ex) {
+                // Log mapping errors for specific DTOs
+                System.err.println("[ERROR] Error al mapear TiqueteDTO a Tiquete: " + dto + " - Error: " + ex.getMessage());
+                // Optionally log stack trace: ex.printStackTrace();
+            }
+        };
+        if (modoJournal) {
+            // La compactación no puede reemplazar el snapshot ni borrar el journal rotado mientras se leen
+            synchronized (candadoCompactacion) {
+                CambiosJournal cambios = new CambiosJournal();
+                JsonUtil.readLinesAbsolute(archivoJournalCompactando.toString(), EventoTiqueteDTO.class, cambios::aplicar);
+                synchronized (candadoJournal) {
+                    JsonUtil.readLinesAbsolute(archivoJournal.toString(), EventoTiqueteDTO.class, cambios::aplicar);
+                }
+                JsonUtil.readStreamAbsolute(archivoAbsoluto, TiqueteDTO.class, dto -> {
+                    TiqueteDTO vigente = cambios.aplicarA(dto);
+                    if (vigente != null) {
+                        mapear.accept(vigente);
                     }
-                 } catch (Exception ex) {
-                    // Log mapping errors for specific DTOs
-                    System.err.println("[ERROR] Error al mapear TiqueteDTO a Tiquete: " + dto + " - Error: " + ex.getMessage());
-                    // Optionally log stack trace: ex.printStackTrace();
-                 }
+                });
+                cambios.nuevos().forEachRemaining(mapear);
+                cambios.advertirUsosDesconocidos();
             }
+        } else {
+            // Cada DTO se convierte apenas se lee, sin materializar la lista de DTOs
+            JsonUtil.readStreamAbsolute(archivoAbsoluto, TiqueteDTO.class, mapear);
         }
         return tiquetes;
     }
@@ -85,4 +301,145 @@ public class TiqueteRepositoryJson {
             return null; // O lanzar una excepción si es preferible
         });
     }
+
+    private void agregarEventos(List<EventoTiqueteDTO> eventos, boolean forzarDisco) {
+        if (!modoJournal) {
+            throw new IllegalStateException("El repositorio de tiquetes no está en modo journal.");
+        }
+        boolean solicitarCompactacion;
+        synchronized (candadoJournal) {
+            JsonUtil.appendLinesAbsolute(archivoJournal.toString(), eventos, forzarDisco);
+            eventosDesdeCompactacion += eventos.size();
+            solicitarCompactacion = eventosDesdeCompactacion >= UMBRAL_COMPACTACION;
+        }
+        if (solicitarCompactacion && !compactador.isShutdown()) {
+            compactador.execute(this::compactarSeguro);
+        }
+    }
+
+    private void contarEventosJournal() {
+        // Solo se cuentan, para que la primera compactación llegue a su tiempo; el contenido se lee al cargar
+        eventosDesdeCompactacion += JsonUtil.readLinesAbsolute(archivoJournalCompactando.toString(), EventoTiqueteDTO.class, _ -> { });
+        eventosDesdeCompactacion += JsonUtil.readLinesAbsolute(archivoJournal.toString(), EventoTiqueteDTO.class, _ -> { });
+    }
+
+    private void compactarSeguro() {
+        try {
+            compactar();
+        } catch (RuntimeException e) {
+            System.err.println("[ERROR] Falló la compactación del journal de tiquetes: " + e.getMessage());
+        }
+    }
+
+    private void compactar() {
+        synchronized (candadoCompactacion) {
+            synchronized (candadoJournal) {
+                if (eventosDesdeCompactacion == 0 && !Files.exists(archivoJournalCompactando)) {
+                    return;
+                }
+                try {
+                    rotarJournal();
+                } catch (IOException e) {
+                    throw new RuntimeException("Error al rotar el journal de tiquetes " + archivoJournal, e);
+                }
+                eventosDesdeCompactacion = 0;
+            }
+            // El journal rotado solo lo toca este hilo: se resume y se aplica fuera de candadoJournal
+            // para no bloquear las ventas mientras se reescribe el snapshot
+            CambiosJournal cambios = new CambiosJournal();
+            JsonUtil.readLinesAbsolute(archivoJournalCompactando.toString(), EventoTiqueteDTO.class, cambios::aplicar);
+            JsonUtil.rewriteStreamAbsolute(archivoAbsoluto, TiqueteDTO.class, cambios::aplicarA, cambios.nuevos());
+            cambios.advertirUsosDesconocidos();
+            try {
+                Files.deleteIfExists(archivoJournalCompactando);
+            } catch (IOException e) {
+                throw new RuntimeException("Error al eliminar el journal compactado " + archivoJournalCompactando, e);
+            }
+        }
+    }
+
+    // Debe llamarse con candadoJournal tomado
+    private void rotarJournal() throws IOException {
+        if (!Files.exists(archivoJournal)) {
+            return;
+        }
+        if (Files.exists(archivoJournalCompactando)) {
+            // Una compactación anterior no terminó: se conserva el orden agregando el journal activo al rotado
+            Files.write(archivoJournalCompactando, Files.readAllBytes(archivoJournal), StandardOpenOption.APPEND);
+            Files.delete(archivoJournal);
+        } else {
+            Files.move(archivoJournal, archivoJournalCompactando);
+        }
+    }
+
+    private void escribirSnapshot(List<TiqueteDTO> dtos) {
+        // Escritura atómica: un fallo a mitad deja el snapshot anterior intacto
+        JsonUtil.writeToFileAbsolute(archivoAbsoluto, dtos);
+    }
+
+    /**
+     * Resumen de una secuencia de eventos del journal: el último estado de cada código que tocan.
+     * Los DTOs que guarda vienen de eventos leídos del disco, así que son propios y se pueden modificar.
+     */
+    private static final class CambiosJournal {
+        private final Map<String, TiqueteDTO> vendidos = new LinkedHashMap<>();
+        private final Set<String> usados = new HashSet<>();
+        private final Set<String> eliminados = new HashSet<>();
+
+        void aplicar(EventoTiqueteDTO evento) {
+            if (evento.operacion == null || evento.codigo == null) {
+                System.err.println("[WARN] Evento de journal incompleto, se omite.");
+                return;
+            }
+            switch (evento.operacion) {
+                case EventoTiqueteDTO.VENTA -> {
+                    if (evento.tiquete != null) {
+                        vendidos.put(evento.codigo, evento.tiquete);
+                        usados.remove(evento.codigo);
+                        eliminados.remove(evento.codigo);
+                    }
+                }
+                case EventoTiqueteDTO.USO -> {
+                    TiqueteDTO vendido = vendidos.get(evento.codigo);
+                    if (vendido != null) {
+                        vendido.utilizado = true;
+                    } else if (!eliminados.contains(evento.codigo)) {
+                        usados.add(evento.codigo);
+                    }
+                }
+                case EventoTiqueteDTO.ELIMINACION -> {
+                    vendidos.remove(evento.codigo);
+                    usados.remove(evento.codigo);
+                    eliminados.add(evento.codigo);
+                }
+                default -> System.err.println("[WARN] Operación de journal desconocida: " + evento.operacion);
+            }
+        }
+
+        /** Devuelve el estado vigente de un tiquete del snapshot, o null si fue eliminado. */
+        TiqueteDTO aplicarA(TiqueteDTO dto) {
+            if (dto.codigo == null || eliminados.contains(dto.codigo)) {
+                return null;
+            }
+            TiqueteDTO vendido = vendidos.remove(dto.codigo);
+            if (vendido != null) {
+                return vendido; // Vuelto a registrar: reemplaza al del snapshot en su misma posición
+            }
+            if (usados.remove(dto.codigo)) {
+                dto.utilizado = true;
+            }
+            return dto;
+        }
+
+        /** Tiquetes vendidos que no estaban en el snapshot (los demás ya salieron en {@link #aplicarA}). */
+        java.util.Iterator<TiqueteDTO> nuevos() {
+            return vendidos.values().iterator();
+        }
+
+        void advertirUsosDesconocidos() {
+            for (String codigo : usados) {
+                System.err.println("[WARN] Uso registrado para tiquete desconocido: " + codigo);
+            }
+        }
+    }
 }
@@ -6,14 +6,21 @@ import dominio.empleado.*;
 import dominio.tiquete.*;
 import dominio.trabajo.Turno;
 import dominio.trabajo.LugarTrabajo;
+import dominio.trabajo.Taquilla;
+import dominio.trabajo.Tienda;
+import dominio.trabajo.Cafeteria;
+import dominio.util.CondicionClimatica;
 import java.util.Scanner;
 import java.util.Optional;
 import java.time.LocalDateTime;
 import java.time.LocalDate;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Consola específica para administradores del parque de diversiones.
@@ -36,6 +43,8 @@ public class ConsolaAdministrador {
     private ServicioGestionElementosParque servicioElementos;
     private ServicioGestionEmpleados servicioEmpleados;
     private ServicioVentaTiquetes servicioTiquetes;
+    // Suscriptor de esta consola al tablero operativo; se registra al cambiar el clima por primera vez
+    private TableroOperativo.SuscriptorTablero suscriptorTablero;
 
     /**
      * Constructor de la consola de administrador.
@@ -79,7 +88,10 @@ public class ConsolaAdministrador {
             System.out.println("12. Eliminar empleado");
             System.out.println("13. Asignar turno");
             System.out.println("14. Consultas avanzadas");
-            System.out.println("15. Volver al menú principal");
+            System.out.println("15. Planificar turnos automáticamente");
+            System.out.println("16. Reporte de cumplimiento de personal");
+            System.out.println("17. Cambiar clima del parque");
+            System.out.println("18. Volver al menú principal");
             
             String opcion = sc.nextLine();
             
@@ -128,6 +140,15 @@ public class ConsolaAdministrador {
                         consultasAvanzadas();
                         break;
                     case "15":
+                        planificarTurnos();
+                        break;
+                    case "16":
+                        reporteCumplimientoPersonal();
+                        break;
+                    case "17":
+                        cambiarClima();
+                        break;
+                    case "18":
                         continuar = false;
                         break;
                     default:
@@ -559,11 +580,21 @@ public class ConsolaAdministrador {
         System.out.print("Turno (APERTURA/CIERRE): ");
         Turno turno = Turno.valueOf(sc.nextLine());
         
-        System.out.print("Lugar trabajo (ID o vacío para ServicioGeneral): ");
+        System.out.print("Lugar trabajo (ID de atracción, Taquilla:/Tienda:/Cafeteria:<nombre> o vacío para ServicioGeneral): ");
         String idL = sc.nextLine();
         
         LugarTrabajo lugar = null;
-        if (!idL.isEmpty()) {
+        if (idL.contains(":")) {
+            lugar = servicioEmpleados.consultarLugarTrabajo(idL).orElse(null);
+            if (lugar == null) {
+                lugar = nuevoLugarTrabajo(idL);
+                if (lugar == null) {
+                    System.out.println("Tipo de lugar no reconocido.");
+                    return;
+                }
+                servicioEmpleados.registrarLugarTrabajo(lugar);
+            }
+        } else if (!idL.isEmpty()) {
             lugar = servicioElementos.consultarAtraccionPorId(idL).orElse(null);
         }
         
@@ -571,6 +602,102 @@ public class ConsolaAdministrador {
         System.out.println("Turno asignado correctamente.");
     }
 
+    /**
+     * Crea una taquilla, tienda o cafetería a partir de su clave, pidiendo su número de empleados.
+     *
+     * @param clave Clave del lugar, p. ej. "Taquilla:Norte".
+     * @return Lugar creado, o null si el tipo no se reconoce.
+     */
+    private LugarTrabajo nuevoLugarTrabajo(String clave) {
+        String tipo = clave.substring(0, clave.indexOf(':'));
+        String nombre = clave.substring(clave.indexOf(':') + 1);
+        if (!tipo.equals("Taquilla") && !tipo.equals("Tienda") && !tipo.equals("Cafeteria")) {
+            return null;
+        }
+        System.out.print(tipo.equals("Tienda") ? "Máximo de empleados: " : "Empleados requeridos: ");
+        int empleados = Integer.parseInt(sc.nextLine());
+        return switch (tipo) {
+            case "Taquilla" -> new Taquilla(nombre, empleados);
+            case "Tienda" -> new Tienda(nombre, empleados);
+            default -> new Cafeteria(nombre, empleados);
+        };
+    }
+
+    /**
+     * Calcula un plan de turnos para las atracciones en un rango de fechas y, si se confirma, lo aplica.
+     */
+    private void planificarTurnos() {
+        System.out.println("\n--- PLANIFICAR TURNOS ---");
+
+        System.out.print("Desde (YYYY-MM-DD): ");
+        LocalDate desde = LocalDate.parse(sc.nextLine());
+
+        System.out.print("Hasta (YYYY-MM-DD): ");
+        LocalDate hasta = LocalDate.parse(sc.nextLine());
+
+        // Atracciones y, sin repetir, las taquillas, tiendas y cafeterías que conoce el servicio de empleados
+        Map<String, LugarTrabajo> lugares = new LinkedHashMap<>();
+        for (Atraccion atraccion : servicioElementos.consultarTodasLasAtracciones()) {
+            lugares.put(atraccion.getClaveLugar(), atraccion);
+        }
+        for (LugarTrabajo lugar : servicioEmpleados.consultarLugaresTrabajo()) {
+            lugares.putIfAbsent(lugar.getClaveLugar(), lugar);
+        }
+        PlanTurnos plan = servicioEmpleados.planificarTurnos(desde, hasta, lugares.values(), Duration.ofSeconds(5));
+        System.out.println("Asignaciones propuestas: " + plan.getAsignaciones().size());
+        System.out.println("Turnos de lugar cubiertos: " + plan.getTurnosLugarCompletos() + "/" + plan.getTurnosLugar());
+        System.out.println("Puestos cubiertos: " + plan.getPuestosCubiertos() + "/" + plan.getPuestosRequeridos());
+        if (!plan.isBusquedaCompleta()) {
+            System.out.println("Se agotó el tiempo de búsqueda: el plan es parcial.");
+        }
+
+        System.out.print("¿Aplicar el plan? (s/n): ");
+        if ("s".equalsIgnoreCase(sc.nextLine().trim())) {
+            int creadas = servicioEmpleados.aplicarPlan(plan).size();
+            System.out.println("Turnos asignados: " + creadas);
+        }
+    }
+
+    /**
+     * Muestra, para una fecha, los lugares y turnos que no cumplen sus requisitos de personal y qué les falta.
+     */
+    private void reporteCumplimientoPersonal() {
+        System.out.println("\n--- REPORTE DE CUMPLIMIENTO DE PERSONAL ---");
+
+        System.out.print("Fecha (YYYY-MM-DD): ");
+        LocalDate fecha = LocalDate.parse(sc.nextLine());
+
+        // Las atracciones sin asignaciones también deben aparecer; taquillas, tiendas y cafeterías ya son conocidas
+        servicioElementos.consultarTodasLasAtracciones().forEach(servicioEmpleados::registrarLugarTrabajo);
+        ReporteCumplimientoPersonal reporte = servicioEmpleados.generarReporteCumplimiento(fecha);
+        System.out.println("Turnos de lugar que cumplen: " + (reporte.getEstados().size() - reporte.getIncumplimientos().size())
+                + "/" + reporte.getEstados().size());
+        for (EstadoCumplimientoPersonal estado : reporte.getIncumplimientos()) {
+            System.out.println("- " + estado);
+        }
+    }
+
+    /**
+     * Cambia el clima vigente del parque y muestra los elementos que dejan de operar o vuelven a hacerlo.
+     */
+    private void cambiarClima() {
+        System.out.println("\n--- CAMBIAR CLIMA DEL PARQUE ---");
+        TableroOperativo tablero = servicioElementos.consultarTableroOperativo();
+        System.out.println("Clima actual: " + tablero.getClimaActual());
+        System.out.print("Nuevo clima " + Arrays.toString(CondicionClimatica.values()) + ": ");
+        CondicionClimatica clima = CondicionClimatica.valueOf(sc.nextLine().trim().toUpperCase());
+
+        if (suscriptorTablero == null) {
+            suscriptorTablero = (anterior, actual, habilitados, deshabilitados) -> {
+                habilitados.forEach(e -> System.out.println("+ Puede operar: " + e.getNombre() + " (ID: " + e.getId() + ")"));
+                deshabilitados.forEach(e -> System.out.println("- No puede operar: " + e.getNombre() + " (ID: " + e.getId() + ")"));
+            };
+            tablero.suscribir(suscriptorTablero);
+        }
+        servicioElementos.cambiarClima(clima);
+        System.out.println("Elementos operando con " + clima + ": " + tablero.getElementosOperables().size());
+    }
+
     /**
      * Permite realizar consultas avanzadas.
      */
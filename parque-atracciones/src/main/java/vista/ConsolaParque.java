@@ -37,18 +37,52 @@ public class ConsolaParque {
         String espectaculosFileName = "atracciones.json"; // File for espectaculos
         String empleadosFileName = "empleados.json";
         String tiquetesFileName = "tiquetes.json";
+        String tiquetesBinarioFileName = "tiquetes.bin";
+        String elementosKvDirName = "elementos.kv"; // Directory for the key-value store segments
+        String asignacionesDirName = "asignaciones"; // Directory with one shift-assignment file per day
+        // -Dparque.tiquetes.almacen=binario usa el almacén binario mapeado en memoria; por defecto JSON con journal
+        String almacenTiquetes = System.getProperty("parque.tiquetes.almacen", "json");
+        // -Dparque.elementos.almacen=kv usa el almacén clave-valor con log; por defecto archivos JSON
+        String almacenElementos = System.getProperty("parque.elementos.almacen", "json");
+        // -Dparque.elementos.recarga=true recarga los archivos de elementos cuando se editan fuera de la aplicación
+        boolean recargaElementos = Boolean.getBoolean("parque.elementos.recarga");
+        ElementoParqueRepositoryJson repoElementosJson = null;
+        ElementoParqueRepositoryKV repoElementosKV = null;
+        dominio.tiquete.TiqueteRepository repoTiquetes = null;
+        ServicioVentaTiquetes servicioTiquetes = null;
 
         try {
             // Initialize repositories
-            ElementoParqueRepositoryJson repoElementos = new ElementoParqueRepositoryJson(elementosDirName, espectaculosFileName);
+            dominio.elementoparque.ElementoParqueRepository repoElementos;
+            if ("kv".equalsIgnoreCase(almacenElementos)) {
+                repoElementosKV = new ElementoParqueRepositoryKV(elementosKvDirName);
+                repoElementos = repoElementosKV;
+            } else {
+                repoElementosJson = new ElementoParqueRepositoryJson(elementosDirName, espectaculosFileName);
+                if (recargaElementos) {
+                    repoElementosJson.iniciarRecargaEnCaliente();
+                }
+                repoElementos = repoElementosJson;
+            }
             EmpleadoRepositoryJson repoEmpleados = new EmpleadoRepositoryJson(empleadosFileName);
-            TiqueteRepositoryJson repoTiquetes = new TiqueteRepositoryJson(tiquetesFileName);
+            repoTiquetes = "binario".equalsIgnoreCase(almacenTiquetes)
+                    ? new TiqueteRepositoryBinario(tiquetesBinarioFileName)
+                    : new TiqueteRepositoryJson(tiquetesFileName, true); // Ventas y usos en journal
 
             // Initialize services
             ServicioGestionElementosParque servicioElementos = new ServicioGestionElementosParque(repoElementos);
-            ServicioGestionEmpleados servicioEmpleados = new ServicioGestionEmpleados(repoEmpleados);
-            ServicioVentaTiquetes servicioTiquetes = new ServicioVentaTiquetes(repoTiquetes, id -> servicioElementos.consultarAtraccionPorId(id).orElse(null));
+            // Una sola tabla de atracciones compartida por todas las entradas individuales cargadas
+            java.util.Map<String, dominio.elementoparque.Atraccion> tablaAtracciones = servicioElementos.consultarTablaAtracciones();
+            // Las asignaciones de cada día se leen cuando se consultan; las atracciones se resuelven por ID contra
+            // el repositorio vigente (puede recargarse en caliente) y los demás lugares se guardan con las asignaciones
+            ServicioGestionEmpleados servicioEmpleados = new ServicioGestionEmpleados(repoEmpleados,
+                    new AsignacionTurnoRepositoryJson(asignacionesDirName),
+                    clave -> clave.startsWith("Atraccion:")
+                            ? servicioElementos.consultarAtraccionPorId(clave.substring("Atraccion:".length())).orElse(null)
+                            : null);
             ServicioGestionClientes servicioClientes = new ServicioGestionClientes();
+            servicioTiquetes = new ServicioVentaTiquetes(repoTiquetes, tablaAtracciones::get,
+                    new ResolutorCompradores(servicioClientes, servicioEmpleados));
             System.out.println("Bienvenido al sistema del Parque de Diversiones");
 
             // Main Loop
@@ -93,6 +127,18 @@ public class ConsolaParque {
             e.printStackTrace(); // Print stack trace for debugging
             System.out.println("El sistema no pudo iniciar correctamente. Saliendo.");
         } finally {
+            if (repoElementosJson != null) {
+                repoElementosJson.detenerRecargaEnCaliente();
+            }
+            if (repoElementosKV != null) {
+                repoElementosKV.cerrar(); // Detiene la compactación y sincroniza el segmento activo
+            }
+            if (servicioTiquetes != null) {
+                servicioTiquetes.cerrar(); // Escribe las ventas que queden en la cola
+            }
+            if (repoTiquetes != null) {
+                repoTiquetes.cerrar(); // Compacta el journal pendiente o sincroniza el almacén binario
+            }
             sc.close(); // Close scanner in finally block
         }
     }
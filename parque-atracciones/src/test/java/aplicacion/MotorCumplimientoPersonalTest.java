@@ -0,0 +1,189 @@
+package aplicacion;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import dominio.elementoparque.AtraccionCultural;
+import dominio.empleado.Cajero;
+import dominio.empleado.Capacitacion;
+import dominio.empleado.OperarioAtraccion;
+import dominio.empleado.ServicioGeneral;
+import dominio.trabajo.AsignacionTurno;
+import dominio.trabajo.IndiceAsignaciones;
+import dominio.trabajo.LugarTrabajo;
+import dominio.trabajo.Taquilla;
+import dominio.trabajo.Tienda;
+import dominio.trabajo.Turno;
+import infraestructura.persistencia.EmpleadoRepositoryJson;
+
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Pruebas del motor de cumplimiento de requisitos de personal.
+ */
+public class MotorCumplimientoPersonalTest {
+
+    private static final LocalDate FECHA = LocalDate.of(2026, 9, 1);
+
+    private static Cajero cajero(String id) {
+        return new Cajero(id, "Cajero " + id, id + "@parque.com", "555", id, "pass", 1, "Caja");
+    }
+
+    private static OperarioAtraccion operario(String id) {
+        OperarioAtraccion operario = new OperarioAtraccion(id, "Operario " + id, id + "@parque.com", "555", id, "pass",
+                true, List.of());
+        operario.agregarCapacitacion(Capacitacion.PRIMEROS_AUXILIOS);
+        operario.agregarCapacitacion(Capacitacion.ATENCION_CLIENTE_GENERAL);
+        return operario;
+    }
+
+    // Atracción cuyos requisitos se pueden editar sobre la misma instancia
+    private static class AtraccionEditable extends AtraccionCultural {
+        AtraccionEditable(String id) {
+            super(id, "Museo " + id, "Zona 1", 20, 1, 0, List.of());
+        }
+
+        void exigir(Set<Capacitacion> capacitaciones) {
+            setCapacitacionesRequeridas(capacitaciones);
+        }
+    }
+
+    private static EstadoCumplimientoPersonal estadoDe(ReporteCumplimientoPersonal reporte, LugarTrabajo lugar,
+                                                       Turno turno) {
+        return reporte.getEstados().stream()
+                .filter(e -> e.getLugarTrabajo() == lugar && e.getTurno() == turno)
+                .findFirst().orElseThrow();
+    }
+
+    /**
+     * El reporte detalla lo que falta y se actualiza solo en la celda de la asignación que cambia.
+     */
+    @Test
+    void testReporteIncremental() {
+        IndiceAsignaciones indice = new IndiceAsignaciones();
+        MotorCumplimientoPersonal motor = new MotorCumplimientoPersonal(indice);
+        Taquilla taquilla = new Taquilla("Taq", 2);
+        Tienda tienda = new Tienda("Tienda", 3);
+        List<LugarTrabajo> lugares = List.of(taquilla, tienda);
+
+        ReporteCumplimientoPersonal reporte = motor.evaluar(FECHA, lugares);
+        assertEquals(4, reporte.getEstados().size());
+        assertEquals(4, reporte.getIncumplimientos().size());
+        EstadoCumplimientoPersonal vacia = reporte.getEstados().get(0);
+        assertEquals(taquilla, vacia.getLugarTrabajo());
+        assertEquals(Turno.APERTURA, vacia.getTurno());
+        assertEquals(2, vacia.getEmpleadosFaltantes());
+        assertTrue(vacia.isSinEmpleadoApto());
+        assertTrue(vacia.isFaltaCajero());
+        assertEquals(taquilla.getCapacitacionesRequeridas(), vacia.getCapacitacionesFaltantes());
+        EstadoCumplimientoPersonal cierreTaquilla = reporte.getEstados().get(1);
+
+        ServicioGeneral general = new ServicioGeneral("MC-G", "Sofia", "s@parque.com", "555", "s", "pass");
+        AsignacionTurno conCajero = new AsignacionTurno("mc-1", cajero("MC-C"), taquilla, FECHA, Turno.APERTURA);
+        AsignacionTurno noApto = new AsignacionTurno("mc-2", general, taquilla, FECHA, Turno.APERTURA);
+        for (AsignacionTurno a : List.of(conCajero, noApto)) {
+            indice.agregar(a);
+            motor.asignacionCambiada(a);
+        }
+
+        reporte = motor.evaluar(FECHA, lugares);
+        EstadoCumplimientoPersonal apertura = reporte.getEstados().get(0);
+        assertTrue(apertura.cumple());
+        assertEquals(1, apertura.getEmpleadosAptos());
+        assertEquals(List.of(general), apertura.getEmpleadosNoAptos());
+        assertEquals(Set.of(Capacitacion.MANEJO_CAJA), apertura.getCapacitacionesFaltantes()); // ya tiene atención al cliente
+        assertSame(cierreTaquilla, reporte.getEstados().get(1)); // no se recalculó
+        assertEquals(3, reporte.getIncumplimientos().size());
+
+        indice.quitar(conCajero);
+        motor.asignacionCambiada(conCajero);
+        apertura = motor.evaluar(taquilla, FECHA, Turno.APERTURA);
+        assertFalse(apertura.cumple());
+        assertEquals(1, apertura.getEmpleadosFaltantes());
+        assertTrue(apertura.isFaltaCajero());
+    }
+
+    /**
+     * El reporte del servicio coincide con la verificación por lugar y refleja las nuevas asignaciones.
+     */
+    @Test
+    void testServicioGeneraReporte() {
+        ServicioGestionEmpleados servicio = new ServicioGestionEmpleados(new EmpleadoRepositoryJson("empleados"));
+        String id = "MC-S" + UUID.randomUUID().toString().substring(0, 5);
+        try {
+            servicio.registrarEmpleado(cajero(id));
+            Taquilla taquilla = new Taquilla("Taquilla Reporte", 1);
+            servicio.registrarLugarTrabajo(taquilla);
+
+            ReporteCumplimientoPersonal antes = servicio.generarReporteCumplimiento(FECHA, List.of(taquilla));
+            assertFalse(antes.isCumpleTodo());
+            servicio.asignarTurno(id, taquilla, FECHA, Turno.CIERRE);
+
+            ReporteCumplimientoPersonal despues = servicio.generarReporteCumplimiento(FECHA);
+            assertTrue(despues.getEstados().stream().anyMatch(e -> e.getLugarTrabajo() == taquilla));
+            for (EstadoCumplimientoPersonal e : despues.getEstados()) {
+                if (e.getLugarTrabajo() == taquilla) {
+                    assertEquals(e.getTurno() == Turno.CIERRE, e.cumple());
+                    assertEquals(e.cumple(), servicio.verificarRequisitosPersonalLugar(taquilla, FECHA, e.getTurno()));
+                }
+            }
+        } finally {
+            try { servicio.eliminarEmpleado(id); } catch (Exception ignored) {}
+        }
+    }
+
+    /**
+     * Editar los requisitos de una atracción sobre la misma instancia cambia el reporte siguiente.
+     */
+    @Test
+    void testEditarRequisitosRecalculaElReporte() {
+        ServicioGestionEmpleados servicio = new ServicioGestionEmpleados(new EmpleadoRepositoryJson("empleados"));
+        String sufijo = UUID.randomUUID().toString().substring(0, 5);
+        String id = "MC-R" + sufijo;
+        AtraccionEditable atraccion = new AtraccionEditable("MC-A" + sufijo);
+        try {
+            servicio.registrarEmpleado(operario(id));
+            servicio.registrarLugarTrabajo(atraccion);
+            servicio.asignarTurno(id, atraccion, FECHA, Turno.APERTURA);
+            assertTrue(estadoDe(servicio.generarReporteCumplimiento(FECHA), atraccion, Turno.APERTURA).cumple());
+
+            atraccion.exigir(EnumSet.of(Capacitacion.PRIMEROS_AUXILIOS, Capacitacion.MANEJO_CAJA));
+            EstadoCumplimientoPersonal editado =
+                    estadoDe(servicio.generarReporteCumplimiento(FECHA), atraccion, Turno.APERTURA);
+            assertFalse(editado.cumple());
+            assertEquals(Set.of(Capacitacion.MANEJO_CAJA), editado.getCapacitacionesFaltantes());
+        } finally {
+            try { servicio.eliminarEmpleado(id); } catch (Exception ignored) {}
+        }
+    }
+
+    /**
+     * Eliminar un empleado quita sus asignaciones y deja de contarlo en el reporte.
+     */
+    @Test
+    void testEliminarEmpleadoQuitaSusAsignaciones() {
+        ServicioGestionEmpleados servicio = new ServicioGestionEmpleados(new EmpleadoRepositoryJson("empleados"));
+        String id = "MC-E" + UUID.randomUUID().toString().substring(0, 5);
+        Taquilla taquilla = new Taquilla("Taquilla Baja", 1);
+        try {
+            servicio.registrarEmpleado(cajero(id));
+            servicio.registrarLugarTrabajo(taquilla);
+            servicio.asignarTurno(id, taquilla, FECHA, Turno.CIERRE);
+            assertTrue(estadoDe(servicio.generarReporteCumplimiento(FECHA), taquilla, Turno.CIERRE).cumple());
+
+            servicio.eliminarEmpleado(id);
+            assertTrue(servicio.consultarAsignacionesPorFecha(FECHA).stream()
+                    .noneMatch(a -> a.getEmpleado().getIdentificacion().equals(id)));
+            EstadoCumplimientoPersonal despues =
+                    estadoDe(servicio.generarReporteCumplimiento(FECHA), taquilla, Turno.CIERRE);
+            assertEquals(0, despues.getEmpleadosAsignados());
+            assertFalse(despues.cumple());
+        } finally {
+            try { servicio.eliminarEmpleado(id); } catch (Exception ignored) {}
+        }
+    }
+}
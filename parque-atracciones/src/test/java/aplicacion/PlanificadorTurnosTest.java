@@ -0,0 +1,184 @@
+package aplicacion;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import dominio.empleado.Cajero;
+import dominio.empleado.Capacitacion;
+import dominio.empleado.Cocinero;
+import dominio.empleado.Empleado;
+import dominio.trabajo.AsignacionTurno;
+import dominio.trabajo.Cafeteria;
+import dominio.trabajo.LugarTrabajo;
+import dominio.trabajo.Taquilla;
+import dominio.trabajo.Tienda;
+import dominio.trabajo.Turno;
+import infraestructura.persistencia.EmpleadoRepositoryJson;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Pruebas del planificador automático de turnos.
+ */
+public class PlanificadorTurnosTest {
+
+    private static final LocalDate INICIO = LocalDate.of(2026, 8, 1);
+
+    private static Cajero cajero(String id) {
+        return new Cajero(id, "Cajero " + id, id + "@parque.com", "555", id, "pass", 1, "Caja");
+    }
+
+    private static Cocinero cocinero(String id) {
+        return new Cocinero(id, "Cocinero " + id, id + "@parque.com", "555", id, "pass", "General");
+    }
+
+    /**
+     * Comprueba las reglas del planificador sobre un plan: empleados aceptados por el lugar, un turno por
+     * empleado y, en los turnos de lugar completos, el mínimo de personal y el cajero.
+     */
+    private static void verificarPlan(PlanTurnos plan, List<LugarTrabajo> lugares, List<AsignacionTurno> existentes) {
+        Map<String, List<Empleado>> porTurnoLugar = new HashMap<>();
+        Set<String> empleadoTurno = new HashSet<>();
+        List<AsignacionTurno> todas = new ArrayList<>(existentes);
+        todas.addAll(plan.getAsignaciones());
+        for (AsignacionTurno a : todas) {
+            assertTrue(empleadoTurno.add(a.getEmpleado().getIdentificacion() + "|" + a.getFecha() + "|" + a.getTurno()),
+                    "Empleado con dos puestos en el mismo turno: " + a);
+            if (a.getLugarTrabajo() != null) {
+                assertTrue(a.getLugarTrabajo().puedeAsignarEmpleado(a.getEmpleado()), "Empleado no aceptado: " + a);
+                porTurnoLugar.computeIfAbsent(a.getLugarTrabajo().getClaveLugar() + "|" + a.getFecha() + "|" + a.getTurno(),
+                        _ -> new ArrayList<>()).add(a.getEmpleado());
+            }
+        }
+        int completos = 0;
+        for (LocalDate f = plan.getDesde(); !f.isAfter(plan.getHasta()); f = f.plusDays(1)) {
+            for (Turno t : Turno.values()) {
+                for (LugarTrabajo l : lugares) {
+                    List<Empleado> asignados = porTurnoLugar.getOrDefault(l.getClaveLugar() + "|" + f + "|" + t, List.of());
+                    boolean cumple = asignados.size() >= Math.max(1, ServicioGestionEmpleados.empleadosNecesarios(l))
+                            && (!ServicioGestionEmpleados.requiereCajero(l)
+                                || asignados.stream().anyMatch(ServicioGestionEmpleados::esCajeroCapacitado));
+                    if (cumple) completos++;
+                }
+            }
+        }
+        assertEquals(completos, plan.getTurnosLugarCompletos());
+    }
+
+    /**
+     * Si la cafetería se cubre primero con el único cajero, un camino aumentante se lo cede a la taquilla.
+     */
+    @Test
+    void testReubicaEmpleadosParaCubrirCajero() {
+        Cajero cajero = cajero("PT-A");
+        cajero.agregarCapacitacion(Capacitacion.MANIPULACION_ALIMENTOS_BASICO);
+        Cocinero cocinero = cocinero("PT-K");
+        List<LugarTrabajo> lugares = List.of(new Cafeteria("Cafe", 1), new Taquilla("Taq", 1));
+
+        PlanTurnos plan = new PlanificadorTurnos(List.of(cajero, cocinero), lugares)
+                .planificar(INICIO, INICIO, Duration.ofSeconds(5), (f, t) -> List.of());
+
+        assertEquals(1.0, plan.getPuntaje());
+        assertEquals(4, plan.getAsignaciones().size());
+        assertTrue(plan.isBusquedaCompleta());
+        verificarPlan(plan, lugares, List.of());
+    }
+
+    /**
+     * Las asignaciones existentes ocupan a sus empleados y cuentan como puestos cubiertos.
+     */
+    @Test
+    void testRespetaAsignacionesExistentes() {
+        Cajero a = cajero("PT-1");
+        Cajero b = cajero("PT-2");
+        Taquilla taquilla = new Taquilla("Taq", 1);
+        Tienda tienda = new Tienda("Tienda", 3);
+        List<LugarTrabajo> lugares = List.of(taquilla, tienda);
+        AsignacionTurno previa = new AsignacionTurno("previa", a, taquilla, INICIO, Turno.APERTURA);
+
+        PlanTurnos plan = new PlanificadorTurnos(List.of(a, b), lugares).planificar(INICIO, INICIO, Duration.ofSeconds(5),
+                (f, t) -> t == Turno.APERTURA ? List.of(previa) : List.of());
+
+        assertEquals(1.0, plan.getPuntaje());
+        assertEquals(3, plan.getAsignaciones().size()); // tienda en apertura; taquilla y tienda en cierre
+        assertTrue(plan.getAsignaciones().stream().noneMatch(x -> x.getTurno() == Turno.APERTURA && x.getEmpleado() == a));
+        verificarPlan(plan, lugares, List.of(previa));
+    }
+
+    /**
+     * Un mes con cientos de empleados se planifica completo dentro del presupuesto; con un presupuesto
+     * agotado se devuelve un plan parcial que sigue siendo válido.
+     */
+    @Test
+    void testPlanificaUnMesYRespetaElPresupuesto() {
+        List<Empleado> empleados = new ArrayList<>();
+        for (int i = 0; i < 150; i++) empleados.add(cajero("PT-C" + i));
+        for (int i = 0; i < 75; i++) empleados.add(cocinero("PT-K" + i));
+        for (int i = 0; i < 75; i++) {
+            Cajero c = cajero("PT-CA" + i);
+            c.agregarCapacitacion(Capacitacion.MANIPULACION_ALIMENTOS_BASICO);
+            empleados.add(c);
+        }
+        List<LugarTrabajo> lugares = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            lugares.add(new Taquilla("Taquilla " + i, 2));
+            lugares.add(new Cafeteria("Cafeteria " + i, 3));
+            lugares.add(new Tienda("Tienda " + i, 2));
+        }
+        LocalDate fin = INICIO.plusDays(29);
+
+        PlanTurnos plan = new PlanificadorTurnos(empleados, lugares)
+                .planificar(INICIO, fin, Duration.ofSeconds(20), (f, t) -> List.of());
+        assertTrue(plan.isBusquedaCompleta());
+        assertEquals(1.0, plan.getPuntaje());
+        assertEquals(30 * 2 * 60, plan.getTurnosLugar());
+        assertEquals(plan.getPuestosRequeridos(), plan.getAsignaciones().size());
+        verificarPlan(plan, lugares, List.of());
+
+        PlanTurnos parcial = new PlanificadorTurnos(empleados, lugares)
+                .planificar(INICIO, fin, Duration.ofNanos(1), (f, t) -> List.of());
+        assertFalse(parcial.isBusquedaCompleta());
+        assertTrue(parcial.getPuntaje() < 1.0);
+        verificarPlan(parcial, lugares, List.of());
+    }
+
+    /**
+     * El servicio planifica con sus empleados y aplica el plan; los lugares quedan cumpliendo requisitos.
+     */
+    @Test
+    void testServicioPlanificaYAplica() {
+        EmpleadoRepositoryJson repo = new EmpleadoRepositoryJson("empleados");
+        ServicioGestionEmpleados servicio = new ServicioGestionEmpleados(repo);
+        String sufijo = UUID.randomUUID().toString().substring(0, 5);
+        List<String> ids = List.of("PT-S1" + sufijo, "PT-S2" + sufijo);
+        try {
+            for (String id : ids) {
+                servicio.registrarEmpleado(cajero(id));
+            }
+            Taquilla taquilla = new Taquilla("Taquilla Planificada", 1);
+            PlanTurnos plan = servicio.planificarTurnos(INICIO, INICIO.plusDays(1), List.of(taquilla), Duration.ofSeconds(5));
+            assertEquals(1.0, plan.getPuntaje());
+            assertEquals(4, servicio.aplicarPlan(plan).size());
+            for (LocalDate f = INICIO; !f.isAfter(INICIO.plusDays(1)); f = f.plusDays(1)) {
+                for (Turno t : Turno.values()) {
+                    assertTrue(servicio.verificarRequisitosPersonalLugar(taquilla, f, t));
+                }
+            }
+            // Replanificar el mismo rango no propone nada nuevo
+            assertTrue(servicio.planificarTurnos(INICIO, INICIO.plusDays(1), List.of(taquilla), Duration.ofSeconds(5))
+                    .getAsignaciones().isEmpty());
+        } finally {
+            for (String id : ids) {
+                try { servicio.eliminarEmpleado(id); } catch (Exception ignored) {}
+            }
+        }
+    }
+}
@@ -733,4 +733,612 @@ class ServicioGestionElementosParqueTest {
             servicio.definirTemporadaElemento("X1", LocalDateTime.now(), LocalDateTime.now().plusDays(1))
         );
     }
+
+    /**
+     * Prueba: consultarTablaAtracciones devuelve una tabla inmutable por ID con las mismas instancias
+     * del repositorio, apta para compartir entre los tiquetes cargados.
+     */
+    @Test
+    void testConsultarTablaAtraccionesCompartida() {
+        AtraccionMecanica creada = servicio.crearAtraccionMecanica("AMT", "Tornado", "Zona T", 10, 1,
+                NivelExclusividad.FAMILIAR, NivelRiesgo.MEDIO, 1.0, 2.0, 30, 120, List.of(), List.of(), List.of(),
+                Capacitacion.OPERACION_ATRACCION_RIESGO_MEDIO);
+        Map<String, Atraccion> tabla = servicio.consultarTablaAtracciones();
+        assertSame(creada, tabla.get("AMT"));
+        assertNull(tabla.get("NO_EXISTE"));
+        assertThrows(UnsupportedOperationException.class, () -> tabla.put("X", creada));
+    }
+
+    /**
+     * Prueba: el repositorio JSON responde búsquedas por ID y por nombre (sin distinguir mayúsculas)
+     * desde sus índices, y los mantiene al guardar, renombrar y eliminar.
+     */
+    @Test
+    void testRepositorioJsonIndicesPorIdYNombre() throws Exception {
+        String directorio = "elementos_indice_test";
+        String archivoEspectaculos = "espectaculos_indice_test.json";
+        try {
+            infraestructura.persistencia.ElementoParqueRepositoryJson repoJson =
+                    new infraestructura.persistencia.ElementoParqueRepositoryJson(directorio, archivoEspectaculos);
+            ServicioGestionElementosParque servicioJson = new ServicioGestionElementosParque(repoJson);
+            AtraccionMecanica mecanica = servicioJson.crearAtraccionMecanica("IDX1", "Ciclón", "Zona I", 10, 1,
+                    NivelExclusividad.FAMILIAR, NivelRiesgo.MEDIO, 1.0, 2.0, 30, 120, List.of(), List.of(), List.of(),
+                    Capacitacion.OPERACION_ATRACCION_RIESGO_MEDIO);
+
+            assertSame(mecanica, repoJson.findAtraccionById("IDX1").orElseThrow());
+            assertSame(mecanica, repoJson.findAtraccionByNombre("CICLÓN").orElseThrow());
+            assertSame(mecanica, repoJson.findByNombre("ciclón").orElseThrow());
+            assertTrue(repoJson.findEspectaculoById("IDX1").isEmpty());
+
+            mecanica.setNombre("Huracán");
+            repoJson.save(mecanica);
+            assertTrue(repoJson.findAtraccionByNombre("Ciclón").isEmpty());
+            assertSame(mecanica, repoJson.findAtraccionByNombre("huracán").orElseThrow());
+
+            repoJson.deleteById("IDX1");
+            assertTrue(repoJson.findById("IDX1").isEmpty());
+            assertTrue(repoJson.findByNombre("Huracán").isEmpty());
+        } finally {
+            java.nio.file.Files.deleteIfExists(java.nio.file.Paths.get(infraestructura.persistencia.JsonUtil.getDataFilePath(directorio, "mecanicas.json")));
+            java.nio.file.Files.deleteIfExists(java.nio.file.Paths.get(infraestructura.persistencia.JsonUtil.getDataFilePath(directorio, "culturales.json")));
+            java.nio.file.Files.deleteIfExists(java.nio.file.Paths.get(infraestructura.persistencia.JsonUtil.getDataFilePath(directorio)));
+            java.nio.file.Files.deleteIfExists(java.nio.file.Paths.get(infraestructura.persistencia.JsonUtil.getDataFilePath(archivoEspectaculos)));
+        }
+    }
+
+    /**
+     * Prueba: el repositorio JSON de elementos con mapa de identidad entrega la misma instancia en
+     * lecturas sucesivas, tanto de la entidad guardada como de las recién cargadas del archivo.
+     */
+    @Test
+    void testRepositorioJsonMapaDeIdentidad() throws Exception {
+        java.nio.file.Path archivo = java.nio.file.Paths.get(infraestructura.persistencia.JsonUtil.getDataFilePath("elementos_parque.json"));
+        byte[] original = java.nio.file.Files.exists(archivo) ? java.nio.file.Files.readAllBytes(archivo) : null;
+        try {
+            java.nio.file.Files.deleteIfExists(archivo);
+            infraestructura.persistencia.JsonElementoParqueRepository repoJson = new infraestructura.persistencia.JsonElementoParqueRepository();
+            Espectaculo espectaculo = new Espectaculo("EIM1", "Desfile", "Plaza central", 200, "Desfile nocturno",
+                    List.of(new RangoFechaHora(LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(1).plusHours(2))), List.of());
+            repoJson.save(espectaculo);
+            assertSame(espectaculo, repoJson.findById("EIM1").orElseThrow());
+            assertSame(espectaculo, repoJson.findAllEspectaculos().get(0));
+
+            infraestructura.persistencia.JsonElementoParqueRepository recargado = new infraestructura.persistencia.JsonElementoParqueRepository();
+            Espectaculo leido = recargado.findEspectaculoById("EIM1").orElseThrow();
+            assertNotSame(espectaculo, leido);
+            assertSame(leido, recargado.findById("EIM1").orElseThrow());
+            assertSame(leido, recargado.findEspectaculoByNombre("Desfile").orElseThrow());
+
+            recargado.deleteById("EIM1");
+            assertTrue(recargado.findById("EIM1").isEmpty());
+            assertTrue(recargado.findAll().isEmpty());
+        } finally {
+            if (original != null) {
+                java.nio.file.Files.write(archivo, original);
+            } else {
+                java.nio.file.Files.deleteIfExists(archivo);
+            }
+        }
+    }
+
+    /**
+     * Prueba: ejecutarEnLote aplica varias modificaciones en memoria, escribe los archivos una sola
+     * vez al terminar y descarta todo el lote si una operación falla.
+     */
+    @Test
+    void testEjecutarEnLotePersisteAlFinalYDescartaSiFalla() throws Exception {
+        String directorio = "elementos_lote_test";
+        String archivoEspectaculos = "espectaculos_lote_test.json";
+        java.nio.file.Path mecanicas = java.nio.file.Paths.get(infraestructura.persistencia.JsonUtil.getDataFilePath(directorio, "mecanicas.json"));
+        try {
+            ServicioGestionElementosParque servicioJson = new ServicioGestionElementosParque(
+                    new infraestructura.persistencia.ElementoParqueRepositoryJson(directorio, archivoEspectaculos));
+            LocalDateTime inicio = LocalDateTime.of(2025, 6, 1, 0, 0);
+            LocalDateTime fin = LocalDateTime.of(2025, 8, 31, 23, 59);
+            servicioJson.ejecutarEnLote(() -> {
+                for (String id : List.of("LT1", "LT2")) {
+                    servicioJson.crearAtraccionMecanica(id, "Lote " + id, "Zona L", 10, 1,
+                            NivelExclusividad.FAMILIAR, NivelRiesgo.MEDIO, 1.0, 2.0, 30, 120, List.of(), List.of(), List.of(),
+                            Capacitacion.OPERACION_ATRACCION_RIESGO_MEDIO);
+                    servicioJson.definirTemporadaElemento(id, inicio, fin);
+                }
+                assertFalse(java.nio.file.Files.exists(mecanicas), "No debe escribirse nada antes de confirmar el lote");
+            });
+            ServicioGestionElementosParque recargado = new ServicioGestionElementosParque(
+                    new infraestructura.persistencia.ElementoParqueRepositoryJson(directorio, archivoEspectaculos));
+            assertEquals(2, recargado.consultarAtraccionesMecanicas().size());
+
+            assertThrows(AtraccionNoEncontradaException.class, () -> servicioJson.ejecutarEnLote(() -> {
+                servicioJson.eliminarAtraccion("LT1");
+                servicioJson.definirTemporadaElemento("NO_EXISTE", inicio, fin);
+            }));
+            assertTrue(servicioJson.consultarAtraccionPorId("LT1").isPresent());
+            assertEquals(2, new infraestructura.persistencia.ElementoParqueRepositoryJson(directorio, archivoEspectaculos)
+                    .findAllMecanicas().size());
+        } finally {
+            java.nio.file.Files.deleteIfExists(mecanicas);
+            java.nio.file.Files.deleteIfExists(java.nio.file.Paths.get(infraestructura.persistencia.JsonUtil.getDataFilePath(directorio, "culturales.json")));
+            java.nio.file.Files.deleteIfExists(java.nio.file.Paths.get(infraestructura.persistencia.JsonUtil.getDataFilePath(directorio)));
+            java.nio.file.Files.deleteIfExists(java.nio.file.Paths.get(infraestructura.persistencia.JsonUtil.getDataFilePath(archivoEspectaculos)));
+        }
+    }
+
+    /**
+     * Prueba: al descartar un lote se deshace una edición de temporada hecha sobre la misma instancia
+     * y guardada dentro del lote, tanto en el repositorio JSON como en el de clave-valor.
+     */
+    @Test
+    void testEjecutarEnLoteDescartaEdicionDeTemporada() throws Exception {
+        String directorio = "elementos_lote_temporada_test";
+        String archivoEspectaculos = "espectaculos_lote_temporada_test.json";
+        String directorioKV = "elementos_lote_temporada_test.kv";
+        java.nio.file.Path rutaKV = java.nio.file.Paths.get(infraestructura.persistencia.JsonUtil.getDataFilePath(directorioKV));
+        infraestructura.persistencia.ElementoParqueRepositoryKV repoKV = null;
+        try {
+            repoKV = new infraestructura.persistencia.ElementoParqueRepositoryKV(directorioKV, 1024, null);
+            for (ElementoParqueRepository repositorio : List.of(
+                    new infraestructura.persistencia.ElementoParqueRepositoryJson(directorio, archivoEspectaculos), repoKV)) {
+                ServicioGestionElementosParque servicioLote = new ServicioGestionElementosParque(repositorio);
+                servicioLote.crearAtraccionCultural("LTT1", "Museo", "Zona T", 20, 1, 0, List.of(), NivelExclusividad.FAMILIAR);
+                LocalDateTime inicio = LocalDateTime.of(2025, 6, 1, 0, 0);
+
+                assertThrows(AtraccionNoEncontradaException.class, () -> servicioLote.ejecutarEnLote(() -> {
+                    servicioLote.definirTemporadaElemento("LTT1", inicio, inicio.plusMonths(3));
+                    servicioLote.definirTemporadaElemento("NO_EXISTE", inicio, inicio.plusMonths(3));
+                }));
+                Atraccion restaurada = servicioLote.consultarAtraccionPorId("LTT1").orElseThrow();
+                assertFalse(restaurada.isEsDeTemporada());
+                assertNull(restaurada.getFechaInicioTemporada());
+                assertTrue(servicioLote.consultarElementosDisponiblesEn(inicio.minusYears(1)).contains(restaurada));
+            }
+        } finally {
+            repoKV.cerrar();
+            try (java.util.stream.Stream<java.nio.file.Path> archivos = java.nio.file.Files.list(rutaKV)) {
+                for (java.nio.file.Path archivo : archivos.toList()) {
+                    java.nio.file.Files.deleteIfExists(archivo);
+                }
+            }
+            java.nio.file.Files.deleteIfExists(rutaKV);
+            java.nio.file.Files.deleteIfExists(java.nio.file.Paths.get(infraestructura.persistencia.JsonUtil.getDataFilePath(directorio, "mecanicas.json")));
+            java.nio.file.Files.deleteIfExists(java.nio.file.Paths.get(infraestructura.persistencia.JsonUtil.getDataFilePath(directorio, "culturales.json")));
+            java.nio.file.Files.deleteIfExists(java.nio.file.Paths.get(infraestructura.persistencia.JsonUtil.getDataFilePath(directorio)));
+            java.nio.file.Files.deleteIfExists(java.nio.file.Paths.get(infraestructura.persistencia.JsonUtil.getDataFilePath(archivoEspectaculos)));
+        }
+    }
+
+    /**
+     * Prueba: si la confirmación de un lote no puede escribir, la unidad de trabajo se cierra igual.
+     * El repositorio JSON conserva el lote y escribe el archivo pendiente con la siguiente modificación;
+     * el de clave-valor descarta el lote entero.
+     */
+    @Test
+    void testConfirmacionFallidaCierraLaUnidadDeTrabajo() throws Exception {
+        String directorio = "elementos_confirmacion_fallida_test";
+        String archivoEspectaculos = "espectaculos_confirmacion_fallida_test.json";
+        String directorioKV = "elementos_confirmacion_fallida_test.kv";
+        java.nio.file.Path mecanicas = java.nio.file.Paths.get(infraestructura.persistencia.JsonUtil.getDataFilePath(directorio, "mecanicas.json"));
+        java.nio.file.Path obstaculo = mecanicas.resolve("obstaculo");
+        java.nio.file.Path rutaKV = java.nio.file.Paths.get(infraestructura.persistencia.JsonUtil.getDataFilePath(directorioKV));
+        infraestructura.persistencia.ElementoParqueRepositoryKV repoKV = null;
+        try {
+            infraestructura.persistencia.ElementoParqueRepositoryJson repoJson =
+                    new infraestructura.persistencia.ElementoParqueRepositoryJson(directorio, archivoEspectaculos);
+            ServicioGestionElementosParque servicioJson = new ServicioGestionElementosParque(repoJson);
+            // Un directorio no vacío en lugar de mecanicas.json impide reemplazarlo
+            java.nio.file.Files.deleteIfExists(mecanicas);
+            java.nio.file.Files.createDirectories(mecanicas);
+            java.nio.file.Files.writeString(obstaculo, "x");
+            assertThrows(RuntimeException.class, () -> servicioJson.ejecutarEnLote(() -> {
+                servicioJson.crearAtraccionCultural("CF1", "Museo", "Zona F", 20, 1, 0, List.of(), NivelExclusividad.FAMILIAR);
+                servicioJson.crearAtraccionMecanica("CF2", "Giro", "Zona F", 10, 1,
+                        NivelExclusividad.FAMILIAR, NivelRiesgo.MEDIO, 1.0, 2.0, 30, 120, List.of(), List.of(), List.of(),
+                        Capacitacion.OPERACION_ATRACCION_RIESGO_MEDIO);
+            }));
+            assertFalse(repoJson.isUnitOfWorkActive());
+            assertTrue(servicioJson.consultarAtraccionPorId("CF2").isPresent());
+
+            java.nio.file.Files.delete(obstaculo);
+            java.nio.file.Files.delete(mecanicas);
+            servicioJson.crearAtraccionCultural("CF3", "Galería", "Zona F", 20, 1, 0, List.of(), NivelExclusividad.FAMILIAR);
+            infraestructura.persistencia.ElementoParqueRepositoryJson recargado =
+                    new infraestructura.persistencia.ElementoParqueRepositoryJson(directorio, archivoEspectaculos);
+            assertEquals(List.of("CF2"), recargado.findAllMecanicas().stream().map(ElementoParque::getId).toList());
+            assertEquals(List.of("CF1", "CF3"), recargado.findAllCulturales().stream().map(ElementoParque::getId).toList());
+
+            repoKV = new infraestructura.persistencia.ElementoParqueRepositoryKV(directorioKV, 1024, null);
+            infraestructura.persistencia.ElementoParqueRepositoryKV repoCerrado = repoKV;
+            ServicioGestionElementosParque servicioKV = new ServicioGestionElementosParque(repoKV);
+            servicioKV.crearAtraccionCultural("CF1", "Museo", "Zona F", 20, 1, 0, List.of(), NivelExclusividad.FAMILIAR);
+            assertThrows(IllegalStateException.class, () -> servicioKV.ejecutarEnLote(() -> {
+                servicioKV.eliminarElemento("CF1");
+                servicioKV.crearAtraccionCultural("CF3", "Galería", "Zona F", 20, 1, 0, List.of(), NivelExclusividad.FAMILIAR);
+                repoCerrado.cerrar(); // La confirmación ya no puede escribir en el almacén
+            }));
+            assertFalse(repoKV.isUnitOfWorkActive());
+            repoKV = new infraestructura.persistencia.ElementoParqueRepositoryKV(directorioKV, 1024, null);
+            assertEquals(List.of("CF1"), repoKV.findAll().stream().map(ElementoParque::getId).toList());
+        } finally {
+            if (repoKV != null) {
+                repoKV.cerrar();
+                try (java.util.stream.Stream<java.nio.file.Path> archivos = java.nio.file.Files.list(rutaKV)) {
+                    for (java.nio.file.Path archivo : archivos.toList()) {
+                        java.nio.file.Files.deleteIfExists(archivo);
+                    }
+                }
+                java.nio.file.Files.deleteIfExists(rutaKV);
+            }
+            if (java.nio.file.Files.isDirectory(mecanicas)) {
+                java.nio.file.Files.deleteIfExists(obstaculo);
+            }
+            java.nio.file.Files.deleteIfExists(mecanicas);
+            java.nio.file.Files.deleteIfExists(java.nio.file.Paths.get(infraestructura.persistencia.JsonUtil.getDataFilePath(directorio, "culturales.json")));
+            java.nio.file.Files.deleteIfExists(java.nio.file.Paths.get(infraestructura.persistencia.JsonUtil.getDataFilePath(directorio)));
+            java.nio.file.Files.deleteIfExists(java.nio.file.Paths.get(infraestructura.persistencia.JsonUtil.getDataFilePath(archivoEspectaculos)));
+        }
+    }
+
+    /**
+     * Prueba: saveAll, deleteAllById y deleteAll del repositorio JSON aplican el lote completo y lo
+     * dejan persistido; eliminarAtraccionesPorExclusividad los usa.
+     */
+    @Test
+    void testRepositorioJsonOperacionesEnBloque() throws Exception {
+        String directorio = "elementos_bloque_test";
+        String archivoEspectaculos = "espectaculos_bloque_test.json";
+        try {
+            infraestructura.persistencia.ElementoParqueRepositoryJson repoJson =
+                    new infraestructura.persistencia.ElementoParqueRepositoryJson(directorio, archivoEspectaculos);
+            List<ElementoParque> elementos = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                elementos.add(new AtraccionMecanica("BQ" + i, "Bloque " + i, "Zona B", 10, 1,
+                        i % 2 == 0 ? NivelExclusividad.FAMILIAR : NivelExclusividad.ORO, NivelRiesgo.MEDIO,
+                        1.0, 2.0, 30, 120, List.of(), List.of(), List.of(), Capacitacion.OPERACION_ATRACCION_RIESGO_MEDIO));
+            }
+            repoJson.saveAll(elementos);
+            assertEquals(6, repoJson.findAllMecanicas().size());
+
+            assertEquals(1, repoJson.deleteAllById(List.of("BQ5", "NO_EXISTE")));
+            new ServicioGestionElementosParque(repoJson).eliminarAtraccionesPorExclusividad(NivelExclusividad.FAMILIAR);
+            assertEquals(0, repoJson.deleteAll(e -> e.getId().equals("BQ0")));
+
+            infraestructura.persistencia.ElementoParqueRepositoryJson recargado =
+                    new infraestructura.persistencia.ElementoParqueRepositoryJson(directorio, archivoEspectaculos);
+            assertEquals(List.of("BQ1", "BQ3"), recargado.findAllMecanicas().stream().map(ElementoParque::getId).toList());
+            assertTrue(recargado.findAtraccionById("BQ0").isEmpty());
+        } finally {
+            java.nio.file.Files.deleteIfExists(java.nio.file.Paths.get(infraestructura.persistencia.JsonUtil.getDataFilePath(directorio, "mecanicas.json")));
+            java.nio.file.Files.deleteIfExists(java.nio.file.Paths.get(infraestructura.persistencia.JsonUtil.getDataFilePath(directorio, "culturales.json")));
+            java.nio.file.Files.deleteIfExists(java.nio.file.Paths.get(infraestructura.persistencia.JsonUtil.getDataFilePath(directorio)));
+            java.nio.file.Files.deleteIfExists(java.nio.file.Paths.get(infraestructura.persistencia.JsonUtil.getDataFilePath(archivoEspectaculos)));
+        }
+    }
+
+    /**
+     * Prueba: findByFiltro del repositorio JSON (índices de mapas de bits) coincide con la evaluación
+     * elemento a elemento, incluidas combinaciones AND/OR, y se actualiza al guardar y eliminar.
+     */
+    @Test
+    void testRepositorioJsonFiltrosPorAtributos() throws Exception {
+        String directorio = "elementos_filtro_test";
+        String archivoEspectaculos = "espectaculos_filtro_test.json";
+        try {
+            infraestructura.persistencia.ElementoParqueRepositoryJson repoJson =
+                    new infraestructura.persistencia.ElementoParqueRepositoryJson(directorio, archivoEspectaculos);
+            ServicioGestionElementosParque servicioJson = new ServicioGestionElementosParque(repoJson);
+            AtraccionMecanica oroAlta = servicioJson.crearAtraccionMecanica("FM1", "Vértigo", "Zona F", 10, 1,
+                    NivelExclusividad.ORO, NivelRiesgo.ALTO, 1.4, 2.0, 40, 110, List.of(), List.of(),
+                    List.of(CondicionClimatica.TORMENTA), Capacitacion.OPERACION_ATRACCION_RIESGO_ALTO);
+            AtraccionMecanica familiarMedia = servicioJson.crearAtraccionMecanica("FM2", "Tacitas", "Zona F", 10, 1,
+                    NivelExclusividad.FAMILIAR, NivelRiesgo.MEDIO, 1.0, 2.0, 20, 120, List.of(), List.of(),
+                    List.of(CondicionClimatica.VIENTO_FUERTE), Capacitacion.OPERACION_ATRACCION_RIESGO_MEDIO);
+            AtraccionCultural oroCultural = servicioJson.crearAtraccionCultural("FC1", "Museo", "Zona F", 30, 1,
+                    0, List.of(CondicionClimatica.TORMENTA), NivelExclusividad.ORO);
+
+            assertEquals(List.of(oroAlta, oroCultural), servicioJson.consultarAtraccionesPorExclusividad(NivelExclusividad.ORO));
+            assertEquals(List.of(familiarMedia), servicioJson.consultarAtraccionesMecanicasPorRiesgo(NivelRiesgo.MEDIO));
+            assertEquals(List.of(oroAlta, oroCultural), servicioJson.consultarElementosPorClima(CondicionClimatica.TORMENTA));
+
+            FiltroElementos filtro = FiltroElementos.exclusividad(NivelExclusividad.ORO)
+                    .y(FiltroElementos.riesgo(NivelRiesgo.ALTO).o(FiltroElementos.climaNoPermitido(CondicionClimatica.VIENTO_FUERTE)));
+            assertEquals(List.of(oroAlta), servicioJson.consultarElementosPorFiltro(filtro));
+            assertEquals(repoJson.findAll().stream().filter(filtro::cumple).toList(), repoJson.findByFiltro(filtro));
+
+            familiarMedia.setClimaNoPermitido(List.of(CondicionClimatica.TORMENTA));
+            servicioJson.actualizarAtraccion(familiarMedia);
+            // Actualizar conserva la posición del elemento: el orden sigue siendo el de findAll
+            assertEquals(List.of(oroAlta, familiarMedia, oroCultural), servicioJson.consultarElementosPorClima(CondicionClimatica.TORMENTA));
+            assertTrue(servicioJson.consultarElementosPorClima(CondicionClimatica.VIENTO_FUERTE).isEmpty());
+
+            servicioJson.eliminarAtraccion("FM1");
+            assertTrue(servicioJson.consultarAtraccionesMecanicasPorRiesgo(NivelRiesgo.ALTO).isEmpty());
+            assertEquals(List.of(oroCultural), servicioJson.consultarAtraccionesPorExclusividad(NivelExclusividad.ORO));
+        } finally {
+            java.nio.file.Files.deleteIfExists(java.nio.file.Paths.get(infraestructura.persistencia.JsonUtil.getDataFilePath(directorio, "mecanicas.json")));
+            java.nio.file.Files.deleteIfExists(java.nio.file.Paths.get(infraestructura.persistencia.JsonUtil.getDataFilePath(directorio, "culturales.json")));
+            java.nio.file.Files.deleteIfExists(java.nio.file.Paths.get(infraestructura.persistencia.JsonUtil.getDataFilePath(directorio)));
+            java.nio.file.Files.deleteIfExists(java.nio.file.Paths.get(infraestructura.persistencia.JsonUtil.getDataFilePath(archivoEspectaculos)));
+        }
+    }
+
+    /**
+     * Prueba: una atracción leída del archivo JSON (reconstruida sin su constructor) sigue exigiendo sus
+     * capacitaciones; un operario sin OPERACION_ATRACCION_RIESGO_ALTO no puede operarla.
+     */
+    @Test
+    void testAtraccionCargadaDeJsonExigeCapacitaciones() throws Exception {
+        String directorio = "elementos_mascara_test";
+        String archivoEspectaculos = "espectaculos_mascara_test.json";
+        try {
+            new infraestructura.persistencia.ElementoParqueRepositoryJson(directorio, archivoEspectaculos)
+                    .save(new AtraccionMecanica("MSK1", "Vértigo", "Zona M", 10, 1, NivelExclusividad.ORO, NivelRiesgo.ALTO,
+                            1.4, 2.0, 40, 110, List.of(), List.of(), List.of(), Capacitacion.OPERACION_ATRACCION_RIESGO_ALTO));
+            Atraccion cargada = new infraestructura.persistencia.ElementoParqueRepositoryJson(directorio, archivoEspectaculos)
+                    .findAtraccionById("MSK1").orElseThrow();
+            assertEquals(Capacitacion.mascaraDe(cargada.getCapacitacionesRequeridas()), cargada.getMascaraCapacitacionesRequeridas());
+            assertTrue(cargada.getCapacitacionesRequeridas().contains(Capacitacion.OPERACION_ATRACCION_RIESGO_ALTO));
+
+            dominio.empleado.OperarioAtraccion operario = new dominio.empleado.OperarioAtraccion("MSK-O", "Mario",
+                    "m@parque.com", "555", "m", "pass", true, List.of());
+            operario.agregarCapacitacion(Capacitacion.PRIMEROS_AUXILIOS);
+            operario.agregarCapacitacion(Capacitacion.CERTIFICADO_SEGURIDAD_ATRACCIONES);
+            assertFalse(cargada.puedeAsignarEmpleado(operario));
+            operario.agregarCapacitacion(Capacitacion.OPERACION_ATRACCION_RIESGO_ALTO);
+            assertTrue(cargada.puedeAsignarEmpleado(operario));
+            String json = java.nio.file.Files.readString(java.nio.file.Paths.get(
+                    infraestructura.persistencia.JsonUtil.getDataFilePath(directorio, "mecanicas.json")));
+            assertFalse(json.contains("mascara"));
+        } finally {
+            java.nio.file.Files.deleteIfExists(java.nio.file.Paths.get(infraestructura.persistencia.JsonUtil.getDataFilePath(directorio, "mecanicas.json")));
+            java.nio.file.Files.deleteIfExists(java.nio.file.Paths.get(infraestructura.persistencia.JsonUtil.getDataFilePath(directorio, "culturales.json")));
+            java.nio.file.Files.deleteIfExists(java.nio.file.Paths.get(infraestructura.persistencia.JsonUtil.getDataFilePath(directorio)));
+            java.nio.file.Files.deleteIfExists(java.nio.file.Paths.get(infraestructura.persistencia.JsonUtil.getDataFilePath(archivoEspectaculos)));
+        }
+    }
+
+    @Test
+    void testIndiceCalendarioSigueTemporadasYHorarios() {
+        LocalDateTime base = LocalDateTime.of(2025, 6, 1, 10, 0);
+        AtraccionCultural siempre = servicio.crearAtraccionCultural("CAL1", "Museo", "Zona A", 20, 1, 0, List.of(), NivelExclusividad.FAMILIAR);
+        AtraccionCultural verano = servicio.crearAtraccionCultural("CAL2", "Acuario", "Zona A", 20, 1, 0, List.of(), NivelExclusividad.FAMILIAR);
+        servicio.definirTemporadaElemento("CAL2", base, base.plusDays(30));
+        Espectaculo show = servicio.crearEspectaculo("CALE", "Desfile", "Zona B", 100, "Desfile de carrozas",
+                List.of(new RangoFechaHora(base.plusHours(1), base.plusHours(2)),
+                        new RangoFechaHora(base.plusHours(5), base.plusHours(6))), List.of());
+
+        assertEquals(Set.of(siempre, show), new HashSet<>(servicio.consultarElementosDisponiblesEn(base.minusDays(1))));
+        assertEquals(Set.of(siempre, verano, show), new HashSet<>(servicio.consultarElementosDisponiblesEn(base.plusDays(30))));
+        assertEquals(List.of(show), servicio.consultarEspectaculosQueInicianEntre(base, base.plusHours(6)));
+        assertTrue(servicio.consultarEspectaculosQueInicianEntre(base.plusHours(2), base.plusHours(4)).isEmpty());
+
+        // Los cambios hechos directamente sobre las entidades se reflejan sin volver a guardarlas
+        verano.setTemporada(base.plusDays(60), base.plusDays(90));
+        show.setHorarios(List.of(new RangoFechaHora(base.plusHours(3), base.plusHours(4))));
+        assertFalse(servicio.consultarElementosDisponiblesEn(base.plusDays(30)).contains(verano));
+        assertTrue(servicio.consultarElementosDisponiblesEn(base.plusDays(61)).contains(verano));
+        assertEquals(List.of(show), servicio.consultarEspectaculosQueInicianEntre(base.plusHours(2), base.plusHours(4)));
+
+        servicio.eliminarElemento("CALE");
+        assertTrue(servicio.consultarEspectaculosQueInicianEntre(base, base.plusDays(1)).isEmpty());
+        assertThrows(DatosInvalidosException.class, () -> servicio.consultarEspectaculosQueInicianEntre(base, base.minusHours(1)));
+    }
+
+    @Test
+    void testRepositorioJsonRecargaEnCaliente() throws Exception {
+        String directorio = "elementos_recarga_test";
+        String archivoEspectaculos = "espectaculos_recarga_test.json";
+        String rutaCulturales = infraestructura.persistencia.JsonUtil.getDataFilePath(directorio, "culturales.json");
+        infraestructura.persistencia.ElementoParqueRepositoryJson repoJson =
+                new infraestructura.persistencia.ElementoParqueRepositoryJson(directorio, archivoEspectaculos);
+        try {
+            repoJson.iniciarRecargaEnCaliente();
+            AtraccionCultural propia = new AtraccionCultural("RC1", "Museo", "Zona R", 30, 1, 0, List.of());
+            repoJson.save(propia);
+
+            // Edición externa: se publica la nueva lista completa
+            AtraccionCultural externa = new AtraccionCultural("RC2", "Galería", "Zona R", 30, 1, 0, List.of());
+            infraestructura.persistencia.JsonUtil.writeToFileAbsolute(rutaCulturales, List.of(propia, externa));
+            long limite = System.currentTimeMillis() + 10_000;
+            while (repoJson.findAtraccionById("RC2").isEmpty() && System.currentTimeMillis() < limite) {
+                Thread.sleep(20);
+            }
+            assertEquals("Galería", repoJson.findAtraccionById("RC2").orElseThrow().getNombre());
+            assertEquals(2, repoJson.findAllCulturales().size());
+
+            // Las escrituras propias no se recargan: se conserva la misma instancia
+            AtraccionCultural guardada = (AtraccionCultural) repoJson.findAtraccionById("RC1").orElseThrow();
+            guardada.setNombre("Museo Nacional");
+            repoJson.save(guardada);
+            Thread.sleep(400);
+            assertSame(guardada, repoJson.findAtraccionById("RC1").orElseThrow());
+
+            // Un archivo inválido no reemplaza el estado publicado
+            java.nio.file.Files.writeString(java.nio.file.Paths.get(rutaCulturales), "[{\"id\": \"RC3\",");
+            Thread.sleep(400);
+            assertEquals(2, repoJson.findAllCulturales().size());
+            assertSame(guardada, repoJson.findAtraccionById("RC1").orElseThrow());
+
+            // Un archivo truncado a cero bytes está a medio escribir, no vacío
+            java.nio.file.Files.write(java.nio.file.Paths.get(rutaCulturales), new byte[0]);
+            Thread.sleep(400);
+            assertEquals(2, repoJson.findAllCulturales().size());
+            assertSame(guardada, repoJson.findAtraccionById("RC1").orElseThrow());
+        } finally {
+            repoJson.detenerRecargaEnCaliente();
+            assertFalse(repoJson.isRecargaEnCalienteActiva());
+            java.nio.file.Files.deleteIfExists(java.nio.file.Paths.get(rutaCulturales));
+            java.nio.file.Files.deleteIfExists(java.nio.file.Paths.get(infraestructura.persistencia.JsonUtil.getDataFilePath(directorio)));
+            java.nio.file.Files.deleteIfExists(java.nio.file.Paths.get(infraestructura.persistencia.JsonUtil.getDataFilePath(archivoEspectaculos)));
+        }
+    }
+
+    @Test
+    void testRepositorioJsonInstantaneasVersionadas() throws Exception {
+        String directorio = "elementos_version_test";
+        String archivoEspectaculos = "espectaculos_version_test.json";
+        try {
+            infraestructura.persistencia.ElementoParqueRepositoryJson repoJson =
+                    new infraestructura.persistencia.ElementoParqueRepositoryJson(directorio, archivoEspectaculos);
+            ServicioGestionElementosParque servicioJson = new ServicioGestionElementosParque(repoJson);
+            AtraccionCultural museo = servicioJson.crearAtraccionCultural("VC1", "Museo", "Zona V", 30, 1, 0, List.of(), NivelExclusividad.FAMILIAR);
+            long version = servicioJson.consultarVersionElementos();
+
+            // Sin cambios: las lecturas comparten la misma vista de solo lectura
+            List<AtraccionCultural> culturales = repoJson.findAllCulturales();
+            assertSame(culturales, repoJson.findAllCulturales());
+            assertSame(repoJson.findAll(), repoJson.findAll());
+            assertThrows(UnsupportedOperationException.class, () -> repoJson.findAll().add(museo));
+            assertFalse(servicioJson.hanCambiadoElementosDesde(version));
+
+            // Un cambio publica otra versión; la vista anterior no se altera
+            servicioJson.crearAtraccionCultural("VC2", "Galería", "Zona V", 30, 1, 0, List.of(), NivelExclusividad.FAMILIAR);
+            assertTrue(servicioJson.hanCambiadoElementosDesde(version));
+            assertEquals(List.of(museo), culturales);
+            assertEquals(2, repoJson.findAllCulturales().size());
+
+            // Descartar un lote deja el contenido anterior, pero con versión nueva
+            long antesDelLote = repoJson.getVersion();
+            assertThrows(IllegalStateException.class, () -> servicioJson.ejecutarEnLote(() -> {
+                servicioJson.eliminarElemento("VC1");
+                throw new IllegalStateException("falla");
+            }));
+            assertEquals(2, repoJson.findAllCulturales().size());
+            assertTrue(repoJson.haCambiadoDesde(antesDelLote));
+        } finally {
+            java.nio.file.Files.deleteIfExists(java.nio.file.Paths.get(infraestructura.persistencia.JsonUtil.getDataFilePath(directorio, "culturales.json")));
+            java.nio.file.Files.deleteIfExists(java.nio.file.Paths.get(infraestructura.persistencia.JsonUtil.getDataFilePath(directorio)));
+            java.nio.file.Files.deleteIfExists(java.nio.file.Paths.get(infraestructura.persistencia.JsonUtil.getDataFilePath(archivoEspectaculos)));
+        }
+    }
+
+    /**
+     * Prueba: los guardados de un lote se ven dentro del lote y se publican juntos al confirmar,
+     * sin alterar las vistas tomadas antes del lote.
+     */
+    @Test
+    void testRepositorioJsonLotePublicaUnaSolaInstantanea() throws Exception {
+        String directorio = "elementos_borrador_test";
+        String archivoEspectaculos = "espectaculos_borrador_test.json";
+        try {
+            infraestructura.persistencia.ElementoParqueRepositoryJson repoJson =
+                    new infraestructura.persistencia.ElementoParqueRepositoryJson(directorio, archivoEspectaculos);
+            ServicioGestionElementosParque servicioJson = new ServicioGestionElementosParque(repoJson);
+            servicioJson.crearAtraccionCultural("BC0", "Museo", "Zona B", 30, 1, 0, List.of(), NivelExclusividad.FAMILIAR);
+            List<AtraccionCultural> antesDelLote = repoJson.findAllCulturales();
+            long version = repoJson.getVersion();
+
+            servicioJson.ejecutarEnLote(() -> {
+                for (int i = 1; i <= 3; i++) {
+                    servicioJson.crearAtraccionCultural("BC" + i, "Sala " + i, "Zona B", 30, 1, 0, List.of(), NivelExclusividad.FAMILIAR);
+                    assertTrue(repoJson.findById("BC" + i).isPresent());
+                    assertEquals(version + i, repoJson.getVersion());
+                }
+                repoJson.deleteById("BC0");
+                assertTrue(repoJson.findById("BC0").isEmpty());
+                assertEquals(1, repoJson.findByFiltro(FiltroElementos.exclusividad(NivelExclusividad.FAMILIAR)).stream()
+                        .filter(e -> e.getId().equals("BC2")).count());
+                assertEquals(1, antesDelLote.size());
+            });
+
+            assertEquals(version + 4, repoJson.getVersion());
+            List<AtraccionCultural> despues = repoJson.findAllCulturales();
+            assertSame(despues, repoJson.findAllCulturales());
+            assertEquals(List.of("BC1", "BC2", "BC3"), despues.stream().map(AtraccionCultural::getId).toList());
+            assertEquals(1, antesDelLote.size());
+            assertEquals(3, new infraestructura.persistencia.ElementoParqueRepositoryJson(directorio, archivoEspectaculos)
+                    .findAllCulturales().size());
+        } finally {
+            java.nio.file.Files.deleteIfExists(java.nio.file.Paths.get(infraestructura.persistencia.JsonUtil.getDataFilePath(directorio, "culturales.json")));
+            java.nio.file.Files.deleteIfExists(java.nio.file.Paths.get(infraestructura.persistencia.JsonUtil.getDataFilePath(directorio)));
+            java.nio.file.Files.deleteIfExists(java.nio.file.Paths.get(infraestructura.persistencia.JsonUtil.getDataFilePath(archivoEspectaculos)));
+        }
+    }
+
+    @Test
+    void testRepositorioKVPersisteReabreYCompacta() throws Exception {
+        String directorio = "elementos_kv_test";
+        java.nio.file.Path ruta = java.nio.file.Paths.get(infraestructura.persistencia.JsonUtil.getDataFilePath(directorio));
+        infraestructura.persistencia.ElementoParqueRepositoryKV repoKV =
+                new infraestructura.persistencia.ElementoParqueRepositoryKV(directorio, 1024, null);
+        try {
+            ServicioGestionElementosParque servicioKV = new ServicioGestionElementosParque(repoKV);
+            AtraccionMecanica montana = servicioKV.crearAtraccionMecanica("KM1", "Montaña", "Zona K", 10, 1,
+                    NivelExclusividad.ORO, NivelRiesgo.ALTO, 1.4, 2.0, 40, 110, List.of(), List.of(),
+                    List.of(CondicionClimatica.TORMENTA), Capacitacion.OPERACION_ATRACCION_RIESGO_ALTO);
+            servicioKV.crearAtraccionCultural("KC1", "Museo", "Zona K", 30, 1, 0, List.of(), NivelExclusividad.FAMILIAR);
+            servicioKV.crearEspectaculo("KE1", "Desfile", "Zona K", 100, "Carrozas",
+                    List.of(new RangoFechaHora(LocalDateTime.of(2025, 6, 1, 10, 0), LocalDateTime.of(2025, 6, 1, 11, 0))), List.of());
+            for (int i = 0; i < 30; i++) {
+                montana.setNombre("Montaña " + i);
+                servicioKV.actualizarAtraccion(montana);
+            }
+            servicioKV.eliminarElemento("KC1");
+            assertSame(montana, repoKV.findById("KM1").orElseThrow());
+            assertSame(montana, repoKV.findByNombre("montaña 29").orElseThrow());
+            assertTrue(repoKV.findByNombre("Montaña 3").isEmpty());
+
+            // Un lote que falla no llega al almacén
+            assertThrows(IllegalStateException.class, () -> servicioKV.ejecutarEnLote(() -> {
+                servicioKV.eliminarElemento("KE1");
+                throw new IllegalStateException("falla");
+            }));
+            assertTrue(repoKV.findEspectaculoById("KE1").isPresent());
+
+            // Al reabrir (con un registro final a medio escribir) se recupera el estado vigente
+            repoKV.cerrar();
+            java.nio.file.Path ultimo;
+            try (java.util.stream.Stream<java.nio.file.Path> segmentos = java.nio.file.Files.list(ruta)) {
+                ultimo = segmentos.max(Comparator.comparingInt(p -> Integer.parseInt(p.getFileName().toString().replaceAll("\\D", "")))).orElseThrow();
+            }
+            java.nio.file.Files.write(ultimo, new byte[]{1, 2, 3}, java.nio.file.StandardOpenOption.APPEND);
+            repoKV = new infraestructura.persistencia.ElementoParqueRepositoryKV(directorio, 1024, null);
+            assertEquals(List.of("KM1", "KE1"), repoKV.findAll().stream().map(ElementoParque::getId).toList());
+            assertEquals("Montaña 29", repoKV.findAtraccionById("KM1").orElseThrow().getNombre());
+            assertEquals(List.of(CondicionClimatica.TORMENTA), repoKV.findAllMecanicas().get(0).getClimaNoPermitido());
+            assertEquals(1, repoKV.findAllEspectaculos().get(0).getHorarios().size());
+
+            // Compactar deja solo los registros vigentes
+            Map<java.nio.file.Path, byte[]> previos = new HashMap<>();
+            try (java.util.stream.Stream<java.nio.file.Path> segmentos = java.nio.file.Files.list(ruta)) {
+                for (java.nio.file.Path segmento : segmentos.toList()) {
+                    previos.put(segmento, java.nio.file.Files.readAllBytes(segmento));
+                }
+            }
+            long antes = previos.size();
+            repoKV.compactar();
+            long despues;
+            try (java.util.stream.Stream<java.nio.file.Path> segmentos = java.nio.file.Files.list(ruta)) {
+                despues = segmentos.count();
+            }
+            assertTrue(despues < antes, "segmentos antes: " + antes + ", después: " + despues);
+            assertEquals("Montaña 29", repoKV.findByNombre("Montaña 29").orElseThrow().getNombre());
+            repoKV.cerrar();
+            repoKV = new infraestructura.persistencia.ElementoParqueRepositoryKV(directorio, 1024, null);
+            assertEquals(2, repoKV.findAll().size());
+
+            // Compactación interrumpida tras publicar la lista de borrado: al abrir se terminan de borrar
+            // los segmentos compactados, incluido el que aún guarda el valor que anuló una lápida
+            repoKV.cerrar();
+            StringBuilder pendientes = new StringBuilder();
+            for (Map.Entry<java.nio.file.Path, byte[]> previo : previos.entrySet()) {
+                if (java.nio.file.Files.notExists(previo.getKey())) {
+                    java.nio.file.Files.write(previo.getKey(), previo.getValue());
+                    pendientes.append(previo.getKey().getFileName().toString().replaceAll("\\D", "")).append('\n');
+                }
+            }
+            assertTrue(pendientes.length() > 0);
+            java.nio.file.Files.writeString(ruta.resolve("compactacion.pendiente"), pendientes);
+            repoKV = new infraestructura.persistencia.ElementoParqueRepositoryKV(directorio, 1024, null);
+            assertEquals(List.of("KM1", "KE1"), repoKV.findAll().stream().map(ElementoParque::getId).toList());
+            assertTrue(repoKV.findById("KC1").isEmpty());
+            assertTrue(java.nio.file.Files.notExists(ruta.resolve("compactacion.pendiente")));
+        } finally {
+            repoKV.cerrar();
+            try (java.util.stream.Stream<java.nio.file.Path> archivos = java.nio.file.Files.list(ruta)) {
+                for (java.nio.file.Path archivo : archivos.toList()) {
+                    java.nio.file.Files.deleteIfExists(archivo);
+                }
+            }
+            java.nio.file.Files.deleteIfExists(ruta);
+        }
+    }
 }
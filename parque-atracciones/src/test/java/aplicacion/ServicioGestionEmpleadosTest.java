@@ -355,4 +355,158 @@ public class ServicioGestionEmpleadosTest {
         assertTrue(cajeros.isEmpty());
         assertThrows(dominio.excepciones.DatosInvalidosException.class, () -> servicio.eliminarEmpleadosPorTipo(null));
     }
-}
\ No newline at end of file
+
+    /**
+     * Las asignaciones se persisten en una partición por fecha y otra instancia del servicio solo
+     * lee las fechas que consulta.
+     */
+    @Test
+    void testAsignacionesPersistidasPorFecha() throws Exception {
+        String directorio = "asignaciones-prueba-" + UUID.randomUUID().toString().substring(0, 8);
+        java.nio.file.Path dir = java.nio.file.Paths.get(infraestructura.persistencia.JsonUtil.getDataFilePath(directorio));
+        EmpleadoRepositoryJson repo = new EmpleadoRepositoryJson("empleados");
+        String id = "E018" + UUID.randomUUID().toString().substring(0, 5);
+        LocalDate lunes = LocalDate.of(2026, 3, 2);
+        try {
+            infraestructura.persistencia.AsignacionTurnoRepositoryJson repoAsignaciones =
+                    new infraestructura.persistencia.AsignacionTurnoRepositoryJson(directorio);
+            ServicioGestionEmpleados servicio = new ServicioGestionEmpleados(repo, repoAsignaciones, null);
+            Cajero cajero = new Cajero(id, "Ana Torres", "ana@parque.com", "555-1111", "anauser", "pass", 1, "Tienda1");
+            cajero.agregarCapacitacion(Capacitacion.MANEJO_CAJA);
+            servicio.registrarEmpleado(cajero);
+            Taquilla taquilla = new Taquilla("Taquilla Persistente", 1);
+            servicio.asignarTurno(id, taquilla, lunes, Turno.APERTURA);
+            AsignacionTurno cancelada = servicio.asignarTurno(id, taquilla, lunes, Turno.CIERRE);
+            servicio.asignarTurno(id, taquilla, lunes.plusDays(1), Turno.APERTURA);
+            assertTrue(servicio.cancelarAsignacion(cancelada));
+            assertEquals(List.of(lunes, lunes.plusDays(1)), repoAsignaciones.fechasConAsignaciones());
+
+            // Una instancia nueva (como tras reiniciar) reconstruye las asignaciones de la fecha consultada
+            ServicioGestionEmpleados reiniciado = new ServicioGestionEmpleados(new EmpleadoRepositoryJson("empleados"),
+                    new infraestructura.persistencia.AsignacionTurnoRepositoryJson(directorio), null);
+            Taquilla mismaTaquilla = new Taquilla("Taquilla Persistente", 1);
+            reiniciado.registrarLugarTrabajo(mismaTaquilla);
+            List<AsignacionTurno> delLunes = reiniciado.consultarAsignacionesEmpleadoDia(id, lunes);
+            assertEquals(1, delLunes.size());
+            assertEquals(Turno.APERTURA, delLunes.get(0).getTurno());
+            assertSame(mismaTaquilla, delLunes.get(0).getLugarTrabajo());
+            assertTrue(reiniciado.verificarRequisitosPersonalLugar(mismaTaquilla, lunes, Turno.APERTURA));
+            assertThrows(AsignacionInvalidaException.class, () -> reiniciado.asignarTurno(id, mismaTaquilla, lunes, Turno.APERTURA));
+            assertTrue(reiniciado.consultarAsignacionesPorFecha(lunes.minusDays(1)).isEmpty());
+        } finally {
+            try { new ServicioGestionEmpleados(repo).eliminarEmpleado(id); } catch (Exception ignored) {}
+            if (java.nio.file.Files.isDirectory(dir)) {
+                try (java.util.stream.Stream<java.nio.file.Path> archivos = java.nio.file.Files.list(dir)) {
+                    for (java.nio.file.Path p : archivos.toList()) {
+                        java.nio.file.Files.deleteIfExists(p);
+                    }
+                }
+                java.nio.file.Files.deleteIfExists(dir);
+            }
+        }
+    }
+
+    /**
+     * TC_FR2_LUGARES_CONOCIDOS
+     * Verifica que consultarLugaresTrabajo devuelve los lugares registrados, ordenados por clave, para
+     * que la planificación de turnos los incluya junto con las atracciones.
+     */
+    @Test
+    void testConsultarLugaresTrabajoRegistrados() {
+        ServicioGestionEmpleados servicio = new ServicioGestionEmpleados(new EmpleadoRepositoryJson("empleados"));
+        String sufijo = UUID.randomUUID().toString().substring(0, 5);
+        Taquilla taquilla = new Taquilla("Taquilla " + sufijo, 1);
+        dominio.trabajo.Tienda tienda = new dominio.trabajo.Tienda("Tienda " + sufijo, 2);
+        dominio.trabajo.Cafeteria cafeteria = new dominio.trabajo.Cafeteria("Cafetería " + sufijo, 1);
+        servicio.registrarLugarTrabajo(tienda);
+        servicio.registrarLugarTrabajo(taquilla);
+        servicio.registrarLugarTrabajo(cafeteria);
+        List<dominio.trabajo.LugarTrabajo> lugares = servicio.consultarLugaresTrabajo();
+        assertEquals(3, lugares.size());
+        assertTrue(lugares.containsAll(List.of(taquilla, tienda, cafeteria)));
+        assertEquals(lugares.stream().map(dominio.trabajo.LugarTrabajo::getClaveLugar).sorted().toList(),
+                lugares.stream().map(dominio.trabajo.LugarTrabajo::getClaveLugar).toList());
+    }
+
+    /**
+     * Tras reiniciar, las asignaciones a una taquilla se resuelven sin registrarla de nuevo, y cualquier
+     * instancia con la misma clave (como una atracción recargada) encuentra las asignaciones del lugar.
+     */
+    @Test
+    void testLugaresPersistidosYResueltosPorClave() throws Exception {
+        String directorio = "asignaciones-lugares-" + UUID.randomUUID().toString().substring(0, 8);
+        java.nio.file.Path dir = java.nio.file.Paths.get(infraestructura.persistencia.JsonUtil.getDataFilePath(directorio));
+        EmpleadoRepositoryJson repo = new EmpleadoRepositoryJson("empleados");
+        String id = "E022" + UUID.randomUUID().toString().substring(0, 5);
+        LocalDate fecha = LocalDate.of(2026, 4, 6);
+        try {
+            ServicioGestionEmpleados servicio = new ServicioGestionEmpleados(repo,
+                    new infraestructura.persistencia.AsignacionTurnoRepositoryJson(directorio), null);
+            Cajero cajero = new Cajero(id, "Luis Mora", "luis@parque.com", "555-2222", "luisuser", "pass", 1, "Caja");
+            cajero.agregarCapacitacion(Capacitacion.MANEJO_CAJA);
+            servicio.registrarEmpleado(cajero);
+            servicio.asignarTurno(id, new Taquilla("Taquilla Oeste", 1), fecha, Turno.APERTURA);
+
+            ServicioGestionEmpleados reiniciado = new ServicioGestionEmpleados(new EmpleadoRepositoryJson("empleados"),
+                    new infraestructura.persistencia.AsignacionTurnoRepositoryJson(directorio), null);
+            List<AsignacionTurno> delDia = reiniciado.consultarAsignacionesEmpleadoDia(id, fecha);
+            assertEquals(1, delDia.size());
+            assertEquals("Taquilla:Taquilla Oeste", delDia.get(0).getLugarTrabajo().getClaveLugar());
+            assertEquals(1, ((Taquilla) delDia.get(0).getLugarTrabajo()).getEmpleadosRequeridos());
+
+            Taquilla otraInstancia = new Taquilla("Taquilla Oeste", 1);
+            assertTrue(reiniciado.verificarRequisitosPersonalLugar(otraInstancia, fecha, Turno.APERTURA));
+            assertThrows(AsignacionInvalidaException.class, () -> reiniciado.asignarTurno(id, otraInstancia, fecha, Turno.APERTURA));
+            assertTrue(reiniciado.generarReporteCumplimiento(fecha).getEstados().stream()
+                    .anyMatch(e -> e.getLugarTrabajo().getClaveLugar().equals("Taquilla:Taquilla Oeste") && e.cumple()));
+        } finally {
+            try { new ServicioGestionEmpleados(repo).eliminarEmpleado(id); } catch (Exception ignored) {}
+            if (java.nio.file.Files.isDirectory(dir)) {
+                try (java.util.stream.Stream<java.nio.file.Path> archivos = java.nio.file.Files.list(dir)) {
+                    for (java.nio.file.Path p : archivos.toList()) {
+                        java.nio.file.Files.deleteIfExists(p);
+                    }
+                }
+                java.nio.file.Files.deleteIfExists(dir);
+            }
+        }
+    }
+
+    /**
+     * Cancelar con una asignación igual pero de otro id persiste la baja del alta guardada.
+     */
+    @Test
+    void testCancelarAsignacionIgualPersisteBajaDeLaGuardada() throws Exception {
+        String directorio = "asignaciones-baja-" + UUID.randomUUID().toString().substring(0, 8);
+        java.nio.file.Path dir = java.nio.file.Paths.get(infraestructura.persistencia.JsonUtil.getDataFilePath(directorio));
+        EmpleadoRepositoryJson repo = new EmpleadoRepositoryJson("empleados");
+        String id = "E022B" + UUID.randomUUID().toString().substring(0, 5);
+        LocalDate fecha = LocalDate.of(2026, 4, 7);
+        try {
+            ServicioGestionEmpleados servicio = new ServicioGestionEmpleados(repo,
+                    new infraestructura.persistencia.AsignacionTurnoRepositoryJson(directorio), null);
+            Cajero cajero = new Cajero(id, "Eva Rios", "eva@parque.com", "555-3333", "evauser", "pass", 1, "Caja");
+            cajero.agregarCapacitacion(Capacitacion.MANEJO_CAJA);
+            servicio.registrarEmpleado(cajero);
+            Taquilla taquilla = new Taquilla("Taquilla Baja", 1);
+            servicio.asignarTurno(id, taquilla, fecha, Turno.CIERRE);
+
+            AsignacionTurno igual = new AsignacionTurno("otro-id", cajero, taquilla, fecha, Turno.CIERRE);
+            assertTrue(servicio.cancelarAsignacion(igual));
+
+            ServicioGestionEmpleados reiniciado = new ServicioGestionEmpleados(new EmpleadoRepositoryJson("empleados"),
+                    new infraestructura.persistencia.AsignacionTurnoRepositoryJson(directorio), null);
+            assertTrue(reiniciado.consultarAsignacionesEmpleadoDia(id, fecha).isEmpty());
+        } finally {
+            try { new ServicioGestionEmpleados(repo).eliminarEmpleado(id); } catch (Exception ignored) {}
+            if (java.nio.file.Files.isDirectory(dir)) {
+                try (java.util.stream.Stream<java.nio.file.Path> archivos = java.nio.file.Files.list(dir)) {
+                    for (java.nio.file.Path p : archivos.toList()) {
+                        java.nio.file.Files.deleteIfExists(p);
+                    }
+                }
+                java.nio.file.Files.deleteIfExists(dir);
+            }
+        }
+    }
+}
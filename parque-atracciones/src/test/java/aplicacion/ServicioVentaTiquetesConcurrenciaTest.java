@@ -0,0 +1,175 @@
+package aplicacion;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import dominio.tiquete.*;
+import dominio.usuario.*;
+import infraestructura.persistencia.ColaPersistenciaTiquetes;
+import infraestructura.persistencia.JsonUtil;
+import infraestructura.persistencia.TiqueteRepositoryJson;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pruebas de concurrencia del servicio de venta de tiquetes: varias taquillas venden y varios
+ * torniquetes registran usos al mismo tiempo.
+ */
+class ServicioVentaTiquetesConcurrenciaTest {
+
+    private static final int HILOS = 8;
+    private static final int VENTAS_POR_HILO = 250;
+
+    /**
+     * Prueba de estrés: TC_FR3_CONCURRENCIA_VENTAS_01
+     * Verifica que ninguna venta se pierde ni se duplica y que cada tiquete tiene exactamente un
+     * uso efectivo aunque varios hilos lo registren a la vez, tanto en memoria como tras recargar.
+     */
+    @Test
+    void ventasYUsosConcurrentesNoSePierdenNiDuplican() throws Exception {
+        String archivo = "tiquetes_concurrencia_test.json";
+        Path snapshot = Paths.get(JsonUtil.getDataFilePath(archivo));
+        Path journal = Paths.get(snapshot + ".log");
+        Files.deleteIfExists(snapshot);
+        Files.deleteIfExists(journal);
+        ExecutorService ejecutor = Executors.newFixedThreadPool(HILOS);
+        try {
+            TiqueteRepositoryJson repo = new TiqueteRepositoryJson(archivo, true);
+            ServicioVentaTiquetes servicio = new ServicioVentaTiquetes(repo, _ -> null);
+            ConcurrentLinkedQueue<Tiquete> vendidos = new ConcurrentLinkedQueue<>();
+            CountDownLatch salida = new CountDownLatch(1);
+
+            // Fase 1: ventas concurrentes, cada taquilla con su propio comprador
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int h = 0; h < HILOS; h++) {
+                int taquilla = h;
+                tareas.add(ejecutor.submit(() -> {
+                    Usuario comprador = new Cliente("conc" + taquilla, "pass", "Comprador " + taquilla, "UC" + taquilla,
+                            "c" + taquilla + "@mail.com", "555-0000", LocalDate.of(1990, 1, 1), 1.70, 70);
+                    salida.await();
+                    for (int i = 0; i < VENTAS_POR_HILO; i++) {
+                        Durabilidad durabilidad = i % 2 == 0 ? Durabilidad.SIN_ESPERA : Durabilidad.ESPERAR_DISCO;
+                        vendidos.add(servicio.venderTiqueteGeneral(comprador, CategoriaTiquete.FAMILIAR, 10.0, durabilidad));
+                    }
+                    return null;
+                }));
+            }
+            salida.countDown();
+            for (Future<?> tarea : tareas) {
+                tarea.get(60, TimeUnit.SECONDS);
+            }
+
+            int esperados = HILOS * VENTAS_POR_HILO;
+            Set<String> codigos = new HashSet<>();
+            for (Tiquete t : vendidos) {
+                assertTrue(codigos.add(t.getCodigo()), "Código duplicado: " + t.getCodigo());
+            }
+            assertEquals(esperados, codigos.size());
+            assertEquals(esperados, servicio.consultarTiquetesPorTipo(TiqueteGeneral.class).stream()
+                    .filter(t -> t.getIdentificacionComprador().startsWith("UC")).count());
+            for (int h = 0; h < HILOS; h++) {
+                assertEquals(VENTAS_POR_HILO, servicio.consultarTiquetesPorUsuario("UC" + h).size());
+            }
+
+            // Fase 2: todos los torniquetes intentan registrar el uso de todos los tiquetes
+            List<Tiquete> todos = new ArrayList<>(vendidos);
+            AtomicInteger usosEfectivos = new AtomicInteger();
+            tareas.clear();
+            for (int h = 0; h < HILOS; h++) {
+                int desfase = h * 37;
+                tareas.add(ejecutor.submit(() -> {
+                    for (int i = 0; i < todos.size(); i++) {
+                        Tiquete t = todos.get((i + desfase) % todos.size());
+                        if (servicio.registrarUsoTiquete(t, Durabilidad.SIN_ESPERA)) {
+                            usosEfectivos.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> tarea : tareas) {
+                tarea.get(60, TimeUnit.SECONDS);
+            }
+            assertEquals(esperados, usosEfectivos.get());
+            servicio.cerrar();
+            assertEquals(2L * esperados, servicio.getMetricasPersistencia().orElseThrow().getEventosEscritos());
+            repo.cerrar();
+
+            // Tras recargar, están todas las ventas y todas quedan utilizadas
+            List<Tiquete> recargados = new TiqueteRepositoryJson(archivo).cargarTiquetes(_ -> null);
+            assertEquals(esperados, recargados.size());
+            assertTrue(recargados.stream().allMatch(Tiquete::estaUtilizado));
+        } finally {
+            ejecutor.shutdownNow();
+            Files.deleteIfExists(snapshot);
+            Files.deleteIfExists(journal);
+        }
+    }
+
+    /**
+     * Cerrar la cola mientras varias taquillas siguen encolando: cada venta aceptada llega a disco y su
+     * futuro se completa; las demás se rechazan con IllegalStateException.
+     */
+    @Test
+    void cerrarConProductoresActivosNoPierdeVentasAceptadas() throws Exception {
+        String archivo = "tiquetes_cierre_test.json";
+        Path snapshot = Paths.get(JsonUtil.getDataFilePath(archivo));
+        Path journal = Paths.get(snapshot + ".log");
+        Files.deleteIfExists(snapshot);
+        Files.deleteIfExists(journal);
+        ExecutorService ejecutor = Executors.newFixedThreadPool(HILOS);
+        try {
+            TiqueteRepositoryJson repo = new TiqueteRepositoryJson(archivo, true);
+            ColaPersistenciaTiquetes cola = new ColaPersistenciaTiquetes(repo, Duration.ofMillis(1), 16);
+            ConcurrentLinkedQueue<CompletableFuture<Void>> aceptadas = new ConcurrentLinkedQueue<>();
+            AtomicInteger secuencia = new AtomicInteger();
+            CountDownLatch enMarcha = new CountDownLatch(HILOS);
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int h = 0; h < HILOS; h++) {
+                tareas.add(ejecutor.submit(() -> {
+                    enMarcha.countDown();
+                    while (true) {
+                        TiqueteGeneral t = new TiqueteGeneral("CIE-" + secuencia.incrementAndGet(), LocalDateTime.now(), 10.0,
+                                "UCIE", "Comprador", false, CategoriaTiquete.FAMILIAR, null);
+                        try {
+                            aceptadas.add(cola.encolarVenta(t));
+                        } catch (IllegalStateException cerrada) {
+                            return null;
+                        }
+                    }
+                }));
+            }
+            enMarcha.await();
+            Thread.sleep(50);
+            cola.cerrar();
+            for (Future<?> tarea : tareas) {
+                tarea.get(30, TimeUnit.SECONDS);
+            }
+            for (CompletableFuture<Void> futuro : aceptadas) {
+                futuro.get(5, TimeUnit.SECONDS);
+            }
+            repo.cerrar();
+            assertEquals(aceptadas.size(), new TiqueteRepositoryJson(archivo).cargarTiquetes(_ -> null).size());
+        } finally {
+            ejecutor.shutdownNow();
+            Files.deleteIfExists(snapshot);
+            Files.deleteIfExists(journal);
+        }
+    }
+}
@@ -13,6 +13,8 @@ import java.util.List;
 import dominio.empleado.Empleado;
 import dominio.empleado.Cajero;
 import dominio.empleado.Capacitacion;
+import infraestructura.persistencia.JsonUtil;
+import infraestructura.persistencia.TiqueteRepositoryBinario;
 import infraestructura.persistencia.TiqueteRepositoryJson;
 import dominio.util.RangoFechaHora;
 
@@ -438,4 +440,386 @@ class ServicioVentaTiquetesTest {
         TiqueteGeneral tgFamiliar = servicio.venderTiqueteGeneral(usuario, CategoriaTiquete.FAMILIAR, 10.0);
         assertThrows(TiqueteInvalidoException.class, () -> servicio.validarAccesoAtraccion(tgFamiliar, atraccionDiamante));
     }
+
+    /**
+     * Prueba funcional: TC_FR3_JOURNAL_RECARGA_18
+     * Verifica que en modo journal las ventas, usos y eliminaciones se recuperan al reabrir el
+     * repositorio reaplicando el journal, y que tras cerrar (compactar) el snapshot los contiene.
+     */
+    @Test
+    void journalTiquetesRecuperaVentasYUsos() throws Exception {
+        String archivo = "tiquetes_journal_test.json";
+        java.nio.file.Path snapshot = java.nio.file.Paths.get(JsonUtil.getDataFilePath(archivo));
+        java.nio.file.Path journal = java.nio.file.Paths.get(snapshot + ".log");
+        java.nio.file.Files.deleteIfExists(snapshot);
+        java.nio.file.Files.deleteIfExists(journal);
+        try {
+            TiqueteRepositoryJson repo = new TiqueteRepositoryJson(archivo, true);
+            ServicioVentaTiquetes servicio = new ServicioVentaTiquetes(repo, _ -> null);
+            Usuario usuario = new Cliente("userj", "pass", "Julia Ramos", "UJ01", "julia@mail.com", "555-9999",
+                    LocalDate.of(1992, 4, 2), 1.68, 62);
+            TiqueteGeneral usado = servicio.venderTiqueteGeneral(usuario, CategoriaTiquete.ORO, 40.0);
+            servicio.venderFastPass(usuario, LocalDateTime.now().plusDays(1), 15.0);
+            servicio.registrarUsoTiquete(usado);
+            servicio.eliminarTiquetesPorTipo(FastPass.class);
+            assertTrue(java.nio.file.Files.exists(journal));
+
+            // Reapertura sin compactar: el estado se reconstruye desde el journal
+            TiqueteRepositoryJson reabierto = new TiqueteRepositoryJson(archivo, true);
+            ServicioVentaTiquetes recargado = new ServicioVentaTiquetes(reabierto, _ -> null);
+            List<Tiquete> tiquetes = recargado.consultarTiquetesPorUsuario("UJ01");
+            assertEquals(1, tiquetes.size());
+            assertEquals(usado.getCodigo(), tiquetes.get(0).getCodigo());
+            assertTrue(tiquetes.get(0).estaUtilizado());
+            recargado.cerrar();
+            reabierto.cerrar();
+
+            // Tras compactar, el snapshot por sí solo contiene el estado
+            servicio.cerrar();
+            repo.cerrar();
+            assertFalse(java.nio.file.Files.exists(journal));
+            List<Tiquete> desdeSnapshot = new TiqueteRepositoryJson(archivo).cargarTiquetes(_ -> null);
+            assertEquals(1, desdeSnapshot.size());
+            assertTrue(desdeSnapshot.get(0).estaUtilizado());
+        } finally {
+            java.nio.file.Files.deleteIfExists(snapshot);
+            java.nio.file.Files.deleteIfExists(journal);
+        }
+    }
+
+    /**
+     * Prueba funcional: TC_FR3_JOURNAL_SIN_ESPERA_19
+     * Verifica que las ventas sin espera de durabilidad se agrupan en lotes, quedan persistidas al
+     * cerrar el servicio y se reflejan en las métricas de la cola de persistencia.
+     */
+    @Test
+    void ventasSinEsperaSePersistenAlCerrar() throws Exception {
+        String archivo = "tiquetes_cola_test.json";
+        java.nio.file.Path snapshot = java.nio.file.Paths.get(JsonUtil.getDataFilePath(archivo));
+        java.nio.file.Path journal = java.nio.file.Paths.get(snapshot + ".log");
+        java.nio.file.Files.deleteIfExists(snapshot);
+        java.nio.file.Files.deleteIfExists(journal);
+        try {
+            TiqueteRepositoryJson repo = new TiqueteRepositoryJson(archivo, true);
+            ServicioVentaTiquetes servicio = new ServicioVentaTiquetes(repo, _ -> null, java.time.Duration.ofMillis(20));
+            Usuario usuario = new Cliente("userq", "pass", "Quique Rojas", "UQ01", "quique@mail.com", "555-8888",
+                    LocalDate.of(1988, 9, 9), 1.72, 75);
+            int ventas = 50;
+            for (int i = 0; i < ventas; i++) {
+                servicio.venderTiqueteGeneral(usuario, CategoriaTiquete.FAMILIAR, 10.0, Durabilidad.SIN_ESPERA);
+            }
+            servicio.cerrar();
+
+            infraestructura.persistencia.MetricasPersistencia metricas = servicio.getMetricasPersistencia().orElseThrow();
+            assertEquals(ventas, metricas.getEventosEscritos());
+            assertEquals(0, metricas.getProfundidadCola());
+            assertTrue(metricas.getLotesEscritos() >= 1 && metricas.getLotesEscritos() <= ventas);
+            repo.cerrar();
+
+            List<Tiquete> recargados = new TiqueteRepositoryJson(archivo).cargarTiquetes(_ -> null);
+            assertEquals(ventas, recargados.size());
+        } finally {
+            java.nio.file.Files.deleteIfExists(snapshot);
+            java.nio.file.Files.deleteIfExists(journal);
+        }
+    }
+
+    /**
+     * Prueba funcional: TC_FR3_JOURNAL_COMPACTA_SOBRE_SNAPSHOT_22
+     * Verifica que la compactación aplica usos, eliminaciones y ventas del journal sobre el snapshot
+     * existente, conservando el orden, y que las lecturas antes de compactar ven lo mismo.
+     */
+    @Test
+    void compactacionAplicaJournalSobreSnapshot() throws Exception {
+        String archivo = "tiquetes_compacta_test.json";
+        java.nio.file.Path snapshot = java.nio.file.Paths.get(JsonUtil.getDataFilePath(archivo));
+        java.nio.file.Path journal = java.nio.file.Paths.get(snapshot + ".log");
+        java.nio.file.Path rotado = java.nio.file.Paths.get(snapshot + ".log.compactando");
+        java.nio.file.Files.deleteIfExists(snapshot);
+        java.nio.file.Files.deleteIfExists(journal);
+        try {
+            LocalDateTime ahora = LocalDateTime.now();
+            List<TiqueteGeneral> tiquetes = new java.util.ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                tiquetes.add(new TiqueteGeneral("CMP-" + i, ahora, 10.0, "UCMP", "Comprador", false, CategoriaTiquete.FAMILIAR, null));
+            }
+            TiqueteRepositoryJson repo = new TiqueteRepositoryJson(archivo, true);
+            for (TiqueteGeneral t : tiquetes.subList(0, 3)) {
+                repo.registrarVenta(t);
+            }
+            repo.cerrar();
+
+            TiqueteRepositoryJson reabierto = new TiqueteRepositoryJson(archivo, true);
+            reabierto.registrarUso(tiquetes.get(0));
+            reabierto.registrarEliminacion(List.of(tiquetes.get(1).getCodigo()));
+            reabierto.registrarVenta(tiquetes.get(3));
+            reabierto.registrarUso(tiquetes.get(3));
+            List<Tiquete> antes = reabierto.cargarTiquetes(_ -> null);
+            reabierto.cerrar();
+            assertFalse(java.nio.file.Files.exists(journal));
+            assertFalse(java.nio.file.Files.exists(rotado));
+            List<Tiquete> despues = new TiqueteRepositoryJson(archivo).cargarTiquetes(_ -> null);
+
+            for (List<Tiquete> leidos : List.of(antes, despues)) {
+                assertEquals(List.of("CMP-0", "CMP-2", "CMP-3"), leidos.stream().map(Tiquete::getCodigo).toList());
+                assertEquals(List.of(true, false, true), leidos.stream().map(Tiquete::estaUtilizado).toList());
+            }
+        } finally {
+            java.nio.file.Files.deleteIfExists(snapshot);
+            java.nio.file.Files.deleteIfExists(journal);
+            java.nio.file.Files.deleteIfExists(rotado);
+        }
+    }
+
+    /**
+     * Prueba funcional: TC_FR3_ALMACEN_BINARIO_20
+     * Verifica que el almacén binario conserva ventas, usos y eliminaciones al reabrirse, que la
+     * búsqueda por código usa el índice y que el índice se reconstruye si no se cerró el almacén.
+     */
+    @Test
+    void almacenBinarioConservaTiquetesAlReabrir() throws Exception {
+        String archivo = "tiquetes_binario_test.bin";
+        java.nio.file.Path datos = java.nio.file.Paths.get(JsonUtil.getDataFilePath(archivo));
+        java.nio.file.Path indice = java.nio.file.Paths.get(datos + ".idx");
+        java.nio.file.Files.deleteIfExists(datos);
+        java.nio.file.Files.deleteIfExists(indice);
+        try {
+            AtraccionMecanica atraccion = new AtraccionMecanica(
+                "AB01", "Rueda", "Zona C", 15, 2,
+                NivelExclusividad.FAMILIAR, NivelRiesgo.MEDIO,
+                1.0, 2.0, 5, 50, List.of(), List.of(), List.of(),
+                Capacitacion.OPERACION_ATRACCION_RIESGO_MEDIO
+            );
+            TiqueteRepositoryBinario repo = new TiqueteRepositoryBinario(archivo);
+            ServicioVentaTiquetes servicio = new ServicioVentaTiquetes(repo, _ -> atraccion);
+            Usuario usuario = new Cliente("userb", "pass", "Beatriz Niño", "UB01", "bea@mail.com", "555-7777",
+                    LocalDate.of(1990, 1, 1), 1.70, 60);
+            LocalDateTime inicio = LocalDateTime.of(2025, 6, 1, 0, 0);
+            LocalDateTime fin = LocalDateTime.of(2025, 8, 31, 23, 59);
+            TiqueteGeneral general = servicio.venderTiqueteGeneral(usuario, CategoriaTiquete.ORO, 40.0);
+            TiqueteTemporada temporada = servicio.venderTiqueteTemporada(usuario, CategoriaTiquete.DIAMANTE, inicio, fin, 300.0);
+            EntradaIndividual entrada = servicio.venderEntradaIndividual(usuario, atraccion, 12.5);
+            servicio.venderFastPass(usuario, LocalDateTime.now().plusDays(1), 15.0);
+            servicio.registrarUsoTiquete(general);
+            servicio.eliminarTiquetesPorTipo(FastPass.class);
+            // Sin cerrar: el siguiente inicio debe reconstruir el índice
+            TiqueteRepositoryBinario sinCerrar = new TiqueteRepositoryBinario(archivo);
+            assertTrue(sinCerrar.buscarPorCodigo(entrada.getCodigo(), _ -> atraccion).isPresent());
+            sinCerrar.cerrar();
+            repo.cerrar();
+
+            TiqueteRepositoryBinario reabierto = new TiqueteRepositoryBinario(archivo);
+            List<Tiquete> tiquetes = reabierto.cargarTiquetes(_ -> atraccion);
+            assertEquals(3, tiquetes.size());
+            Tiquete generalLeido = reabierto.buscarPorCodigo(general.getCodigo(), _ -> atraccion).orElseThrow();
+            assertTrue(generalLeido.estaUtilizado());
+            TiqueteTemporada temporadaLeida = (TiqueteTemporada) reabierto.buscarPorCodigo(temporada.getCodigo(), _ -> atraccion).orElseThrow();
+            assertEquals(inicio, temporadaLeida.getFechaInicio());
+            assertEquals(fin, temporadaLeida.getFechaFin());
+            assertEquals(CategoriaTiquete.DIAMANTE, temporadaLeida.getCategoria());
+            assertEquals("Beatriz Niño", temporadaLeida.getNombreComprador());
+            EntradaIndividual entradaLeida = (EntradaIndividual) reabierto.buscarPorCodigo(entrada.getCodigo(), _ -> atraccion).orElseThrow();
+            assertEquals(12.5, entradaLeida.getPrecio());
+            assertEquals(atraccion, entradaLeida.getAtraccion());
+            assertTrue(reabierto.buscarPorCodigo("no-existe", _ -> atraccion).isEmpty());
+
+            // Los nombres e ids que no caben en el registro se guardan aparte, sin rechazar la venta
+            String nombreLargo = "María Fernanda de los Ángeles Rodríguez Pérez de la Santísima Trinidad";
+            String idLargo = "cliente-" + "x".repeat(40);
+            Usuario largo = new Cliente("userlargo", "pass", nombreLargo, idLargo, "larga@mail.com", "555-8888",
+                    LocalDate.of(1991, 2, 2), 1.60, 55);
+            ServicioVentaTiquetes servicioReabierto = new ServicioVentaTiquetes(reabierto, _ -> atraccion);
+            TiqueteGeneral deLargo = servicioReabierto.venderTiqueteGeneral(largo, CategoriaTiquete.ORO, 40.0);
+            Tiquete leidoLargo = reabierto.buscarPorCodigo(deLargo.getCodigo(), _ -> atraccion).orElseThrow();
+            assertEquals(nombreLargo, leidoLargo.getNombreComprador());
+            assertEquals(idLargo, leidoLargo.getIdentificacionComprador());
+
+            // Reescribir todo conserva los textos largos y reemplaza el contenido completo
+            List<Tiquete> todos = reabierto.cargarTiquetes(_ -> atraccion);
+            assertEquals(4, todos.size());
+            reabierto.guardarTiquetes(todos.subList(1, 4));
+            assertEquals(3, reabierto.getNumeroRegistros());
+            assertTrue(reabierto.buscarPorCodigo(todos.get(0).getCodigo(), _ -> atraccion).isEmpty());
+            assertEquals(nombreLargo, reabierto.buscarPorCodigo(deLargo.getCodigo(), _ -> atraccion).orElseThrow().getNombreComprador());
+            reabierto.cerrar();
+            TiqueteRepositoryBinario tercero = new TiqueteRepositoryBinario(archivo);
+            assertEquals(3, tercero.cargarTiquetes(_ -> atraccion).size());
+            tercero.cerrar();
+        } finally {
+            java.nio.file.Files.deleteIfExists(datos);
+            java.nio.file.Files.deleteIfExists(indice);
+            java.nio.file.Files.deleteIfExists(java.nio.file.Paths.get(datos + ".textos"));
+        }
+    }
+
+    /**
+     * Prueba funcional: TC_FR3_ALMACEN_BINARIO_SIN_CARGA_24
+     * Verifica que con el almacén binario el servicio no carga los tiquetes al iniciar: el uso de un
+     * tiquete se resuelve con el índice, la primera consulta por comprador carga el resto una sola vez,
+     * y una venta que no espera al disco queda guardada al cerrar.
+     */
+    @Test
+    void almacenBinarioNoCargaLosTiquetesAlIniciar() throws Exception {
+        String archivo = "tiquetes_binario_sin_carga_test.bin";
+        java.nio.file.Path datos = java.nio.file.Paths.get(JsonUtil.getDataFilePath(archivo));
+        java.nio.file.Files.deleteIfExists(datos);
+        java.nio.file.Files.deleteIfExists(java.nio.file.Paths.get(datos + ".idx"));
+        try {
+            Usuario usuario = new Cliente("usersc", "pass", "Sara Cano", "USC01", "sara@mail.com", "555-9999",
+                    LocalDate.of(1992, 5, 5), 1.65, 57);
+            TiqueteRepositoryBinario repo = new TiqueteRepositoryBinario(archivo);
+            ServicioVentaTiquetes servicio = new ServicioVentaTiquetes(repo, _ -> null);
+            TiqueteGeneral general = servicio.venderTiqueteGeneral(usuario, CategoriaTiquete.ORO, 40.0);
+            TiqueteGeneral sinEspera = servicio.venderTiqueteGeneral(usuario, CategoriaTiquete.FAMILIAR, 20.0, Durabilidad.SIN_ESPERA);
+            repo.cerrar();
+
+            int[] cargas = {0};
+            TiqueteRepositoryBinario contado = new TiqueteRepositoryBinario(archivo) {
+                @Override
+                public synchronized List<Tiquete> cargarTiquetes(java.util.function.Function<String, dominio.elementoparque.Atraccion> atraccionResolver,
+                                                                 java.util.function.Function<String, ? extends Usuario> compradorResolver) {
+                    cargas[0]++;
+                    return super.cargarTiquetes(atraccionResolver, compradorResolver);
+                }
+            };
+            ServicioVentaTiquetes reiniciado = new ServicioVentaTiquetes(contado, _ -> null);
+            assertTrue(reiniciado.registrarUsoTiquete(general, Durabilidad.SIN_ESPERA));
+            assertFalse(reiniciado.registrarUsoTiquete(general));
+            assertEquals(0, cargas[0]);
+
+            List<Tiquete> delUsuario = reiniciado.consultarTiquetesPorUsuario("USC01");
+            assertEquals(1, cargas[0]);
+            assertEquals(2, delUsuario.size());
+            assertTrue(delUsuario.stream().filter(t -> t.getCodigo().equals(general.getCodigo())).findFirst().orElseThrow().estaUtilizado());
+            reiniciado.consultarTiquetesPorUsuario("USC01");
+            assertEquals(1, cargas[0]);
+            contado.cerrar();
+
+            TiqueteRepositoryBinario reabierto = new TiqueteRepositoryBinario(archivo);
+            assertTrue(reabierto.buscarPorCodigo(general.getCodigo(), _ -> null).orElseThrow().estaUtilizado());
+            assertTrue(reabierto.buscarPorCodigo(sinEspera.getCodigo(), _ -> null).isPresent());
+            reabierto.cerrar();
+        } finally {
+            java.nio.file.Files.deleteIfExists(datos);
+            java.nio.file.Files.deleteIfExists(java.nio.file.Paths.get(datos + ".idx"));
+            java.nio.file.Files.deleteIfExists(java.nio.file.Paths.get(datos + ".textos"));
+        }
+    }
+
+    /**
+     * Prueba funcional: TC_FR3_USO_TIQUETE_DESCONOCIDO_23
+     * Verifica que el uso de un tiquete que el servicio no tenía registrado sobrevive al reinicio,
+     * tanto en modo journal como en el almacén binario.
+     */
+    @Test
+    void usoDeTiqueteDesconocidoSobreviveAlReinicio() throws Exception {
+        String archivoJournal = "tiquetes_uso_desconocido_test.json";
+        String archivoBinario = "tiquetes_uso_desconocido_test.bin";
+        java.nio.file.Path snapshot = java.nio.file.Paths.get(JsonUtil.getDataFilePath(archivoJournal));
+        java.nio.file.Path journal = java.nio.file.Paths.get(snapshot + ".log");
+        java.nio.file.Path datos = java.nio.file.Paths.get(JsonUtil.getDataFilePath(archivoBinario));
+        java.nio.file.Files.deleteIfExists(snapshot);
+        java.nio.file.Files.deleteIfExists(journal);
+        java.nio.file.Files.deleteIfExists(datos);
+        try {
+            TiqueteRepositoryJson repoJournal = new TiqueteRepositoryJson(archivoJournal, true);
+            ServicioVentaTiquetes servicioJournal = new ServicioVentaTiquetes(repoJournal, _ -> null);
+            TiqueteGeneral externoJournal = new TiqueteGeneral("EXT-J1", LocalDateTime.now(), 10.0, "UEXT", "Externo",
+                    false, CategoriaTiquete.FAMILIAR, null);
+            assertTrue(servicioJournal.registrarUsoTiquete(externoJournal));
+            // Reinicio sin compactar: venta y uso se reaplican desde el journal
+            TiqueteRepositoryJson reabiertoJournal = new TiqueteRepositoryJson(archivoJournal, true);
+            List<Tiquete> recuperados = new ServicioVentaTiquetes(reabiertoJournal, _ -> null).consultarTiquetesPorUsuario("UEXT");
+            assertEquals(List.of("EXT-J1"), recuperados.stream().map(Tiquete::getCodigo).toList());
+            assertTrue(recuperados.get(0).estaUtilizado());
+            reabiertoJournal.cerrar();
+            servicioJournal.cerrar();
+            repoJournal.cerrar();
+
+            TiqueteRepositoryBinario repoBinario = new TiqueteRepositoryBinario(archivoBinario);
+            ServicioVentaTiquetes servicioBinario = new ServicioVentaTiquetes(repoBinario, _ -> null);
+            TiqueteGeneral externoBinario = new TiqueteGeneral("EXT-B1", LocalDateTime.now(), 10.0, "UEXT", "Externo",
+                    false, CategoriaTiquete.FAMILIAR, null);
+            assertTrue(servicioBinario.registrarUsoTiquete(externoBinario));
+            assertFalse(servicioBinario.registrarUsoTiquete(externoBinario));
+            repoBinario.cerrar();
+            TiqueteRepositoryBinario reabiertoBinario = new TiqueteRepositoryBinario(archivoBinario);
+            Tiquete leido = reabiertoBinario.buscarPorCodigo("EXT-B1", _ -> null).orElseThrow();
+            assertTrue(leido.estaUtilizado());
+            reabiertoBinario.cerrar();
+        } finally {
+            java.nio.file.Files.deleteIfExists(snapshot);
+            java.nio.file.Files.deleteIfExists(journal);
+            java.nio.file.Files.deleteIfExists(datos);
+            java.nio.file.Files.deleteIfExists(java.nio.file.Paths.get(datos + ".idx"));
+            java.nio.file.Files.deleteIfExists(java.nio.file.Paths.get(datos + ".textos"));
+        }
+    }
+
+    /**
+     * Prueba funcional: TC_FR3_CONSULTAS_INDEXADAS_21
+     * Verifica que las consultas por comprador, fecha y tipo reflejan ventas y eliminaciones.
+     */
+    @Test
+    void consultasIndexadasReflejanVentasYEliminaciones() {
+        TiqueteRepositoryJson repo = new TiqueteRepositoryJson("tiquetes");
+        ServicioVentaTiquetes servicio = new ServicioVentaTiquetes(repo, _ -> null);
+        String identificacion = "UIDX-" + System.nanoTime();
+        Usuario usuario = new Cliente("useridx", "pass", "Irene Díaz", identificacion, "irene@mail.com", "555-6666",
+                LocalDate.of(1993, 3, 3), 1.66, 58);
+        TiqueteGeneral general = servicio.venderTiqueteGeneral(usuario, CategoriaTiquete.FAMILIAR, 20.0);
+        FastPass fastPass = servicio.venderFastPass(usuario, LocalDateTime.now().plusDays(1), 10.0);
+
+        List<Tiquete> delUsuario = servicio.consultarTiquetesPorUsuario(identificacion);
+        assertEquals(2, delUsuario.size());
+        assertTrue(servicio.consultarTiquetesPorFecha(LocalDate.now()).contains(general));
+        assertTrue(servicio.consultarTiquetesPorTipo(FastPass.class).contains(fastPass));
+        assertTrue(servicio.consultarTiquetesPorTipo(Tiquete.class).containsAll(delUsuario));
+        assertFalse(servicio.consultarTiquetesPorTipo(TiqueteGeneral.class).contains(fastPass));
+
+        servicio.eliminarTiquetesPorUsuario(identificacion);
+        assertTrue(servicio.consultarTiquetesPorUsuario(identificacion).isEmpty());
+        assertFalse(servicio.consultarTiquetesPorFecha(LocalDate.now()).contains(general));
+        assertFalse(servicio.consultarTiquetesPorTipo(FastPass.class).contains(fastPass));
+    }
+
+    /**
+     * Prueba funcional: TC_FR3_COMPRADOR_COMPARTIDO_22
+     * Verifica que los tiquetes cargados de un mismo comprador resuelven su comprador en el primer
+     * acceso y comparten la misma instancia de Usuario, con sus datos reales.
+     */
+    @Test
+    void tiquetesCargadosCompartenCompradorResueltoAlAcceder() throws Exception {
+        String archivo = "tiquetes_comprador_test.json";
+        java.nio.file.Path snapshot = java.nio.file.Paths.get(JsonUtil.getDataFilePath(archivo));
+        java.nio.file.Files.deleteIfExists(snapshot);
+        try {
+            Cliente registrado = new Cliente("userc", "pass", "Carla Mejía", "UCOMP", "carla@mail.com", "555-1212",
+                    LocalDate.of(1995, 5, 5), 1.52, 48);
+            registrado.agregarCondicionMedica("Vértigo");
+            ServicioVentaTiquetes servicio = new ServicioVentaTiquetes(new TiqueteRepositoryJson(archivo), _ -> null);
+            servicio.venderTiqueteGeneral(registrado, CategoriaTiquete.ORO, 30.0);
+            servicio.venderFastPass(registrado, LocalDateTime.now().plusDays(1), 12.0);
+
+            java.util.concurrent.atomic.AtomicInteger consultas = new java.util.concurrent.atomic.AtomicInteger();
+            ServicioVentaTiquetes recargado = new ServicioVentaTiquetes(new TiqueteRepositoryJson(archivo), _ -> null,
+                    id -> {
+                        consultas.incrementAndGet();
+                        return "UCOMP".equals(id) ? registrado : null;
+                    });
+            assertEquals(0, consultas.get());
+
+            List<Tiquete> tiquetes = recargado.consultarTiquetesPorUsuario("UCOMP");
+            assertEquals(2, tiquetes.size());
+            assertSame(registrado, tiquetes.get(0).getComprador());
+            assertSame(tiquetes.get(0).getComprador(), tiquetes.get(1).getComprador());
+            // Cada tiquete consulta al resolutor una sola vez
+            assertEquals(2, consultas.get());
+            Cliente comprador = (Cliente) tiquetes.get(1).getComprador();
+            assertEquals(1.52, comprador.getAltura(), 0.001);
+            assertTrue(comprador.getCondicionesMedicas().contains("Vértigo"));
+        } finally {
+            java.nio.file.Files.deleteIfExists(snapshot);
+        }
+    }
 }
@@ -0,0 +1,190 @@
+package aplicacion;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import dominio.elementoparque.*;
+import dominio.empleado.Capacitacion;
+import dominio.util.CondicionClimatica;
+import dominio.util.RangoFechaHora;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+class TableroOperativoTest {
+
+    // Repositorio en memoria mínimo para probar el tablero a través del servicio
+    private static class RepositorioEnMemoria implements ElementoParqueRepository {
+        private final Map<String, ElementoParque> elementos = new LinkedHashMap<>();
+
+        @Override public synchronized Atraccion save(Atraccion atraccion) { elementos.put(atraccion.getId(), atraccion); return atraccion; }
+        @Override public synchronized Espectaculo save(Espectaculo espectaculo) { elementos.put(espectaculo.getId(), espectaculo); return espectaculo; }
+        @Override public synchronized Optional<ElementoParque> findById(String id) { return Optional.ofNullable(elementos.get(id)); }
+        @Override public Optional<Atraccion> findAtraccionById(String id) { return findById(id).filter(e -> e instanceof Atraccion).map(e -> (Atraccion) e); }
+        @Override public Optional<Espectaculo> findEspectaculoById(String id) { return findById(id).filter(e -> e instanceof Espectaculo).map(e -> (Espectaculo) e); }
+        @Override public Optional<ElementoParque> findByNombre(String nombre) { return findAll().stream().filter(e -> e.getNombre().equals(nombre)).findFirst(); }
+        @Override public Optional<Atraccion> findAtraccionByNombre(String nombre) { return findByNombre(nombre).filter(e -> e instanceof Atraccion).map(e -> (Atraccion) e); }
+        @Override public Optional<Espectaculo> findEspectaculoByNombre(String nombre) { return findByNombre(nombre).filter(e -> e instanceof Espectaculo).map(e -> (Espectaculo) e); }
+        @Override public synchronized List<ElementoParque> findAll() { return new ArrayList<>(elementos.values()); }
+        @Override public List<Atraccion> findAllAtracciones() { return findAll().stream().filter(e -> e instanceof Atraccion).map(e -> (Atraccion) e).toList(); }
+        @Override public List<AtraccionMecanica> findAllMecanicas() { return findAll().stream().filter(e -> e instanceof AtraccionMecanica).map(e -> (AtraccionMecanica) e).toList(); }
+        @Override public List<AtraccionCultural> findAllCulturales() { return findAll().stream().filter(e -> e instanceof AtraccionCultural).map(e -> (AtraccionCultural) e).toList(); }
+        @Override public List<Espectaculo> findAllEspectaculos() { return findAll().stream().filter(e -> e instanceof Espectaculo).map(e -> (Espectaculo) e).toList(); }
+        @Override public synchronized void deleteById(String id) { elementos.remove(id); }
+    }
+
+    private AtraccionMecanica mecanica(String id, List<CondicionClimatica> climaNoPermitido) {
+        return new AtraccionMecanica(id, "Atracción " + id, "Zona T", 10, 1, NivelExclusividad.FAMILIAR, NivelRiesgo.MEDIO,
+                1.0, 2.0, 30, 120, List.of(), List.of(), climaNoPermitido, Capacitacion.OPERACION_ATRACCION_RIESGO_MEDIO);
+    }
+
+    /**
+     * Prueba funcional: TC_TABLERO_CAMBIO_CLIMA_01
+     * Verifica que al cambiar el clima el conjunto activo corresponde al nuevo clima y que los
+     * suscriptores solo reciben los elementos cuyo estado cambió.
+     */
+    @Test
+    void cambioDeClimaNotificaSoloLosElementosAfectados() {
+        AtraccionMecanica sensibleTormenta = mecanica("T1", List.of(CondicionClimatica.TORMENTA));
+        AtraccionMecanica sensibleViento = mecanica("T2", List.of(CondicionClimatica.TORMENTA, CondicionClimatica.VIENTO_FUERTE));
+        AtraccionMecanica resistente = mecanica("T3", List.of());
+        TableroOperativo tablero = new TableroOperativo(List.of(sensibleTormenta, sensibleViento, resistente), CondicionClimatica.NORMAL);
+        List<String> eventos = new ArrayList<>();
+        tablero.suscribir((anterior, actual, habilitados, deshabilitados) ->
+                eventos.add(anterior + "->" + actual + " +" + habilitados.size() + " -" + deshabilitados.size()));
+
+        assertEquals(3, tablero.getElementosOperables().size());
+        tablero.cambiarClima(CondicionClimatica.VIENTO_FUERTE);
+        assertFalse(tablero.puedeOperar("T2"));
+        assertTrue(tablero.puedeOperar("T1"));
+        tablero.cambiarClima(CondicionClimatica.TORMENTA);
+        assertEquals(java.util.Set.of(resistente), tablero.getElementosOperables());
+        tablero.cambiarClima(CondicionClimatica.TORMENTA); // Sin cambio: no notifica
+        tablero.cambiarClima(CondicionClimatica.NORMAL);
+
+        assertEquals(List.of("NORMAL->VIENTO_FUERTE +0 -1", "VIENTO_FUERTE->TORMENTA +0 -1", "TORMENTA->NORMAL +2 -0"), eventos);
+    }
+
+    /**
+     * Prueba funcional: TC_TABLERO_ACTUALIZAR_ELEMENTO_02
+     * Verifica que actualizar o quitar un elemento recalcula su estado y notifica solo si cambia
+     * bajo el clima vigente.
+     */
+    @Test
+    void actualizarElementoRecalculaSuEstado() {
+        AtraccionMecanica atraccion = mecanica("U1", List.of());
+        TableroOperativo tablero = new TableroOperativo(List.of(atraccion), CondicionClimatica.LLUVIA_FUERTE);
+        List<ElementoParque> deshabilitados = new ArrayList<>();
+        tablero.suscribir((anterior, actual, habilitados, quitados) -> deshabilitados.addAll(quitados));
+
+        atraccion.setClimaNoPermitido(List.of(CondicionClimatica.LLUVIA_FUERTE));
+        tablero.actualizarElemento(atraccion);
+        assertFalse(tablero.puedeOperar("U1"));
+        assertEquals(List.of(atraccion), deshabilitados);
+        assertTrue(tablero.getElementosOperables(CondicionClimatica.NORMAL).contains(atraccion));
+
+        tablero.quitarElemento("U1"); // Ya no operaba: no hay nueva notificación
+        assertEquals(1, deshabilitados.size());
+        assertFalse(tablero.puedeOperar("U1"));
+    }
+
+    /**
+     * Prueba funcional: TC_TABLERO_ACTUALIZACION_INCREMENTAL_03
+     * Verifica que actualizar un elemento solo lo evalúa a él y que las transiciones de los climas que
+     * no tocó se siguen reutilizando.
+     */
+    @Test
+    void actualizarElementoSoloEvaluaEseElemento() {
+        int[] evaluaciones = new int[1];
+        AtraccionMecanica contada = new AtraccionMecanica("I1", "Atracción I1", "Zona T", 10, 1, NivelExclusividad.FAMILIAR,
+                NivelRiesgo.MEDIO, 1.0, 2.0, 30, 120, List.of(), List.of(), List.of(CondicionClimatica.TORMENTA),
+                Capacitacion.OPERACION_ATRACCION_RIESGO_MEDIO) {
+            @Override
+            public boolean puedeOperarEnClima(CondicionClimatica clima) {
+                evaluaciones[0]++;
+                return super.puedeOperarEnClima(clima);
+            }
+        };
+        AtraccionMecanica cambiante = mecanica("I2", List.of());
+        TableroOperativo tablero = new TableroOperativo(List.of(contada, cambiante), CondicionClimatica.NORMAL);
+        tablero.cambiarClima(CondicionClimatica.TORMENTA);
+        tablero.cambiarClima(CondicionClimatica.NORMAL);
+        evaluaciones[0] = 0;
+
+        cambiante.setClimaNoPermitido(List.of(CondicionClimatica.VIENTO_FUERTE));
+        tablero.actualizarElemento(cambiante);
+        assertEquals(0, evaluaciones[0]);
+        assertFalse(tablero.getElementosOperables(CondicionClimatica.VIENTO_FUERTE).contains(cambiante));
+
+        List<String> eventos = new ArrayList<>();
+        tablero.suscribir((anterior, actual, habilitados, deshabilitados) ->
+                eventos.add(anterior + "->" + actual + " +" + habilitados.size() + " -" + deshabilitados.size()));
+        tablero.cambiarClima(CondicionClimatica.TORMENTA);
+        assertEquals(List.of("NORMAL->TORMENTA +0 -1"), eventos);
+        assertEquals(0, evaluaciones[0]);
+    }
+
+    /**
+     * Prueba funcional: TC_TABLERO_SERVICIO_04
+     * Verifica que el servicio de elementos mantiene el tablero al día con las altas, actualizaciones
+     * y eliminaciones, y que los cambios de clima llegan a los suscriptores en orden.
+     */
+    @Test
+    void servicioMantieneElTablero() {
+        ServicioGestionElementosParque servicio = new ServicioGestionElementosParque(new RepositorioEnMemoria());
+        AtraccionMecanica atraccion = servicio.crearAtraccionMecanica("S1", "Atracción S1", "Zona T", 10, 1,
+                NivelExclusividad.FAMILIAR, NivelRiesgo.MEDIO, 1.0, 2.0, 30, 120, List.of(), List.of(),
+                List.of(CondicionClimatica.TORMENTA), Capacitacion.OPERACION_ATRACCION_RIESGO_MEDIO);
+        TableroOperativo tablero = servicio.consultarTableroOperativo();
+        List<String> eventos = new ArrayList<>();
+        tablero.suscribir((anterior, actual, habilitados, deshabilitados) -> {
+            habilitados.forEach(e -> eventos.add(actual + " +" + e.getId()));
+            deshabilitados.forEach(e -> eventos.add(actual + " -" + e.getId()));
+        });
+
+        servicio.crearEspectaculo("S2", "Show S2", "Zona T", 50, "Show", List.of(new RangoFechaHora(
+                LocalDateTime.of(2025, 7, 1, 15, 0), LocalDateTime.of(2025, 7, 1, 16, 0))), List.of());
+        servicio.cambiarClima(CondicionClimatica.TORMENTA);
+        atraccion.setClimaNoPermitido(List.of());
+        servicio.actualizarAtraccion(atraccion);
+        servicio.eliminarElemento("S2");
+
+        assertEquals(List.of("NORMAL +S2", "TORMENTA -S1", "TORMENTA +S1", "TORMENTA -S2"), eventos);
+        assertSame(tablero, servicio.consultarTableroOperativo());
+        assertTrue(tablero.puedeOperar("S1"));
+        assertFalse(tablero.puedeOperar("S2"));
+    }
+
+    /**
+     * Prueba funcional: TC_TABLERO_SIN_CANDADOS_05
+     * Verifica que los suscriptores se notifican sin el monitor del servicio ni el candado del tablero:
+     * un suscriptor que espera a otro hilo que usa el servicio y el tablero no se bloquea.
+     */
+    @Test
+    void suscriptorPuedeEsperarAOtroHiloQueUsaElServicio() throws Exception {
+        ServicioGestionElementosParque servicio = new ServicioGestionElementosParque(new RepositorioEnMemoria());
+        TableroOperativo tablero = servicio.consultarTableroOperativo();
+        List<String> vistos = new ArrayList<>();
+        tablero.suscribir((anterior, actual, habilitados, deshabilitados) -> {
+            Thread consulta = new Thread(() -> {
+                servicio.consultarTableroOperativo();
+                tablero.getElementosOperables(CondicionClimatica.TORMENTA);
+                vistos.add(habilitados.get(0).getId());
+            });
+            consulta.start();
+            try {
+                consulta.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        servicio.crearAtraccionMecanica("B1", "Atracción B1", "Zona T", 10, 1,
+                NivelExclusividad.FAMILIAR, NivelRiesgo.MEDIO, 1.0, 2.0, 30, 120, List.of(), List.of(),
+                List.of(), Capacitacion.OPERACION_ATRACCION_RIESGO_MEDIO);
+        assertEquals(List.of("B1"), vistos);
+    }
+}
@@ -0,0 +1,59 @@
+package dominio.empleado;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import dominio.elementoparque.AtraccionMecanica;
+import dominio.elementoparque.NivelExclusividad;
+import dominio.elementoparque.NivelRiesgo;
+import java.util.List;
+import java.util.Set;
+
+class IndiceCapacitacionesTest {
+    @Test
+    void testMascaras() {
+        long m = Capacitacion.mascaraDe(Capacitacion.MANEJO_CAJA, Capacitacion.PRIMEROS_AUXILIOS);
+        assertEquals(Set.of(Capacitacion.MANEJO_CAJA, Capacitacion.PRIMEROS_AUXILIOS), Capacitacion.desdeMascara(m));
+        assertEquals(0L, Capacitacion.mascaraDe((List<Capacitacion>) null));
+
+        Empleado emp = new ServicioGeneral("IC-0", "Ana", "ana@mail.com", "555", "ana", "pass");
+        emp.agregarCapacitacion(Capacitacion.MANEJO_CAJA);
+        assertFalse(emp.cumpleCapacitaciones(m));
+        emp.agregarCapacitacion(Capacitacion.PRIMEROS_AUXILIOS);
+        assertTrue(emp.cumpleCapacitaciones(m));
+        assertTrue(emp.cumpleCapacitaciones(0L));
+    }
+
+    @Test
+    void testConsultaPorPerfil() {
+        Cajero cajero = new Cajero("IC-1", "Carlos", "c@mail.com", "555", "c", "pass", 1, "Caja");
+        OperarioAtraccion operario = new OperarioAtraccion("IC-2", "Mario", "m@mail.com", "555", "m", "pass", true, List.of());
+        operario.agregarCapacitacion(Capacitacion.PRIMEROS_AUXILIOS);
+        ServicioGeneral general = new ServicioGeneral("IC-3", "Sofia", "s@mail.com", "555", "s", "pass");
+        IndiceCapacitaciones indice = new IndiceCapacitaciones(List.of(cajero, operario, general));
+
+        assertEquals(3, indice.empleadosCon(0L).size());
+        assertEquals(List.of(cajero), indice.empleadosCon(Capacitacion.MANEJO_CAJA.getMascara()));
+
+        AtraccionMecanica rueda = new AtraccionMecanica("IC-M", "Rueda", "Zona C", 15, 1, NivelExclusividad.FAMILIAR,
+                NivelRiesgo.MEDIO, 1.0, 2.0, 20, 100, List.of(), List.of(), List.of(), Capacitacion.OPERACION_ATRACCION_RIESGO_MEDIO);
+        long requerida = rueda.getMascaraCapacitacionesRequeridas();
+        assertEquals(Capacitacion.mascaraDe(rueda.getCapacitacionesRequeridas()), requerida);
+        assertEquals(0, indice.contarCon(requerida));
+
+        // Al actualizar, el empleado pasa al nuevo perfil y deja el anterior
+        for (Capacitacion c : rueda.getCapacitacionesRequeridas()) {
+            operario.agregarCapacitacion(c);
+        }
+        indice.actualizar(operario);
+        assertEquals(List.of(operario), indice.empleadosCon(requerida));
+        assertTrue(rueda.puedeAsignarEmpleado(operario));
+        assertEquals(3, indice.tamano());
+        assertEquals(3, indice.perfilesDistintos());
+
+        assertTrue(indice.quitar("IC-2"));
+        assertFalse(indice.quitar("IC-2"));
+        assertTrue(indice.empleadosCon(requerida).isEmpty());
+        assertEquals(2, indice.perfilesDistintos());
+    }
+}
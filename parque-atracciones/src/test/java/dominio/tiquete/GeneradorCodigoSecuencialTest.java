@@ -0,0 +1,83 @@
+package dominio.tiquete;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+class GeneradorCodigoSecuencialTest {
+
+    @Test
+    void testCodigosCrecientesYReversibles() {
+        GeneradorCodigoSecuencial generador = new GeneradorCodigoSecuencial(5);
+        long anterior = -1;
+        String textoAnterior = "";
+        for (int i = 0; i < 10_000; i++) {
+            long codigo = generador.generarCodigoBinario();
+            assertTrue(codigo > anterior);
+            assertEquals(5, GeneradorCodigoSecuencial.nodoDe(codigo));
+
+            String texto = CodigoTiquete.aTexto(codigo);
+            assertEquals(CodigoTiquete.LONGITUD_COMPACTO, texto.length());
+            assertTrue(CodigoTiquete.esCompacto(texto));
+            assertEquals(codigo, CodigoTiquete.aBinario(texto));
+            assertEquals(codigo, CodigoTiquete.aBinario(texto.toLowerCase()));
+            // Ancho fijo: el orden del texto coincide con el orden numérico
+            assertTrue(texto.compareTo(textoAnterior) > 0);
+            anterior = codigo;
+            textoAnterior = texto;
+        }
+        long ahora = System.currentTimeMillis();
+        long instante = GeneradorCodigoSecuencial.instanteDe(anterior).toEpochMilli();
+        assertTrue(Math.abs(ahora - instante) < 60_000);
+    }
+
+    @Test
+    void testCodigosUnicosEntreHilosYNodos() throws Exception {
+        Set<String> codigos = ConcurrentHashMap.newKeySet();
+        GeneradorCodigoSecuencial nodoA = new GeneradorCodigoSecuencial(1);
+        GeneradorCodigoSecuencial nodoB = new GeneradorCodigoSecuencial(2);
+        List<Thread> hilos = new ArrayList<>();
+        for (int h = 0; h < 8; h++) {
+            GeneradorCodigoSecuencial generador = h % 2 == 0 ? nodoA : nodoB;
+            hilos.add(new Thread(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    codigos.add(generador.generarCodigo());
+                }
+            }));
+        }
+        for (Thread hilo : hilos) hilo.start();
+        for (Thread hilo : hilos) hilo.join();
+        assertEquals(8 * 20_000, codigos.size());
+    }
+
+    @Test
+    void testCodigosUuidNoSonCompactos() {
+        String uuid = new GeneradorCodigoUUID().generarCodigo();
+        assertEquals(36, uuid.length());
+        assertFalse(CodigoTiquete.esCompacto(uuid));
+        assertThrows(IllegalArgumentException.class, () -> CodigoTiquete.aBinario(uuid));
+        assertFalse(CodigoTiquete.esCompacto("UUUUUUUUUUUUU"));
+        assertThrows(IllegalArgumentException.class, () -> new GeneradorCodigoSecuencial(GeneradorCodigoSecuencial.NODO_MAXIMO + 1));
+    }
+
+    @Test
+    void testNodoAsignadoSeConservaEntreArranques() throws Exception {
+        java.nio.file.Path directorio = java.nio.file.Files.createTempDirectory("nodo-tiquetes");
+        java.nio.file.Path archivo = directorio.resolve("nodo.txt");
+        try {
+            int asignado = GeneradorCodigoSecuencial.desdeConfiguracion(archivo).getNodo();
+            assertEquals(Integer.toString(asignado), java.nio.file.Files.readString(archivo));
+            assertEquals(asignado, GeneradorCodigoSecuencial.desdeConfiguracion(archivo).getNodo());
+
+            java.nio.file.Files.writeString(archivo, "x");
+            assertThrows(IllegalArgumentException.class, () -> GeneradorCodigoSecuencial.desdeConfiguracion(archivo));
+        } finally {
+            java.nio.file.Files.deleteIfExists(archivo);
+            java.nio.file.Files.deleteIfExists(directorio);
+        }
+    }
+}
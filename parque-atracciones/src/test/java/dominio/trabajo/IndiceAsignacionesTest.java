@@ -0,0 +1,158 @@
+package dominio.trabajo;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import dominio.empleado.Cajero;
+import dominio.empleado.Empleado;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+class IndiceAsignacionesTest {
+
+    @Test
+    void consultasPorIndiceCoincidenConFiltrado() {
+        IndiceAsignaciones indice = new IndiceAsignaciones();
+        List<AsignacionTurno> todas = new ArrayList<>();
+        List<Empleado> empleados = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            empleados.add(new Cajero("IA" + i, "Cajero " + i, "c" + i + "@parque.com", "555", "c" + i, "pass", 1, "T"));
+        }
+        Taquilla norte = new Taquilla("Norte", 1);
+        Taquilla sur = new Taquilla("Sur", 1);
+        LocalDate inicio = LocalDate.of(2026, 6, 1);
+        for (int d = 0; d < 10; d++) {
+            for (Empleado e : empleados) {
+                for (Turno t : Turno.values()) {
+                    LugarTrabajo lugar = (d + t.ordinal()) % 2 == 0 ? norte : sur;
+                    AsignacionTurno a = new AsignacionTurno(AsignacionTurno.generarIdUnico(), e, lugar, inicio.plusDays(d), t);
+                    assertTrue(indice.agregar(a));
+                    todas.add(a);
+                }
+            }
+        }
+        assertEquals(todas.size(), indice.tamano());
+
+        LocalDate fecha = inicio.plusDays(3);
+        assertEquals(todas.stream().filter(a -> a.getFecha().equals(fecha)).toList(), indice.porFecha(fecha));
+        assertEquals(todas.stream().filter(a -> a.getFecha().equals(fecha) && a.getTurno() == Turno.CIERRE).toList(),
+                indice.porFechaYTurno(fecha, Turno.CIERRE));
+        assertEquals(todas.stream().filter(a -> a.getFecha().equals(fecha) && a.getEmpleado().getIdentificacion().equals("IA2")).toList(),
+                indice.porEmpleadoYFecha("IA2", fecha));
+        assertEquals(todas.stream().filter(a -> a.getFecha().equals(fecha) && a.getTurno() == Turno.APERTURA
+                        && a.getLugarTrabajo() == sur).toList(),
+                indice.porLugarFechaYTurno(sur, fecha, Turno.APERTURA));
+        assertEquals(todas, indice.todas());
+
+        AsignacionTurno quitada = indice.porLugarFechaYTurno(sur, fecha, Turno.APERTURA).get(0);
+        assertTrue(indice.quitar(quitada));
+        assertFalse(indice.quitar(quitada));
+        assertFalse(indice.contiene(quitada));
+        assertFalse(indice.porEmpleadoYFecha(quitada.getEmpleado().getIdentificacion(), fecha).contains(quitada));
+        assertFalse(indice.tieneAsignacionEnTurno(quitada.getEmpleado().getIdentificacion(), fecha, Turno.APERTURA));
+        assertEquals(todas.size() - 1, indice.tamano());
+        assertTrue(indice.porFecha(inicio.minusDays(1)).isEmpty());
+        assertTrue(indice.porFecha(null).isEmpty());
+    }
+
+    @Test
+    void asignacionesIgualesConcurrentesSeAgreganUnaSolaVez() throws Exception {
+        IndiceAsignaciones indice = new IndiceAsignaciones();
+        Empleado cajero = new Cajero("IA-C", "Cajero", "c@parque.com", "555", "c", "pass", 1, "T");
+        Taquilla taquilla = new Taquilla("Centro", 1);
+        LocalDate fecha = LocalDate.of(2026, 7, 1);
+        int hilos = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(hilos);
+        CountDownLatch salida = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> resultados = new ArrayList<>();
+            for (int h = 0; h < hilos; h++) {
+                resultados.add(pool.submit(() -> {
+                    salida.await();
+                    int agregadas = 0;
+                    for (int d = 0; d < 200; d++) {
+                        AsignacionTurno a = new AsignacionTurno(AsignacionTurno.generarIdUnico(), cajero, taquilla,
+                                fecha.plusDays(d), Turno.APERTURA);
+                        if (indice.agregar(a)) {
+                            agregadas++;
+                        }
+                    }
+                    return agregadas;
+                }));
+            }
+            salida.countDown();
+            int total = 0;
+            for (Future<Integer> r : resultados) {
+                total += r.get();
+            }
+            assertEquals(200, total);
+            assertEquals(200, indice.tamano());
+            for (int d = 0; d < 200; d++) {
+                assertEquals(1, indice.porLugarFechaYTurno(taquilla, fecha.plusDays(d), Turno.APERTURA).size());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void agregarYExtraerConcurrentesDejanLosIndicesCoherentes() throws Exception {
+        IndiceAsignaciones indice = new IndiceAsignaciones();
+        Empleado cajero = new Cajero("IA-X", "Cajero", "x@parque.com", "555", "x", "pass", 1, "T");
+        Taquilla taquilla = new Taquilla("Este", 1);
+        LocalDate fecha = LocalDate.of(2026, 8, 1);
+        int dias = 2;
+        int hilos = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(hilos);
+        CountDownLatch salida = new CountDownLatch(1);
+        try {
+            List<Future<?>> resultados = new ArrayList<>();
+            for (int h = 0; h < hilos; h++) {
+                boolean agrega = h % 2 == 0;
+                resultados.add(pool.submit(() -> {
+                    salida.await();
+                    for (int i = 0; i < 20000; i++) {
+                        AsignacionTurno a = new AsignacionTurno(AsignacionTurno.generarIdUnico(), cajero, taquilla,
+                                fecha.plusDays(i % dias), Turno.CIERRE);
+                        if (agrega) {
+                            indice.agregar(a);
+                        } else {
+                            indice.extraer(a);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            salida.countDown();
+            for (Future<?> r : resultados) {
+                r.get();
+            }
+            // Cada asignación visible en las consultas sigue siendo extraíble y el tamaño cuadra
+            int visibles = 0;
+            for (int d = 0; d < dias; d++) {
+                List<AsignacionTurno> enLugar = indice.porLugarFechaYTurno(taquilla, fecha.plusDays(d), Turno.CIERRE);
+                assertTrue(enLugar.size() <= 1);
+                assertEquals(enLugar, indice.porFecha(fecha.plusDays(d)));
+                assertEquals(enLugar, indice.porEmpleadoYFecha("IA-X", fecha.plusDays(d)));
+                visibles += enLugar.size();
+            }
+            assertEquals(visibles, indice.tamano());
+            for (int d = 0; d < dias; d++) {
+                AsignacionTurno a = new AsignacionTurno(AsignacionTurno.generarIdUnico(), cajero, taquilla,
+                        fecha.plusDays(d), Turno.CIERRE);
+                boolean estaba = indice.contiene(a);
+                assertEquals(estaba, indice.extraer(a) != null);
+                assertTrue(indice.porFecha(fecha.plusDays(d)).isEmpty());
+            }
+            assertEquals(0, indice.tamano());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package dominio.util;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+class ArbolIntervalosTest {
+
+    @Test
+    void consultasCoincidenConRecorridoCompleto() {
+        Random random = new Random(17);
+        ArbolIntervalos<Integer, Integer> arbol = new ArbolIntervalos<>();
+        List<int[]> vigentes = new ArrayList<>(); // {inicio, fin, valor, id}
+        for (int i = 0; i < 2000; i++) {
+            if (!vigentes.isEmpty() && random.nextInt(3) == 0) {
+                int[] quitado = vigentes.remove(random.nextInt(vigentes.size()));
+                assertTrue(arbol.eliminar(quitado[0], quitado[3]));
+                assertFalse(arbol.eliminar(quitado[0], quitado[3]));
+            } else {
+                int inicio = random.nextInt(500);
+                int fin = inicio + random.nextInt(40);
+                vigentes.add(new int[]{inicio, fin, i, (int) arbol.insertar(inicio, fin, i)});
+            }
+            assertEquals(vigentes.size(), arbol.tamano());
+
+            int desde = random.nextInt(520);
+            int hasta = desde + random.nextInt(30);
+            List<Integer> esperadoPunto = new ArrayList<>();
+            List<Integer> esperadoRango = new ArrayList<>();
+            List<Integer> esperadoInicio = new ArrayList<>();
+            for (int[] v : vigentes) {
+                if (v[0] <= desde && desde <= v[1]) esperadoPunto.add(v[2]);
+                if (v[0] <= hasta && desde <= v[1]) esperadoRango.add(v[2]);
+                if (desde <= v[0] && v[0] <= hasta) esperadoInicio.add(v[2]);
+            }
+            List<Integer> punto = new ArrayList<>();
+            List<Integer> rango = new ArrayList<>();
+            List<Integer> inicios = new ArrayList<>();
+            arbol.intervalosQueContienen(desde, punto::add);
+            arbol.intervalosQueSeSuperponen(desde, hasta, rango::add);
+            arbol.intervalosQueInicianEntre(desde, hasta, inicios::add);
+            assertEquals(esperadoPunto.stream().sorted().toList(), punto.stream().sorted().toList());
+            assertEquals(esperadoRango.stream().sorted().toList(), rango.stream().sorted().toList());
+            assertEquals(esperadoInicio.stream().sorted().toList(), inicios.stream().sorted().toList());
+        }
+    }
+
+    @Test
+    void rechazaIntervalosInvertidos() {
+        ArbolIntervalos<Integer, String> arbol = new ArbolIntervalos<>();
+        assertThrows(IllegalArgumentException.class, () -> arbol.insertar(5, 4, "x"));
+        assertEquals(0, arbol.tamano());
+    }
+}